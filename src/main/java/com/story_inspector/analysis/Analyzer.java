@@ -46,4 +46,12 @@ public interface Analyzer<T extends AnalyzerType<T>> extends Describable {
 	 * @return The {@link AnalyzerSpec} used to create this analyzer. Must not be null
 	 */
 	public AnalyzerSpec<T> extractAnalyzerSpec();
+
+	/**
+	 * Returns the {@link AnalyzerFingerprint} of the {@link AnalyzerSpec} used to create this analyzer. Must not be null. Unlike
+	 * {@link #extractAnalyzerSpec()}, this must be cheap to call, as it is used to hash, compare and order {@link Comment}s.
+	 *
+	 * @return The {@link AnalyzerFingerprint} of the {@link AnalyzerSpec} used to create this analyzer. Must not be null.
+	 */
+	public AnalyzerFingerprint getFingerprint();
 }
@@ -0,0 +1,215 @@
+package com.story_inspector.analysis;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * An immutable, canonical identity for an {@link AnalyzerSpec} (and the {@link Analyzer} created from it). Computed once and then used for hashing,
+ * equality and ordering so that those operations do not need to rebuild or traverse the spec.
+ *
+ * Consists of a canonical byte encoding of the spec's name, description, comment recording suppression and parameter values (parameters sorted by id,
+ * set-like values sorted by element) along with a stable 64 bit hash of that encoding. Two fingerprints are equal if and only if they were computed
+ * for the same {@link AnalyzerType} instance and have equal canonical bytes. Since analyzer types are required to be singletons, this matches
+ * {@link AnalyzerSpec} equality.
+ *
+ * @author mizitch
+ *
+ */
+public final class AnalyzerFingerprint implements Comparable<AnalyzerFingerprint> {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private static final byte NULL_TAG = 0;
+	private static final byte MAP_TAG = 1;
+	private static final byte LIST_TAG = 2;
+	private static final byte SET_TAG = 3;
+	private static final byte ENUM_TAG = 4;
+	private static final byte OBJECT_TAG = 5;
+
+	private final AnalyzerType<?> analyzerType;
+	private final byte[] canonicalBytes;
+	private final long hash;
+
+	private AnalyzerFingerprint(final AnalyzerType<?> analyzerType, final byte[] canonicalBytes) {
+		this.analyzerType = analyzerType;
+		this.canonicalBytes = canonicalBytes;
+		this.hash = fnv1a(canonicalBytes);
+	}
+
+	/**
+	 * Computes the fingerprint of the provided {@link AnalyzerSpec}.
+	 *
+	 * @param spec
+	 *            The spec to fingerprint.
+	 * @return The fingerprint of the provided spec.
+	 */
+	public static AnalyzerFingerprint of(final AnalyzerSpec<?> spec) {
+		Validate.notNull(spec);
+		return of(spec.getName(), spec.getDescription(), spec.getAnalyzerType(), spec.isCommentRecordingSuppressed(),
+				spec.getAnalyzerParameterValues());
+	}
+
+	/**
+	 * Computes the fingerprint of an {@link AnalyzerSpec} with the provided data.
+	 *
+	 * @see AnalyzerSpec#AnalyzerSpec(String, String, AnalyzerType, boolean, Map)
+	 */
+	static AnalyzerFingerprint of(final String name, final String description, final AnalyzerType<?> analyzerType,
+			final boolean commentRecordingSuppressed, final Map<String, Object> analyzerParameterValues) {
+		Validate.notNull(analyzerType);
+		Validate.notNull(analyzerParameterValues);
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final DataOutputStream out = new DataOutputStream(bytes)) {
+			writeString(out, analyzerType.getClass().getName());
+			writeString(out, name);
+			writeString(out, description);
+			out.writeBoolean(commentRecordingSuppressed);
+			writeValue(out, analyzerParameterValues);
+		} catch (final IOException e) {
+			// Only writing to memory, should not be possible
+			throw new UncheckedIOException(e);
+		}
+		return new AnalyzerFingerprint(analyzerType, bytes.toByteArray());
+	}
+
+	/**
+	 * Returns a stable 64 bit hash of the canonical encoding of the fingerprinted spec. The value does not depend on the JVM instance, so it may be
+	 * used as a persistent key.
+	 *
+	 * @return A stable 64 bit hash of the canonical encoding of the fingerprinted spec.
+	 */
+	public long getHash() {
+		return this.hash;
+	}
+
+	@Override
+	public boolean equals(final Object other) {
+		if (this == other)
+			return true;
+		if (!(other instanceof AnalyzerFingerprint))
+			return false;
+		final AnalyzerFingerprint otherFingerprint = (AnalyzerFingerprint) other;
+		return this.hash == otherFingerprint.hash && this.analyzerType == otherFingerprint.analyzerType
+				&& Arrays.equals(this.canonicalBytes, otherFingerprint.canonicalBytes);
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (this.hash ^ (this.hash >>> 32));
+	}
+
+	/**
+	 * Orders fingerprints by hash, then canonical bytes. The order is arbitrary but consistent with {@link #equals(Object)}.
+	 */
+	@Override
+	public int compareTo(final AnalyzerFingerprint other) {
+		if (this == other)
+			return 0;
+		int comparison = Long.compare(this.hash, other.hash);
+		if (comparison == 0)
+			comparison = compareBytes(this.canonicalBytes, other.canonicalBytes);
+		if (comparison == 0 && this.analyzerType != other.analyzerType)
+			comparison = Integer.compare(System.identityHashCode(this.analyzerType), System.identityHashCode(other.analyzerType));
+		return comparison;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("AnalyzerFingerprint[%016x]", this.hash);
+	}
+
+	private static void writeValue(final DataOutputStream out, final Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(NULL_TAG);
+		} else if (value instanceof Map) {
+			out.writeByte(MAP_TAG);
+			final List<byte[]> entries = new ArrayList<>();
+			for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				final ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+				try (final DataOutputStream entryOut = new DataOutputStream(entryBytes)) {
+					writeValue(entryOut, entry.getKey());
+					writeValue(entryOut, entry.getValue());
+				}
+				entries.add(entryBytes.toByteArray());
+			}
+			writeSorted(out, entries);
+		} else if (value instanceof List) {
+			out.writeByte(LIST_TAG);
+			final List<?> list = (List<?>) value;
+			out.writeInt(list.size());
+			for (final Object element : list)
+				writeValue(out, element);
+		} else if (value instanceof Set) {
+			out.writeByte(SET_TAG);
+			final List<byte[]> elements = new ArrayList<>();
+			for (final Object element : (Collection<?>) value)
+				elements.add(encode(element));
+			writeSorted(out, elements);
+		} else if (value instanceof Enum) {
+			out.writeByte(ENUM_TAG);
+			writeString(out, ((Enum<?>) value).getDeclaringClass().getName());
+			writeString(out, ((Enum<?>) value).name());
+		} else {
+			out.writeByte(OBJECT_TAG);
+			writeString(out, value.getClass().getName());
+			writeString(out, value.toString());
+		}
+	}
+
+	private static byte[] encode(final Object value) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final DataOutputStream out = new DataOutputStream(bytes)) {
+			writeValue(out, value);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void writeSorted(final DataOutputStream out, final List<byte[]> encodedElements) throws IOException {
+		encodedElements.sort(AnalyzerFingerprint::compareBytes);
+		out.writeInt(encodedElements.size());
+		for (final byte[] encodedElement : encodedElements)
+			out.write(encodedElement);
+	}
+
+	private static void writeString(final DataOutputStream out, final String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+		} else {
+			final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static int compareBytes(final byte[] first, final byte[] second) {
+		final int length = Math.min(first.length, second.length);
+		for (int i = 0; i < length; ++i) {
+			final int comparison = Integer.compare(first[i] & 0xff, second[i] & 0xff);
+			if (comparison != 0)
+				return comparison;
+		}
+		return Integer.compare(first.length, second.length);
+	}
+
+	private static long fnv1a(final byte[] bytes) {
+		long hash = FNV_OFFSET_BASIS;
+		for (final byte b : bytes) {
+			hash ^= b & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+}
@@ -1,12 +1,16 @@
 package com.story_inspector.analysis;
 
+import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.lang.Validate;
 
+import com.story_inspector.analysis.comments.CommentStore;
+import com.story_inspector.analysis.comments.InMemoryCommentStore;
 import com.story_inspector.analysis.summary.AnalyzerSummaryComponent;
 import com.story_inspector.analysis.summary.ReportSummaryWriter;
 import com.story_inspector.story.Story;
@@ -14,12 +18,14 @@ import com.story_inspector.story.Story;
 /**
  * The results of executing an {@link Analyzer} on a {@link Story}. Contains a collection of {@link Comment}s and an {@link AnalyzerSummary}.
  *
+ * Comments are held in a {@link CommentStore}, which may keep them outside of memory. Call {@link #releaseComments()} once they are no longer needed.
+ *
  * @author mizitch
  *
  */
 public class AnalyzerResult<T extends AnalyzerType<T>> {
 	private final Analyzer<T> analyzer;
-	private final Collection<Comment> comments;
+	private final CommentStore comments;
 	private final List<AnalyzerSummaryComponent> summaryComponents;
 
 	/**
@@ -33,20 +39,47 @@ public class AnalyzerResult<T extends AnalyzerType<T>> {
 	 *            The summary produced by the {@link AnalyzerSummary}
 	 */
 	public AnalyzerResult(final Analyzer<T> analyzer, final Collection<Comment> comments, final List<AnalyzerSummaryComponent> summaryComponents) {
+		this(analyzer, createInMemoryStore(analyzer, comments), summaryComponents);
+	}
+
+	/**
+	 * Creates a new instance given the {@link Analyzer}, the {@link CommentStore} holding the {@link Comment}s it produced and the
+	 * {@link AnalyzerSummary} it produced. The result takes ownership of the store.
+	 *
+	 * @param analyzer
+	 *            The {@link Analyzer} that was executed.
+	 * @param comments
+	 *            The store holding the comments produced by the {@link Analyzer}. No more comments may be added to it.
+	 * @param summary
+	 *            The summary produced by the {@link AnalyzerSummary}
+	 * @return The new instance.
+	 */
+	public static <T extends AnalyzerType<T>> AnalyzerResult<T> fromCommentStore(final Analyzer<T> analyzer, final CommentStore comments,
+			final List<AnalyzerSummaryComponent> summaryComponents) {
+		Validate.notNull(comments);
+		return new AnalyzerResult<>(analyzer, comments, summaryComponents);
+	}
+
+	private AnalyzerResult(final Analyzer<T> analyzer, final CommentStore comments, final List<AnalyzerSummaryComponent> summaryComponents) {
 		super();
 		Validate.notNull(analyzer);
-		Validate.noNullElements(comments);
 		Validate.noNullElements(summaryComponents);
-		Validate.isTrue(analyzer.getAnalyzerType().producesComments() || comments.isEmpty(),
+		Validate.isTrue(analyzer.getAnalyzerType().producesComments() || comments.size() == 0,
 				"Analyzer type " + analyzer.getAnalyzerType() + " produced comments when it advertises that it does not.");
 
 		// TODO: defensive clone of analyzer necessary? probably not?
 
 		this.analyzer = analyzer;
-		this.comments = new ArrayList<Comment>(comments);
+		this.comments = comments;
 		this.summaryComponents = new ArrayList<>(summaryComponents);
 	}
 
+	private static CommentStore createInMemoryStore(final Analyzer<?> analyzer, final Collection<Comment> comments) {
+		Validate.notNull(analyzer);
+		Validate.noNullElements(comments);
+		return new InMemoryCommentStore(analyzer, comments);
+	}
+
 	/**
 	 * Returns the {@link Analyzer} that was executed.
 	 *
@@ -57,7 +90,8 @@ public class AnalyzerResult<T extends AnalyzerType<T>> {
 	}
 
 	/**
-	 * Returns the comments generated.
+	 * Returns the comments generated. The returned collection is an unmodifiable view of the underlying {@link CommentStore}, so comments may be read
+	 * back lazily as it is iterated over.
 	 *
 	 * @return The comments generated.
 	 */
@@ -65,7 +99,36 @@ public class AnalyzerResult<T extends AnalyzerType<T>> {
 		if (this.analyzer.isCommentRecordingSuppressed())
 			return Collections.emptyList();
 		else
-			return Collections.unmodifiableCollection(this.comments);
+			return Collections.unmodifiableCollection(new AbstractCollection<Comment>() {
+				@Override
+				public Iterator<Comment> iterator() {
+					return AnalyzerResult.this.comments.iterator();
+				}
+
+				@Override
+				public int size() {
+					return AnalyzerResult.this.comments.size();
+				}
+			});
+	}
+
+	/**
+	 * Returns an iterator over the comments generated, in their natural (offset) order. See {@link Comment#compareTo(Comment)}.
+	 *
+	 * @return An iterator over the comments generated, in their natural (offset) order.
+	 */
+	public Iterator<Comment> getSortedComments() {
+		if (this.analyzer.isCommentRecordingSuppressed())
+			return Collections.emptyIterator();
+		else
+			return this.comments.sortedIterator();
+	}
+
+	/**
+	 * Releases the comments generated, along with any resources held to store them. Comments can no longer be retrieved afterwards.
+	 */
+	public void releaseComments() {
+		this.comments.close();
 	}
 
 	/**
@@ -5,10 +5,9 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.commons.lang.Validate;
-import org.apache.commons.lang.builder.HashCodeBuilder;
-import org.apache.commons.lang3.builder.EqualsBuilder;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -25,6 +24,7 @@ public class AnalyzerSpec<T extends AnalyzerType<T>> extends BaseDescribable {
 	private final T analyzerType;
 	private final Map<String, Object> analyzerParameterValues;
 	private final boolean commentRecordingSuppressed;
+	private final AnalyzerFingerprint fingerprint;
 
 	/**
 	 * Creates a new instance. Requires all data necessary to create an {@link Analyzer}.
@@ -51,6 +51,7 @@ public class AnalyzerSpec<T extends AnalyzerType<T>> extends BaseDescribable {
 		this.analyzerType = analyzerType;
 		this.commentRecordingSuppressed = commentRecordingSuppressed;
 		this.analyzerParameterValues = new HashMap<>(analyzerParameterValues);
+		this.fingerprint = AnalyzerFingerprint.of(name, description, analyzerType, commentRecordingSuppressed, this.analyzerParameterValues);
 	}
 
 	/**
@@ -94,23 +95,28 @@ public class AnalyzerSpec<T extends AnalyzerType<T>> extends BaseDescribable {
 		return spec.getParameterType().cast(this.analyzerParameterValues.get(spec.getId()));
 	}
 
+	/**
+	 * Returns the {@link AnalyzerFingerprint} of this spec, computed once at construction. Equal specs have equal fingerprints.
+	 *
+	 * @return The {@link AnalyzerFingerprint} of this spec.
+	 */
+	@JsonIgnore
+	public AnalyzerFingerprint getFingerprint() {
+		return this.fingerprint;
+	}
+
 	@Override
 	public boolean equals(final Object other) {
 		if (!(other instanceof AnalyzerSpec))
 			return false;
 		final AnalyzerSpec<?> otherSpec = (AnalyzerSpec<?>) other;
 
-		// Since AnalyzerTypes are required to be singletons, checking for equality here should be fine, even if they don't have a custom equals
-		// method
-		return new EqualsBuilder().appendSuper(super.equals(otherSpec)).append(this.analyzerType, otherSpec.analyzerType)
-				.append(this.analyzerParameterValues, otherSpec.analyzerParameterValues)
-				.append(this.commentRecordingSuppressed, otherSpec.commentRecordingSuppressed).isEquals();
+		// The fingerprint covers the name, description, analyzer type, parameter values and comment recording suppression
+		return this.fingerprint.equals(otherSpec.fingerprint);
 	}
 
 	@Override
 	public int hashCode() {
-		// Since AnalyzerTypes are required to be singletons, using their hashcode here should be reliable.
-		return new HashCodeBuilder().appendSuper(super.hashCode()).append(this.analyzerType).append(this.analyzerParameterValues)
-				.append(this.commentRecordingSuppressed).toHashCode();
+		return this.fingerprint.hashCode();
 	}
 }
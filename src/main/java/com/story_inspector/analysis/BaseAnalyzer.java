@@ -2,7 +2,8 @@ package com.story_inspector.analysis;
 
 import java.util.Map;
 
-import org.apache.commons.lang3.builder.HashCodeBuilder;
+import com.story_inspector.analysis.comments.CommentStore;
+import com.story_inspector.analysis.comments.SpillingCommentStore;
 
 /**
  * Provides a basic implementation of {@link Analyzer}
@@ -15,6 +16,7 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 public abstract class BaseAnalyzer<T extends AnalyzerType<T>> extends BaseDescribable implements Analyzer<T> {
 	private final T analyzerType;
 	private final boolean commentRecordingSuppressed;
+	private final AnalyzerFingerprint fingerprint;
 
 	/**
 	 * Creates a new {@link BaseAnalyzer} using the provided {@link AnalyzerSpec}.
@@ -27,6 +29,7 @@ public abstract class BaseAnalyzer<T extends AnalyzerType<T>> extends BaseDescri
 
 		this.analyzerType = spec.getAnalyzerType();
 		this.commentRecordingSuppressed = spec.isCommentRecordingSuppressed();
+		this.fingerprint = spec.getFingerprint();
 	}
 
 	@Override
@@ -39,12 +42,28 @@ public abstract class BaseAnalyzer<T extends AnalyzerType<T>> extends BaseDescri
 		return this.commentRecordingSuppressed;
 	}
 
+	@Override
+	public AnalyzerFingerprint getFingerprint() {
+		return this.fingerprint;
+	}
+
 	@Override
 	public AnalyzerSpec<T> extractAnalyzerSpec() {
 		final Map<String, Object> parameterValues = retrieveParameterValues();
 		return new AnalyzerSpec<T>(getName(), getDescription(), this.analyzerType, this.commentRecordingSuppressed, parameterValues);
 	}
 
+	/**
+	 * Creates a {@link CommentStore} for this {@link Analyzer} to push its {@link Comment}s into during execution. The default implementation
+	 * spills to disk once a memory budget is reached, so analyzers that may produce very many comments should use it instead of collecting them in
+	 * memory.
+	 *
+	 * @return A new, empty {@link CommentStore}.
+	 */
+	protected CommentStore createCommentStore() {
+		return new SpillingCommentStore(this);
+	}
+
 	/**
 	 * Returns the parameter values used to create this {@link Analyzer}. Must be implemented by subclasses of {@link BaseAnalyzer} to support the
 	 * recreation of the original {@link AnalyzerSpec} used to create this {@link Analyzer}.
@@ -55,7 +74,7 @@ public abstract class BaseAnalyzer<T extends AnalyzerType<T>> extends BaseDescri
 	protected abstract Map<String, Object> retrieveParameterValues();
 
 	/**
-	 * Checks for equality by checking for equality of associated {@link AnalyzerSpec}s.
+	 * Checks for equality by checking for equality of the {@link AnalyzerFingerprint}s of the associated {@link AnalyzerSpec}s.
 	 *
 	 * @param other
 	 *            The object with which to compare.
@@ -64,19 +83,19 @@ public abstract class BaseAnalyzer<T extends AnalyzerType<T>> extends BaseDescri
 	public boolean equals(final Object other) {
 		if (other instanceof BaseAnalyzer<?>) {
 			final BaseAnalyzer<?> otherAnalyzer = (BaseAnalyzer<?>) other;
-			return this.extractAnalyzerSpec().equals(otherAnalyzer.extractAnalyzerSpec());
+			return this.fingerprint.equals(otherAnalyzer.fingerprint);
 		} else {
 			return false;
 		}
 	}
 
 	/**
-	 * Determines a hash code using the hash code of this {@link Analyzer}'s {@link AnalyzerSpec}.
+	 * Determines a hash code using the {@link AnalyzerFingerprint} of this {@link Analyzer}'s {@link AnalyzerSpec}.
 	 *
-	 * @return A hash code based on the hash code of the associated {@link AnalyzerSpec}.
+	 * @return A hash code based on the {@link AnalyzerFingerprint} of the associated {@link AnalyzerSpec}.
 	 */
 	@Override
 	public int hashCode() {
-		return new HashCodeBuilder().append(extractAnalyzerSpec()).toHashCode();
+		return this.fingerprint.hashCode();
 	}
 }
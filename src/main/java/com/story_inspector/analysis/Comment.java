@@ -68,8 +68,8 @@ public class Comment implements Comparable<Comment> {
 
 	@Override
 	public int compareTo(final Comment other) {
-		return new CompareToBuilder().append(this.selection, other.selection).append(this.analyzer, other.analyzer)
-				.append(this.content, other.content).toComparison();
+		return new CompareToBuilder().append(this.selection, other.selection)
+				.append(this.analyzer.getFingerprint(), other.analyzer.getFingerprint()).append(this.content, other.content).toComparison();
 	}
 
 	@Override
@@ -83,6 +83,6 @@ public class Comment implements Comparable<Comment> {
 
 	@Override
 	public int hashCode() {
-		return new HashCodeBuilder().append(this.selection).append(this.content).append(this.analyzer.extractAnalyzerSpec()).toHashCode();
+		return new HashCodeBuilder().append(this.selection).append(this.content).append(this.analyzer.getFingerprint()).toHashCode();
 	}
 }
@@ -0,0 +1,187 @@
+package com.story_inspector.analysis.analyzers;
+
+import static com.story_inspector.analysis.ParameterValidator.concatenateValidators;
+import static com.story_inspector.analysis.ParameterValidator.createValidator;
+import static com.story_inspector.analysis.ParameterValidator.notNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.springframework.stereotype.Component;
+
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.AnalyzerSpec;
+import com.story_inspector.analysis.AnalyzerType;
+import com.story_inspector.analysis.BaseAnalyzer;
+import com.story_inspector.analysis.BaseAnalyzerType;
+import com.story_inspector.analysis.ParameterSpec;
+import com.story_inspector.analysis.comments.CommentStore;
+import com.story_inspector.analysis.features.DialoguePrefixSums;
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
+import com.story_inspector.analysis.features.StoryFeatures;
+import com.story_inspector.analysis.summary.AnalyzerSummaryComponent;
+import com.story_inspector.analysis.summary.HeatMapSummaryComponent;
+import com.story_inspector.analysis.summary.KeyValueListSummaryComponent;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.TextRange;
+import com.story_inspector.story.Token;
+
+/**
+ * {@link AnalyzerType} which reports how much of each chapter and scene is dialogue, and finds long stretches of narration with little or no
+ * dialogue.
+ *
+ * All ratios, including those of every sliding window, are answered in constant time from {@link DialoguePrefixSums}, so the analysis costs one
+ * linear pass over the story regardless of the window size.
+ *
+ * @author mizitch
+ *
+ */
+@Component
+public class DialogueRatioAnalyzerType extends BaseAnalyzerType<DialogueRatioAnalyzerType> {
+
+	private static final String name = "Dialogue Ratio Analyzer";
+	private static final String description = "Reports the fraction of each chapter and scene that is dialogue and finds long stretches of narration";
+	private static final String id = "DialogueRatioAnalyzer";
+	private static final int version = 1;
+	private static final boolean producesComments = true;
+
+	// @formatter:off
+	private static final ParameterSpec<Integer> windowSizeSpec =
+			new ParameterSpec<>(
+					"windowSize",
+					"Window size",
+					"Minimum number of words in a reported stretch of narration",
+					Integer.class,
+					concatenateValidators(
+							notNull("Window size"),
+							createValidator(
+									s -> s >= 10,
+									"Window size must be at least 10")),
+					300);
+
+	private static final ParameterSpec<Integer> maxDialoguePercentSpec =
+			new ParameterSpec<>(
+					"maxDialoguePercent",
+					"Maximum dialogue percentage",
+					"Highest percentage of dialogue words a window may contain and still count as narration",
+					Integer.class,
+					concatenateValidators(
+							notNull("Maximum dialogue percentage"),
+							createValidator(
+									p -> p >= 0 && p < 100,
+									"Maximum dialogue percentage must be between 0 and 99")),
+					5);
+
+	// @formatter:on
+	private static final List<ParameterSpec<?>> parameterSpecs = Arrays.asList(windowSizeSpec, maxDialoguePercentSpec);
+
+	public DialogueRatioAnalyzerType() {
+		super(name, description, id, version, producesComments, parameterSpecs);
+	}
+
+	private class DialogueRatioAnalyzer extends BaseAnalyzer<DialogueRatioAnalyzerType> {
+		private final int windowSize;
+		private final int maxDialoguePercent;
+
+		private DialogueRatioAnalyzer(final AnalyzerSpec<DialogueRatioAnalyzerType> spec) {
+			super(spec);
+			this.windowSize = spec.getParameterValue(windowSizeSpec);
+			this.maxDialoguePercent = spec.getParameterValue(maxDialoguePercentSpec);
+		}
+
+		@Override
+		public AnalyzerResult<DialogueRatioAnalyzerType> execute(final Story story) {
+			final StoryFeatureRegistry features = StoryFeatureRegistry.forStory(story);
+			final List<Token> tokens = features.get(StoryFeatures.TOKENS);
+			final DialoguePrefixSums sums = features.get(StoryFeatures.DIALOGUE_PREFIX_SUMS);
+
+			final List<ImmutablePair<String, String>> overall = new ArrayList<>();
+			overall.add(ImmutablePair.of("Whole story", describe(sums, 0, tokens.size())));
+
+			final CommentStore comments = createCommentStore();
+			final List<TextRange> stretches = findNarrationStretches(tokens, sums, comments);
+			overall.add(ImmutablePair.of("Long narration stretches", String.valueOf(stretches.size())));
+
+			final List<AnalyzerSummaryComponent> summary = new ArrayList<>();
+			summary.add(new KeyValueListSummaryComponent(overall));
+			summary.add(new KeyValueListSummaryComponent(describeNodes(sums, features.get(StoryFeatures.TOKEN_CHAPTER_INDICES), "Chapter ")));
+			summary.add(new KeyValueListSummaryComponent(describeNodes(sums, features.get(StoryFeatures.TOKEN_SCENE_INDICES), "Scene ")));
+			summary.add(new HeatMapSummaryComponent(story, stretches));
+			return AnalyzerResult.fromCommentStore(this, comments, summary);
+		}
+
+		/**
+		 * Slides a window of the configured number of words over the story, merging overlapping windows with little enough dialogue into stretches.
+		 */
+		private List<TextRange> findNarrationStretches(final List<Token> tokens, final DialoguePrefixSums sums, final CommentStore comments) {
+			final List<TextRange> stretches = new ArrayList<>();
+			// Word range of the current stretch, end exclusive. Empty when there is no current stretch.
+			int stretchStart = 0;
+			int stretchEnd = 0;
+			for (int windowStart = 0; windowStart + this.windowSize <= sums.getNumWords(); ++windowStart) {
+				final int windowEnd = windowStart + this.windowSize;
+				final int fromToken = sums.getWordTokenIndex(windowStart);
+				final int toToken = sums.getWordTokenIndex(windowEnd - 1) + 1;
+				if (100 * sums.getQuotedWordCount(fromToken, toToken) > this.maxDialoguePercent * this.windowSize)
+					continue;
+				if (windowStart >= stretchEnd) {
+					addStretch(tokens, sums, stretchStart, stretchEnd, stretches, comments);
+					stretchStart = windowStart;
+				}
+				stretchEnd = windowEnd;
+			}
+			addStretch(tokens, sums, stretchStart, stretchEnd, stretches, comments);
+			return stretches;
+		}
+
+		private void addStretch(final List<Token> tokens, final DialoguePrefixSums sums, final int startWord, final int endWord,
+				final List<TextRange> stretches, final CommentStore comments) {
+			if (endWord <= startWord)
+				return;
+			final int fromToken = sums.getWordTokenIndex(startWord);
+			final int toToken = sums.getWordTokenIndex(endWord - 1) + 1;
+			final TextRange range = new TextRange(tokens.get(fromToken).getRange().getStartIndex(), tokens.get(toToken - 1).getRange().getEndIndex());
+			comments.add(range, "Long narration: %s", describe(sums, fromToken, toToken));
+			stretches.add(range);
+		}
+
+		/**
+		 * Describes the dialogue ratio of each node, given the index of the node containing each token.
+		 */
+		private List<ImmutablePair<String, String>> describeNodes(final DialoguePrefixSums sums, final int[] tokenNodeIndices, final String label) {
+			final List<ImmutablePair<String, String>> result = new ArrayList<>();
+			int nodeStart = 0;
+			for (int tokenIndex = 1; tokenIndex <= tokenNodeIndices.length; ++tokenIndex) {
+				if (tokenIndex < tokenNodeIndices.length && tokenNodeIndices[tokenIndex] == tokenNodeIndices[nodeStart])
+					continue;
+				if (sums.getWordCount(nodeStart, tokenIndex) > 0)
+					result.add(ImmutablePair.of(label + (tokenNodeIndices[nodeStart] + 1), describe(sums, nodeStart, tokenIndex)));
+				nodeStart = tokenIndex;
+			}
+			return result;
+		}
+
+		private String describe(final DialoguePrefixSums sums, final int fromToken, final int toToken) {
+			return String.format("%.1f%% dialogue (%d of %d words)", 100 * sums.getDialogueRatio(fromToken, toToken),
+					sums.getQuotedWordCount(fromToken, toToken), sums.getWordCount(fromToken, toToken));
+		}
+
+		@Override
+		public Map<String, Object> retrieveParameterValues() {
+			final Map<String, Object> result = new HashMap<>();
+			result.put(windowSizeSpec.getId(), this.windowSize);
+			result.put(maxDialoguePercentSpec.getId(), this.maxDialoguePercent);
+			return result;
+		}
+	}
+
+	@Override
+	protected Analyzer<DialogueRatioAnalyzerType> createAnalyzer(final AnalyzerSpec<DialogueRatioAnalyzerType> spec) {
+		return new DialogueRatioAnalyzer(spec);
+	}
+}
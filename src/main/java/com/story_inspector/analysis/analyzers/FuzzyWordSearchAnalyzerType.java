@@ -0,0 +1,185 @@
+package com.story_inspector.analysis.analyzers;
+
+import static com.story_inspector.analysis.ParameterValidator.concatenateValidators;
+import static com.story_inspector.analysis.ParameterValidator.createValidator;
+import static com.story_inspector.analysis.ParameterValidator.notNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.springframework.stereotype.Component;
+
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.AnalyzerSpec;
+import com.story_inspector.analysis.AnalyzerType;
+import com.story_inspector.analysis.BaseAnalyzer;
+import com.story_inspector.analysis.BaseAnalyzerType;
+import com.story_inspector.analysis.ParameterSpec;
+import com.story_inspector.analysis.comments.CommentStore;
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
+import com.story_inspector.analysis.features.StoryFeatures;
+import com.story_inspector.analysis.features.StoryPostingIndex;
+import com.story_inspector.analysis.features.StoryVocabulary;
+import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.analysis.parameterTypes.HeatMapGranularity;
+import com.story_inspector.analysis.parameterTypes.StringSet;
+import com.story_inspector.analysis.search.DeletionIndex;
+import com.story_inspector.analysis.summary.AnalyzerSummaryComponent;
+import com.story_inspector.analysis.summary.KeyValueListSummaryComponent;
+import com.story_inspector.analysis.summary.SummaryGenerators;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.TextRange;
+import com.story_inspector.story.Token;
+
+/**
+ * {@link AnalyzerType} which searches for words and their variants and misspellings, such as "whispred" for "whispered" or "gray" for "grey".
+ *
+ * Search terms are looked up in a {@link DeletionIndex} over the distinct words of the story, which finds the words within the allowed edit
+ * distance without comparing the term against the whole vocabulary. The matching words are then expanded to their occurrences through the
+ * {@link StoryPostingIndex}, so no token is ever compared against a search term.
+ *
+ * @author mizitch
+ *
+ */
+@Component
+public class FuzzyWordSearchAnalyzerType extends BaseAnalyzerType<FuzzyWordSearchAnalyzerType> {
+
+	private static final String name = "Fuzzy Word Search Analyzer";
+	private static final String description = "Searches for words along with their variant spellings and typos. Short words allow fewer differences: words of up to 3 letters must match exactly and words of up to 7 letters allow at most one difference. Not case-sensitive";
+	private static final String id = "FuzzyWordSearchAnalyzer";
+	private static final int version = 1;
+	private static final boolean producesComments = true;
+
+	// Number of letters a search term needs per allowed edit
+	private static final int LETTERS_PER_EDIT = 4;
+
+	// @formatter:off
+	private static final ParameterSpec<StringSet> searchWordsSpec = new ParameterSpec<>(
+			"searchWords",
+			"Search words",
+			"Words to search for",
+			StringSet.class,
+			concatenateValidators(
+					createValidator(
+							wl -> !wl.isEmpty(),
+							"Search list cannot be empty"),
+					createValidator(
+							wl -> !wl.stream().anyMatch(w -> StringUtils.isBlank(w)),
+							"Blanks not allowed in search list"),
+					createValidator(
+							wl -> wl.stream().noneMatch(w -> StringUtils.containsWhitespace(w.trim())),
+							"Search terms must be single words")));
+
+	private static final ParameterSpec<Integer> maxEditDistanceSpec =
+			new ParameterSpec<>(
+					"maxEditDistance",
+					"Maximum differences",
+					"Largest number of inserted, deleted, replaced or swapped letters for a word to count as a variant",
+					Integer.class,
+					concatenateValidators(
+							notNull("Maximum differences"),
+							createValidator(
+									d -> d >= 1 && d <= StoryFeatures.MAX_FUZZY_EDIT_DISTANCE,
+									"Maximum differences must be between 1 and " + StoryFeatures.MAX_FUZZY_EDIT_DISTANCE)),
+					1);
+
+	private static final ParameterSpec<DialogueSearchPattern> dialogueSearchPatternSpec =
+			new ParameterSpec<>(
+					"dialogueSearchPattern",
+					"Dialogue search pattern",
+					"Whether to search in dialogue, non-dialogue or both",
+					DialogueSearchPattern.class,
+					notNull("Dialogue search pattern"),
+					DialogueSearchPattern.ALL_TEXT);
+
+	private static final ParameterSpec<HeatMapGranularity> heatMapGranularitySpec =
+			new ParameterSpec<>(
+					"heatMapGranularity",
+					"Heat map granularity",
+					"How finely the heat map divides the story",
+					HeatMapGranularity.class,
+					notNull("Heat map granularity"),
+					HeatMapGranularity.STANDARD);
+
+	// @formatter:on
+	private static final List<ParameterSpec<?>> parameterSpecs = Arrays.asList(searchWordsSpec, maxEditDistanceSpec, dialogueSearchPatternSpec,
+			heatMapGranularitySpec);
+
+	public FuzzyWordSearchAnalyzerType() {
+		super(name, description, id, version, producesComments, parameterSpecs);
+	}
+
+	private class FuzzyWordSearchAnalyzer extends BaseAnalyzer<FuzzyWordSearchAnalyzerType> {
+		private final StringSet searchWords;
+		private final int maxEditDistance;
+		private final DialogueSearchPattern dialogueSearchPattern;
+		private final HeatMapGranularity heatMapGranularity;
+
+		private FuzzyWordSearchAnalyzer(final AnalyzerSpec<FuzzyWordSearchAnalyzerType> spec) {
+			super(spec);
+			this.searchWords = spec.getParameterValue(searchWordsSpec);
+			this.maxEditDistance = spec.getParameterValue(maxEditDistanceSpec);
+			this.dialogueSearchPattern = spec.getParameterValue(dialogueSearchPatternSpec);
+			this.heatMapGranularity = spec.getParameterValue(heatMapGranularitySpec);
+		}
+
+		@Override
+		public AnalyzerResult<FuzzyWordSearchAnalyzerType> execute(final Story story) {
+			final StoryFeatureRegistry features = StoryFeatureRegistry.forStory(story);
+			final List<Token> tokens = features.get(StoryFeatures.TOKENS);
+			final StoryVocabulary vocabulary = features.get(StoryFeatures.VOCABULARY);
+			final StoryPostingIndex postingIndex = features.get(StoryFeatures.POSTING_INDEX);
+			final DeletionIndex fuzzyIndex = features.get(StoryFeatures.FUZZY_WORD_INDEX);
+
+			final Map<TextRange, String> matches = new HashMap<>();
+			final List<ImmutablePair<String, String>> variants = new ArrayList<>();
+			for (final String searchWord : this.searchWords) {
+				final String word = searchWord.trim().toLowerCase();
+				final List<String> found = new ArrayList<>();
+				for (final int wordId : fuzzyIndex.find(word, Math.min(this.maxEditDistance, word.length() / LETTERS_PER_EDIT))) {
+					int occurrences = 0;
+					for (final int tokenIndex : postingIndex.getWordPostings(wordId)) {
+						final Token token = tokens.get(tokenIndex);
+						if (this.dialogueSearchPattern.includes(token)) {
+							matches.putIfAbsent(token.getRange(), searchWord);
+							occurrences++;
+						}
+					}
+					if (occurrences > 0)
+						found.add(vocabulary.getWord(wordId) + " (" + occurrences + ")");
+				}
+				variants.add(ImmutablePair.of(searchWord, found.isEmpty() ? "No matches" : String.join(", ", found)));
+			}
+
+			final CommentStore comments = createCommentStore();
+			for (final Map.Entry<TextRange, String> match : matches.entrySet())
+				comments.add(match.getKey(), "Similar to %s", match.getValue());
+
+			final List<AnalyzerSummaryComponent> summary = new ArrayList<>(
+					SummaryGenerators.generateBasicFrequencySummary(story, matches.keySet(), this.heatMapGranularity.getResolution()));
+			summary.add(new KeyValueListSummaryComponent(variants));
+			return AnalyzerResult.fromCommentStore(this, comments, summary);
+		}
+
+		@Override
+		public Map<String, Object> retrieveParameterValues() {
+			final Map<String, Object> result = new HashMap<>();
+			result.put(searchWordsSpec.getId(), this.searchWords);
+			result.put(maxEditDistanceSpec.getId(), this.maxEditDistance);
+			result.put(dialogueSearchPatternSpec.getId(), this.dialogueSearchPattern);
+			result.put(heatMapGranularitySpec.getId(), this.heatMapGranularity);
+			return result;
+		}
+	}
+
+	@Override
+	protected Analyzer<FuzzyWordSearchAnalyzerType> createAnalyzer(final AnalyzerSpec<FuzzyWordSearchAnalyzerType> spec) {
+		return new FuzzyWordSearchAnalyzer(spec);
+	}
+}
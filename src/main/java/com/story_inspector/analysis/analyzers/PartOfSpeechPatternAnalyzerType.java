@@ -0,0 +1,238 @@
+package com.story_inspector.analysis.analyzers;
+
+import static com.story_inspector.analysis.ParameterValidator.concatenateValidators;
+import static com.story_inspector.analysis.ParameterValidator.createValidator;
+import static com.story_inspector.analysis.ParameterValidator.notNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.springframework.stereotype.Component;
+
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.AnalyzerSpec;
+import com.story_inspector.analysis.AnalyzerType;
+import com.story_inspector.analysis.BaseAnalyzer;
+import com.story_inspector.analysis.BaseAnalyzerType;
+import com.story_inspector.analysis.ParameterSpec;
+import com.story_inspector.analysis.comments.CommentStore;
+import com.story_inspector.analysis.features.PartOfSpeechTags;
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
+import com.story_inspector.analysis.features.StoryFeatures;
+import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.analysis.parameterTypes.StringSet;
+import com.story_inspector.analysis.search.SequencePatternAutomaton;
+import com.story_inspector.analysis.summary.AnalyzerSummaryComponent;
+import com.story_inspector.analysis.summary.KeyValueListSummaryComponent;
+import com.story_inspector.analysis.summary.SummaryGenerators;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.TextRange;
+import com.story_inspector.story.Token;
+
+/**
+ * {@link AnalyzerType} which searches for sequences of part of speech tags, such as "VBD/VBZ VBN" (a simple passive construction) or "RB"
+ * (adverbs), and reports how densely they occur in each chapter.
+ *
+ * Patterns are compiled into a {@link SequencePatternAutomaton} over the packed tag ids of {@link PartOfSpeechTags}, so each token costs a byte
+ * lookup and a table transition rather than string comparisons. Chapter densities are computed from prefix sums of the match counts.
+ *
+ * @author mizitch
+ *
+ */
+@Component
+public class PartOfSpeechPatternAnalyzerType extends BaseAnalyzerType<PartOfSpeechPatternAnalyzerType> {
+
+	private static final String name = "Part of Speech Pattern Analyzer";
+	private static final String description = "Searches for sequences of Penn Treebank part of speech tags. Tags in a pattern are separated by spaces or '+', alternatives for one word are separated by '/', and a trailing '*' matches any tag with that prefix. For example 'VBD/VBZ VBN' or 'RB*'";
+	private static final String id = "PartOfSpeechPatternAnalyzer";
+	private static final int version = 1;
+	private static final boolean producesComments = true;
+
+	private static final String ELEMENT_SEPARATOR = "[\\s+]+";
+	private static final String ALTERNATIVE_SEPARATOR = "/";
+
+	// @formatter:off
+	private static final ParameterSpec<StringSet> tagPatternsSpec = new ParameterSpec<>(
+			"tagPatterns",
+			"Tag patterns",
+			"Part of speech tag patterns to search for, such as 'VBD/VBZ VBN' or 'RB'",
+			StringSet.class,
+			concatenateValidators(
+					createValidator(
+							pl -> !pl.isEmpty(),
+							"Pattern list cannot be empty"),
+					createValidator(
+							pl -> !pl.stream().anyMatch(p -> StringUtils.isBlank(p.replace('+', ' '))),
+							"Blanks not allowed in pattern list"),
+					createValidator(
+							pl -> pl.stream().flatMap(p -> Arrays.stream(splitElements(p))).allMatch(PartOfSpeechPatternAnalyzerType::isValidElement),
+							"Tag alternatives must not be empty")));
+
+	private static final ParameterSpec<DialogueSearchPattern> dialogueSearchPatternSpec =
+			new ParameterSpec<>(
+					"dialogueSearchPattern",
+					"Dialogue search pattern",
+					"Whether to search in dialogue, non-dialogue or both",
+					DialogueSearchPattern.class,
+					notNull("Dialogue search pattern"),
+					DialogueSearchPattern.ALL_TEXT);
+
+	// @formatter:on
+	private static final List<ParameterSpec<?>> parameterSpecs = Arrays.asList(tagPatternsSpec, dialogueSearchPatternSpec);
+
+	public PartOfSpeechPatternAnalyzerType() {
+		super(name, description, id, version, producesComments, parameterSpecs);
+	}
+
+	private static String[] splitElements(final String pattern) {
+		return pattern.trim().toUpperCase().split(ELEMENT_SEPARATOR);
+	}
+
+	private static boolean isValidElement(final String element) {
+		return Arrays.stream(element.split(ALTERNATIVE_SEPARATOR, -1)).noneMatch(a -> a.isEmpty() || a.equals("*"));
+	}
+
+	private static boolean elementMatchesTag(final String element, final String tag) {
+		for (final String alternative : element.split(ALTERNATIVE_SEPARATOR)) {
+			if (alternative.endsWith("*") ? tag.startsWith(alternative.substring(0, alternative.length() - 1)) : tag.equals(alternative))
+				return true;
+		}
+		return false;
+	}
+
+	private class PartOfSpeechPatternAnalyzer extends BaseAnalyzer<PartOfSpeechPatternAnalyzerType> {
+		private final StringSet tagPatterns;
+		private final DialogueSearchPattern dialogueSearchPattern;
+
+		private PartOfSpeechPatternAnalyzer(final AnalyzerSpec<PartOfSpeechPatternAnalyzerType> spec) {
+			super(spec);
+			this.tagPatterns = spec.getParameterValue(tagPatternsSpec);
+			this.dialogueSearchPattern = spec.getParameterValue(dialogueSearchPatternSpec);
+		}
+
+		@Override
+		public AnalyzerResult<PartOfSpeechPatternAnalyzerType> execute(final Story story) {
+			final StoryFeatureRegistry features = StoryFeatureRegistry.forStory(story);
+			final List<Token> tokens = features.get(StoryFeatures.TOKENS);
+			final int[] tokenSentenceIndices = features.get(StoryFeatures.TOKEN_SENTENCE_INDICES);
+			final PartOfSpeechTags tags = features.get(StoryFeatures.PART_OF_SPEECH_TAGS);
+
+			// The automaton builds its states lazily, so each execution gets its own
+			final List<String> patterns = new ArrayList<>(this.tagPatterns);
+			final SequencePatternAutomaton automaton = compile(patterns, tags);
+
+			// Matches ending at each token, deduplicated across patterns
+			final Map<TextRange, String> matches = new LinkedHashMap<>();
+			final int[] matchCounts = new int[tokens.size()];
+			final int[] patternCounts = new int[patterns.size()];
+			int state = SequencePatternAutomaton.INITIAL_STATE;
+			for (int tokenIndex = 0; tokenIndex < tokens.size(); ++tokenIndex) {
+				// Matches don't cross sentences, untagged tokens or excluded dialogue
+				if (tokenIndex > 0 && tokenSentenceIndices[tokenIndex] != tokenSentenceIndices[tokenIndex - 1])
+					state = SequencePatternAutomaton.INITIAL_STATE;
+				final int tagId = tags.getTokenTagId(tokenIndex);
+				if (tagId == PartOfSpeechTags.NO_ID || !this.dialogueSearchPattern.includes(tokens.get(tokenIndex))) {
+					state = SequencePatternAutomaton.INITIAL_STATE;
+					continue;
+				}
+				state = automaton.step(state, tagId, tokenIndex, (patternIndex, endIndex) -> {
+					final int startIndex = endIndex - automaton.getPatternLength(patternIndex) + 1;
+					final TextRange range = new TextRange(tokens.get(startIndex).getRange().getStartIndex(), tokens.get(endIndex).getRange().getEndIndex());
+					if (matches.putIfAbsent(range, patterns.get(patternIndex)) == null) {
+						matchCounts[endIndex]++;
+						patternCounts[patternIndex]++;
+					}
+				});
+			}
+
+			final CommentStore comments = createCommentStore();
+			for (final Map.Entry<TextRange, String> match : matches.entrySet())
+				comments.add(match.getKey(), "Matches %s", match.getValue());
+
+			final List<ImmutablePair<String, String>> patternSummary = new ArrayList<>();
+			for (int i = 0; i < patterns.size(); ++i)
+				patternSummary.add(ImmutablePair.of(patterns.get(i), patternCounts[i] + " matches"));
+
+			final List<AnalyzerSummaryComponent> summary = new ArrayList<>(SummaryGenerators.generateBasicFrequencySummary(story, matches.keySet()));
+			summary.add(new KeyValueListSummaryComponent(patternSummary));
+			summary.add(new KeyValueListSummaryComponent(computeChapterDensities(features, matchCounts)));
+			return AnalyzerResult.fromCommentStore(this, comments, summary);
+		}
+
+		/**
+		 * Compiles the patterns into an automaton over the tag ids of the story. Each tag of the story is matched against the pattern elements once.
+		 */
+		private SequencePatternAutomaton compile(final List<String> patterns, final PartOfSpeechTags tags) {
+			final List<String> elements = new ArrayList<>();
+			final Map<String, Integer> elementIds = new HashMap<>();
+			final int[][] patternElements = new int[patterns.size()][];
+			for (int i = 0; i < patterns.size(); ++i) {
+				final String[] parts = splitElements(patterns.get(i));
+				patternElements[i] = new int[parts.length];
+				for (int j = 0; j < parts.length; ++j) {
+					patternElements[i][j] = elementIds.computeIfAbsent(parts[j], e -> {
+						elements.add(e);
+						return elements.size() - 1;
+					});
+				}
+			}
+
+			return new SequencePatternAutomaton(patternElements, tagId -> {
+				final BitSet matching = new BitSet(elements.size());
+				for (int e = 0; e < elements.size(); ++e) {
+					if (elementMatchesTag(elements.get(e), tags.getTag(tagId)))
+						matching.set(e);
+				}
+				return matching;
+			});
+		}
+
+		/**
+		 * Computes the number of matches per thousand words of each chapter, using prefix sums of the matches ending at each token.
+		 */
+		private List<ImmutablePair<String, String>> computeChapterDensities(final StoryFeatureRegistry features, final int[] matchCounts) {
+			final int[] tokenChapterIndices = features.get(StoryFeatures.TOKEN_CHAPTER_INDICES);
+			final int[] chapterWordCounts = features.get(StoryFeatures.CHAPTER_WORD_COUNTS);
+
+			final int[] prefixSums = new int[matchCounts.length + 1];
+			for (int i = 0; i < matchCounts.length; ++i)
+				prefixSums[i + 1] = prefixSums[i] + matchCounts[i];
+
+			final List<ImmutablePair<String, String>> densities = new ArrayList<>();
+			int chapterStart = 0;
+			for (int tokenIndex = 1; tokenIndex <= matchCounts.length; ++tokenIndex) {
+				if (tokenIndex < matchCounts.length && tokenChapterIndices[tokenIndex] == tokenChapterIndices[chapterStart])
+					continue;
+				final int chapterIndex = tokenChapterIndices[chapterStart];
+				if (chapterIndex < chapterWordCounts.length && chapterWordCounts[chapterIndex] > 0) {
+					final int chapterMatches = prefixSums[tokenIndex] - prefixSums[chapterStart];
+					densities.add(ImmutablePair.of("Chapter " + (chapterIndex + 1),
+							String.format("%.1f per 1000 words (%d matches)", 1000.0 * chapterMatches / chapterWordCounts[chapterIndex], chapterMatches)));
+				}
+				chapterStart = tokenIndex;
+			}
+			return densities;
+		}
+
+		@Override
+		public Map<String, Object> retrieveParameterValues() {
+			final Map<String, Object> result = new HashMap<>();
+			result.put(tagPatternsSpec.getId(), this.tagPatterns);
+			result.put(dialogueSearchPatternSpec.getId(), this.dialogueSearchPattern);
+			return result;
+		}
+	}
+
+	@Override
+	protected Analyzer<PartOfSpeechPatternAnalyzerType> createAnalyzer(final AnalyzerSpec<PartOfSpeechPatternAnalyzerType> spec) {
+		return new PartOfSpeechPatternAnalyzer(spec);
+	}
+}
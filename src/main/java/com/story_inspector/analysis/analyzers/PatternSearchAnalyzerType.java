@@ -0,0 +1,145 @@
+package com.story_inspector.analysis.analyzers;
+
+import static com.story_inspector.analysis.ParameterValidator.concatenateValidators;
+import static com.story_inspector.analysis.ParameterValidator.createValidator;
+import static com.story_inspector.analysis.ParameterValidator.notNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.AnalyzerSpec;
+import com.story_inspector.analysis.AnalyzerType;
+import com.story_inspector.analysis.BaseAnalyzer;
+import com.story_inspector.analysis.BaseAnalyzerType;
+import com.story_inspector.analysis.ParameterSpec;
+import com.story_inspector.analysis.comments.CommentStore;
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
+import com.story_inspector.analysis.features.StoryFeatures;
+import com.story_inspector.analysis.features.StoryVocabulary;
+import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.analysis.parameterTypes.StringSet;
+import com.story_inspector.analysis.search.TokenPatternAutomaton;
+import com.story_inspector.analysis.search.TokenSequence;
+import com.story_inspector.analysis.summary.SummaryGenerators;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.TextRange;
+import com.story_inspector.story.Token;
+
+/**
+ * {@link AnalyzerType} which searches for wildcard patterns over words, such as "*ly", "was *ing" or "began to *". All patterns are compiled into a
+ * single {@link TokenPatternAutomaton} and the story is scanned once. Each distinct word of the story is matched against the pattern elements only
+ * once.
+ *
+ * @author mizitch
+ *
+ */
+@Component
+public class PatternSearchAnalyzerType extends BaseAnalyzerType<PatternSearchAnalyzerType> {
+
+	private static final String name = "Pattern Search Analyzer";
+	private static final String description = "Searches for word patterns. Within a pattern, '*' matches any number of characters and '?' matches any single character. Words in a pattern are separated by spaces. Not case-sensitive";
+	private static final String id = "PatternSearchAnalyzer";
+	private static final int version = 1;
+	private static final boolean producesComments = true;
+
+	// @formatter:off
+	private static final ParameterSpec<StringSet> searchPatternsSpec = new ParameterSpec<>(
+			"searchPatterns",
+			"Search patterns",
+			"Patterns to search for, such as '*ly' or 'was *ing'",
+			StringSet.class,
+			concatenateValidators(
+					createValidator(
+							pl -> !pl.isEmpty(),
+							"Pattern list cannot be empty"),
+					createValidator(
+							pl -> !pl.stream().anyMatch(p -> StringUtils.isBlank(p)),
+							"Blanks not allowed in pattern list"),
+					createValidator(
+							pl -> pl.stream().flatMap(p -> Arrays.stream(p.trim().split("\\s+"))).allMatch(PatternSearchAnalyzerType::canMatchWord),
+							"Every word of a pattern must contain a letter, digit or wildcard")));
+
+	private static final ParameterSpec<DialogueSearchPattern> dialogueSearchPatternSpec =
+			new ParameterSpec<>(
+					"dialogueSearchPattern",
+					"Dialogue search pattern",
+					"Whether to search in dialogue, non-dialogue or both",
+					DialogueSearchPattern.class,
+					notNull("Dialogue search pattern"),
+					DialogueSearchPattern.ALL_TEXT);
+
+	// @formatter:on
+	private static final List<ParameterSpec<?>> parameterSpecs = Arrays.asList(searchPatternsSpec, dialogueSearchPatternSpec);
+
+	public PatternSearchAnalyzerType() {
+		super(name, description, id, version, producesComments, parameterSpecs);
+	}
+
+	private static boolean canMatchWord(final String patternElement) {
+		return patternElement.chars().anyMatch(c -> Character.isLetterOrDigit(c) || c == '*' || c == '?');
+	}
+
+	private class PatternSearchAnalyzer extends BaseAnalyzer<PatternSearchAnalyzerType> {
+		private final StringSet searchPatterns;
+		private final DialogueSearchPattern dialogueSearchPattern;
+
+		private PatternSearchAnalyzer(final AnalyzerSpec<PatternSearchAnalyzerType> spec) {
+			super(spec);
+			this.searchPatterns = spec.getParameterValue(searchPatternsSpec);
+			this.dialogueSearchPattern = spec.getParameterValue(dialogueSearchPatternSpec);
+		}
+
+		@Override
+		public AnalyzerResult<PatternSearchAnalyzerType> execute(final Story story) {
+			final StoryFeatureRegistry features = StoryFeatureRegistry.forStory(story);
+			final List<Token> tokens = features.get(StoryFeatures.TOKENS);
+			final StoryVocabulary vocabulary = features.get(StoryFeatures.VOCABULARY);
+
+			// The automaton builds its states lazily, so each execution gets its own
+			final List<String> patterns = new ArrayList<>(this.searchPatterns);
+			final TokenPatternAutomaton automaton = new TokenPatternAutomaton(patterns);
+
+			// Classify each distinct word once
+			final int[] wordClasses = new int[vocabulary.getNumWords()];
+			Arrays.fill(wordClasses, -1);
+			final TokenSequence sequence = new TokenSequence(tokens, 2 * tokens.size() + 1);
+			sequence.appendTokens(0, tokens.size(), features.get(StoryFeatures.TOKEN_SENTENCE_INDICES), this.dialogueSearchPattern, tokenIndex -> {
+				final int wordId = vocabulary.getTokenWordId(tokenIndex);
+				if (wordClasses[wordId] < 0)
+					wordClasses[wordId] = automaton.classify(tokens.get(tokenIndex).getWord());
+				return wordClasses[wordId];
+			});
+
+			final Map<TextRange, String> matches = new HashMap<>();
+			automaton.scan(sequence.getSymbols(), sequence.size(), (patternIndex, endPosition) -> matches
+					.putIfAbsent(sequence.getRange(endPosition - automaton.getPatternLength(patternIndex) + 1, endPosition), patterns.get(patternIndex)));
+
+			final CommentStore comments = createCommentStore();
+			for (final Map.Entry<TextRange, String> match : matches.entrySet())
+				comments.add(match.getKey(), "Matches %s", match.getValue());
+			return AnalyzerResult.fromCommentStore(this, comments,
+					SummaryGenerators.generateBasicFrequencySummary(story, matches.keySet()));
+		}
+
+		@Override
+		public Map<String, Object> retrieveParameterValues() {
+			final Map<String, Object> result = new HashMap<>();
+			result.put(searchPatternsSpec.getId(), this.searchPatterns);
+			result.put(dialogueSearchPatternSpec.getId(), this.dialogueSearchPattern);
+			return result;
+		}
+	}
+
+	@Override
+	protected Analyzer<PatternSearchAnalyzerType> createAnalyzer(final AnalyzerSpec<PatternSearchAnalyzerType> spec) {
+		return new PatternSearchAnalyzer(spec);
+	}
+}
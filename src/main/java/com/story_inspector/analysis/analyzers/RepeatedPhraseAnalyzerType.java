@@ -0,0 +1,272 @@
+package com.story_inspector.analysis.analyzers;
+
+import static com.story_inspector.analysis.ParameterValidator.concatenateValidators;
+import static com.story_inspector.analysis.ParameterValidator.createValidator;
+import static com.story_inspector.analysis.ParameterValidator.notNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.springframework.stereotype.Component;
+
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.AnalyzerSpec;
+import com.story_inspector.analysis.AnalyzerType;
+import com.story_inspector.analysis.BaseAnalyzer;
+import com.story_inspector.analysis.BaseAnalyzerType;
+import com.story_inspector.analysis.ParameterSpec;
+import com.story_inspector.analysis.comments.CommentStore;
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
+import com.story_inspector.analysis.features.StoryFeatures;
+import com.story_inspector.analysis.features.StoryVocabulary;
+import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.analysis.search.LongIntHashMap;
+import com.story_inspector.analysis.search.TokenSequence;
+import com.story_inspector.analysis.summary.AnalyzerSummaryComponent;
+import com.story_inspector.analysis.summary.KeyValueListSummaryComponent;
+import com.story_inspector.analysis.summary.SummaryGenerators;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.TextRange;
+import com.story_inspector.story.Token;
+
+/**
+ * {@link AnalyzerType} which finds phrases (sequences of words, compared by stem) that are repeated throughout a story.
+ *
+ * Computes a Rabin-Karp rolling hash of every phrase of the configured length and counts the hashes in a {@link LongIntHashMap}, so the story is
+ * processed in near linear time. Chapters are hashed in parallel and their counts merged. Only phrases whose hash is repeated often enough are then
+ * compared word by word, so that hash collisions are never reported.
+ *
+ * @author mizitch
+ *
+ */
+@Component
+public class RepeatedPhraseAnalyzerType extends BaseAnalyzerType<RepeatedPhraseAnalyzerType> {
+
+	private static final String name = "Repeated Phrase Analyzer";
+	private static final String description = "Finds phrases that are repeated throughout the story. Words are compared by stem and are not case-sensitive";
+	private static final String id = "RepeatedPhraseAnalyzer";
+	private static final int version = 1;
+	private static final boolean producesComments = true;
+
+	private static final int MIN_PHRASE_LENGTH = 3;
+	private static final int MAX_PHRASE_LENGTH = 8;
+	private static final int MAX_SUMMARY_PHRASES = 20;
+
+	// Multiplier of the polynomial rolling hash, arithmetic is modulo 2^64
+	private static final long HASH_BASE = 0x100000001B3L;
+
+	// @formatter:off
+	private static final ParameterSpec<Integer> phraseLengthSpec =
+			new ParameterSpec<>(
+					"phraseLength",
+					"Phrase length",
+					"Number of words in the phrases to look for, from " + MIN_PHRASE_LENGTH + " to " + MAX_PHRASE_LENGTH,
+					Integer.class,
+					concatenateValidators(
+							notNull("Phrase length"),
+							createValidator(
+									l -> l >= MIN_PHRASE_LENGTH && l <= MAX_PHRASE_LENGTH,
+									"Phrase length must be between " + MIN_PHRASE_LENGTH + " and " + MAX_PHRASE_LENGTH)),
+					4);
+
+	private static final ParameterSpec<Integer> minOccurrencesSpec =
+			new ParameterSpec<>(
+					"minOccurrences",
+					"Minimum occurrences",
+					"Number of times a phrase must occur to be reported",
+					Integer.class,
+					concatenateValidators(
+							notNull("Minimum occurrences"),
+							createValidator(
+									o -> o >= 2,
+									"Minimum occurrences must be at least 2")),
+					2);
+
+	private static final ParameterSpec<DialogueSearchPattern> dialogueSearchPatternSpec =
+			new ParameterSpec<>(
+					"dialogueSearchPattern",
+					"Dialogue search pattern",
+					"Whether to search in dialogue, non-dialogue or both",
+					DialogueSearchPattern.class,
+					notNull("Dialogue search pattern"),
+					DialogueSearchPattern.ALL_TEXT);
+
+	// @formatter:on
+	private static final List<ParameterSpec<?>> parameterSpecs = Arrays.asList(phraseLengthSpec, minOccurrencesSpec, dialogueSearchPatternSpec);
+
+	public RepeatedPhraseAnalyzerType() {
+		super(name, description, id, version, producesComments, parameterSpecs);
+	}
+
+	/**
+	 * The phrase hashes of one chapter.
+	 */
+	private static class Shard {
+		private final TokenSequence sequence;
+		private final long[] hashes;
+		// Position within the sequence of the last word of each hashed phrase
+		private final int[] endPositions;
+		private final int numPhrases;
+		private final LongIntHashMap counts;
+
+		private Shard(final TokenSequence sequence, final long[] hashes, final int[] endPositions, final int numPhrases,
+				final LongIntHashMap counts) {
+			this.sequence = sequence;
+			this.hashes = hashes;
+			this.endPositions = endPositions;
+			this.numPhrases = numPhrases;
+			this.counts = counts;
+		}
+	}
+
+	/**
+	 * The stems of a phrase, used to tell apart phrases whose hashes collide.
+	 */
+	private static class PhraseKey {
+		private final int[] stems;
+
+		private PhraseKey(final int[] stems) {
+			this.stems = stems;
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+			return other instanceof PhraseKey && Arrays.equals(this.stems, ((PhraseKey) other).stems);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(this.stems);
+		}
+	}
+
+	private class RepeatedPhraseAnalyzer extends BaseAnalyzer<RepeatedPhraseAnalyzerType> {
+		private final int phraseLength;
+		private final int minOccurrences;
+		private final DialogueSearchPattern dialogueSearchPattern;
+
+		private RepeatedPhraseAnalyzer(final AnalyzerSpec<RepeatedPhraseAnalyzerType> spec) {
+			super(spec);
+			this.phraseLength = spec.getParameterValue(phraseLengthSpec);
+			this.minOccurrences = spec.getParameterValue(minOccurrencesSpec);
+			this.dialogueSearchPattern = spec.getParameterValue(dialogueSearchPatternSpec);
+		}
+
+		@Override
+		public AnalyzerResult<RepeatedPhraseAnalyzerType> execute(final Story story) {
+			final StoryFeatureRegistry features = StoryFeatureRegistry.forStory(story);
+			final List<Token> tokens = features.get(StoryFeatures.TOKENS);
+			final int[] tokenChapterIndices = features.get(StoryFeatures.TOKEN_CHAPTER_INDICES);
+
+			// Token ranges of the chapters
+			final List<int[]> chapterRanges = new ArrayList<>();
+			int chapterStart = 0;
+			for (int tokenIndex = 1; tokenIndex <= tokens.size(); ++tokenIndex) {
+				if (tokenIndex == tokens.size() || tokenChapterIndices[tokenIndex] != tokenChapterIndices[chapterStart]) {
+					chapterRanges.add(new int[] { chapterStart, tokenIndex });
+					chapterStart = tokenIndex;
+				}
+			}
+
+			final List<Shard> shards = chapterRanges.parallelStream().map(r -> hashShard(features, r[0], r[1])).collect(Collectors.toList());
+			final LongIntHashMap totalCounts = new LongIntHashMap(shards.stream().mapToInt(s -> s.counts.size()).sum());
+			for (final Shard shard : shards)
+				shard.counts.forEach(totalCounts::addTo);
+
+			// Verify candidates word by word, in story order
+			final Map<PhraseKey, List<TextRange>> occurrences = new LinkedHashMap<>();
+			for (final Shard shard : shards) {
+				final int[] symbols = shard.sequence.getSymbols();
+				for (int i = 0; i < shard.numPhrases; ++i) {
+					if (totalCounts.get(shard.hashes[i]) < this.minOccurrences)
+						continue;
+					final int endPosition = shard.endPositions[i];
+					final int startPosition = endPosition - this.phraseLength + 1;
+					final PhraseKey key = new PhraseKey(Arrays.copyOfRange(symbols, startPosition, endPosition + 1));
+					occurrences.computeIfAbsent(key, k -> new ArrayList<>()).add(shard.sequence.getRange(startPosition, endPosition));
+				}
+			}
+			occurrences.values().removeIf(o -> o.size() < this.minOccurrences);
+
+			final CommentStore comments = createCommentStore();
+			final List<TextRange> allRanges = new ArrayList<>();
+			final List<ImmutablePair<String, Integer>> phraseCounts = new ArrayList<>();
+			for (final List<TextRange> ranges : occurrences.values()) {
+				final String phrase = story.getSelection(ranges.get(0)).trim().replaceAll("\\s+", " ");
+				phraseCounts.add(ImmutablePair.of(phrase, ranges.size()));
+				for (final TextRange range : ranges)
+					comments.add(range, "Repeated phrase: %s", "\"" + phrase + "\" (" + ranges.size() + " times)");
+				allRanges.addAll(ranges);
+			}
+
+			final List<AnalyzerSummaryComponent> summary = new ArrayList<>(SummaryGenerators.generateBasicFrequencySummary(story, allRanges));
+			summary.add(new KeyValueListSummaryComponent(phraseCounts.stream().sorted((a, b) -> Integer.compare(b.getRight(), a.getRight()))
+					.limit(MAX_SUMMARY_PHRASES).map(p -> ImmutablePair.of(p.getLeft(), p.getRight() + " times")).collect(Collectors.toList())));
+			return AnalyzerResult.fromCommentStore(this, comments, summary);
+		}
+
+		/**
+		 * Computes the rolling hashes of all phrases within a range of tokens, along with a count of each hash.
+		 */
+		private Shard hashShard(final StoryFeatureRegistry features, final int fromToken, final int toToken) {
+			final StoryVocabulary vocabulary = features.get(StoryFeatures.VOCABULARY);
+			final TokenSequence sequence = new TokenSequence(features.get(StoryFeatures.TOKENS), 2 * (toToken - fromToken) + 1);
+			sequence.appendTokens(fromToken, toToken, features.get(StoryFeatures.TOKEN_SENTENCE_INDICES), this.dialogueSearchPattern,
+					vocabulary::getTokenStemId);
+
+			// Weight of the word leaving the window
+			long leavingWeight = 1;
+			for (int i = 1; i < this.phraseLength; ++i)
+				leavingWeight *= HASH_BASE;
+
+			final int[] symbols = sequence.getSymbols();
+			final long[] hashes = new long[sequence.size()];
+			final int[] endPositions = new int[sequence.size()];
+			final LongIntHashMap counts = new LongIntHashMap(sequence.size());
+			int numPhrases = 0;
+			long hash = 0;
+			int runLength = 0;
+			for (int position = 0; position < sequence.size(); ++position) {
+				if (symbols[position] < 0) {
+					hash = 0;
+					runLength = 0;
+					continue;
+				}
+				if (runLength == this.phraseLength) {
+					hash -= (symbols[position - this.phraseLength] + 1) * leavingWeight;
+					runLength--;
+				}
+				hash = hash * HASH_BASE + symbols[position] + 1;
+				runLength++;
+
+				if (runLength == this.phraseLength) {
+					hashes[numPhrases] = hash;
+					endPositions[numPhrases++] = position;
+					counts.addTo(hash, 1);
+				}
+			}
+			return new Shard(sequence, hashes, endPositions, numPhrases, counts);
+		}
+
+		@Override
+		public Map<String, Object> retrieveParameterValues() {
+			final Map<String, Object> result = new HashMap<>();
+			result.put(phraseLengthSpec.getId(), this.phraseLength);
+			result.put(minOccurrencesSpec.getId(), this.minOccurrences);
+			result.put(dialogueSearchPatternSpec.getId(), this.dialogueSearchPattern);
+			return result;
+		}
+	}
+
+	@Override
+	protected Analyzer<RepeatedPhraseAnalyzerType> createAnalyzer(final AnalyzerSpec<RepeatedPhraseAnalyzerType> spec) {
+		return new RepeatedPhraseAnalyzer(spec);
+	}
+}
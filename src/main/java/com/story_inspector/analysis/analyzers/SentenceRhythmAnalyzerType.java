@@ -0,0 +1,246 @@
+package com.story_inspector.analysis.analyzers;
+
+import static com.story_inspector.analysis.ParameterValidator.concatenateValidators;
+import static com.story_inspector.analysis.ParameterValidator.createValidator;
+import static com.story_inspector.analysis.ParameterValidator.notNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.springframework.stereotype.Component;
+
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.AnalyzerSpec;
+import com.story_inspector.analysis.AnalyzerType;
+import com.story_inspector.analysis.BaseAnalyzer;
+import com.story_inspector.analysis.BaseAnalyzerType;
+import com.story_inspector.analysis.ParameterSpec;
+import com.story_inspector.analysis.comments.CommentStore;
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
+import com.story_inspector.analysis.features.StoryFeatures;
+import com.story_inspector.analysis.statistics.FixedBucketHistogram;
+import com.story_inspector.analysis.statistics.P2QuantileEstimator;
+import com.story_inspector.analysis.statistics.RunningStatistics;
+import com.story_inspector.analysis.summary.AnalyzerSummaryComponent;
+import com.story_inspector.analysis.summary.HeatMapSummaryComponent;
+import com.story_inspector.analysis.summary.KeyValueListSummaryComponent;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.TextRange;
+import com.story_inspector.story.Token;
+
+/**
+ * {@link AnalyzerType} which describes the rhythm of a story's sentences: the distribution of their lengths overall and per chapter, and runs of
+ * consecutive sentences of similar length, which read as monotonous.
+ *
+ * Computes everything in a single streaming pass over the tokens using constant memory accumulators (see {@link RunningStatistics},
+ * {@link P2QuantileEstimator} and {@link FixedBucketHistogram}), without collecting sentence lengths.
+ *
+ * @author mizitch
+ *
+ */
+@Component
+public class SentenceRhythmAnalyzerType extends BaseAnalyzerType<SentenceRhythmAnalyzerType> {
+
+	private static final String name = "Sentence Rhythm Analyzer";
+	private static final String description = "Describes the distribution of sentence lengths and finds runs of sentences of similar length";
+	private static final String id = "SentenceRhythmAnalyzer";
+	private static final int version = 1;
+	private static final boolean producesComments = true;
+
+	private static final int[] histogramBounds = { 5, 10, 20, 30, 40 };
+
+	// @formatter:off
+	private static final ParameterSpec<Integer> minRunLengthSpec =
+			new ParameterSpec<>(
+					"minRunLength",
+					"Minimum run length",
+					"Number of consecutive sentences of similar length needed to report a run",
+					Integer.class,
+					concatenateValidators(
+							notNull("Minimum run length"),
+							createValidator(
+									l -> l >= 2,
+									"Minimum run length must be at least 2")),
+					4);
+
+	private static final ParameterSpec<Integer> lengthToleranceSpec =
+			new ParameterSpec<>(
+					"lengthTolerance",
+					"Length tolerance",
+					"Maximum difference in words between the longest and shortest sentences of a run",
+					Integer.class,
+					concatenateValidators(
+							notNull("Length tolerance"),
+							createValidator(
+									t -> t >= 0,
+									"Length tolerance must not be negative")),
+					2);
+
+	// @formatter:on
+	private static final List<ParameterSpec<?>> parameterSpecs = Arrays.asList(minRunLengthSpec, lengthToleranceSpec);
+
+	public SentenceRhythmAnalyzerType() {
+		super(name, description, id, version, producesComments, parameterSpecs);
+	}
+
+	private class SentenceRhythmAnalyzer extends BaseAnalyzer<SentenceRhythmAnalyzerType> {
+		private final int minRunLength;
+		private final int lengthTolerance;
+
+		private SentenceRhythmAnalyzer(final AnalyzerSpec<SentenceRhythmAnalyzerType> spec) {
+			super(spec);
+			this.minRunLength = spec.getParameterValue(minRunLengthSpec);
+			this.lengthTolerance = spec.getParameterValue(lengthToleranceSpec);
+		}
+
+		@Override
+		public AnalyzerResult<SentenceRhythmAnalyzerType> execute(final Story story) {
+			final StoryFeatureRegistry features = StoryFeatureRegistry.forStory(story);
+			final List<Token> tokens = features.get(StoryFeatures.TOKENS);
+			final int[] tokenSentenceIndices = features.get(StoryFeatures.TOKEN_SENTENCE_INDICES);
+			final int[] tokenChapterIndices = features.get(StoryFeatures.TOKEN_CHAPTER_INDICES);
+
+			final RhythmAccumulator accumulator = new RhythmAccumulator(tokens, createCommentStore());
+			int sentenceStart = 0;
+			int numWords = 0;
+			for (int tokenIndex = 0; tokenIndex < tokens.size(); ++tokenIndex) {
+				if (tokenSentenceIndices[tokenIndex] != tokenSentenceIndices[sentenceStart]) {
+					accumulator.addSentence(sentenceStart, tokenIndex - 1, numWords, tokenChapterIndices[sentenceStart]);
+					sentenceStart = tokenIndex;
+					numWords = 0;
+				}
+				if (tokens.get(tokenIndex).isWord())
+					numWords++;
+			}
+			if (!tokens.isEmpty())
+				accumulator.addSentence(sentenceStart, tokens.size() - 1, numWords, tokenChapterIndices[sentenceStart]);
+
+			return accumulator.finish(story);
+		}
+
+		/**
+		 * Accumulates the statistics of sentences added in story order.
+		 */
+		private class RhythmAccumulator {
+			private final List<Token> tokens;
+			private final CommentStore comments;
+			private final List<TextRange> runRanges = new ArrayList<>();
+
+			private final RunningStatistics statistics = new RunningStatistics();
+			private final P2QuantileEstimator median = new P2QuantileEstimator(0.5);
+			private final P2QuantileEstimator ninetiethPercentile = new P2QuantileEstimator(0.9);
+			private final FixedBucketHistogram histogram = new FixedBucketHistogram(histogramBounds);
+
+			private final List<ImmutablePair<String, String>> chapterPacing = new ArrayList<>();
+			private RunningStatistics chapterStatistics = new RunningStatistics();
+			private int chapterIndex = -1;
+
+			// Current run of sentences of similar length
+			private int runStartToken;
+			private int runEndToken;
+			private int runLength = 0;
+			private int runMin;
+			private int runMax;
+
+			private RhythmAccumulator(final List<Token> tokens, final CommentStore comments) {
+				this.tokens = tokens;
+				this.comments = comments;
+			}
+
+			private void addSentence(final int firstToken, final int lastToken, final int numWords, final int sentenceChapterIndex) {
+				// Sentences without words (such as a lone ellipsis) don't affect rhythm
+				if (numWords == 0)
+					return;
+
+				this.statistics.add(numWords);
+				this.median.add(numWords);
+				this.ninetiethPercentile.add(numWords);
+				this.histogram.add(numWords);
+
+				if (sentenceChapterIndex != this.chapterIndex) {
+					finishChapter();
+					this.chapterIndex = sentenceChapterIndex;
+				}
+				this.chapterStatistics.add(numWords);
+
+				if (this.runLength > 0 && Math.max(this.runMax, numWords) - Math.min(this.runMin, numWords) <= SentenceRhythmAnalyzer.this.lengthTolerance) {
+					this.runEndToken = lastToken;
+					this.runLength++;
+					this.runMin = Math.min(this.runMin, numWords);
+					this.runMax = Math.max(this.runMax, numWords);
+				} else {
+					finishRun();
+					this.runStartToken = firstToken;
+					this.runEndToken = lastToken;
+					this.runLength = 1;
+					this.runMin = numWords;
+					this.runMax = numWords;
+				}
+			}
+
+			private void finishChapter() {
+				if (this.chapterStatistics.getCount() > 0) {
+					this.chapterPacing.add(ImmutablePair.of("Chapter " + (this.chapterIndex + 1),
+							String.format("%.1f words on average, standard deviation %.1f (%d sentences)", this.chapterStatistics.getMean(),
+									this.chapterStatistics.getStandardDeviation(), this.chapterStatistics.getCount())));
+				}
+				this.chapterStatistics = new RunningStatistics();
+			}
+
+			private void finishRun() {
+				if (this.runLength < SentenceRhythmAnalyzer.this.minRunLength)
+					return;
+				final TextRange range = new TextRange(this.tokens.get(this.runStartToken).getRange().getStartIndex(),
+						this.tokens.get(this.runEndToken).getRange().getEndIndex());
+				final String lengths = this.runMin == this.runMax ? String.valueOf(this.runMin) : this.runMin + "-" + this.runMax;
+				this.comments.add(range, "Monotonous rhythm: %s", this.runLength + " consecutive sentences of " + lengths + " words");
+				this.runRanges.add(range);
+			}
+
+			private AnalyzerResult<SentenceRhythmAnalyzerType> finish(final Story story) {
+				finishChapter();
+				finishRun();
+
+				final List<ImmutablePair<String, String>> overall = new ArrayList<>();
+				overall.add(ImmutablePair.of("Sentences", String.valueOf(this.statistics.getCount())));
+				if (this.statistics.getCount() > 0) {
+					overall.add(ImmutablePair.of("Mean length", String.format("%.1f words", this.statistics.getMean())));
+					overall.add(ImmutablePair.of("Standard deviation", String.format("%.1f words", this.statistics.getStandardDeviation())));
+					overall.add(ImmutablePair.of("Shortest", String.format("%.0f words", this.statistics.getMin())));
+					overall.add(ImmutablePair.of("Longest", String.format("%.0f words", this.statistics.getMax())));
+					overall.add(ImmutablePair.of("Median (estimated)", String.format("%.0f words", this.median.getEstimate())));
+					overall.add(ImmutablePair.of("90th percentile (estimated)", String.format("%.0f words", this.ninetiethPercentile.getEstimate())));
+					for (int bucket = 0; bucket < this.histogram.getNumBuckets(); ++bucket) {
+						overall.add(ImmutablePair.of("Sentences of " + this.histogram.describeBucket(bucket) + " words",
+								String.format("%.1f%%", 100.0 * this.histogram.getCount(bucket) / this.histogram.getTotal())));
+					}
+				}
+				overall.add(ImmutablePair.of("Monotonous runs", String.valueOf(this.runRanges.size())));
+
+				final List<AnalyzerSummaryComponent> summary = new ArrayList<>();
+				summary.add(new KeyValueListSummaryComponent(overall));
+				summary.add(new KeyValueListSummaryComponent(this.chapterPacing));
+				summary.add(new HeatMapSummaryComponent(story, this.runRanges));
+				return AnalyzerResult.fromCommentStore(SentenceRhythmAnalyzer.this, this.comments, summary);
+			}
+		}
+
+		@Override
+		public Map<String, Object> retrieveParameterValues() {
+			final Map<String, Object> result = new HashMap<>();
+			result.put(minRunLengthSpec.getId(), this.minRunLength);
+			result.put(lengthToleranceSpec.getId(), this.lengthTolerance);
+			return result;
+		}
+	}
+
+	@Override
+	protected Analyzer<SentenceRhythmAnalyzerType> createAnalyzer(final AnalyzerSpec<SentenceRhythmAnalyzerType> spec) {
+		return new SentenceRhythmAnalyzer(spec);
+	}
+}
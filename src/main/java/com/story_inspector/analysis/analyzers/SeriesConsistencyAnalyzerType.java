@@ -0,0 +1,275 @@
+package com.story_inspector.analysis.analyzers;
+
+import static com.story_inspector.analysis.ParameterValidator.concatenateValidators;
+import static com.story_inspector.analysis.ParameterValidator.createValidator;
+import static com.story_inspector.analysis.ParameterValidator.notNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.springframework.stereotype.Component;
+
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.AnalyzerSpec;
+import com.story_inspector.analysis.AnalyzerType;
+import com.story_inspector.analysis.BaseAnalyzer;
+import com.story_inspector.analysis.BaseAnalyzerType;
+import com.story_inspector.analysis.ParameterSpec;
+import com.story_inspector.analysis.comments.CommentStore;
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
+import com.story_inspector.analysis.features.StoryFeatures;
+import com.story_inspector.analysis.features.StoryPostingIndex;
+import com.story_inspector.analysis.features.StoryVocabulary;
+import com.story_inspector.analysis.search.DeletionIndex;
+import com.story_inspector.analysis.series.BookVocabulary;
+import com.story_inspector.analysis.series.SeriesVocabularyIndex;
+import com.story_inspector.analysis.summary.AnalyzerSummaryComponent;
+import com.story_inspector.analysis.summary.HeatMapSummaryComponent;
+import com.story_inspector.analysis.summary.KeyValueListSummaryComponent;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.TextRange;
+import com.story_inspector.story.Token;
+
+/**
+ * {@link AnalyzerType} which checks the vocabulary of a story against the other books of its series: terms new to the series, terms that look like
+ * spelling variants of terms used elsewhere in the series, and frequent series terms that this book doesn't use.
+ *
+ * The other books are read from a {@link SeriesVocabularyIndex} rather than re-parsed, and their sorted vocabularies are merged and compared with
+ * this story's in linear time. Spelling variants are found with a {@link DeletionIndex} over the series terms. Only if asked to, adds this story to
+ * the index afterwards (writing it to disk), so the index is kept up to date as each book is analyzed.
+ *
+ * @author mizitch
+ *
+ */
+@Component
+public class SeriesConsistencyAnalyzerType extends BaseAnalyzerType<SeriesConsistencyAnalyzerType> {
+
+	private static final String name = "Series Consistency Analyzer";
+	private static final String description = "Compares the vocabulary of the story against the other books of its series, finding new terms, possible spelling variants and terms no longer used. Books are remembered by title on this computer";
+	private static final String id = "SeriesConsistencyAnalyzer";
+	private static final int version = 1;
+	private static final boolean producesComments = true;
+
+	// Terms shorter than this are too likely to be one edit away from unrelated terms to report as variants
+	private static final int MIN_VARIANT_LENGTH = 4;
+	private static final int MAX_SUMMARY_TERMS = 50;
+
+	// @formatter:off
+	private static final ParameterSpec<String> seriesNameSpec =
+			new ParameterSpec<>(
+					"seriesName",
+					"Series name",
+					"Name of the series the story belongs to. Books analyzed with the same series name are compared with each other",
+					String.class,
+					concatenateValidators(
+							notNull("Series name"),
+							createValidator(
+									n -> !StringUtils.isBlank(n),
+									"Series name cannot be blank")),
+					"My Series");
+
+	private static final ParameterSpec<Boolean> updateIndexSpec =
+			new ParameterSpec<>(
+					"updateIndex",
+					"Add to series",
+					"Save this story's vocabulary in the series index on this computer so later books of the series are compared against it. Replaces any earlier version with the same title. Untitled stories are not saved",
+					Boolean.class,
+					notNull("Add to series"),
+					false);
+
+	private static final ParameterSpec<Boolean> namesOnlySpec =
+			new ParameterSpec<>(
+					"namesOnly",
+					"Names only",
+					"Only compare words mostly used as proper nouns, such as the names of characters and places",
+					Boolean.class,
+					notNull("Names only"),
+					true);
+
+	private static final ParameterSpec<Integer> minFrequencySpec =
+			new ParameterSpec<>(
+					"minFrequency",
+					"Minimum frequency",
+					"Number of times a term must occur (in this story, or in the rest of the series) to be compared",
+					Integer.class,
+					concatenateValidators(
+							notNull("Minimum frequency"),
+							createValidator(
+									f -> f >= 1,
+									"Minimum frequency must be at least 1")),
+					2);
+
+	// @formatter:on
+	private static final List<ParameterSpec<?>> parameterSpecs = Arrays.asList(seriesNameSpec, updateIndexSpec, namesOnlySpec, minFrequencySpec);
+
+	private final Path indexRoot;
+
+	public SeriesConsistencyAnalyzerType() {
+		this(SeriesVocabularyIndex.DEFAULT_ROOT);
+	}
+
+	/**
+	 * Creates a new instance storing the indexes of all series under the provided directory.
+	 *
+	 * @param indexRoot
+	 *            The directory under which the series indexes are stored.
+	 */
+	SeriesConsistencyAnalyzerType(final Path indexRoot) {
+		super(name, description, id, version, producesComments, parameterSpecs);
+		Validate.notNull(indexRoot);
+		this.indexRoot = indexRoot;
+	}
+
+	private class SeriesConsistencyAnalyzer extends BaseAnalyzer<SeriesConsistencyAnalyzerType> {
+		private final String seriesName;
+		private final boolean updateIndex;
+		private final boolean namesOnly;
+		private final int minFrequency;
+
+		private SeriesConsistencyAnalyzer(final AnalyzerSpec<SeriesConsistencyAnalyzerType> spec) {
+			super(spec);
+			this.seriesName = spec.getParameterValue(seriesNameSpec);
+			this.updateIndex = spec.getParameterValue(updateIndexSpec);
+			this.namesOnly = spec.getParameterValue(namesOnlySpec);
+			this.minFrequency = spec.getParameterValue(minFrequencySpec);
+		}
+
+		@Override
+		public AnalyzerResult<SeriesConsistencyAnalyzerType> execute(final Story story) {
+			final BookVocabulary book = BookVocabulary.fromStory(story);
+			final SeriesVocabularyIndex index = SeriesVocabularyIndex.forSeries(SeriesConsistencyAnalyzerType.this.indexRoot, this.seriesName);
+			final List<BookVocabulary> otherBooks;
+			try {
+				otherBooks = index.readOtherBooks(book);
+			} catch (final IOException e) {
+				throw new RuntimeException("Could not read the index of series " + this.seriesName, e);
+			}
+			final BookVocabulary series = BookVocabulary.merge(this.seriesName, otherBooks);
+
+			// Merge join of the sorted vocabularies
+			final List<Integer> newTerms = new ArrayList<>();
+			final List<Integer> droppedTerms = new ArrayList<>();
+			int i = 0;
+			int j = 0;
+			while (i < book.size() || j < series.size()) {
+				final int comparison = i == book.size() ? 1 : j == series.size() ? -1 : book.getTerm(i).compareTo(series.getTerm(j));
+				if (comparison < 0 && isRelevant(book, i))
+					newTerms.add(i);
+				else if (comparison > 0 && isRelevant(series, j))
+					droppedTerms.add(j);
+				if (comparison <= 0)
+					i++;
+				if (comparison >= 0)
+					j++;
+			}
+
+			final CommentStore comments = createCommentStore();
+			final List<TextRange> ranges = new ArrayList<>();
+			final List<ImmutablePair<String, String>> variantSummary = new ArrayList<>();
+			final List<ImmutablePair<String, String>> newTermSummary = new ArrayList<>();
+			if (!otherBooks.isEmpty())
+				compareNewTerms(story, book, series, newTerms, comments, ranges, variantSummary, newTermSummary);
+
+			// Untitled books have no key that survives editing them, so would be compared against their own earlier versions
+			final boolean addToIndex = this.updateIndex && SeriesVocabularyIndex.canIndex(book);
+			if (addToIndex) {
+				try {
+					index.writeBook(book);
+				} catch (final IOException e) {
+					throw new RuntimeException("Could not update the index of series " + this.seriesName, e);
+				}
+			}
+
+			final List<ImmutablePair<String, String>> overall = new ArrayList<>();
+			overall.add(ImmutablePair.of("Other books in series", otherBooks.isEmpty() ? "None yet"
+					: otherBooks.stream().map(BookVocabulary::getTitle).collect(Collectors.joining(", "))));
+			overall.add(ImmutablePair.of("Possible spelling variants", String.valueOf(variantSummary.size())));
+			overall.add(ImmutablePair.of("New terms", String.valueOf(newTermSummary.size())));
+			overall.add(ImmutablePair.of("Series terms not used", String.valueOf(droppedTerms.size())));
+			if (this.updateIndex)
+				overall.add(ImmutablePair.of("Added to series", addToIndex ? "Yes" : "No, the story has no title"));
+
+			final List<ImmutablePair<String, String>> droppedSummary = droppedTerms.stream()
+					.sorted((a, b) -> Integer.compare(series.getFrequency(b), series.getFrequency(a))).limit(MAX_SUMMARY_TERMS)
+					.map(t -> ImmutablePair.of(series.getTerm(t), "Used " + series.getFrequency(t) + " times in the rest of the series"))
+					.collect(Collectors.toList());
+
+			final List<AnalyzerSummaryComponent> summary = new ArrayList<>();
+			summary.add(new KeyValueListSummaryComponent(overall));
+			summary.add(new KeyValueListSummaryComponent(variantSummary));
+			summary.add(new KeyValueListSummaryComponent(newTermSummary.stream().limit(MAX_SUMMARY_TERMS).collect(Collectors.toList())));
+			summary.add(new KeyValueListSummaryComponent(droppedSummary));
+			summary.add(new HeatMapSummaryComponent(story, ranges));
+			return AnalyzerResult.fromCommentStore(this, comments, summary);
+		}
+
+		private boolean isRelevant(final BookVocabulary vocabulary, final int index) {
+			return vocabulary.getFrequency(index) >= this.minFrequency && (!this.namesOnly || vocabulary.isName(index));
+		}
+
+		/**
+		 * Comments on every occurrence of new terms that are one edit away from a series term, and on the first occurrence of other new terms.
+		 */
+		private void compareNewTerms(final Story story, final BookVocabulary book, final BookVocabulary series, final List<Integer> newTerms,
+				final CommentStore comments, final List<TextRange> ranges, final List<ImmutablePair<String, String>> variantSummary,
+				final List<ImmutablePair<String, String>> newTermSummary) {
+			final StoryFeatureRegistry features = StoryFeatureRegistry.forStory(story);
+			final List<Token> tokens = features.get(StoryFeatures.TOKENS);
+			final StoryVocabulary vocabulary = features.get(StoryFeatures.VOCABULARY);
+			final StoryPostingIndex postingIndex = features.get(StoryFeatures.POSTING_INDEX);
+
+			final List<String> seriesTerms = new ArrayList<>();
+			for (int j = 0; j < series.size(); ++j) {
+				if (!this.namesOnly || series.isName(j))
+					seriesTerms.add(series.getTerm(j));
+			}
+			final DeletionIndex seriesIndex = new DeletionIndex(seriesTerms, 1);
+
+			for (final int termIndex : newTerms) {
+				final String term = book.getTerm(termIndex);
+				final int[] postings = postingIndex.getWordPostings(vocabulary.getWordId(term));
+				final String display = tokens.get(postings[0]).getWord();
+				final int[] variants = term.length() >= MIN_VARIANT_LENGTH ? seriesIndex.find(term, 1) : new int[0];
+				if (variants.length > 0) {
+					final String variantList = Arrays.stream(variants).mapToObj(v -> "\"" + seriesTerms.get(v) + "\"").collect(Collectors.joining(", "));
+					for (final int tokenIndex : postings) {
+						final TextRange range = tokens.get(tokenIndex).getRange();
+						comments.add(range, "Possible variant of %s", variantList);
+						ranges.add(range);
+					}
+					variantSummary.add(ImmutablePair.of(display, "Series uses " + variantList));
+				} else {
+					final TextRange range = tokens.get(postings[0]).getRange();
+					comments.add(range, "New to the series: %s", display);
+					ranges.add(range);
+					newTermSummary.add(ImmutablePair.of(display, "Used " + book.getFrequency(termIndex) + " times"));
+				}
+			}
+		}
+
+		@Override
+		public Map<String, Object> retrieveParameterValues() {
+			final Map<String, Object> result = new HashMap<>();
+			result.put(seriesNameSpec.getId(), this.seriesName);
+			result.put(updateIndexSpec.getId(), this.updateIndex);
+			result.put(namesOnlySpec.getId(), this.namesOnly);
+			result.put(minFrequencySpec.getId(), this.minFrequency);
+			return result;
+		}
+	}
+
+	@Override
+	protected Analyzer<SeriesConsistencyAnalyzerType> createAnalyzer(final AnalyzerSpec<SeriesConsistencyAnalyzerType> spec) {
+		return new SeriesConsistencyAnalyzer(spec);
+	}
+}
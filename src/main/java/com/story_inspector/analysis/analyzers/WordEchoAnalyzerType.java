@@ -0,0 +1,184 @@
+package com.story_inspector.analysis.analyzers;
+
+import static com.story_inspector.analysis.ParameterValidator.concatenateValidators;
+import static com.story_inspector.analysis.ParameterValidator.createValidator;
+import static com.story_inspector.analysis.ParameterValidator.notNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.AnalyzerSpec;
+import com.story_inspector.analysis.AnalyzerType;
+import com.story_inspector.analysis.BaseAnalyzer;
+import com.story_inspector.analysis.BaseAnalyzerType;
+import com.story_inspector.analysis.ParameterSpec;
+import com.story_inspector.analysis.comments.CommentStore;
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
+import com.story_inspector.analysis.features.StoryFeatures;
+import com.story_inspector.analysis.features.StoryVocabulary;
+import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.analysis.parameterTypes.StringSet;
+import com.story_inspector.analysis.summary.SummaryGenerators;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.TextRange;
+import com.story_inspector.story.Token;
+
+import opennlp.tools.stemmer.PorterStemmer;
+import opennlp.tools.stemmer.Stemmer;
+
+/**
+ * {@link AnalyzerType} which finds word echoes: the same word (by stem) used again within a short distance. Comments on both occurrences of each
+ * echo.
+ *
+ * Runs in a single pass over the tokens, remembering the last position of each stem in an array indexed by the story's dense stem ids (see
+ * {@link StoryVocabulary}), so the cost doesn't depend on the window size and no objects are allocated per token.
+ *
+ * @author mizitch
+ *
+ */
+@Component
+public class WordEchoAnalyzerType extends BaseAnalyzerType<WordEchoAnalyzerType> {
+
+	private static final String name = "Word Echo Analyzer";
+	private static final String description = "Finds words that are repeated within a short distance of each other. Words are compared by stem and are not case-sensitive";
+	private static final String id = "WordEchoAnalyzer";
+	private static final int version = 1;
+	private static final boolean producesComments = true;
+
+	private static final int NO_POSITION = -1;
+
+	// @formatter:off
+	private static final StringSet defaultStopWords = new StringSet(Arrays.asList(
+			"a", "about", "after", "all", "an", "and", "are", "as", "at", "be", "been", "but", "by", "can", "could", "did", "do", "for", "from",
+			"had", "has", "have", "he", "her", "him", "his", "i", "if", "in", "into", "is", "it", "its", "just", "me", "my", "no", "not", "of",
+			"on", "or", "out", "she", "so", "that", "the", "their", "them", "then", "there", "they", "this", "to", "up", "was", "we", "were",
+			"what", "when", "which", "who", "will", "with", "would", "you", "your"));
+
+	private static final ParameterSpec<Integer> windowSizeSpec =
+			new ParameterSpec<>(
+					"windowSize",
+					"Window size",
+					"Maximum number of words between two uses of a word for them to count as an echo",
+					Integer.class,
+					concatenateValidators(
+							notNull("Window size"),
+							createValidator(
+									w -> w > 0,
+									"Window size must be positive")),
+					50);
+
+	private static final ParameterSpec<StringSet> stopWordsSpec =
+			new ParameterSpec<>(
+					"stopWords",
+					"Ignored words",
+					"Common words that are never reported as echoes",
+					StringSet.class,
+					notNull("Ignored words"),
+					defaultStopWords);
+
+	private static final ParameterSpec<DialogueSearchPattern> dialogueSearchPatternSpec =
+			new ParameterSpec<>(
+					"dialogueSearchPattern",
+					"Dialogue search pattern",
+					"Whether to search in dialogue, non-dialogue or both",
+					DialogueSearchPattern.class,
+					notNull("Dialogue search pattern"),
+					DialogueSearchPattern.ALL_TEXT);
+
+	// @formatter:on
+	private static final List<ParameterSpec<?>> parameterSpecs = Arrays.asList(windowSizeSpec, stopWordsSpec, dialogueSearchPatternSpec);
+
+	public WordEchoAnalyzerType() {
+		super(name, description, id, version, producesComments, parameterSpecs);
+	}
+
+	private class WordEchoAnalyzer extends BaseAnalyzer<WordEchoAnalyzerType> {
+		private final int windowSize;
+		private final StringSet stopWords;
+		private final DialogueSearchPattern dialogueSearchPattern;
+
+		// Case-folded stems of the stop words
+		private final List<String> stopStems = new ArrayList<>();
+
+		private WordEchoAnalyzer(final AnalyzerSpec<WordEchoAnalyzerType> spec) {
+			super(spec);
+			this.windowSize = spec.getParameterValue(windowSizeSpec);
+			this.stopWords = spec.getParameterValue(stopWordsSpec);
+			this.dialogueSearchPattern = spec.getParameterValue(dialogueSearchPatternSpec);
+
+			final Stemmer stemmer = new PorterStemmer();
+			for (final String stopWord : this.stopWords)
+				this.stopStems.add(stemmer.stem(stopWord.trim()).toString().toLowerCase());
+		}
+
+		@Override
+		public AnalyzerResult<WordEchoAnalyzerType> execute(final Story story) {
+			final StoryFeatureRegistry features = StoryFeatureRegistry.forStory(story);
+			final List<Token> tokens = features.get(StoryFeatures.TOKENS);
+			final StoryVocabulary vocabulary = features.get(StoryFeatures.VOCABULARY);
+
+			// Word position and token index of the last use of each stem, and whether that use has been commented on already
+			final int[] lastPositions = new int[vocabulary.getNumStems()];
+			final int[] lastTokenIndices = new int[vocabulary.getNumStems()];
+			final boolean[] lastCommented = new boolean[vocabulary.getNumStems()];
+			Arrays.fill(lastPositions, NO_POSITION);
+			final boolean[] ignored = new boolean[vocabulary.getNumStems()];
+			for (final String stopStem : this.stopStems) {
+				final int stemId = vocabulary.getStemId(stopStem);
+				if (stemId != StoryVocabulary.NO_ID)
+					ignored[stemId] = true;
+			}
+
+			final CommentStore comments = createCommentStore();
+			final List<TextRange> echoes = new ArrayList<>();
+			int position = 0;
+			for (int tokenIndex = 0; tokenIndex < tokens.size(); ++tokenIndex) {
+				final Token token = tokens.get(tokenIndex);
+				if (!token.isWord())
+					continue;
+				final int currentPosition = position++;
+				final int stemId = vocabulary.getTokenStemId(tokenIndex);
+				if (ignored[stemId] || !this.dialogueSearchPattern.includes(token))
+					continue;
+
+				final int lastPosition = lastPositions[stemId];
+				final boolean echo = lastPosition != NO_POSITION && currentPosition - lastPosition <= this.windowSize;
+				if (echo) {
+					if (!lastCommented[stemId]) {
+						final Token previous = tokens.get(lastTokenIndices[stemId]);
+						comments.add(previous.getRange(), "Echoed by \"%s\"", token.getWord());
+						echoes.add(previous.getRange());
+					}
+					comments.add(token.getRange(), "Echo of \"%s\"", tokens.get(lastTokenIndices[stemId]).getWord());
+					echoes.add(token.getRange());
+				}
+				lastPositions[stemId] = currentPosition;
+				lastTokenIndices[stemId] = tokenIndex;
+				lastCommented[stemId] = echo;
+			}
+
+			return AnalyzerResult.fromCommentStore(this, comments, SummaryGenerators.generateBasicFrequencySummary(story, echoes));
+		}
+
+		@Override
+		public Map<String, Object> retrieveParameterValues() {
+			final Map<String, Object> result = new HashMap<>();
+			result.put(windowSizeSpec.getId(), this.windowSize);
+			result.put(stopWordsSpec.getId(), this.stopWords);
+			result.put(dialogueSearchPatternSpec.getId(), this.dialogueSearchPattern);
+			return result;
+		}
+	}
+
+	@Override
+	protected Analyzer<WordEchoAnalyzerType> createAnalyzer(final AnalyzerSpec<WordEchoAnalyzerType> spec) {
+		return new WordEchoAnalyzer(spec);
+	}
+}
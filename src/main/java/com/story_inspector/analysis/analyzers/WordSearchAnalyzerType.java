@@ -4,11 +4,13 @@ import static com.story_inspector.analysis.ParameterValidator.concatenateValidat
 import static com.story_inspector.analysis.ParameterValidator.createValidator;
 import static com.story_inspector.analysis.ParameterValidator.notNull;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
@@ -19,10 +21,17 @@ import com.story_inspector.analysis.AnalyzerSpec;
 import com.story_inspector.analysis.AnalyzerType;
 import com.story_inspector.analysis.BaseAnalyzer;
 import com.story_inspector.analysis.BaseAnalyzerType;
-import com.story_inspector.analysis.Comment;
 import com.story_inspector.analysis.ParameterSpec;
+import com.story_inspector.analysis.comments.CommentStore;
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
+import com.story_inspector.analysis.features.StoryFeatures;
+import com.story_inspector.analysis.features.StoryPostingIndex;
+import com.story_inspector.analysis.features.StoryVocabulary;
 import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
 import com.story_inspector.analysis.parameterTypes.StringSet;
+import com.story_inspector.analysis.search.PhraseAutomaton;
+import com.story_inspector.analysis.search.TokenSequence;
+import com.story_inspector.analysis.summary.AnalyzerSummaryComponent;
 import com.story_inspector.analysis.summary.SummaryGenerators;
 import com.story_inspector.story.Story;
 import com.story_inspector.story.TextRange;
@@ -32,7 +41,11 @@ import opennlp.tools.stemmer.PorterStemmer;
 import opennlp.tools.stemmer.Stemmer;
 
 /**
- * {@link AnalyzerType} which searches for words.
+ * {@link AnalyzerType} which searches for words and phrases. Single words are looked up in the story's {@link StoryPostingIndex}, so their cost is
+ * proportional to the number of matches rather than to the length of the story. Phrases are compiled into a single {@link PhraseAutomaton} over the
+ * word (or stem) ids of the story's {@link StoryVocabulary}, which scans only the sentences containing the first word of some phrase.
+ *
+ * Punctuation within a phrase is ignored, both in the search term and in the story, but phrases do not match across sentences.
  *
  * @author mizitch
  *
@@ -41,7 +54,7 @@ import opennlp.tools.stemmer.Stemmer;
 public class WordSearchAnalyzerType extends BaseAnalyzerType<WordSearchAnalyzerType> {
 
 	private static final String name = "Word Search Analyzer";
-	private static final String description = "Searches for words! Not case-sensitive"; // TODO: better
+	private static final String description = "Searches for words and phrases! Not case-sensitive"; // TODO: better
 	private static final String id = "WordSearchAnalyzer";
 	private static final int version = 1;
 	private static final boolean producesComments = true;
@@ -50,7 +63,7 @@ public class WordSearchAnalyzerType extends BaseAnalyzerType<WordSearchAnalyzerT
 	private static final ParameterSpec<StringSet> searchWordsSpec = new ParameterSpec<>(
 			"searchWords",
 			"Search words",
-			"Words to search for",
+			"Words and phrases to search for",
 			StringSet.class,
 			concatenateValidators(
 					createValidator(
@@ -60,8 +73,8 @@ public class WordSearchAnalyzerType extends BaseAnalyzerType<WordSearchAnalyzerT
 							wl -> !wl.stream().anyMatch(w -> StringUtils.isBlank(w)),
 							"Blanks not allowed in search list"),
 					createValidator(
-							wl -> wl.stream().allMatch(w -> !w.trim().chars().anyMatch(c -> Character.isWhitespace(c))),
-							"Phrases not allowed in search list")));
+							wl -> wl.stream().allMatch(w -> w.chars().anyMatch(c -> Character.isLetterOrDigit(c))),
+							"Search terms must contain at least one letter or digit")));
 
 	private static final ParameterSpec<Boolean> searchByStemSpec =
 			new ParameterSpec<>(
@@ -84,8 +97,6 @@ public class WordSearchAnalyzerType extends BaseAnalyzerType<WordSearchAnalyzerT
 	// @formatter:on
 	private static final List<ParameterSpec<?>> parameterSpecs = Arrays.asList(searchWordsSpec, searchByStemSpec, dialogueSearchPatternSpec);
 
-	private final Stemmer stemmer = new PorterStemmer();
-
 	public WordSearchAnalyzerType() {
 		super(name, description, id, version, producesComments, parameterSpecs);
 	}
@@ -95,41 +106,145 @@ public class WordSearchAnalyzerType extends BaseAnalyzerType<WordSearchAnalyzerT
 		private final boolean searchByStem;
 		private final DialogueSearchPattern dialogueSearchPattern;
 
+		// Search terms that contain at least one word, and their case-folded words (or stems)
+		private final List<String> searchTerms = new ArrayList<>();
+		private final List<String[]> normalizedSearchTerms = new ArrayList<>();
+
 		private WordSearchAnalyzer(final AnalyzerSpec<WordSearchAnalyzerType> spec) {
 			super(spec);
 			this.searchWords = spec.getParameterValue(searchWordsSpec);
 			this.searchByStem = spec.getParameterValue(searchByStemSpec);
 			this.dialogueSearchPattern = spec.getParameterValue(dialogueSearchPatternSpec);
+
+			final Stemmer stemmer = new PorterStemmer();
+			for (final String searchTerm : this.searchWords) {
+				final String[] normalized = normalize(searchTerm, stemmer);
+				if (normalized.length > 0) {
+					this.searchTerms.add(searchTerm);
+					this.normalizedSearchTerms.add(normalized);
+				}
+			}
+		}
+
+		/**
+		 * Splits a search term into its case-folded words, or their stems if searching by stem.
+		 */
+		private String[] normalize(final String searchTerm, final Stemmer stemmer) {
+			final List<String> words = new ArrayList<>();
+			for (final String part : searchTerm.trim().split("\\s+")) {
+				final String word = stripNonWordCharacters(part);
+				if (!word.isEmpty())
+					words.add(this.searchByStem ? stemmer.stem(word).toString().toLowerCase() : word.toLowerCase());
+			}
+			return words.toArray(new String[words.size()]);
 		}
 
 		@Override
 		public AnalyzerResult<WordSearchAnalyzerType> execute(final Story story) {
-			final List<Token> tokens = story.getChildrenAtLevel(Token.class);
+			final StoryFeatureRegistry features = StoryFeatureRegistry.forStory(story);
+			final List<Token> tokens = features.get(StoryFeatures.TOKENS);
+			final StoryVocabulary vocabulary = features.get(StoryFeatures.VOCABULARY);
+			final StoryPostingIndex postingIndex = features.get(StoryFeatures.POSTING_INDEX);
+
+			// Single words are looked up directly in the posting index. Terms containing words that don't occur in the story can't match.
 			final Map<TextRange, String> matches = new HashMap<>();
-			final Map<String, String> searchTermMap = new HashMap<>();
-			for (final String word : this.searchWords) {
-				if (this.searchByStem)
-					searchTermMap.put(WordSearchAnalyzerType.this.stemmer.stem(word).toString().toLowerCase(), word);
-				else
-					searchTermMap.put(word, word.toLowerCase());
+			final List<String> phraseTerms = new ArrayList<>();
+			final List<int[]> phrases = new ArrayList<>();
+			for (int i = 0; i < this.searchTerms.size(); ++i) {
+				final int[] phrase = toPhrase(this.normalizedSearchTerms.get(i), vocabulary);
+				if (phrase == null)
+					continue;
+				if (phrase.length == 1) {
+					for (final int tokenIndex : getPostings(postingIndex, phrase[0])) {
+						final Token token = tokens.get(tokenIndex);
+						if (this.dialogueSearchPattern.includes(token))
+							matches.putIfAbsent(token.getRange(), this.searchTerms.get(i));
+					}
+				} else {
+					phraseTerms.add(this.searchTerms.get(i));
+					phrases.add(phrase);
+				}
 			}
+			if (!phrases.isEmpty())
+				findPhrases(phrases, phraseTerms, features, matches);
 
-			for (final Token token : tokens) {
-				if (token.isQuoted() && WordSearchAnalyzer.this.dialogueSearchPattern == DialogueSearchPattern.ALL_BUT_DIALOGUE)
-					continue;
-				if (!token.isQuoted() && WordSearchAnalyzer.this.dialogueSearchPattern == DialogueSearchPattern.DIALOGUE_ONLY)
-					continue;
+			final CommentStore comments = createCommentStore();
+			for (final Map.Entry<TextRange, String> match : matches.entrySet())
+				comments.add(match.getKey(), "Matches %s", match.getValue());
+
+			final List<AnalyzerSummaryComponent> summary = new ArrayList<>(SummaryGenerators.generateBasicFrequencySummary(story, matches.keySet()));
+			if (this.searchTerms.size() > 1) {
+				// Compare the search terms in one chart, including those not found
+				final Map<String, List<TextRange>> matchesByTerm = new LinkedHashMap<>();
+				for (final String searchTerm : this.searchTerms)
+					matchesByTerm.put(searchTerm, new ArrayList<>());
+				for (final Map.Entry<TextRange, String> match : matches.entrySet())
+					matchesByTerm.get(match.getValue()).add(match.getKey());
+				summary.addAll(SummaryGenerators.generateComparativeFrequencySummary(story, matchesByTerm));
+			}
+			return AnalyzerResult.fromCommentStore(this, comments, summary);
+		}
 
-				if (WordSearchAnalyzer.this.searchByStem && searchTermMap.keySet().contains(token.getWordStem().toLowerCase()))
-					matches.put(token.getRange(), searchTermMap.get(token.getWordStem()));
-				else if (!this.searchByStem && searchTermMap.keySet().contains(token.getWord().toLowerCase()))
-					matches.put(token.getRange(), searchTermMap.get(token.getWord()));
+		/**
+		 * Finds phrases with a {@link PhraseAutomaton}. Only the sentences containing the first word of some phrase are scanned, as phrases don't
+		 * span sentences.
+		 */
+		private void findPhrases(final List<int[]> phrases, final List<String> phraseTerms, final StoryFeatureRegistry features,
+				final Map<TextRange, String> matches) {
+			final List<Token> tokens = features.get(StoryFeatures.TOKENS);
+			final StoryVocabulary vocabulary = features.get(StoryFeatures.VOCABULARY);
+			final StoryPostingIndex postingIndex = features.get(StoryFeatures.POSTING_INDEX);
+			final int[] tokenSentenceIndices = features.get(StoryFeatures.TOKEN_SENTENCE_INDICES);
+
+			// One token from each candidate sentence, in story order
+			final TreeMap<Integer, Integer> candidateSentences = new TreeMap<>();
+			for (final int[] phrase : phrases) {
+				for (final int tokenIndex : getPostings(postingIndex, phrase[0]))
+					candidateSentences.putIfAbsent(tokenSentenceIndices[tokenIndex], tokenIndex);
 			}
 
-			final List<Comment> comments = matches.entrySet().stream().map(e -> new Comment(this, "Matches " + e.getValue(), e.getKey()))
-					.collect(Collectors.toList());
-			return new AnalyzerResult<WordSearchAnalyzerType>(this, comments,
-					SummaryGenerators.generateBasicFrequencySummary(story, matches.keySet()));
+			// Token ranges of the candidate sentences
+			final int[] sentenceStarts = new int[candidateSentences.size()];
+			final int[] sentenceEnds = new int[candidateSentences.size()];
+			int numSentences = 0;
+			int capacity = 0;
+			for (final Map.Entry<Integer, Integer> candidate : candidateSentences.entrySet()) {
+				int sentenceStart = candidate.getValue();
+				while (sentenceStart > 0 && tokenSentenceIndices[sentenceStart - 1] == candidate.getKey())
+					--sentenceStart;
+				int sentenceEnd = candidate.getValue() + 1;
+				while (sentenceEnd < tokens.size() && tokenSentenceIndices[sentenceEnd] == candidate.getKey())
+					++sentenceEnd;
+				sentenceStarts[numSentences] = sentenceStart;
+				sentenceEnds[numSentences++] = sentenceEnd;
+				capacity += sentenceEnd - sentenceStart + 1;
+			}
+
+			final TokenSequence sequence = new TokenSequence(tokens, capacity);
+			for (int i = 0; i < numSentences; ++i)
+				sequence.appendTokens(sentenceStarts[i], sentenceEnds[i], tokenSentenceIndices, this.dialogueSearchPattern,
+						this.searchByStem ? vocabulary::getTokenStemId : vocabulary::getTokenWordId);
+
+			final PhraseAutomaton automaton = new PhraseAutomaton(phrases);
+			automaton.scan(sequence.getSymbols(), sequence.size(), (phraseIndex, endPosition) -> matches
+					.putIfAbsent(sequence.getRange(endPosition - automaton.getPhraseLength(phraseIndex) + 1, endPosition), phraseTerms.get(phraseIndex)));
+		}
+
+		/**
+		 * Converts a normalized search term into a phrase of word or stem ids. Returns null if any of its words doesn't occur in the story.
+		 */
+		private int[] toPhrase(final String[] normalizedSearchTerm, final StoryVocabulary vocabulary) {
+			final int[] phrase = new int[normalizedSearchTerm.length];
+			for (int i = 0; i < phrase.length; ++i) {
+				phrase[i] = this.searchByStem ? vocabulary.getStemId(normalizedSearchTerm[i]) : vocabulary.getWordId(normalizedSearchTerm[i]);
+				if (phrase[i] == StoryVocabulary.NO_ID)
+					return null;
+			}
+			return phrase;
+		}
+
+		private int[] getPostings(final StoryPostingIndex postingIndex, final int id) {
+			return this.searchByStem ? postingIndex.getStemPostings(id) : postingIndex.getWordPostings(id);
 		}
 
 		@Override
@@ -142,6 +257,19 @@ public class WordSearchAnalyzerType extends BaseAnalyzerType<WordSearchAnalyzerT
 		}
 	}
 
+	/**
+	 * Strips leading and trailing characters that are not letters or digits, the same way tokens are reduced to words.
+	 */
+	private static String stripNonWordCharacters(final String text) {
+		int start = 0;
+		while (start < text.length() && !Character.isLetterOrDigit(text.charAt(start)))
+			++start;
+		int end = text.length();
+		while (end > start && !Character.isLetterOrDigit(text.charAt(end - 1)))
+			--end;
+		return text.substring(start, end);
+	}
+
 	@Override
 	protected Analyzer<WordSearchAnalyzerType> createAnalyzer(final AnalyzerSpec<WordSearchAnalyzerType> spec) {
 		return new WordSearchAnalyzer(spec);
@@ -0,0 +1,243 @@
+package com.story_inspector.analysis.comments;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.commons.lang3.Validate;
+
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.Comment;
+import com.story_inspector.story.TextRange;
+
+/**
+ * Compact representation of a batch of {@link Comment}s produced by one {@link Analyzer}. Stores each comment in parallel arrays: start and end
+ * offsets of its selection, the id of its content template in a shared {@link CommentStringTable}, and the template's argument. Templates come
+ * from a small set and are stored once, while arguments differ from comment to comment and are only held by the batch, so they are released when
+ * it is cleared. {@link Comment} objects are only created when requested.
+ *
+ * A comment's content is its template with every occurrence of {@link #ARGUMENT_PLACEHOLDER} replaced by its argument. Comments without an argument
+ * use their template as their content.
+ *
+ * Not thread-safe.
+ *
+ * @author mizitch
+ *
+ */
+public class CommentBatch {
+
+	/**
+	 * Placeholder for the argument within a content template.
+	 */
+	public static final String ARGUMENT_PLACEHOLDER = "%s";
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final Analyzer<?> analyzer;
+	private final CommentStringTable strings;
+
+	private int[] startIndices = new int[INITIAL_CAPACITY];
+	private int[] endIndices = new int[INITIAL_CAPACITY];
+	private int[] templateIds = new int[INITIAL_CAPACITY];
+	private String[] arguments = new String[INITIAL_CAPACITY];
+	private int size = 0;
+
+	/**
+	 * Creates a new, empty instance.
+	 *
+	 * @param analyzer
+	 *            The {@link Analyzer} that produces the comments in this batch.
+	 * @param strings
+	 *            The table holding the templates of the comments in this batch. May be shared with other batches.
+	 */
+	public CommentBatch(final Analyzer<?> analyzer, final CommentStringTable strings) {
+		Validate.notNull(analyzer);
+		Validate.notNull(strings);
+		this.analyzer = analyzer;
+		this.strings = strings;
+	}
+
+	/**
+	 * Adds a comment to this batch.
+	 *
+	 * @param selection
+	 *            The selection of the comment.
+	 * @param template
+	 *            The content template of the comment.
+	 * @param argument
+	 *            The argument of the content template, or null if the template is the entire content.
+	 */
+	public void add(final TextRange selection, final String template, final String argument) {
+		Validate.notNull(selection);
+		Validate.notEmpty(template);
+		add(selection.getStartIndex(), selection.getEndIndex(), this.strings.intern(template), argument);
+	}
+
+	/**
+	 * Adds a comment to this batch given its already interned template id.
+	 */
+	void add(final int startIndex, final int endIndex, final int templateId, final String argument) {
+		if (this.size == this.startIndices.length) {
+			final int newCapacity = this.size * 2;
+			this.startIndices = Arrays.copyOf(this.startIndices, newCapacity);
+			this.endIndices = Arrays.copyOf(this.endIndices, newCapacity);
+			this.templateIds = Arrays.copyOf(this.templateIds, newCapacity);
+			this.arguments = Arrays.copyOf(this.arguments, newCapacity);
+		}
+		this.startIndices[this.size] = startIndex;
+		this.endIndices[this.size] = endIndex;
+		this.templateIds[this.size] = templateId;
+		this.arguments[this.size] = argument;
+		this.size++;
+	}
+
+	/**
+	 * Returns the number of comments in this batch.
+	 *
+	 * @return The number of comments in this batch.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	int getStartIndex(final int index) {
+		return this.startIndices[index];
+	}
+
+	int getEndIndex(final int index) {
+		return this.endIndices[index];
+	}
+
+	int getTemplateId(final int index) {
+		return this.templateIds[index];
+	}
+
+	String getArgument(final int index) {
+		return this.arguments[index];
+	}
+
+	/**
+	 * Returns the content of the comment at the provided index.
+	 *
+	 * @param index
+	 *            The index of the comment.
+	 * @return The content of the comment at the provided index.
+	 */
+	public String getContent(final int index) {
+		Validate.isTrue(index >= 0 && index < this.size, "index out of bounds");
+		return formatContent(this.strings, this.templateIds[index], this.arguments[index]);
+	}
+
+	/**
+	 * Creates a {@link Comment} for the comment at the provided index.
+	 *
+	 * @param index
+	 *            The index of the comment.
+	 * @return A {@link Comment} for the comment at the provided index.
+	 */
+	public Comment get(final int index) {
+		Validate.isTrue(index >= 0 && index < this.size, "index out of bounds");
+		return new Comment(this.analyzer, getContent(index), new TextRange(this.startIndices[index], this.endIndices[index]));
+	}
+
+	/**
+	 * Returns a list view of this batch, creating {@link Comment}s as they are retrieved.
+	 *
+	 * @return A list view of this batch.
+	 */
+	public List<Comment> asList() {
+		return new AbstractList<Comment>() {
+			@Override
+			public Comment get(final int index) {
+				return CommentBatch.this.get(index);
+			}
+
+			@Override
+			public int size() {
+				return CommentBatch.this.size;
+			}
+		};
+	}
+
+	/**
+	 * Sorts this batch into the natural order of its comments (see {@link Comment#compareTo(Comment)}).
+	 */
+	public void sort() {
+		if (this.size < 2)
+			return;
+
+		final int[] order = new int[this.size];
+		for (int i = 0; i < this.size; ++i)
+			order[i] = i;
+		mergeSort(order, new int[this.size], 0, this.size);
+
+		this.startIndices = permute(this.startIndices, order);
+		this.endIndices = permute(this.endIndices, order);
+		this.templateIds = permute(this.templateIds, order);
+		final String[] sortedArguments = new String[this.arguments.length];
+		for (int i = 0; i < this.size; ++i)
+			sortedArguments[i] = this.arguments[order[i]];
+		this.arguments = sortedArguments;
+	}
+
+	/**
+	 * Removes all comments from this batch.
+	 */
+	public void clear() {
+		Arrays.fill(this.arguments, 0, this.size, null);
+		this.size = 0;
+	}
+
+	/**
+	 * Formats the content of a comment from its template id and argument.
+	 */
+	static String formatContent(final CommentStringTable strings, final int templateId, final String argument) {
+		final String template = strings.get(templateId);
+		return argument == null ? template : template.replace(ARGUMENT_PLACEHOLDER, argument);
+	}
+
+	/**
+	 * Compares comments within this batch by selection, then content. Matches {@link Comment#compareTo(Comment)} for comments with the same analyzer.
+	 */
+	private int compare(final int first, final int second) {
+		int comparison = Integer.compare(this.startIndices[first], this.startIndices[second]);
+		if (comparison == 0)
+			comparison = Integer.compare(this.endIndices[first], this.endIndices[second]);
+		if (comparison == 0
+				&& (this.templateIds[first] != this.templateIds[second] || !Objects.equals(this.arguments[first], this.arguments[second])))
+			comparison = formatContent(this.strings, this.templateIds[first], this.arguments[first])
+					.compareTo(formatContent(this.strings, this.templateIds[second], this.arguments[second]));
+		return comparison;
+	}
+
+	/**
+	 * Stable merge sort of indices into this batch, avoids boxing the indices to use a comparator.
+	 */
+	private void mergeSort(final int[] order, final int[] scratch, final int from, final int to) {
+		if (to - from < 2)
+			return;
+		final int middle = (from + to) >>> 1;
+		mergeSort(order, scratch, from, middle);
+		mergeSort(order, scratch, middle, to);
+		if (compare(order[middle - 1], order[middle]) <= 0)
+			return;
+
+		System.arraycopy(order, from, scratch, from, to - from);
+		int left = from;
+		int right = middle;
+		for (int i = from; i < to; ++i) {
+			if (right >= to || (left < middle && compare(scratch[left], scratch[right]) <= 0))
+				order[i] = scratch[left++];
+			else
+				order[i] = scratch[right++];
+		}
+	}
+
+	private int[] permute(final int[] values, final int[] order) {
+		final int[] result = new int[values.length];
+		for (int i = 0; i < this.size; ++i)
+			result[i] = values[order[i]];
+		return result;
+	}
+}
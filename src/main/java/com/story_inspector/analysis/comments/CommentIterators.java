@@ -0,0 +1,117 @@
+package com.story_inspector.analysis.comments;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Utility methods for working with sorted iterators, such as those returned by {@link CommentStore#sortedIterator()}.
+ *
+ * @author mizitch
+ *
+ */
+public class CommentIterators {
+
+	private CommentIterators() {
+		throw new UnsupportedOperationException("This is a collection of utility methods, don't instantiate");
+	}
+
+	/**
+	 * Merges the provided sorted iterators into a single sorted iterator. Elements are consumed from the source iterators lazily, so only one element
+	 * per source iterator is held at a time.
+	 *
+	 * @param sortedIterators
+	 *            The iterators to merge. Each must return its elements in natural order.
+	 * @return An iterator over the elements of all provided iterators, in natural order. Equal elements from different sources are all returned.
+	 */
+	public static <T extends Comparable<? super T>> Iterator<T> mergeSorted(final List<? extends Iterator<? extends T>> sortedIterators) {
+		Validate.noNullElements(sortedIterators);
+		if (sortedIterators.size() == 1)
+			return cast(sortedIterators.get(0));
+		return new MergingIterator<>(sortedIterators);
+	}
+
+	/**
+	 * Removes consecutive duplicates from the provided iterator. If the provided iterator is sorted, the result contains no duplicates.
+	 *
+	 * @param iterator
+	 *            The iterator to remove consecutive duplicates from.
+	 * @return An iterator over the provided elements with consecutive duplicates removed.
+	 */
+	public static <T> Iterator<T> distinct(final Iterator<T> iterator) {
+		Validate.notNull(iterator);
+		return new Iterator<T>() {
+			private T next = iterator.hasNext() ? iterator.next() : null;
+
+			@Override
+			public boolean hasNext() {
+				return this.next != null;
+			}
+
+			@Override
+			public T next() {
+				if (this.next == null)
+					throw new NoSuchElementException();
+				final T result = this.next;
+				this.next = null;
+				while (iterator.hasNext()) {
+					final T candidate = iterator.next();
+					if (!candidate.equals(result)) {
+						this.next = candidate;
+						break;
+					}
+				}
+				return result;
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Iterator<T> cast(final Iterator<? extends T> iterator) {
+		return (Iterator<T>) iterator;
+	}
+
+	private static class MergingIterator<T extends Comparable<? super T>> implements Iterator<T> {
+		private final PriorityQueue<Head<T>> heads = new PriorityQueue<>();
+
+		private MergingIterator(final List<? extends Iterator<? extends T>> sortedIterators) {
+			for (final Iterator<? extends T> iterator : sortedIterators) {
+				if (iterator.hasNext())
+					this.heads.add(new Head<>(iterator.next(), iterator));
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !this.heads.isEmpty();
+		}
+
+		@Override
+		public T next() {
+			final Head<T> head = this.heads.poll();
+			if (head == null)
+				throw new NoSuchElementException();
+			if (head.source.hasNext())
+				this.heads.add(new Head<>(head.source.next(), head.source));
+			return head.value;
+		}
+	}
+
+	private static class Head<T extends Comparable<? super T>> implements Comparable<Head<T>> {
+		private final T value;
+		private final Iterator<? extends T> source;
+
+		private Head(final T value, final Iterator<? extends T> source) {
+			this.value = value;
+			this.source = source;
+		}
+
+		@Override
+		public int compareTo(final Head<T> other) {
+			return this.value.compareTo(other.value);
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.story_inspector.analysis.comments;
+
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.Comment;
+import com.story_inspector.story.TextRange;
+
+/**
+ * Receives {@link Comment}s as an {@link Analyzer} produces them. Allows analyzers to push comments as they find them instead of collecting them all
+ * in memory first.
+ *
+ * Analyzers that produce many comments with similar content should prefer {@link #add(TextRange, String, String)}, which lets sinks store the
+ * content compactly (see {@link CommentBatch}).
+ *
+ * @author mizitch
+ *
+ */
+public interface CommentSink {
+
+	/**
+	 * Adds a comment to this sink.
+	 *
+	 * @param comment
+	 *            The comment to add. Must not be null.
+	 */
+	public void add(Comment comment);
+
+	/**
+	 * Adds a comment produced by the sink's analyzer whose content is given by a template and an argument.
+	 *
+	 * @param selection
+	 *            The selection of the comment. Must not be null.
+	 * @param template
+	 *            The content template of the comment, with {@link CommentBatch#ARGUMENT_PLACEHOLDER} marking where the argument goes. Should be
+	 *            drawn from a small set of constant templates. Must not be empty.
+	 * @param argument
+	 *            The argument of the template, or null if the template is the entire content.
+	 */
+	public void add(TextRange selection, String template, String argument);
+}
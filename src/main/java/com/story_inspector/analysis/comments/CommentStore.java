@@ -0,0 +1,46 @@
+package com.story_inspector.analysis.comments;
+
+import java.util.Iterator;
+
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.Comment;
+
+/**
+ * A {@link CommentSink} that stores the comments it receives so that they can be read back once the analyzer that produced them is complete. Used by
+ * {@link AnalyzerResult} to hold its comments.
+ *
+ * Implementations need not be thread-safe. Comments must not be added while the store is being iterated over.
+ *
+ * @author mizitch
+ *
+ */
+public interface CommentStore extends CommentSink, Iterable<Comment>, AutoCloseable {
+
+	/**
+	 * Returns the number of comments added to this store.
+	 *
+	 * @return The number of comments added to this store.
+	 */
+	public int size();
+
+	/**
+	 * Returns an iterator over the comments in this store, in no particular order.
+	 *
+	 * @return An iterator over the comments in this store, in no particular order.
+	 */
+	@Override
+	public Iterator<Comment> iterator();
+
+	/**
+	 * Returns an iterator over the comments in this store in their natural (offset) order. See {@link Comment#compareTo(Comment)}.
+	 *
+	 * @return An iterator over the comments in this store in their natural (offset) order.
+	 */
+	public Iterator<Comment> sortedIterator();
+
+	/**
+	 * Releases any resources held by this store. Comments can no longer be read from the store afterwards.
+	 */
+	@Override
+	public void close();
+}
@@ -0,0 +1,62 @@
+package com.story_inspector.analysis.comments;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Table of distinct comment content templates, each identified by a dense integer id. Lets {@link CommentBatch}es refer to repeated templates by id
+ * instead of holding a copy per comment. Never shrinks, so must only hold strings drawn from a small set, not per comment text.
+ *
+ * Not thread-safe.
+ *
+ * @author mizitch
+ *
+ */
+public class CommentStringTable {
+
+	private final Map<String, Integer> ids = new HashMap<>();
+	private final List<String> strings = new ArrayList<>();
+
+	/**
+	 * Returns the id of the provided string, adding it to the table if it is not already present.
+	 *
+	 * @param string
+	 *            The string to look up. Must not be null.
+	 * @return The id of the string.
+	 */
+	public int intern(final String string) {
+		Validate.notNull(string);
+		final Integer existingId = this.ids.get(string);
+		if (existingId != null)
+			return existingId;
+
+		final int id = this.strings.size();
+		this.strings.add(string);
+		this.ids.put(string, id);
+		return id;
+	}
+
+	/**
+	 * Returns the string with the provided id.
+	 *
+	 * @param id
+	 *            The id of the string.
+	 * @return The string with the provided id.
+	 */
+	public String get(final int id) {
+		return this.strings.get(id);
+	}
+
+	/**
+	 * Returns the number of distinct strings in this table.
+	 *
+	 * @return The number of distinct strings in this table.
+	 */
+	public int size() {
+		return this.strings.size();
+	}
+}
@@ -0,0 +1,88 @@
+package com.story_inspector.analysis.comments;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.Comment;
+import com.story_inspector.story.TextRange;
+
+/**
+ * {@link CommentStore} that keeps all of its comments in memory. Suitable for analyzers that produce few comments.
+ *
+ * @author mizitch
+ *
+ */
+public class InMemoryCommentStore implements CommentStore {
+
+	private final Analyzer<?> analyzer;
+	private final List<Comment> comments;
+
+	/**
+	 * Creates a new, empty instance.
+	 *
+	 * @param analyzer
+	 *            The {@link Analyzer} that will produce the comments added to this store.
+	 */
+	public InMemoryCommentStore(final Analyzer<?> analyzer) {
+		Validate.notNull(analyzer);
+		this.analyzer = analyzer;
+		this.comments = new ArrayList<>();
+	}
+
+	/**
+	 * Creates a new instance containing the provided comments.
+	 *
+	 * @param analyzer
+	 *            The {@link Analyzer} that produced the provided comments and will produce any comments added to this store.
+	 * @param comments
+	 *            The initial contents of the store. Must not contain null elements.
+	 */
+	public InMemoryCommentStore(final Analyzer<?> analyzer, final Collection<Comment> comments) {
+		Validate.notNull(analyzer);
+		Validate.noNullElements(comments);
+		this.analyzer = analyzer;
+		this.comments = new ArrayList<>(comments);
+	}
+
+	@Override
+	public void add(final Comment comment) {
+		Validate.notNull(comment);
+		this.comments.add(comment);
+	}
+
+	@Override
+	public void add(final TextRange selection, final String template, final String argument) {
+		Validate.notNull(selection);
+		Validate.notEmpty(template);
+		final String content = argument == null ? template : template.replace(CommentBatch.ARGUMENT_PLACEHOLDER, argument);
+		this.comments.add(new Comment(this.analyzer, content, selection));
+	}
+
+	@Override
+	public int size() {
+		return this.comments.size();
+	}
+
+	@Override
+	public Iterator<Comment> iterator() {
+		return Collections.unmodifiableList(this.comments).iterator();
+	}
+
+	@Override
+	public Iterator<Comment> sortedIterator() {
+		final List<Comment> sortedComments = new ArrayList<>(this.comments);
+		Collections.sort(sortedComments);
+		return sortedComments.iterator();
+	}
+
+	@Override
+	public void close() {
+		this.comments.clear();
+	}
+}
@@ -0,0 +1,316 @@
+package com.story_inspector.analysis.comments;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.Comment;
+import com.story_inspector.story.TextRange;
+
+/**
+ * {@link CommentStore} that buffers comments in memory up to a budget and then spills them to a temporary file as a sorted run. Reading the store
+ * merges the sorted runs with the remaining buffered comments, so peak memory use is bounded by the budget (plus one comment per run while reading)
+ * no matter how many comments an analyzer produces.
+ *
+ * Comments are buffered in a {@link CommentBatch} and spilled as records of their selection, template id and argument, with only the templates
+ * kept in memory in a {@link CommentStringTable} shared by the buffer and all runs. Comments added as {@link Comment} objects are stored as their
+ * whole content with a template of just the argument, so their content is spilled too. All comments in a store must be produced by the same
+ * {@link Analyzer}, so the analyzer need not be recorded per comment.
+ *
+ * The store is sealed when it is first read: the buffer is sorted once, and adding comments afterwards fails. Once sealed, the store may be read by
+ * several threads at once. Closing it releases the files of any open readers, which fail if read further.
+ *
+ * @author mizitch
+ *
+ */
+public class SpillingCommentStore implements CommentStore {
+	private static final Logger log = LoggerFactory.getLogger(SpillingCommentStore.class);
+
+	/**
+	 * Default number of comments to buffer in memory before spilling.
+	 */
+	public static final int DEFAULT_MEMORY_BUDGET = 50_000;
+
+	/**
+	 * Size in bytes of the fixed part of a spilled comment: start index, end index, template id and argument length. Followed by the UTF-8 bytes of
+	 * the argument, if any.
+	 */
+	private static final int RECORD_HEADER_SIZE = 4 * Integer.BYTES;
+
+	/**
+	 * Argument length recorded for comments without an argument.
+	 */
+	private static final int NO_ARGUMENT = -1;
+
+	private final Analyzer<?> analyzer;
+	private final int memoryBudget;
+
+	private final CommentStringTable strings = new CommentStringTable();
+	private final CommentBatch buffer;
+	private final List<SpilledRun> runs = new ArrayList<>();
+	private final Set<DataInputStream> openReaders = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	private File spillFile;
+	private int size = 0;
+	private boolean sealed = false;
+	private volatile boolean closed = false;
+
+	/**
+	 * Creates a new instance with the default memory budget.
+	 *
+	 * @param analyzer
+	 *            The {@link Analyzer} that will produce all comments added to this store.
+	 */
+	public SpillingCommentStore(final Analyzer<?> analyzer) {
+		this(analyzer, DEFAULT_MEMORY_BUDGET);
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param analyzer
+	 *            The {@link Analyzer} that will produce all comments added to this store.
+	 * @param memoryBudget
+	 *            The number of comments to buffer in memory before spilling to disk. Must be positive.
+	 */
+	public SpillingCommentStore(final Analyzer<?> analyzer, final int memoryBudget) {
+		Validate.notNull(analyzer);
+		Validate.isTrue(memoryBudget > 0, "memoryBudget must be positive");
+		this.analyzer = analyzer;
+		this.memoryBudget = memoryBudget;
+		this.buffer = new CommentBatch(analyzer, this.strings);
+	}
+
+	@Override
+	public synchronized void add(final Comment comment) {
+		Validate.notNull(comment);
+		checkAddable();
+		Validate.isTrue(comment.getAnalyzer() == this.analyzer, "Comment was not produced by this store's analyzer");
+		// Contents are rarely repeated, so are kept as the argument, which is spilled, rather than as a template, which is kept in memory
+		addToBuffer(comment.getSelection(), CommentBatch.ARGUMENT_PLACEHOLDER, comment.getContent());
+	}
+
+	@Override
+	public synchronized void add(final TextRange selection, final String template, final String argument) {
+		checkAddable();
+		addToBuffer(selection, template, argument);
+	}
+
+	private void checkAddable() {
+		Validate.validState(!this.closed, "Comment store has been closed");
+		Validate.validState(!this.sealed, "Comment store has been read, no more comments can be added");
+	}
+
+	private void addToBuffer(final TextRange selection, final String template, final String argument) {
+		this.buffer.add(selection, template, argument);
+		this.size++;
+		if (this.buffer.size() >= this.memoryBudget)
+			spill();
+	}
+
+	@Override
+	public synchronized int size() {
+		return this.size;
+	}
+
+	@Override
+	public Iterator<Comment> iterator() {
+		return sortedIterator();
+	}
+
+	@Override
+	public synchronized Iterator<Comment> sortedIterator() {
+		Validate.validState(!this.closed, "Comment store has been closed");
+
+		if (!this.sealed) {
+			this.buffer.sort();
+			this.sealed = true;
+		}
+		if (this.runs.isEmpty())
+			return this.buffer.asList().iterator();
+
+		final List<Iterator<Comment>> sources = new ArrayList<>();
+		for (final SpilledRun run : this.runs)
+			sources.add(new SpilledRunIterator(run));
+		sources.add(this.buffer.asList().iterator());
+		return CommentIterators.mergeSorted(sources);
+	}
+
+	/**
+	 * Returns the number of distinct templates this store holds in memory. Does not grow with the number of comments.
+	 *
+	 * @return The number of distinct templates this store holds in memory.
+	 */
+	int getNumTemplates() {
+		return this.strings.size();
+	}
+
+	/**
+	 * Returns the number of sorted runs this store has spilled to disk.
+	 *
+	 * @return The number of sorted runs this store has spilled to disk.
+	 */
+	public synchronized int getNumSpilledRuns() {
+		return this.runs.size();
+	}
+
+	@Override
+	public synchronized void close() {
+		if (this.closed)
+			return;
+		this.closed = true;
+		this.buffer.clear();
+		for (final DataInputStream reader : this.openReaders)
+			closeQuietly(reader);
+		this.openReaders.clear();
+		if (this.spillFile != null && !this.spillFile.delete())
+			log.warn("Could not delete comment spill file: " + this.spillFile);
+	}
+
+	/**
+	 * Sorts the buffered comments and appends them to the spill file as a new run.
+	 */
+	private void spill() {
+		this.buffer.sort();
+		try {
+			if (this.spillFile == null) {
+				this.spillFile = File.createTempFile("story-inspector-comments", ".tmp");
+				this.spillFile.deleteOnExit();
+			}
+
+			final long offset = this.runs.isEmpty() ? 0 : this.runs.get(this.runs.size() - 1).getEndOffset();
+			long length = 0;
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.spillFile, true)))) {
+				for (int i = 0; i < this.buffer.size(); ++i) {
+					out.writeInt(this.buffer.getStartIndex(i));
+					out.writeInt(this.buffer.getEndIndex(i));
+					out.writeInt(this.buffer.getTemplateId(i));
+					final String argument = this.buffer.getArgument(i);
+					length += RECORD_HEADER_SIZE;
+					if (argument == null) {
+						out.writeInt(NO_ARGUMENT);
+					} else {
+						final byte[] argumentBytes = argument.getBytes(StandardCharsets.UTF_8);
+						out.writeInt(argumentBytes.length);
+						out.write(argumentBytes);
+						length += argumentBytes.length;
+					}
+				}
+			}
+			this.runs.add(new SpilledRun(offset, length, this.buffer.size()));
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Could not spill comments to file: " + this.spillFile, e);
+		}
+		this.buffer.clear();
+	}
+
+	private static void closeQuietly(final DataInputStream reader) {
+		try {
+			reader.close();
+		} catch (final IOException e) {
+			log.warn("Could not close comment spill file reader", e);
+		}
+	}
+
+	private static class SpilledRun {
+		private final long offset;
+		private final long length;
+		private final int numComments;
+
+		private SpilledRun(final long offset, final long length, final int numComments) {
+			this.offset = offset;
+			this.length = length;
+			this.numComments = numComments;
+		}
+
+		private long getEndOffset() {
+			return this.offset + this.length;
+		}
+	}
+
+	/**
+	 * Lazily reads the comments of one spilled run. Closes its file once the run is exhausted.
+	 */
+	private class SpilledRunIterator implements Iterator<Comment> {
+		private final SpilledRun run;
+		private DataInputStream reader;
+		private int numRead = 0;
+
+		private SpilledRunIterator(final SpilledRun run) {
+			this.run = run;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.numRead < this.run.numComments;
+		}
+
+		@Override
+		public Comment next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Validate.validState(!SpillingCommentStore.this.closed, "Comment store has been closed");
+
+			try {
+				if (this.reader == null)
+					this.reader = openReader();
+
+				final int startIndex = this.reader.readInt();
+				final int endIndex = this.reader.readInt();
+				final int templateId = this.reader.readInt();
+				final int argumentLength = this.reader.readInt();
+				final String argument;
+				if (argumentLength == NO_ARGUMENT) {
+					argument = null;
+				} else {
+					final byte[] argumentBytes = new byte[argumentLength];
+					this.reader.readFully(argumentBytes);
+					argument = new String(argumentBytes, StandardCharsets.UTF_8);
+				}
+				this.numRead++;
+
+				if (!hasNext()) {
+					closeQuietly(this.reader);
+					SpillingCommentStore.this.openReaders.remove(this.reader);
+				}
+				final String content = CommentBatch.formatContent(SpillingCommentStore.this.strings, templateId, argument);
+				return new Comment(SpillingCommentStore.this.analyzer, content, new TextRange(startIndex, endIndex));
+			} catch (final IOException e) {
+				throw new UncheckedIOException("Could not read comments from file: " + SpillingCommentStore.this.spillFile, e);
+			}
+		}
+
+		private DataInputStream openReader() throws IOException {
+			final FileInputStream fileIn = new FileInputStream(SpillingCommentStore.this.spillFile);
+			fileIn.getChannel().position(this.run.offset);
+			final DataInputStream result = new DataInputStream(new BufferedInputStream(fileIn));
+			SpillingCommentStore.this.openReaders.add(result);
+			// The store may have been closed by another thread while opening, in which case close() may have missed this reader
+			if (SpillingCommentStore.this.closed) {
+				closeQuietly(result);
+				SpillingCommentStore.this.openReaders.remove(result);
+				throw new IllegalStateException("Comment store has been closed");
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package com.story_inspector.analysis.features;
+
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import com.story_inspector.story.Story;
+import com.story_inspector.story.Token;
+
+/**
+ * Prefix sums of the word and quoted (dialogue) word counts of the tokens of a {@link Story}. Built in one pass, after which the number of words,
+ * the number of quoted words and the dialogue ratio of any range of tokens are answered in constant time, so analyzers can ask about every chapter,
+ * scene or sliding window without rescanning the tokens.
+ *
+ * Immutable once created.
+ *
+ * @author mizitch
+ *
+ */
+public class DialoguePrefixSums {
+	// Number of words and of quoted words before each token, with one extra entry for the end of the story
+	private final int[] wordsBefore;
+	private final int[] quotedWordsBefore;
+	// Index of the token of each word
+	private final int[] wordTokenIndices;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param tokens
+	 *            All tokens of the story, in order.
+	 */
+	public DialoguePrefixSums(final List<Token> tokens) {
+		Validate.notNull(tokens);
+		this.wordsBefore = new int[tokens.size() + 1];
+		this.quotedWordsBefore = new int[tokens.size() + 1];
+		for (int i = 0; i < tokens.size(); ++i) {
+			final Token token = tokens.get(i);
+			this.wordsBefore[i + 1] = this.wordsBefore[i] + (token.isWord() ? 1 : 0);
+			this.quotedWordsBefore[i + 1] = this.quotedWordsBefore[i] + (token.isWord() && token.isQuoted() ? 1 : 0);
+		}
+		this.wordTokenIndices = new int[this.wordsBefore[tokens.size()]];
+		for (int i = 0; i < tokens.size(); ++i) {
+			if (this.wordsBefore[i + 1] > this.wordsBefore[i])
+				this.wordTokenIndices[this.wordsBefore[i]] = i;
+		}
+	}
+
+	/**
+	 * Returns the number of words in the story.
+	 *
+	 * @return The number of words in the story.
+	 */
+	public int getNumWords() {
+		return this.wordTokenIndices.length;
+	}
+
+	/**
+	 * Returns the index of the token of the word at the provided index.
+	 *
+	 * @param wordIndex
+	 *            The index of the word, counting words only.
+	 * @return The index of the token of the word at the provided index.
+	 */
+	public int getWordTokenIndex(final int wordIndex) {
+		return this.wordTokenIndices[wordIndex];
+	}
+
+	/**
+	 * Returns the number of words in the provided range of tokens.
+	 *
+	 * @param fromToken
+	 *            The index of the first token of the range.
+	 * @param toToken
+	 *            The index after the last token of the range.
+	 * @return The number of words in the provided range of tokens.
+	 */
+	public int getWordCount(final int fromToken, final int toToken) {
+		return this.wordsBefore[toToken] - this.wordsBefore[fromToken];
+	}
+
+	/**
+	 * Returns the number of quoted words in the provided range of tokens.
+	 *
+	 * @param fromToken
+	 *            The index of the first token of the range.
+	 * @param toToken
+	 *            The index after the last token of the range.
+	 * @return The number of quoted words in the provided range of tokens.
+	 */
+	public int getQuotedWordCount(final int fromToken, final int toToken) {
+		return this.quotedWordsBefore[toToken] - this.quotedWordsBefore[fromToken];
+	}
+
+	/**
+	 * Returns the fraction of the words in the provided range of tokens that are quoted, zero if the range has no words.
+	 *
+	 * @param fromToken
+	 *            The index of the first token of the range.
+	 * @param toToken
+	 *            The index after the last token of the range.
+	 * @return The fraction of the words in the provided range of tokens that are quoted.
+	 */
+	public double getDialogueRatio(final int fromToken, final int toToken) {
+		final int words = getWordCount(fromToken, toToken);
+		return words == 0 ? 0 : (double) getQuotedWordCount(fromToken, toToken) / words;
+	}
+}
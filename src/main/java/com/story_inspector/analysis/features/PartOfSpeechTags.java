@@ -0,0 +1,125 @@
+package com.story_inspector.analysis.features;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import com.story_inspector.story.Story;
+import com.story_inspector.story.Token;
+
+/**
+ * The part of speech tags of the tokens of a {@link Story}, packed into one byte per token. Each distinct tag (Penn Treebank tags, as produced by
+ * the parser) is assigned a small id in order of first occurrence starting from zero, so analyzers can match tags by comparing bytes rather than
+ * strings.
+ *
+ * Immutable once created.
+ *
+ * @author mizitch
+ *
+ */
+public class PartOfSpeechTags {
+
+	/**
+	 * Id of tokens without a tag, and of tags that do not occur in the story.
+	 */
+	public static final int NO_ID = -1;
+
+	/**
+	 * Maximum number of distinct tags. Tags beyond this (which the Penn Treebank tag set never reaches) are given {@link #NO_ID}.
+	 */
+	public static final int MAX_TAGS = Byte.MAX_VALUE + 1;
+
+	private final Map<String, Integer> tagIds = new HashMap<>();
+	private final List<String> tags = new ArrayList<>();
+	private final byte[] tokenTagIds;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param tokens
+	 *            All tokens of the story, in order.
+	 */
+	public PartOfSpeechTags(final List<Token> tokens) {
+		Validate.notNull(tokens);
+		this.tokenTagIds = new byte[tokens.size()];
+		for (int i = 0; i < tokens.size(); ++i)
+			this.tokenTagIds[i] = (byte) assignId(tokens.get(i).getPartOfSpeechTag());
+	}
+
+	private int assignId(final String tag) {
+		if (tag == null)
+			return NO_ID;
+		final Integer existing = this.tagIds.get(tag);
+		if (existing != null)
+			return existing;
+		if (this.tags.size() == MAX_TAGS)
+			return NO_ID;
+		this.tags.add(tag);
+		this.tagIds.put(tag, this.tags.size() - 1);
+		return this.tags.size() - 1;
+	}
+
+	/**
+	 * Returns the id of the provided tag, {@link #NO_ID} if it does not occur in the story.
+	 *
+	 * @param tag
+	 *            The tag to look up.
+	 * @return The id of the provided tag.
+	 */
+	public int getTagId(final String tag) {
+		return this.tagIds.getOrDefault(tag, NO_ID);
+	}
+
+	/**
+	 * Returns the tag with the provided id.
+	 *
+	 * @param tagId
+	 *            The id, between zero and {@link #getNumTags()}.
+	 * @return The tag with the provided id.
+	 */
+	public String getTag(final int tagId) {
+		return this.tags.get(tagId);
+	}
+
+	/**
+	 * Returns all distinct tags of the story, indexed by id.
+	 *
+	 * @return All distinct tags of the story, indexed by id.
+	 */
+	public List<String> getTags() {
+		return Collections.unmodifiableList(this.tags);
+	}
+
+	/**
+	 * Returns the number of distinct tags in the story.
+	 *
+	 * @return The number of distinct tags in the story.
+	 */
+	public int getNumTags() {
+		return this.tags.size();
+	}
+
+	/**
+	 * Returns the tag id of the token at the provided index, {@link #NO_ID} if it has no tag.
+	 *
+	 * @param tokenIndex
+	 *            The index of the token in story order.
+	 * @return The tag id of the token at the provided index.
+	 */
+	public int getTokenTagId(final int tokenIndex) {
+		return this.tokenTagIds[tokenIndex];
+	}
+
+	/**
+	 * Returns the number of tokens.
+	 *
+	 * @return The number of tokens.
+	 */
+	public int getNumTokens() {
+		return this.tokenTagIds.length;
+	}
+}
@@ -0,0 +1,75 @@
+package com.story_inspector.analysis.features;
+
+import java.util.function.Function;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import com.story_inspector.story.Story;
+
+/**
+ * A keyed, memoizable computation of some data derived from a {@link Story}. Values are retrieved through a {@link StoryFeatureRegistry}, which
+ * computes each feature at most once per story.
+ *
+ * Features are compared by identity, so they should be declared as constants (see {@link StoryFeatures}).
+ *
+ * @author mizitch
+ *
+ * @param <V>
+ *            The type of the computed value. Computed values are shared between all consumers of a registry, so they must not be modified.
+ */
+public final class StoryFeature<V> {
+	private final String id;
+	private final Function<StoryFeatureRegistry, V> computation;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param id
+	 *            A descriptive id for the feature. Used for debugging purposes.
+	 * @param computation
+	 *            Computes the value of this feature. Has access to the {@link Story} and to other features through the provided registry, but must
+	 *            not (directly or indirectly) request this feature.
+	 */
+	public StoryFeature(final String id, final Function<StoryFeatureRegistry, V> computation) {
+		Validate.notBlank(id);
+		Validate.notNull(computation);
+		this.id = id;
+		this.computation = computation;
+	}
+
+	/**
+	 * Returns the id of this feature.
+	 *
+	 * @return The id of this feature.
+	 */
+	public String getId() {
+		return this.id;
+	}
+
+	/**
+	 * Computes the value of this feature.
+	 *
+	 * @param registry
+	 *            The registry requesting the computation.
+	 * @return The computed value.
+	 */
+	V compute(final StoryFeatureRegistry registry) {
+		return this.computation.apply(registry);
+	}
+
+	@Override
+	public boolean equals(final Object other) {
+		return this == other;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(this);
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder(this).append("id", this.id).toString();
+	}
+}
@@ -0,0 +1,147 @@
+package com.story_inspector.analysis.features;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.commons.lang3.Validate;
+
+import com.story_inspector.analysis.reports.ReportExecutor;
+import com.story_inspector.story.Story;
+
+/**
+ * Per-{@link Story} registry of memoized {@link StoryFeature}s. Each feature is computed at most once, even when it is requested concurrently from
+ * multiple threads; later requests block until the first computation is complete and then share its result.
+ *
+ * A {@link ReportExecutor} opens a registry for its story with {@link #open(Story)} and closes it once the report is complete, which releases all
+ * computed values. Code that runs during report execution (analyzers, summary generators) retrieves the open registry with
+ * {@link #forStory(Story)}. If no registry is open for a story, {@link #forStory(Story)} returns a new, unshared registry so callers behave the same
+ * way outside of report execution, just without the sharing.
+ *
+ * @author mizitch
+ *
+ */
+public class StoryFeatureRegistry implements AutoCloseable {
+
+	private static final Map<Story, StoryFeatureRegistry> openRegistries = new IdentityHashMap<>();
+
+	private final Story story;
+	private final ConcurrentMap<StoryFeature<?>, FutureTask<?>> computedFeatures = new ConcurrentHashMap<>();
+	private int openCount = 0;
+	private volatile boolean released = false;
+
+	private StoryFeatureRegistry(final Story story) {
+		Validate.notNull(story);
+		this.story = story;
+	}
+
+	/**
+	 * Opens the shared registry for the provided story. If a registry is already open for the story, it is reused. Every call must be paired with a
+	 * call to {@link #close()}; the registry is released when the last opener closes it.
+	 *
+	 * @param story
+	 *            The story to open a registry for.
+	 * @return The open registry.
+	 */
+	public static StoryFeatureRegistry open(final Story story) {
+		synchronized (openRegistries) {
+			StoryFeatureRegistry registry = openRegistries.get(story);
+			if (registry == null) {
+				registry = new StoryFeatureRegistry(story);
+				openRegistries.put(story, registry);
+			}
+			registry.openCount++;
+			return registry;
+		}
+	}
+
+	/**
+	 * Returns the open registry for the provided story, or a new unshared registry if none is open.
+	 *
+	 * @param story
+	 *            The story to retrieve a registry for.
+	 * @return The open registry for the story, or a new unshared registry if none is open.
+	 */
+	public static StoryFeatureRegistry forStory(final Story story) {
+		synchronized (openRegistries) {
+			final StoryFeatureRegistry registry = openRegistries.get(story);
+			return registry != null ? registry : new StoryFeatureRegistry(story);
+		}
+	}
+
+	/**
+	 * Returns the {@link Story} this registry computes features for.
+	 *
+	 * @return The {@link Story} this registry computes features for.
+	 */
+	public Story getStory() {
+		return this.story;
+	}
+
+	/**
+	 * Returns the value of the provided feature, computing it if this is the first request for it.
+	 *
+	 * @param feature
+	 *            The feature to retrieve.
+	 * @return The value of the feature. Shared with all other consumers of this registry, must not be modified.
+	 * @throws IllegalStateException
+	 *             If this registry has been released.
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> V get(final StoryFeature<V> feature) {
+		Validate.validState(!this.released, "Feature registry has been released");
+
+		FutureTask<?> task = this.computedFeatures.get(feature);
+		if (task == null) {
+			final FutureTask<V> newTask = new FutureTask<>(() -> feature.compute(this));
+			task = this.computedFeatures.putIfAbsent(feature, newTask);
+			if (task == null) {
+				task = newTask;
+				newTask.run();
+			}
+		}
+
+		try {
+			return (V) task.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting for feature " + feature.getId(), e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new RuntimeException("Failed to compute feature " + feature.getId(), e.getCause());
+		}
+	}
+
+	/**
+	 * Returns whether this registry has been released.
+	 *
+	 * @return Whether this registry has been released.
+	 */
+	public boolean isReleased() {
+		return this.released;
+	}
+
+	/**
+	 * Closes this registry. If this was the last open reference to the shared registry for the story, the registry is released along with all of its
+	 * computed values. Closing an unshared registry releases it immediately.
+	 */
+	@Override
+	public void close() {
+		synchronized (openRegistries) {
+			if (this.openCount > 0) {
+				this.openCount--;
+				if (this.openCount > 0)
+					return;
+				openRegistries.remove(this.story);
+			}
+			this.released = true;
+			this.computedFeatures.clear();
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package com.story_inspector.analysis.features;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.analysis.search.DeletionIndex;
+import com.story_inspector.story.Chapter;
+import com.story_inspector.story.Paragraph;
+import com.story_inspector.story.Scene;
+import com.story_inspector.story.Sentence;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.TextNode;
+import com.story_inspector.story.Token;
+
+/**
+ * Collection of commonly used {@link StoryFeature}s. Retrieve their values through a {@link StoryFeatureRegistry} so they are computed once per
+ * {@link Story} rather than once per consumer.
+ *
+ * @author mizitch
+ *
+ */
+public class StoryFeatures {
+
+	private StoryFeatures() {
+		throw new UnsupportedOperationException("This is a collection of constants and utility methods, don't instantiate");
+	}
+
+	/**
+	 * All {@link Token}s of the story, in order.
+	 */
+	public static final StoryFeature<List<Token>> TOKENS = new StoryFeature<>("tokens", r -> nodesAtLevel(r.getStory(), Token.class));
+
+	/**
+	 * All {@link Sentence}s of the story, in order.
+	 */
+	public static final StoryFeature<List<Sentence>> SENTENCES = new StoryFeature<>("sentences", r -> nodesAtLevel(r.getStory(), Sentence.class));
+
+	/**
+	 * All {@link Paragraph}s of the story, in order.
+	 */
+	public static final StoryFeature<List<Paragraph>> PARAGRAPHS = new StoryFeature<>("paragraphs",
+			r -> nodesAtLevel(r.getStory(), Paragraph.class));
+
+	/**
+	 * All {@link Scene}s of the story, in order.
+	 */
+	public static final StoryFeature<List<Scene>> SCENES = new StoryFeature<>("scenes", r -> nodesAtLevel(r.getStory(), Scene.class));
+
+	/**
+	 * All {@link Chapter}s of the story, in order.
+	 */
+	public static final StoryFeature<List<Chapter>> CHAPTERS = new StoryFeature<>("chapters", r -> nodesAtLevel(r.getStory(), Chapter.class));
+
+	/**
+	 * All quoted (dialogue) {@link Token}s of the story, in order.
+	 */
+	public static final StoryFeature<List<Token>> QUOTED_TOKENS = new StoryFeature<>("quotedTokens",
+			r -> Collections.unmodifiableList(r.get(TOKENS).stream().filter(Token::isQuoted).collect(Collectors.toList())));
+
+	/**
+	 * All unquoted (non-dialogue) {@link Token}s of the story, in order.
+	 */
+	public static final StoryFeature<List<Token>> UNQUOTED_TOKENS = new StoryFeature<>("unquotedTokens",
+			r -> Collections.unmodifiableList(r.get(TOKENS).stream().filter(t -> !t.isQuoted()).collect(Collectors.toList())));
+
+	/**
+	 * Number of occurrences of each word in the story. Words are case-folded to lower case.
+	 */
+	public static final StoryFeature<Map<String, Integer>> WORD_FREQUENCIES = new StoryFeature<>("wordFrequencies", r -> {
+		final Map<String, Integer> frequencies = new HashMap<>();
+		for (final Token token : r.get(TOKENS)) {
+			if (token.isWord())
+				frequencies.merge(token.getWord().toLowerCase(), 1, Integer::sum);
+		}
+		return Collections.unmodifiableMap(frequencies);
+	});
+
+	/**
+	 * Dense ids for the words and stems of the story, see {@link StoryVocabulary}.
+	 */
+	public static final StoryFeature<StoryVocabulary> VOCABULARY = new StoryFeature<>("vocabulary", r -> new StoryVocabulary(r.get(TOKENS)));
+
+	/**
+	 * Posting lists of the words and stems of the story, see {@link StoryPostingIndex}.
+	 */
+	public static final StoryFeature<StoryPostingIndex> POSTING_INDEX = new StoryFeature<>("postingIndex",
+			r -> new StoryPostingIndex(r.get(VOCABULARY), r.get(TOKENS).size()));
+
+	/**
+	 * Largest edit distance supported by {@link #FUZZY_WORD_INDEX}.
+	 */
+	public static final int MAX_FUZZY_EDIT_DISTANCE = 2;
+
+	/**
+	 * Index of the words of the story's {@link #VOCABULARY} for finding words within an edit distance of a search term, see {@link DeletionIndex}.
+	 * Ids are the vocabulary's word ids.
+	 */
+	public static final StoryFeature<DeletionIndex> FUZZY_WORD_INDEX = new StoryFeature<>("fuzzyWordIndex",
+			r -> new DeletionIndex(r.get(VOCABULARY).getWords(), MAX_FUZZY_EDIT_DISTANCE));
+
+	/**
+	 * Packed part of speech tag ids of the tokens of the story, see {@link PartOfSpeechTags}.
+	 */
+	public static final StoryFeature<PartOfSpeechTags> PART_OF_SPEECH_TAGS = new StoryFeature<>("partOfSpeechTags",
+			r -> new PartOfSpeechTags(r.get(TOKENS)));
+
+	/**
+	 * Index within {@link #SENTENCES} of the sentence containing each token of the story, indexed the same as {@link #TOKENS}.
+	 */
+	public static final StoryFeature<int[]> TOKEN_SENTENCE_INDICES = new StoryFeature<>("tokenSentenceIndices",
+			r -> findContainingNodes(r.get(SENTENCES), r.get(TOKENS)));
+
+	/**
+	 * Index within {@link #CHAPTERS} of the chapter containing each token of the story, indexed the same as {@link #TOKENS}.
+	 */
+	public static final StoryFeature<int[]> TOKEN_CHAPTER_INDICES = new StoryFeature<>("tokenChapterIndices",
+			r -> findContainingNodes(r.get(CHAPTERS), r.get(TOKENS)));
+
+	/**
+	 * Index within {@link #SCENES} of the scene containing each token of the story, indexed the same as {@link #TOKENS}.
+	 */
+	public static final StoryFeature<int[]> TOKEN_SCENE_INDICES = new StoryFeature<>("tokenSceneIndices",
+			r -> findContainingNodes(r.get(SCENES), r.get(TOKENS)));
+
+	/**
+	 * Prefix sums of the word and quoted word counts of the tokens of the story, see {@link DialoguePrefixSums}.
+	 */
+	public static final StoryFeature<DialoguePrefixSums> DIALOGUE_PREFIX_SUMS = new StoryFeature<>("dialoguePrefixSums",
+			r -> new DialoguePrefixSums(r.get(TOKENS)));
+
+	/**
+	 * Number of words in each sentence of the story, indexed the same as {@link #SENTENCES}.
+	 */
+	public static final StoryFeature<int[]> SENTENCE_LENGTHS = new StoryFeature<>("sentenceLengths",
+			r -> countWordsPerNode(r.get(SENTENCES), r.get(TOKENS)));
+
+	/**
+	 * Number of words in each chapter of the story, indexed the same as {@link #CHAPTERS}.
+	 */
+	public static final StoryFeature<int[]> CHAPTER_WORD_COUNTS = new StoryFeature<>("chapterWordCounts",
+			r -> countWordsPerNode(r.get(CHAPTERS), r.get(TOKENS)));
+
+	/**
+	 * Returns the feature containing the tokens that should be searched for the provided {@link DialogueSearchPattern}.
+	 *
+	 * @param pattern
+	 *            The pattern to retrieve tokens for.
+	 * @return The feature containing the tokens that should be searched for the provided {@link DialogueSearchPattern}.
+	 */
+	public static StoryFeature<List<Token>> tokensMatching(final DialogueSearchPattern pattern) {
+		switch (pattern) {
+		case DIALOGUE_ONLY:
+			return QUOTED_TOKENS;
+		case ALL_BUT_DIALOGUE:
+			return UNQUOTED_TOKENS;
+		default:
+			return TOKENS;
+		}
+	}
+
+	private static <T extends TextNode> List<T> nodesAtLevel(final Story story, final Class<T> levelClass) {
+		return Collections.unmodifiableList(new ArrayList<>(story.getChildrenAtLevel(levelClass)));
+	}
+
+	/**
+	 * Finds the index of the node containing each of the provided tokens in a single pass. Both lists must be in story order, and the nodes must not
+	 * overlap. Tokens between nodes are assigned the following node.
+	 */
+	private static int[] findContainingNodes(final List<? extends TextNode> nodes, final List<Token> tokens) {
+		final int[] result = new int[tokens.size()];
+		int nodeIndex = 0;
+		for (int tokenIndex = 0; tokenIndex < tokens.size(); ++tokenIndex) {
+			final int tokenStart = tokens.get(tokenIndex).getRange().getStartIndex();
+			while (nodeIndex < nodes.size() && tokenStart >= nodes.get(nodeIndex).getRange().getEndIndex())
+				++nodeIndex;
+			result[tokenIndex] = nodeIndex;
+		}
+		return result;
+	}
+
+	/**
+	 * Counts the words within each of the provided nodes in a single pass over the tokens. Both lists must be in story order, and the nodes must not
+	 * overlap.
+	 */
+	private static int[] countWordsPerNode(final List<? extends TextNode> nodes, final List<Token> tokens) {
+		final int[] counts = new int[nodes.size()];
+		int nodeIndex = 0;
+		for (final Token token : tokens) {
+			while (nodeIndex < nodes.size() && token.getRange().getStartIndex() >= nodes.get(nodeIndex).getRange().getEndIndex())
+				++nodeIndex;
+			if (nodeIndex == nodes.size())
+				break;
+			if (token.isWord() && nodes.get(nodeIndex).getRange().contains(token.getRange().getStartIndex()))
+				counts[nodeIndex]++;
+		}
+		return counts;
+	}
+}
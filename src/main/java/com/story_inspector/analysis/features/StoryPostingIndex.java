@@ -0,0 +1,82 @@
+package com.story_inspector.analysis.features;
+
+import java.util.function.IntUnaryOperator;
+
+import org.apache.commons.lang3.Validate;
+
+import com.story_inspector.story.Story;
+
+/**
+ * Posting lists of a {@link Story}: for each word and word stem of its {@link StoryVocabulary}, the indices (as in {@link StoryFeatures#TOKENS}) of
+ * the tokens it occurs at, in story order. Lets searches visit only the tokens that match rather than every token of the story.
+ *
+ * Immutable once created. The returned posting lists are shared and must not be modified.
+ *
+ * @author mizitch
+ *
+ */
+public class StoryPostingIndex {
+	private static final int[] EMPTY_POSTINGS = new int[0];
+
+	private final int[][] wordPostings;
+	private final int[][] stemPostings;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param vocabulary
+	 *            The vocabulary of the story.
+	 * @param numTokens
+	 *            The number of tokens in the story.
+	 */
+	public StoryPostingIndex(final StoryVocabulary vocabulary, final int numTokens) {
+		Validate.notNull(vocabulary);
+		this.wordPostings = buildPostings(vocabulary.getNumWords(), numTokens, vocabulary::getTokenWordId);
+		this.stemPostings = buildPostings(vocabulary.getNumStems(), numTokens, vocabulary::getTokenStemId);
+	}
+
+	/**
+	 * Counts the occurrences of each id and then fills exactly sized posting lists, in two passes over the tokens.
+	 */
+	private static int[][] buildPostings(final int numIds, final int numTokens, final IntUnaryOperator tokenIds) {
+		final int[] counts = new int[numIds];
+		for (int tokenIndex = 0; tokenIndex < numTokens; ++tokenIndex) {
+			final int id = tokenIds.applyAsInt(tokenIndex);
+			if (id != StoryVocabulary.NO_ID)
+				counts[id]++;
+		}
+
+		final int[][] postings = new int[numIds][];
+		for (int id = 0; id < numIds; ++id)
+			postings[id] = new int[counts[id]];
+		final int[] filled = new int[numIds];
+		for (int tokenIndex = 0; tokenIndex < numTokens; ++tokenIndex) {
+			final int id = tokenIds.applyAsInt(tokenIndex);
+			if (id != StoryVocabulary.NO_ID)
+				postings[id][filled[id]++] = tokenIndex;
+		}
+		return postings;
+	}
+
+	/**
+	 * Returns the indices of the tokens at which the word with the provided id occurs.
+	 *
+	 * @param wordId
+	 *            The id of the word, may be {@link StoryVocabulary#NO_ID}.
+	 * @return The indices of the tokens at which the word occurs, in story order. Empty for {@link StoryVocabulary#NO_ID}.
+	 */
+	public int[] getWordPostings(final int wordId) {
+		return wordId == StoryVocabulary.NO_ID ? EMPTY_POSTINGS : this.wordPostings[wordId];
+	}
+
+	/**
+	 * Returns the indices of the tokens at which the word stem with the provided id occurs.
+	 *
+	 * @param stemId
+	 *            The id of the stem, may be {@link StoryVocabulary#NO_ID}.
+	 * @return The indices of the tokens at which the stem occurs, in story order. Empty for {@link StoryVocabulary#NO_ID}.
+	 */
+	public int[] getStemPostings(final int stemId) {
+		return stemId == StoryVocabulary.NO_ID ? EMPTY_POSTINGS : this.stemPostings[stemId];
+	}
+}
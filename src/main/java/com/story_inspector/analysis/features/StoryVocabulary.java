@@ -0,0 +1,146 @@
+package com.story_inspector.analysis.features;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import com.story_inspector.story.Story;
+import com.story_inspector.story.Token;
+
+/**
+ * Dense integer ids for the distinct words and word stems of a {@link Story}. Words and stems are case-folded to lower case before ids are assigned,
+ * and ids are assigned in order of first occurrence starting from zero. Lets analyzers compare tokens by int rather than by string.
+ *
+ * Immutable once created.
+ *
+ * @author mizitch
+ *
+ */
+public class StoryVocabulary {
+
+	/**
+	 * Id of tokens that are not words, and of words or stems that do not occur in the story.
+	 */
+	public static final int NO_ID = -1;
+
+	private final Map<String, Integer> wordIds = new HashMap<>();
+	private final Map<String, Integer> stemIds = new HashMap<>();
+	private final List<String> words = new ArrayList<>();
+	private final int[] tokenWordIds;
+	private final int[] tokenStemIds;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param tokens
+	 *            All tokens of the story, in order.
+	 */
+	public StoryVocabulary(final List<Token> tokens) {
+		Validate.notNull(tokens);
+		this.tokenWordIds = new int[tokens.size()];
+		this.tokenStemIds = new int[tokens.size()];
+		for (int i = 0; i < tokens.size(); ++i) {
+			final Token token = tokens.get(i);
+			if (token.isWord()) {
+				final String word = token.getWord().toLowerCase();
+				this.tokenWordIds[i] = assignId(this.wordIds, word);
+				if (this.tokenWordIds[i] == this.words.size())
+					this.words.add(word);
+				this.tokenStemIds[i] = assignId(this.stemIds, token.getWordStem().toLowerCase());
+			} else {
+				this.tokenWordIds[i] = NO_ID;
+				this.tokenStemIds[i] = NO_ID;
+			}
+		}
+	}
+
+	private static int assignId(final Map<String, Integer> ids, final String key) {
+		return ids.computeIfAbsent(key, k -> ids.size());
+	}
+
+	/**
+	 * Returns the id of the provided word, {@link #NO_ID} if it does not occur in the story. Not case-sensitive.
+	 *
+	 * @param word
+	 *            The word to look up.
+	 * @return The id of the provided word.
+	 */
+	public int getWordId(final String word) {
+		return this.wordIds.getOrDefault(word.toLowerCase(), NO_ID);
+	}
+
+	/**
+	 * Returns the id of the provided word stem, {@link #NO_ID} if it does not occur in the story. Not case-sensitive.
+	 *
+	 * @param stem
+	 *            The stem to look up.
+	 * @return The id of the provided stem.
+	 */
+	public int getStemId(final String stem) {
+		return this.stemIds.getOrDefault(stem.toLowerCase(), NO_ID);
+	}
+
+	/**
+	 * Returns the (lower case) word with the provided id.
+	 *
+	 * @param wordId
+	 *            The id of the word, between zero and {@link #getNumWords()}.
+	 * @return The word with the provided id.
+	 */
+	public String getWord(final int wordId) {
+		return this.words.get(wordId);
+	}
+
+	/**
+	 * Returns all distinct (lower case) words of the story, indexed by id.
+	 *
+	 * @return All distinct words of the story, indexed by id.
+	 */
+	public List<String> getWords() {
+		return Collections.unmodifiableList(this.words);
+	}
+
+	/**
+	 * Returns the word id of the token at the provided index (as in {@link StoryFeatures#TOKENS}), {@link #NO_ID} if the token is not a word.
+	 *
+	 * @param tokenIndex
+	 *            The index of the token.
+	 * @return The word id of the token at the provided index.
+	 */
+	public int getTokenWordId(final int tokenIndex) {
+		return this.tokenWordIds[tokenIndex];
+	}
+
+	/**
+	 * Returns the stem id of the token at the provided index (as in {@link StoryFeatures#TOKENS}), {@link #NO_ID} if the token is not a word.
+	 *
+	 * @param tokenIndex
+	 *            The index of the token.
+	 * @return The stem id of the token at the provided index.
+	 */
+	public int getTokenStemId(final int tokenIndex) {
+		return this.tokenStemIds[tokenIndex];
+	}
+
+	/**
+	 * Returns the number of distinct words in the story.
+	 *
+	 * @return The number of distinct words in the story.
+	 */
+	public int getNumWords() {
+		return this.wordIds.size();
+	}
+
+	/**
+	 * Returns the number of distinct word stems in the story.
+	 *
+	 * @return The number of distinct word stems in the story.
+	 */
+	public int getNumStems() {
+		return this.stemIds.size();
+	}
+}
@@ -1,6 +1,7 @@
 package com.story_inspector.analysis.parameterTypes;
 
 import com.story_inspector.analysis.Describable;
+import com.story_inspector.story.Token;
 
 /**
  * Whether to search only inside dialogue, only outside dialogue, or everywhere.
@@ -31,4 +32,21 @@ public enum DialogueSearchPattern implements Describable {
 		return this.description;
 	}
 
+	/**
+	 * Returns whether the provided token should be searched under this pattern.
+	 *
+	 * @param token
+	 *            The token to check.
+	 * @return Whether the provided token should be searched under this pattern.
+	 */
+	public boolean includes(final Token token) {
+		switch (this) {
+		case DIALOGUE_ONLY:
+			return token.isQuoted();
+		case ALL_BUT_DIALOGUE:
+			return !token.isQuoted();
+		default:
+			return true;
+		}
+	}
 }
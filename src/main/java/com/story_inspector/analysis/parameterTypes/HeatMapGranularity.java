@@ -0,0 +1,46 @@
+package com.story_inspector.analysis.parameterTypes;
+
+import com.story_inspector.analysis.Describable;
+import com.story_inspector.analysis.summary.HeatMapResolution;
+
+/**
+ * How finely an analyzer's heat map divides the story.
+ *
+ * @author mizitch
+ *
+ */
+public enum HeatMapGranularity implements Describable {
+	STANDARD("Standard", "Divides the story into 20 sections of equal length", HeatMapResolution.DEFAULT),
+	FINE("Fine", "Divides the story into 500 sections of equal length", HeatMapResolution.fixedBins(500)),
+	PER_CHAPTER("Per chapter", "One section per chapter", HeatMapResolution.perChapter()),
+	PER_THOUSAND_WORDS("Per 1000 words", "One section per 1000 words", HeatMapResolution.perWords(1000));
+
+	private final String name;
+	private final String description;
+	private final HeatMapResolution resolution;
+
+	private HeatMapGranularity(final String name, final String description, final HeatMapResolution resolution) {
+		this.name = name;
+		this.description = description;
+		this.resolution = resolution;
+	}
+
+	@Override
+	public String getName() {
+		return this.name;
+	}
+
+	@Override
+	public String getDescription() {
+		return this.description;
+	}
+
+	/**
+	 * Returns the resolution of heat maps of this granularity.
+	 *
+	 * @return The resolution of heat maps of this granularity.
+	 */
+	public HeatMapResolution getResolution() {
+		return this.resolution;
+	}
+}
@@ -0,0 +1,45 @@
+package com.story_inspector.analysis.reports;
+
+import java.util.OptionalDouble;
+
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.AnalyzerType;
+
+/**
+ * Records how long {@link Analyzer}s of each {@link AnalyzerType} take to execute, normalized by the number of tokens in the story they executed on.
+ * Used by {@link ReportExecutor}s to estimate the cost of executing an analyzer before executing it.
+ *
+ * Implementations must be thread-safe.
+ *
+ * @author mizitch
+ *
+ */
+public interface AnalyzerRuntimeStatistics {
+
+	/**
+	 * Returns the estimated execution time per story token of analyzers of the provided type, in nanoseconds, if any executions of that type have
+	 * been recorded.
+	 *
+	 * @param analyzerType
+	 *            The {@link AnalyzerType} to retrieve the estimate for.
+	 * @return The estimated execution time per story token in nanoseconds, or an empty optional if no executions of that type have been recorded.
+	 */
+	public OptionalDouble getNanosPerToken(AnalyzerType<?> analyzerType);
+
+	/**
+	 * Records an execution of an analyzer of the provided type.
+	 *
+	 * @param analyzerType
+	 *            The {@link AnalyzerType} of the executed analyzer.
+	 * @param numTokens
+	 *            The number of tokens in the story the analyzer executed on.
+	 * @param elapsedNanos
+	 *            How long the execution took, in nanoseconds.
+	 */
+	public void recordExecution(AnalyzerType<?> analyzerType, int numTokens, long elapsedNanos);
+
+	/**
+	 * Persists all recorded executions. Failing to persist should not be treated as fatal, implementations should log failures rather than throw.
+	 */
+	public void save();
+}
@@ -0,0 +1,131 @@
+package com.story_inspector.analysis.reports;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Properties;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.story_inspector.analysis.AnalyzerType;
+
+/**
+ * Implementation of {@link AnalyzerRuntimeStatistics} that stores its statistics in a small properties file. For each {@link AnalyzerType} id and
+ * version, keeps an exponentially weighted moving average of the execution time per token so that estimates follow recent performance.
+ *
+ * @author mizitch
+ *
+ */
+@Component
+public class FileBasedAnalyzerRuntimeStatistics implements AnalyzerRuntimeStatistics {
+	private static final Logger log = LoggerFactory.getLogger(FileBasedAnalyzerRuntimeStatistics.class);
+
+	/**
+	 * Weight given to the newest recorded execution.
+	 */
+	private static final double SMOOTHING_FACTOR = 0.3;
+
+	private final File file;
+
+	private final Map<String, Double> nanosPerToken = new HashMap<>();
+
+	private boolean dirty = false;
+
+	/**
+	 * Creates a new instance that uses the default statistics file.
+	 */
+	public FileBasedAnalyzerRuntimeStatistics() {
+		// TODO: set this based on installer, probably defaulting to something under user's application data folder
+		this(new File("target/analyzer_runtime_statistics.properties"));
+	}
+
+	/**
+	 * Creates a new instance that uses the provided statistics file.
+	 *
+	 * @param file
+	 *            The file to load statistics from and save them to. Need not exist.
+	 */
+	public FileBasedAnalyzerRuntimeStatistics(final File file) {
+		Validate.notNull(file);
+		this.file = file;
+	}
+
+	@PostConstruct
+	public synchronized void load() {
+		this.nanosPerToken.clear();
+		if (!this.file.exists())
+			return;
+
+		final Properties properties = new Properties();
+		try (InputStream in = new FileInputStream(this.file)) {
+			properties.load(in);
+		} catch (final IOException e) {
+			log.warn("Could not load analyzer runtime statistics from file: " + this.file, e);
+			return;
+		}
+
+		for (final String key : properties.stringPropertyNames()) {
+			try {
+				final double value = Double.parseDouble(properties.getProperty(key));
+				if (value > 0 && !Double.isInfinite(value))
+					this.nanosPerToken.put(key, value);
+			} catch (final NumberFormatException e) {
+				log.warn("Ignoring malformed analyzer runtime statistic " + key + " in file: " + this.file);
+			}
+		}
+	}
+
+	@Override
+	public synchronized OptionalDouble getNanosPerToken(final AnalyzerType<?> analyzerType) {
+		final Double value = this.nanosPerToken.get(generateKey(analyzerType));
+		return value == null ? OptionalDouble.empty() : OptionalDouble.of(value);
+	}
+
+	@Override
+	public synchronized void recordExecution(final AnalyzerType<?> analyzerType, final int numTokens, final long elapsedNanos) {
+		Validate.isTrue(numTokens >= 0, "numTokens must not be negative");
+		Validate.isTrue(elapsedNanos >= 0, "elapsedNanos must not be negative");
+
+		// Avoid dividing by zero for empty stories, they tell us little about per token cost anyway
+		if (numTokens == 0)
+			return;
+
+		final double observed = Math.max(elapsedNanos, 1) / (double) numTokens;
+		this.nanosPerToken.merge(generateKey(analyzerType), observed, (o, n) -> (1 - SMOOTHING_FACTOR) * o + SMOOTHING_FACTOR * n);
+		this.dirty = true;
+	}
+
+	@Override
+	public synchronized void save() {
+		if (!this.dirty)
+			return;
+
+		final Properties properties = new Properties();
+		this.nanosPerToken.forEach((k, v) -> properties.setProperty(k, Double.toString(v)));
+
+		final File parent = this.file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists())
+			parent.mkdirs();
+		try (OutputStream out = new FileOutputStream(this.file)) {
+			properties.store(out, "Analyzer runtime statistics: average execution nanoseconds per story token");
+			this.dirty = false;
+		} catch (final IOException e) {
+			log.warn("Could not save analyzer runtime statistics to file: " + this.file, e);
+		}
+	}
+
+	private static String generateKey(final AnalyzerType<?> analyzerType) {
+		return analyzerType.getId() + ":" + analyzerType.getVersion();
+	}
+}
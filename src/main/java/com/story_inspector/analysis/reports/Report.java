@@ -7,7 +7,9 @@ import java.util.List;
 import org.apache.commons.lang3.Validate;
 
 import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.AnalyzerResult;
 import com.story_inspector.analysis.Describable;
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
 import com.story_inspector.analysis.summary.ReportSummaryWriter;
 import com.story_inspector.story.Story;
 
@@ -84,22 +86,39 @@ public class Report implements Describable, Cloneable {
 		return Collections.unmodifiableList(this.reportSections);
 	}
 
+	/**
+	 * Releases the comments of all {@link AnalyzerResult}s in this report, along with any resources held to store them. Call once the report has
+	 * been transcribed.
+	 */
+	public void releaseComments() {
+		for (final ReportSection section : this.reportSections) {
+			for (final AnalyzerResult<?> result : section.getAnalyzerResults())
+				result.releaseComments();
+		}
+	}
+
 	/**
 	 * Write the summary of this report to the provided {@link ReportSummaryWriter}.
 	 *
 	 * @param reportSummaryWriter
 	 */
 	public void writeSummary(final ReportSummaryWriter reportSummaryWriter) {
-		reportSummaryWriter.writeHeading("\"" + this.story.getTitle() + "\"", 0);
-		reportSummaryWriter.writeHeading(this.getName() + " Results", 0);
-		reportSummaryWriter.writeText(this.getDescription());
+		// Summary components compute their content as they are written, so share derived story data between them while writing
+		final StoryFeatureRegistry features = StoryFeatureRegistry.open(this.story);
+		try {
+			reportSummaryWriter.writeHeading("\"" + this.story.getTitle() + "\"", 0);
+			reportSummaryWriter.writeHeading(this.getName() + " Results", 0);
+			reportSummaryWriter.writeText(this.getDescription());
 
-		for (final ReportSection section : this.reportSections) {
-			reportSummaryWriter.addPageBreak();
-			section.writeSummary(reportSummaryWriter);
-		}
+			for (final ReportSection section : this.reportSections) {
+				reportSummaryWriter.addPageBreak();
+				section.writeSummary(reportSummaryWriter);
+			}
 
-		reportSummaryWriter.endReportSummary();
+			reportSummaryWriter.endReportSummary();
+		} finally {
+			features.close();
+		}
 	}
 
 	@Override
@@ -1,18 +1,38 @@
 package com.story_inspector.analysis.reports;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.story_inspector.analysis.Analyzer;
 import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
+import com.story_inspector.analysis.features.StoryFeatures;
 import com.story_inspector.progress.ProgressMonitor;
 import com.story_inspector.progress.TaskCanceledException;
 import com.story_inspector.story.Story;
 
 /**
- * Default implementation of {@link ReportExecutor}.
+ * Default implementation of {@link ReportExecutor}. Opens a {@link StoryFeatureRegistry} for the story while the report executes so that analyzers
+ * share derived story features, and releases it once the report is complete.
+ *
+ * Analyzers are executed in parallel. Their costs are estimated from {@link AnalyzerRuntimeStatistics} and the story's token count, and they are
+ * submitted longest first so that an expensive analyzer does not start last and dominate the total execution time. Reported progress is weighted by
+ * the same estimates. Result order within the report always matches the {@link ReportSpec}. If an analyzer fails or the report is canceled, the
+ * comments of all analyzers that completed are released.
  *
  * @author mizitch
  *
@@ -20,24 +40,216 @@ import com.story_inspector.story.Story;
 @Component
 public class ReportExecutorImpl implements ReportExecutor {
 
+	/**
+	 * Estimated execution time per token for analyzer types with no recorded executions, if no other type has recorded executions either.
+	 */
+	private static final double DEFAULT_NANOS_PER_TOKEN = 1000.0;
+
+	/**
+	 * How often progress is reported (and cancellation checked for) while waiting on analyzers.
+	 */
+	private static final long PROGRESS_INTERVAL_MILLIS = 100;
+
+	/**
+	 * Caps the progress attributed to a running analyzer, so that progress doesn't stall at 100% when an analyzer runs longer than estimated.
+	 */
+	private static final double MAX_RUNNING_FRACTION = 0.95;
+
+	private static final long NOT_RUNNING = Long.MIN_VALUE;
+
+	@Autowired
+	private AnalyzerRuntimeStatistics runtimeStatistics;
+
+	/**
+	 * Creates a new instance whose {@link AnalyzerRuntimeStatistics} are injected.
+	 */
+	public ReportExecutorImpl() {
+	}
+
+	/**
+	 * Creates a new instance that uses the provided statistics.
+	 *
+	 * @param runtimeStatistics
+	 *            The statistics used to estimate analyzer costs, and to record their executions in.
+	 */
+	ReportExecutorImpl(final AnalyzerRuntimeStatistics runtimeStatistics) {
+		this.runtimeStatistics = runtimeStatistics;
+	}
+
 	@Override
 	public Report execute(final ReportSpec spec, final Story story, final ProgressMonitor progressMonitor) throws TaskCanceledException {
-		progressMonitor.reportProgress(0.0f, "Starting");
-		final int numAnalyzers = spec.getNumAnalyzers();
-
-		final List<ReportSection> sections = new ArrayList<>();
-
-		int analyzerIndex = 0;
-		for (final ReportSectionSpec sectionSpec : spec.getSectionSpecs()) {
-			final List<AnalyzerResult<?>> results = new ArrayList<>();
-			for (final Analyzer<?> analyzer : sectionSpec.getAnalyzers()) {
-				progressMonitor.reportProgress(analyzerIndex * 1.0f / numAnalyzers, "Executing Analyzer: " + analyzer.getName());
-				results.add(analyzer.execute(story));
-				analyzerIndex++;
+		try (StoryFeatureRegistry features = StoryFeatureRegistry.open(story)) {
+			progressMonitor.reportProgress(0.0f, "Starting");
+
+			final List<Analyzer<?>> analyzers = new ArrayList<>();
+			for (final ReportSectionSpec sectionSpec : spec.getSectionSpecs())
+				analyzers.addAll(sectionSpec.getAnalyzers());
+
+			final int numTokens = features.get(StoryFeatures.TOKENS).size();
+			final AnalyzerResult<?>[] results = executeAnalyzers(analyzers, story, numTokens, progressMonitor);
+
+			final List<ReportSection> sections = new ArrayList<>();
+			int analyzerIndex = 0;
+			for (final ReportSectionSpec sectionSpec : spec.getSectionSpecs()) {
+				final int numSectionAnalyzers = sectionSpec.getAnalyzers().size();
+				final List<AnalyzerResult<?>> sectionResults = new ArrayList<>(numSectionAnalyzers);
+				for (int i = 0; i < numSectionAnalyzers; ++i)
+					sectionResults.add(results[analyzerIndex++]);
+				sections.add(new ReportSection(sectionSpec, sectionResults));
 			}
-			sections.add(new ReportSection(sectionSpec, results));
+			return new Report(story, spec, sections);
 		}
-		return new Report(story, spec, sections);
 	}
 
+	/**
+	 * Executes the provided analyzers in parallel, longest first, while reporting progress from the calling thread. Returns the results in the same
+	 * order as the provided analyzers.
+	 */
+	private AnalyzerResult<?>[] executeAnalyzers(final List<Analyzer<?>> analyzers, final Story story, final int numTokens,
+			final ProgressMonitor progressMonitor) throws TaskCanceledException {
+		final int numAnalyzers = analyzers.size();
+		final ResultCollector results = new ResultCollector(numAnalyzers);
+		if (numAnalyzers == 0)
+			return results.getResults();
+
+		final double[] estimatedNanos = estimateCosts(analyzers, numTokens);
+		final double totalEstimatedNanos = Arrays.stream(estimatedNanos).sum();
+
+		// Start times of running analyzers, NOT_RUNNING if not started or already complete
+		final AtomicLongArray startTimes = new AtomicLongArray(numAnalyzers);
+		for (int i = 0; i < numAnalyzers; ++i)
+			startTimes.set(i, NOT_RUNNING);
+
+		final int numThreads = Math.min(numAnalyzers, Runtime.getRuntime().availableProcessors());
+		final ExecutorService executor = Executors.newFixedThreadPool(numThreads, r -> {
+			final Thread thread = new Thread(r, "analyzer-execution");
+			thread.setDaemon(true);
+			return thread;
+		});
+		final CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+		boolean complete = false;
+		try {
+			for (final int index : scheduleLongestFirst(estimatedNanos)) {
+				final Analyzer<?> analyzer = analyzers.get(index);
+				completionService.submit(() -> {
+					final long startTime = System.nanoTime();
+					startTimes.set(index, startTime);
+					final AnalyzerResult<?> result = analyzer.execute(story);
+					this.runtimeStatistics.recordExecution(analyzer.getAnalyzerType(), numTokens, System.nanoTime() - startTime);
+					startTimes.set(index, NOT_RUNNING);
+					results.add(index, result);
+					return index;
+				});
+			}
+
+			double completedNanos = 0;
+			int numCompleted = 0;
+			while (numCompleted < numAnalyzers) {
+				final Future<Integer> completed = completionService.poll(PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+				if (completed != null) {
+					completedNanos += estimatedNanos[completed.get()];
+					numCompleted++;
+				}
+
+				// Credit running analyzers with the time they've spent so far, up to a cap. The one running longest is named in the progress message.
+				double runningNanos = 0;
+				final long now = System.nanoTime();
+				int longestRunning = -1;
+				long longestRunningStartTime = 0;
+				for (int i = 0; i < numAnalyzers; ++i) {
+					final long startTime = startTimes.get(i);
+					if (startTime != NOT_RUNNING) {
+						runningNanos += Math.min(now - startTime, MAX_RUNNING_FRACTION * estimatedNanos[i]);
+						if (longestRunning == -1 || startTime - longestRunningStartTime < 0) {
+							longestRunning = i;
+							longestRunningStartTime = startTime;
+						}
+					}
+				}
+
+				final float progress = (float) Math.min(1.0, (completedNanos + runningNanos) / totalEstimatedNanos);
+				final String completedMessage = numCompleted + " of " + numAnalyzers + " complete";
+				if (longestRunning != -1)
+					progressMonitor.reportProgress(progress,
+							"Executing Analyzer: " + analyzers.get(longestRunning).getName() + " (" + completedMessage + ")");
+				else
+					progressMonitor.reportProgress(progress, "Executing Analyzers: " + completedMessage);
+			}
+			complete = true;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TaskCanceledException("Interrupted while executing analyzers");
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new RuntimeException("Analyzer execution failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+			if (!complete)
+				results.abandon();
+			this.runtimeStatistics.save();
+		}
+		return results.getResults();
+	}
+
+	/**
+	 * Estimates the execution time of each of the provided analyzers in nanoseconds. Analyzer types without recorded executions are assumed to cost
+	 * as much as the average recorded type.
+	 */
+	private double[] estimateCosts(final List<Analyzer<?>> analyzers, final int numTokens) {
+		final OptionalDouble[] recorded = analyzers.stream().map(a -> this.runtimeStatistics.getNanosPerToken(a.getAnalyzerType()))
+				.toArray(OptionalDouble[]::new);
+		final double fallback = Arrays.stream(recorded).filter(OptionalDouble::isPresent).mapToDouble(OptionalDouble::getAsDouble).average()
+				.orElse(DEFAULT_NANOS_PER_TOKEN);
+
+		// Every analyzer costs at least a little, so that each one moves the progress bar
+		final int effectiveNumTokens = Math.max(numTokens, 1);
+		return Arrays.stream(recorded).mapToDouble(r -> r.orElse(fallback) * effectiveNumTokens).toArray();
+	}
+
+	/**
+	 * Collects the results of analyzers as they complete. Once abandoned, releases the comments of every result collected so far and of every
+	 * result completing afterwards, as analyzers still running when their execution is abandoned may not stop right away.
+	 */
+	private static class ResultCollector {
+		private final AnalyzerResult<?>[] results;
+		private boolean abandoned = false;
+
+		private ResultCollector(final int numAnalyzers) {
+			this.results = new AnalyzerResult<?>[numAnalyzers];
+		}
+
+		private synchronized void add(final int index, final AnalyzerResult<?> result) {
+			if (this.abandoned)
+				result.releaseComments();
+			else
+				this.results[index] = result;
+		}
+
+		private synchronized void abandon() {
+			this.abandoned = true;
+			for (final AnalyzerResult<?> result : this.results) {
+				if (result != null)
+					result.releaseComments();
+			}
+			Arrays.fill(this.results, null);
+		}
+
+		private synchronized AnalyzerResult<?>[] getResults() {
+			return this.results.clone();
+		}
+	}
+
+	/**
+	 * Returns the indices of the provided costs ordered by descending cost. Ties keep their original order.
+	 */
+	static int[] scheduleLongestFirst(final double[] estimatedCosts) {
+		final Integer[] indices = new Integer[estimatedCosts.length];
+		for (int i = 0; i < indices.length; ++i)
+			indices[i] = i;
+		Arrays.sort(indices, Comparator.comparingDouble((final Integer i) -> estimatedCosts[i]).reversed());
+		return Arrays.stream(indices).mapToInt(Integer::intValue).toArray();
+	}
 }
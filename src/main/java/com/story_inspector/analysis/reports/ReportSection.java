@@ -1,5 +1,6 @@
 package com.story_inspector.analysis.reports;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.lang3.Validate;
@@ -7,14 +8,20 @@ import org.apache.commons.lang3.Validate;
 import com.story_inspector.analysis.Analyzer;
 import com.story_inspector.analysis.AnalyzerResult;
 import com.story_inspector.analysis.Describable;
+import com.story_inspector.analysis.summary.AnalyzerSummaryComponent;
+import com.story_inspector.analysis.summary.ComparativeHeatMapSummaryComponent;
+import com.story_inspector.analysis.summary.HeatMapResolution;
+import com.story_inspector.analysis.summary.HeatMapSummaryComponent;
 import com.story_inspector.analysis.summary.ReportSummaryWriter;
 import com.story_inspector.story.Story;
+import com.story_inspector.story.TextRange;
 
 /**
  * One section of a completed report. Contains details on the results of each {@link Analyzer} from the section specification that was executed on the
  * {@link Story}.
  *
- * Also provides the {@link #writeSummary(ReportSummaryWriter) writeSummary} method, which is used to write details of this report section.
+ * Also provides the {@link #writeSummary(ReportSummaryWriter) writeSummary} method, which is used to write details of this report section. When
+ * several of the section's analyzers draw heat maps, the summary ends with a {@link ComparativeHeatMapSummaryComponent} comparing them.
  *
  * Note that in the UI, the term "report section" is usually used to refer to what is actually a {@link ReportSectionSpec}.
  *
@@ -26,6 +33,8 @@ import com.story_inspector.story.Story;
 public class ReportSection implements Describable {
 	private final ReportSectionSpec spec;
 	private final List<AnalyzerResult<?>> analyzerResults;
+	// Null if fewer than two analyzers draw heat maps
+	private final AnalyzerSummaryComponent comparativeHeatMap;
 
 	/**
 	 * Creates a new instance.
@@ -42,6 +51,7 @@ public class ReportSection implements Describable {
 
 		Validate.notNull(spec);
 		validateAnalyzerResults();
+		this.comparativeHeatMap = createComparativeHeatMap();
 	}
 
 	private void validateAnalyzerResults() {
@@ -52,6 +62,30 @@ public class ReportSection implements Describable {
 		}
 	}
 
+	/**
+	 * Creates a heat map comparing the first heat map of each analyzer that draws one, if there are at least two. The ranges are shared with the
+	 * analyzers' heat maps rather than copied.
+	 */
+	private AnalyzerSummaryComponent createComparativeHeatMap() {
+		Story story = null;
+		final List<String> analyzerNames = new ArrayList<>();
+		final List<List<TextRange>> analyzerRanges = new ArrayList<>();
+		for (final AnalyzerResult<?> result : this.analyzerResults) {
+			for (final AnalyzerSummaryComponent component : result.getSummaryComponents()) {
+				if (component instanceof HeatMapSummaryComponent) {
+					final HeatMapSummaryComponent heatMap = (HeatMapSummaryComponent) component;
+					story = heatMap.getStory();
+					analyzerNames.add(result.getAnalyzer().getName());
+					analyzerRanges.add(heatMap.getRanges());
+					break;
+				}
+			}
+		}
+		if (analyzerNames.size() < 2)
+			return null;
+		return new ComparativeHeatMapSummaryComponent(story, analyzerNames, analyzerRanges, HeatMapResolution.DEFAULT);
+	}
+
 	@Override
 	public String getName() {
 		return this.spec.getName();
@@ -92,5 +126,10 @@ public class ReportSection implements Describable {
 		for (final AnalyzerResult<?> results : this.analyzerResults) {
 			results.writeSummary(reportSummaryWriter);
 		}
+		if (this.comparativeHeatMap != null) {
+			reportSummaryWriter.writeHeading("Comparison", 2);
+			reportSummaryWriter.writeText("Where each analyzer of this section found results");
+			this.comparativeHeatMap.write(reportSummaryWriter);
+		}
 	}
 }
@@ -0,0 +1,161 @@
+package com.story_inspector.analysis.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Finds the words of a fixed vocabulary within a small edit distance of a query word, using the symmetric delete approach (as in SymSpell). Every
+ * string obtained by deleting up to the maximum number of characters from each vocabulary word is indexed. A query generates its own deletes and
+ * looks them up, and the resulting candidates are verified with an exact edit distance computation. No vocabulary word is ever compared with the
+ * query unless they share a delete.
+ *
+ * Distances are optimal string alignment distances: insertions, deletions, substitutions and transpositions of adjacent characters each cost one.
+ *
+ * Immutable once created.
+ *
+ * @author mizitch
+ *
+ */
+public class DeletionIndex {
+	private static final int[] NO_WORDS = new int[0];
+
+	private final List<String> words;
+	private final int maxEditDistance;
+
+	// Ids of the words producing each delete, in compressed form: the words of delete d are wordIds[deleteStarts[d]] to wordIds[deleteStarts[d + 1]]
+	private final Map<String, Integer> deleteIds = new HashMap<>();
+	private final int[] deleteStarts;
+	private final int[] wordIds;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param words
+	 *            The vocabulary, each word's id being its index. Must not be modified afterwards.
+	 * @param maxEditDistance
+	 *            The largest edit distance that will be queried. The size of the index grows quickly with it, so it should be small.
+	 */
+	public DeletionIndex(final List<String> words, final int maxEditDistance) {
+		Validate.notNull(words);
+		Validate.isTrue(maxEditDistance >= 0, "maxEditDistance must not be negative");
+		this.words = words;
+		this.maxEditDistance = maxEditDistance;
+
+		// First pass assigns delete ids and counts the words of each, second pass fills exactly sized lists
+		final int[][] wordDeletes = new int[words.size()][];
+		int[] counts = new int[Math.max(16, words.size())];
+		for (int wordId = 0; wordId < words.size(); ++wordId) {
+			final Set<String> deletes = generateDeletes(words.get(wordId), maxEditDistance);
+			wordDeletes[wordId] = new int[deletes.size()];
+			int i = 0;
+			for (final String delete : deletes) {
+				final int deleteId = this.deleteIds.computeIfAbsent(delete, d -> this.deleteIds.size());
+				if (deleteId >= counts.length)
+					counts = Arrays.copyOf(counts, 2 * counts.length);
+				counts[deleteId]++;
+				wordDeletes[wordId][i++] = deleteId;
+			}
+		}
+
+		this.deleteStarts = new int[this.deleteIds.size() + 1];
+		for (int deleteId = 0; deleteId < this.deleteIds.size(); ++deleteId)
+			this.deleteStarts[deleteId + 1] = this.deleteStarts[deleteId] + counts[deleteId];
+		this.wordIds = new int[this.deleteStarts[this.deleteIds.size()]];
+		final int[] filled = Arrays.copyOf(this.deleteStarts, this.deleteIds.size());
+		for (int wordId = 0; wordId < words.size(); ++wordId) {
+			for (final int deleteId : wordDeletes[wordId])
+				this.wordIds[filled[deleteId]++] = wordId;
+		}
+	}
+
+	/**
+	 * Returns the ids of the vocabulary words within the provided edit distance of the provided word, in increasing order.
+	 *
+	 * @param word
+	 *            The word to search for. Compared exactly, so callers should normalize case the same way as the vocabulary.
+	 * @param maxDistance
+	 *            The largest edit distance to accept, at most the maximum edit distance of this index.
+	 * @return The ids of the vocabulary words within the provided edit distance of the provided word.
+	 */
+	public int[] find(final String word, final int maxDistance) {
+		Validate.notNull(word);
+		Validate.isTrue(maxDistance >= 0 && maxDistance <= this.maxEditDistance, "maxDistance must be between 0 and " + this.maxEditDistance);
+
+		final BitSet checked = new BitSet(this.words.size());
+		final BitSet matches = new BitSet(this.words.size());
+		for (final String delete : generateDeletes(word, maxDistance)) {
+			final Integer deleteId = this.deleteIds.get(delete);
+			if (deleteId == null)
+				continue;
+			for (int i = this.deleteStarts[deleteId]; i < this.deleteStarts[deleteId + 1]; ++i) {
+				final int candidate = this.wordIds[i];
+				if (checked.get(candidate))
+					continue;
+				checked.set(candidate);
+				if (editDistance(word, this.words.get(candidate), maxDistance) <= maxDistance)
+					matches.set(candidate);
+			}
+		}
+		return matches.isEmpty() ? NO_WORDS : matches.stream().toArray();
+	}
+
+	/**
+	 * Returns the word itself and every string obtained by deleting up to the provided number of its characters.
+	 */
+	private static Set<String> generateDeletes(final String word, final int maxDeletions) {
+		final Set<String> deletes = new HashSet<>();
+		deletes.add(word);
+		Set<String> previous = deletes;
+		for (int deletions = 1; deletions <= maxDeletions; ++deletions) {
+			final Set<String> next = new HashSet<>();
+			for (final String string : previous) {
+				for (int i = 0; i < string.length(); ++i)
+					next.add(string.substring(0, i) + string.substring(i + 1));
+			}
+			deletes.addAll(next);
+			previous = next;
+		}
+		return deletes;
+	}
+
+	/**
+	 * Computes the optimal string alignment distance of the provided strings, stopping early (and returning some larger value) once it must exceed
+	 * the provided limit.
+	 */
+	static int editDistance(final String a, final String b, final int limit) {
+		if (Math.abs(a.length() - b.length()) > limit)
+			return limit + 1;
+
+		// Three rows of the dynamic programming table, for transpositions
+		int[] beforePrevious = new int[b.length() + 1];
+		int[] previous = new int[b.length() + 1];
+		int[] current = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); ++j)
+			previous[j] = j;
+		for (int i = 1; i <= a.length(); ++i) {
+			current[0] = i;
+			int rowMin = current[0];
+			for (int j = 1; j <= b.length(); ++j) {
+				final int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+				current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+				if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1))
+					current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+				rowMin = Math.min(rowMin, current[j]);
+			}
+			if (rowMin > limit)
+				return limit + 1;
+			final int[] recycled = beforePrevious;
+			beforePrevious = previous;
+			previous = current;
+			current = recycled;
+		}
+		return previous[b.length()];
+	}
+}
@@ -0,0 +1,174 @@
+package com.story_inspector.analysis.search;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Open addressing hash map from long keys to int values, with linear probing. Avoids the boxing and per-entry objects of a {@link java.util.HashMap},
+ * which matters when counting millions of keys. Absent keys have the value zero.
+ *
+ * Not thread-safe.
+ *
+ * @author mizitch
+ *
+ */
+public class LongIntHashMap {
+	private static final float MAX_LOAD_FACTOR = 0.6f;
+	private static final int MIN_CAPACITY = 16;
+	// Largest power of two array length
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	/**
+	 * Receives the entries of a map.
+	 */
+	@FunctionalInterface
+	public static interface EntryConsumer {
+		public void accept(long key, int value);
+	}
+
+	// Zero marks empty slots, so the zero key is stored separately
+	private long[] keys;
+	private int[] values;
+	private boolean hasZeroKey = false;
+	private int zeroKeyValue = 0;
+	private int size = 0;
+	private int resizeThreshold;
+
+	/**
+	 * Creates a new, empty instance.
+	 *
+	 * @param expectedSize
+	 *            The number of entries expected, so the map can be sized to avoid rehashing. Sizes beyond the largest possible capacity are
+	 *            clamped to it.
+	 */
+	public LongIntHashMap(final int expectedSize) {
+		Validate.isTrue(expectedSize >= 0, "expectedSize must not be negative");
+		allocate(capacityFor(expectedSize));
+	}
+
+	/**
+	 * Returns the smallest power of two capacity holding the provided number of entries without rehashing, clamped to the largest possible
+	 * capacity.
+	 */
+	static int capacityFor(final int expectedSize) {
+		final long minCapacity = (long) Math.ceil(expectedSize / (double) MAX_LOAD_FACTOR);
+		if (minCapacity >= MAX_CAPACITY)
+			return MAX_CAPACITY;
+		return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) minCapacity - 1) << 1);
+	}
+
+	private void allocate(final int capacity) {
+		this.keys = new long[capacity];
+		this.values = new int[capacity];
+		this.resizeThreshold = (int) (capacity * MAX_LOAD_FACTOR);
+	}
+
+	/**
+	 * Returns the value of the provided key, zero if absent.
+	 *
+	 * @param key
+	 *            The key.
+	 * @return The value of the provided key, zero if absent.
+	 */
+	public int get(final long key) {
+		if (key == 0)
+			return this.zeroKeyValue;
+		final int slot = findSlot(this.keys, key);
+		return this.keys[slot] == key ? this.values[slot] : 0;
+	}
+
+	/**
+	 * Adds the provided amount to the value of the provided key, inserting it with value zero first if absent.
+	 *
+	 * @param key
+	 *            The key.
+	 * @param delta
+	 *            The amount to add.
+	 * @return The new value of the key.
+	 */
+	public int addTo(final long key, final int delta) {
+		if (key == 0) {
+			if (!this.hasZeroKey) {
+				this.hasZeroKey = true;
+				this.size++;
+			}
+			return this.zeroKeyValue += delta;
+		}
+
+		int slot = findSlot(this.keys, key);
+		if (this.keys[slot] != key) {
+			if (this.size >= this.resizeThreshold) {
+				rehash();
+				slot = findSlot(this.keys, key);
+			}
+			this.keys[slot] = key;
+			this.size++;
+		}
+		return this.values[slot] += delta;
+	}
+
+	/**
+	 * Returns the number of keys in this map.
+	 *
+	 * @return The number of keys in this map.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Passes each entry of this map to the provided consumer, in no particular order.
+	 *
+	 * @param consumer
+	 *            Receives the entries.
+	 */
+	public void forEach(final EntryConsumer consumer) {
+		if (this.hasZeroKey)
+			consumer.accept(0, this.zeroKeyValue);
+		for (int slot = 0; slot < this.keys.length; ++slot) {
+			if (this.keys[slot] != 0)
+				consumer.accept(this.keys[slot], this.values[slot]);
+		}
+	}
+
+	/**
+	 * Returns the slot holding the provided (non-zero) key, or the empty slot where it would be inserted.
+	 */
+	private static int findSlot(final long[] keys, final long key) {
+		final int mask = keys.length - 1;
+		int slot = mix(key) & mask;
+		while (keys[slot] != 0 && keys[slot] != key)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	/**
+	 * Spreads the bits of the key, so that keys differing only in their high bits don't cluster.
+	 */
+	private static int mix(final long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		h ^= h >>> 32;
+		return (int) (h ^ (h >>> 16));
+	}
+
+	private void rehash() {
+		final long[] oldKeys = this.keys;
+		final int[] oldValues = this.values;
+		if (oldKeys.length == MAX_CAPACITY)
+			throw new IllegalStateException("Cannot hold more than " + this.size + " keys");
+		allocate(oldKeys.length * 2);
+		for (int slot = 0; slot < oldKeys.length; ++slot) {
+			if (oldKeys[slot] != 0) {
+				final int newSlot = findSlot(this.keys, oldKeys[slot]);
+				this.keys[newSlot] = oldKeys[slot];
+				this.values[newSlot] = oldValues[slot];
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder result = new StringBuilder("{");
+		forEach((k, v) -> result.append(result.length() > 1 ? ", " : "").append(k).append('=').append(v));
+		return result.append('}').toString();
+	}
+}
@@ -0,0 +1,20 @@
+package com.story_inspector.analysis.search;
+
+/**
+ * Receives the matches found while scanning a sequence of symbols.
+ *
+ * @author mizitch
+ *
+ */
+@FunctionalInterface
+public interface MatchListener {
+	/**
+	 * Called for each match.
+	 *
+	 * @param patternIndex
+	 *            The index of the matching pattern in the list the automaton was created with.
+	 * @param endPosition
+	 *            The position in the scanned sequence of the last symbol of the match.
+	 */
+	public void onMatch(int patternIndex, int endPosition);
+}
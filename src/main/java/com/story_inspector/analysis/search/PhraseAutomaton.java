@@ -0,0 +1,187 @@
+package com.story_inspector.analysis.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Aho-Corasick automaton that finds all occurrences of a set of phrases in a sequence of symbols in a single pass. Phrases and sequences are made of
+ * non-negative int symbols (for example the word ids of a {@link com.story_inspector.analysis.features.StoryVocabulary}), so scanning takes time
+ * linear in the length of the sequence plus the number of matches, regardless of how many phrases are searched for.
+ *
+ * Immutable and thread-safe once created.
+ *
+ * @author mizitch
+ *
+ */
+public class PhraseAutomaton {
+
+	/**
+	 * Any negative symbol in a scanned sequence is a break: no match spans it.
+	 */
+	public static final int BREAK = -1;
+
+	private static final int ROOT = 0;
+	private static final int NO_STATE = -1;
+	private static final int NO_PHRASE = -1;
+
+	private final int[] phraseLengths;
+
+	// Goto function in compressed form: the edges of state s are at [edgeStarts[s], edgeStarts[s + 1]) sorted by label
+	private final int[] edgeStarts;
+	private final int[] edgeLabels;
+	private final int[] edgeTargets;
+
+	private final int[] failureLinks;
+	// Phrase ending at each state, and the nearest state along the failure links at which a phrase ends
+	private final int[] statePhrases;
+	private final int[] outputLinks;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param phrases
+	 *            The phrases to search for. Each must be non-empty and contain only non-negative symbols. If the same phrase appears more than once,
+	 *            only its first index is reported.
+	 */
+	public PhraseAutomaton(final List<int[]> phrases) {
+		Validate.notNull(phrases);
+
+		// Build the trie
+		final List<Map<Integer, Integer>> children = new ArrayList<>();
+		final List<Integer> phraseAtState = new ArrayList<>();
+		children.add(new HashMap<>());
+		phraseAtState.add(NO_PHRASE);
+		this.phraseLengths = new int[phrases.size()];
+		for (int phraseIndex = 0; phraseIndex < phrases.size(); ++phraseIndex) {
+			final int[] phrase = phrases.get(phraseIndex);
+			Validate.isTrue(phrase.length > 0, "Phrases must not be empty");
+			this.phraseLengths[phraseIndex] = phrase.length;
+
+			int state = ROOT;
+			for (final int symbol : phrase) {
+				Validate.isTrue(symbol >= 0, "Phrase symbols must not be negative");
+				Integer next = children.get(state).get(symbol);
+				if (next == null) {
+					next = children.size();
+					children.get(state).put(symbol, next);
+					children.add(new HashMap<>());
+					phraseAtState.add(NO_PHRASE);
+				}
+				state = next;
+			}
+			if (phraseAtState.get(state) == NO_PHRASE)
+				phraseAtState.set(state, phraseIndex);
+		}
+
+		// Flatten the trie
+		final int numStates = children.size();
+		this.edgeStarts = new int[numStates + 1];
+		this.edgeLabels = new int[numStates - 1];
+		this.edgeTargets = new int[numStates - 1];
+		this.statePhrases = new int[numStates];
+		int edgeIndex = 0;
+		for (int state = 0; state < numStates; ++state) {
+			this.edgeStarts[state] = edgeIndex;
+			this.statePhrases[state] = phraseAtState.get(state);
+			final int[] labels = children.get(state).keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+			for (final int label : labels) {
+				this.edgeLabels[edgeIndex] = label;
+				this.edgeTargets[edgeIndex] = children.get(state).get(label);
+				edgeIndex++;
+			}
+		}
+		this.edgeStarts[numStates] = edgeIndex;
+
+		// Compute failure and output links breadth first, so the links of shallower states are known when needed
+		this.failureLinks = new int[numStates];
+		this.outputLinks = new int[numStates];
+		this.failureLinks[ROOT] = ROOT;
+		this.outputLinks[ROOT] = NO_STATE;
+		final int[] queue = new int[numStates];
+		int queueHead = 0;
+		int queueTail = 0;
+		queue[queueTail++] = ROOT;
+		while (queueHead < queueTail) {
+			final int state = queue[queueHead++];
+			for (int edge = this.edgeStarts[state]; edge < this.edgeStarts[state + 1]; ++edge) {
+				final int child = this.edgeTargets[edge];
+				final int failure = state == ROOT ? ROOT : transition(this.failureLinks[state], this.edgeLabels[edge]);
+				this.failureLinks[child] = failure;
+				this.outputLinks[child] = this.statePhrases[failure] != NO_PHRASE ? failure : this.outputLinks[failure];
+				queue[queueTail++] = child;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of phrases this automaton searches for.
+	 *
+	 * @return The number of phrases this automaton searches for.
+	 */
+	public int getNumPhrases() {
+		return this.phraseLengths.length;
+	}
+
+	/**
+	 * Returns the length of the phrase at the provided index.
+	 *
+	 * @param phraseIndex
+	 *            The index of the phrase.
+	 * @return The length of the phrase at the provided index.
+	 */
+	public int getPhraseLength(final int phraseIndex) {
+		return this.phraseLengths[phraseIndex];
+	}
+
+	/**
+	 * Scans the provided sequence for phrases, reporting every occurrence (including overlapping ones) to the listener in order of end position. A
+	 * match of phrase p ending at position e starts at {@code e - getPhraseLength(p) + 1}.
+	 *
+	 * @param symbols
+	 *            The sequence to scan. Negative symbols are breaks.
+	 * @param length
+	 *            The number of symbols of the sequence to scan, starting from the first.
+	 * @param listener
+	 *            Receives the matches.
+	 */
+	public void scan(final int[] symbols, final int length, final MatchListener listener) {
+		Validate.notNull(symbols);
+		Validate.isTrue(length >= 0 && length <= symbols.length, "length out of bounds");
+		Validate.notNull(listener);
+
+		int state = ROOT;
+		for (int position = 0; position < length; ++position) {
+			final int symbol = symbols[position];
+			if (symbol < 0) {
+				state = ROOT;
+				continue;
+			}
+			state = transition(state, symbol);
+
+			if (this.statePhrases[state] != NO_PHRASE)
+				listener.onMatch(this.statePhrases[state], position);
+			for (int output = this.outputLinks[state]; output != NO_STATE; output = this.outputLinks[output])
+				listener.onMatch(this.statePhrases[output], position);
+		}
+	}
+
+	/**
+	 * Follows the goto function from the provided state, falling back along failure links where it is undefined.
+	 */
+	private int transition(final int fromState, final int symbol) {
+		int state = fromState;
+		while (true) {
+			final int edge = Arrays.binarySearch(this.edgeLabels, this.edgeStarts[state], this.edgeStarts[state + 1], symbol);
+			if (edge >= 0)
+				return this.edgeTargets[edge];
+			if (state == ROOT)
+				return ROOT;
+			state = this.failureLinks[state];
+		}
+	}
+}
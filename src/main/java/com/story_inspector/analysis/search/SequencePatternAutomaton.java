@@ -0,0 +1,204 @@
+package com.story_inspector.analysis.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Finds occurrences of sequence patterns in a sequence of symbols in a single pass. A pattern is a sequence of elements, and each element matches a
+ * set of symbols. Symbols are small non-negative ints, such as the class ids of a {@link WildcardSet} or part of speech tag ids, and which elements
+ * each symbol matches is provided by the caller.
+ *
+ * All patterns are combined into one DFA, built lazily as states are reached, so scanning takes constant time per symbol no matter how many
+ * patterns there are. Can be driven by {@link #scan(int[], int, MatchListener)}, or one symbol at a time with {@link #step(int, int, int,
+ * MatchListener)} when symbols are stored in another form.
+ *
+ * Not thread-safe.
+ *
+ * @author mizitch
+ *
+ */
+public class SequencePatternAutomaton {
+
+	/**
+	 * The state to start scanning from, and to return to after a break.
+	 */
+	public static final int INITIAL_STATE = 0;
+
+	private static final int[] NO_MATCHES = new int[0];
+
+	private final int[][] patternElements;
+	private final int[] patternFirstPositions;
+	private final IntFunction<BitSet> symbolElements;
+
+	// Lazily built DFA states, each the set of pattern positions reached so far. Position j of pattern k means its first j elements have matched,
+	// for 0 < j < length. Position 0 is implicitly part of every state, since matches may start anywhere.
+	private final List<BitSet> states = new ArrayList<>();
+	private final Map<BitSet, Integer> stateIds = new HashMap<>();
+	private final List<Transition[]> transitions = new ArrayList<>();
+
+	private static class Transition {
+		private final int nextState;
+		private final int[] matchedPatterns;
+
+		private Transition(final int nextState, final int[] matchedPatterns) {
+			this.nextState = nextState;
+			this.matchedPatterns = matchedPatterns;
+		}
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param patternElements
+	 *            The element ids of each pattern. Each pattern must contain at least one element.
+	 * @param symbolElements
+	 *            Returns the set of element ids that match the provided symbol. Called at most once per symbol, and the returned set must not be
+	 *            modified afterwards.
+	 */
+	public SequencePatternAutomaton(final int[][] patternElements, final IntFunction<BitSet> symbolElements) {
+		Validate.notNull(patternElements);
+		Validate.notNull(symbolElements);
+		this.patternElements = new int[patternElements.length][];
+		this.patternFirstPositions = new int[patternElements.length];
+		int numPositions = 0;
+		for (int i = 0; i < patternElements.length; ++i) {
+			Validate.isTrue(patternElements[i].length > 0, "Patterns must not be empty");
+			this.patternElements[i] = Arrays.copyOf(patternElements[i], patternElements[i].length);
+			this.patternFirstPositions[i] = numPositions;
+			numPositions += patternElements[i].length;
+		}
+		this.symbolElements = new SymbolElementCache(symbolElements);
+		internState(new BitSet(numPositions));
+	}
+
+	/**
+	 * Remembers the elements matching each symbol, so the caller's function is called at most once per symbol.
+	 */
+	private static class SymbolElementCache implements IntFunction<BitSet> {
+		private final IntFunction<BitSet> source;
+		private BitSet[] cache = new BitSet[0];
+
+		private SymbolElementCache(final IntFunction<BitSet> source) {
+			this.source = source;
+		}
+
+		@Override
+		public BitSet apply(final int symbol) {
+			if (symbol >= this.cache.length)
+				this.cache = Arrays.copyOf(this.cache, Math.max(symbol + 1, 2 * this.cache.length));
+			if (this.cache[symbol] == null)
+				this.cache[symbol] = this.source.apply(symbol);
+			return this.cache[symbol];
+		}
+	}
+
+	/**
+	 * Returns the number of patterns this automaton searches for.
+	 *
+	 * @return The number of patterns this automaton searches for.
+	 */
+	public int getNumPatterns() {
+		return this.patternElements.length;
+	}
+
+	/**
+	 * Returns the number of elements (and so the number of symbols matched) of the pattern at the provided index.
+	 *
+	 * @param patternIndex
+	 *            The index of the pattern.
+	 * @return The number of elements of the pattern at the provided index.
+	 */
+	public int getPatternLength(final int patternIndex) {
+		return this.patternElements[patternIndex].length;
+	}
+
+	/**
+	 * Scans the provided sequence for patterns, reporting every occurrence (including overlapping ones) to the listener in order of end position. A
+	 * match of pattern p ending at position e starts at {@code e - getPatternLength(p) + 1}.
+	 *
+	 * @param symbols
+	 *            The sequence to scan. Negative symbols are breaks.
+	 * @param length
+	 *            The number of symbols of the sequence to scan, starting from the first.
+	 * @param listener
+	 *            Receives the matches.
+	 */
+	public void scan(final int[] symbols, final int length, final MatchListener listener) {
+		Validate.notNull(symbols);
+		Validate.isTrue(length >= 0 && length <= symbols.length, "length out of bounds");
+		Validate.notNull(listener);
+
+		int state = INITIAL_STATE;
+		for (int position = 0; position < length; ++position)
+			state = symbols[position] < 0 ? INITIAL_STATE : step(state, symbols[position], position, listener);
+	}
+
+	/**
+	 * Advances the automaton by one symbol, reporting the patterns that end at it.
+	 *
+	 * @param state
+	 *            The current state, {@link #INITIAL_STATE} at the start of the sequence and after a break.
+	 * @param symbol
+	 *            The next symbol, must not be negative.
+	 * @param position
+	 *            The position of the symbol, passed on to the listener.
+	 * @param listener
+	 *            Receives the matches.
+	 * @return The next state.
+	 */
+	public int step(final int state, final int symbol, final int position, final MatchListener listener) {
+		final Transition transition = getTransition(state, symbol);
+		for (final int patternIndex : transition.matchedPatterns)
+			listener.onMatch(patternIndex, position);
+		return transition.nextState;
+	}
+
+	private Transition getTransition(final int state, final int symbol) {
+		Transition[] stateTransitions = this.transitions.get(state);
+		if (symbol >= stateTransitions.length) {
+			stateTransitions = Arrays.copyOf(stateTransitions, Math.max(symbol + 1, 2 * stateTransitions.length));
+			this.transitions.set(state, stateTransitions);
+		}
+		if (stateTransitions[symbol] == null)
+			stateTransitions[symbol] = computeTransition(state, symbol);
+		return stateTransitions[symbol];
+	}
+
+	private Transition computeTransition(final int state, final int symbol) {
+		final BitSet matchingElements = this.symbolElements.apply(symbol);
+		final BitSet positions = this.states.get(state);
+		final BitSet next = new BitSet();
+		final List<Integer> matched = new ArrayList<>();
+		for (int k = 0; k < this.patternElements.length; ++k) {
+			final int[] pattern = this.patternElements[k];
+			for (int j = 0; j < pattern.length; ++j) {
+				final boolean reached = j == 0 || positions.get(this.patternFirstPositions[k] + j);
+				if (!reached || !matchingElements.get(pattern[j]))
+					continue;
+				if (j + 1 == pattern.length)
+					matched.add(k);
+				else
+					next.set(this.patternFirstPositions[k] + j + 1);
+			}
+		}
+		return new Transition(internState(next), matched.isEmpty() ? NO_MATCHES : matched.stream().mapToInt(Integer::intValue).toArray());
+	}
+
+	private int internState(final BitSet positions) {
+		final Integer existing = this.stateIds.get(positions);
+		if (existing != null)
+			return existing;
+		final int id = this.states.size();
+		this.states.add(positions);
+		this.stateIds.put(positions, id);
+		this.transitions.add(new Transition[0]);
+		return id;
+	}
+}
@@ -0,0 +1,101 @@
+package com.story_inspector.analysis.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Finds occurrences of token level wildcard patterns in a sequence of words in a single pass. A pattern is a whitespace separated sequence of
+ * elements, each a wildcard pattern (see {@link WildcardSet}) that must match one word. For example {@code "*ly"} matches any single word ending in
+ * "ly" and {@code "was *ing"} matches "was" followed by any word ending in "ing".
+ *
+ * All elements of all patterns are compiled into a single {@link WildcardSet}, which reduces each distinct word to a class id. The token level
+ * patterns are then combined into one {@link SequencePatternAutomaton} over those class ids, so the word sequence is scanned once regardless of the
+ * number of patterns. Callers should classify each distinct word once (see {@link #classify(CharSequence)}) and scan the sequence of class ids.
+ *
+ * Not thread-safe.
+ *
+ * @author mizitch
+ *
+ */
+public class TokenPatternAutomaton {
+	private final WildcardSet elements;
+	private final SequencePatternAutomaton automaton;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param patterns
+	 *            The token level patterns. Each must contain at least one element.
+	 */
+	public TokenPatternAutomaton(final List<String> patterns) {
+		Validate.notNull(patterns);
+
+		final List<String> elementPatterns = new ArrayList<>();
+		final Map<String, Integer> elementIds = new HashMap<>();
+		final int[][] patternElements = new int[patterns.size()][];
+		for (int i = 0; i < patterns.size(); ++i) {
+			final String[] parts = patterns.get(i).trim().toLowerCase().split("\\s+");
+			Validate.isTrue(!parts[0].isEmpty(), "Patterns must not be blank");
+			patternElements[i] = new int[parts.length];
+			for (int j = 0; j < parts.length; ++j) {
+				patternElements[i][j] = elementIds.computeIfAbsent(parts[j], e -> {
+					elementPatterns.add(e);
+					return elementPatterns.size() - 1;
+				});
+			}
+		}
+		this.elements = new WildcardSet(elementPatterns);
+		this.automaton = new SequencePatternAutomaton(patternElements, this.elements::getMatchingPatterns);
+	}
+
+	/**
+	 * Returns the number of patterns this automaton searches for.
+	 *
+	 * @return The number of patterns this automaton searches for.
+	 */
+	public int getNumPatterns() {
+		return this.automaton.getNumPatterns();
+	}
+
+	/**
+	 * Returns the number of elements (and so the number of words matched) of the pattern at the provided index.
+	 *
+	 * @param patternIndex
+	 *            The index of the pattern.
+	 * @return The number of elements of the pattern at the provided index.
+	 */
+	public int getPatternLength(final int patternIndex) {
+		return this.automaton.getPatternLength(patternIndex);
+	}
+
+	/**
+	 * Returns the class id of the provided word, to be used as its symbol when scanning. Words with the same class id match the same pattern
+	 * elements.
+	 *
+	 * @param word
+	 *            The word to classify.
+	 * @return The class id of the provided word.
+	 */
+	public int classify(final CharSequence word) {
+		return this.elements.classify(word);
+	}
+
+	/**
+	 * Scans the provided sequence of class ids for patterns, reporting every occurrence (including overlapping ones) to the listener in order of end
+	 * position. A match of pattern p ending at position e starts at {@code e - getPatternLength(p) + 1}.
+	 *
+	 * @param symbols
+	 *            The class ids of the words to scan, obtained from {@link #classify(CharSequence)}. Negative symbols are breaks.
+	 * @param length
+	 *            The number of symbols of the sequence to scan, starting from the first.
+	 * @param listener
+	 *            Receives the matches.
+	 */
+	public void scan(final int[] symbols, final int length, final MatchListener listener) {
+		this.automaton.scan(symbols, length, listener);
+	}
+}
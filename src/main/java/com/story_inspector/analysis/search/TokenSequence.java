@@ -0,0 +1,109 @@
+package com.story_inspector.analysis.search;
+
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import org.apache.commons.lang3.Validate;
+
+import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.story.TextRange;
+import com.story_inspector.story.Token;
+
+/**
+ * Sequence of symbols to scan for token level patterns, along with the index of the token each symbol came from. Only word tokens produce symbols.
+ * Sentence boundaries and words excluded by a {@link DialogueSearchPattern} produce breaks ({@link PhraseAutomaton#BREAK}), so that no match spans
+ * them.
+ *
+ * @author mizitch
+ *
+ */
+public class TokenSequence {
+	private final List<Token> tokens;
+	private final int[] symbols;
+	private final int[] tokenIndices;
+	private int size = 0;
+
+	/**
+	 * Creates a new, empty instance.
+	 *
+	 * @param tokens
+	 *            All tokens of the story, in order.
+	 * @param capacity
+	 *            The maximum number of symbols that will be appended. Appending a range of tokens needs at most one symbol more than the number
+	 *            of tokens in it, plus one for each sentence boundary within it.
+	 */
+	public TokenSequence(final List<Token> tokens, final int capacity) {
+		Validate.notNull(tokens);
+		Validate.isTrue(capacity >= 0, "capacity must not be negative");
+		this.tokens = tokens;
+		this.symbols = new int[capacity];
+		this.tokenIndices = new int[capacity];
+	}
+
+	/**
+	 * Appends the symbols of a range of tokens, preceded by a break.
+	 *
+	 * @param fromToken
+	 *            Index of the first token of the range, inclusive.
+	 * @param toToken
+	 *            Index of the last token of the range, exclusive.
+	 * @param tokenSentenceIndices
+	 *            Index of the sentence containing each token of the story.
+	 * @param dialogueSearchPattern
+	 *            Determines which words are searched, other words become breaks.
+	 * @param tokenSymbols
+	 *            Provides the (non-negative) symbol of each word token, by token index.
+	 */
+	public void appendTokens(final int fromToken, final int toToken, final int[] tokenSentenceIndices, final DialogueSearchPattern dialogueSearchPattern,
+			final IntUnaryOperator tokenSymbols) {
+		append(PhraseAutomaton.BREAK, -1);
+		for (int tokenIndex = fromToken; tokenIndex < toToken; ++tokenIndex) {
+			if (tokenIndex > fromToken && tokenSentenceIndices[tokenIndex] != tokenSentenceIndices[tokenIndex - 1])
+				append(PhraseAutomaton.BREAK, -1);
+
+			final Token token = this.tokens.get(tokenIndex);
+			if (token.isWord())
+				append(dialogueSearchPattern.includes(token) ? tokenSymbols.applyAsInt(tokenIndex) : PhraseAutomaton.BREAK, tokenIndex);
+		}
+	}
+
+	private void append(final int symbol, final int tokenIndex) {
+		// Consecutive breaks are redundant, and ensure the capacity promised to callers
+		if (symbol < 0 && this.size > 0 && this.symbols[this.size - 1] < 0)
+			return;
+		this.symbols[this.size] = symbol;
+		this.tokenIndices[this.size++] = tokenIndex;
+	}
+
+	/**
+	 * Returns the symbols of this sequence. Only the first {@link #size()} are valid.
+	 *
+	 * @return The symbols of this sequence.
+	 */
+	public int[] getSymbols() {
+		return this.symbols;
+	}
+
+	/**
+	 * Returns the number of symbols in this sequence.
+	 *
+	 * @return The number of symbols in this sequence.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the range of the story covered by the symbols between the provided positions.
+	 *
+	 * @param startPosition
+	 *            Position of the first symbol, inclusive. Must not be a break.
+	 * @param endPosition
+	 *            Position of the last symbol, inclusive. Must not be a break.
+	 * @return The range of the story covered by the symbols between the provided positions.
+	 */
+	public TextRange getRange(final int startPosition, final int endPosition) {
+		return new TextRange(this.tokens.get(this.tokenIndices[startPosition]).getRange().getStartIndex(),
+				this.tokens.get(this.tokenIndices[endPosition]).getRange().getEndIndex());
+	}
+}
@@ -0,0 +1,195 @@
+package com.story_inspector.analysis.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Set of wildcard patterns compiled into one lazily built DFA, which determines in a single pass over a string which of the patterns match it. A
+ * {@code *} in a pattern matches any sequence of characters (including an empty one), a {@code ?} matches any single character, and every other
+ * character matches itself. Matching is not case-sensitive.
+ *
+ * Each distinct set of matching patterns is assigned a dense class id, so that strings matching the same patterns can be treated alike. DFA states are
+ * only created when first reached, so the cost of a large set of patterns is only paid for the states the scanned strings actually visit.
+ *
+ * Not thread-safe.
+ *
+ * @author mizitch
+ *
+ */
+public class WildcardSet {
+	private static final int ASCII_LIMIT = 128;
+	private static final int UNKNOWN = -1;
+	private static final int INITIAL_STATE = 0;
+
+	private final char[][] patterns;
+
+	// NFA positions: position p is index positionIndices[p] of pattern positionPatterns[p]. Index == pattern length means the pattern matched.
+	private final int[] positionPatterns;
+	private final int[] positionIndices;
+	private final int[] patternFirstPositions;
+
+	// Lazily built DFA states, each a set of NFA positions
+	private final List<BitSet> states = new ArrayList<>();
+	private final Map<BitSet, Integer> stateIds = new HashMap<>();
+	private final List<int[]> asciiTransitions = new ArrayList<>();
+	private final Map<Long, Integer> otherTransitions = new HashMap<>();
+	private final List<Integer> stateClasses = new ArrayList<>();
+
+	// Distinct sets of matching patterns
+	private final List<BitSet> classes = new ArrayList<>();
+	private final Map<BitSet, Integer> classIds = new HashMap<>();
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param patterns
+	 *            The wildcard patterns. Each must be non-empty.
+	 */
+	public WildcardSet(final List<String> patterns) {
+		Validate.notNull(patterns);
+		this.patterns = new char[patterns.size()][];
+		this.patternFirstPositions = new int[patterns.size()];
+		int numPositions = 0;
+		for (int i = 0; i < patterns.size(); ++i) {
+			Validate.notEmpty(patterns.get(i), "Patterns must not be empty");
+			this.patterns[i] = patterns.get(i).toLowerCase().toCharArray();
+			this.patternFirstPositions[i] = numPositions;
+			numPositions += this.patterns[i].length + 1;
+		}
+
+		this.positionPatterns = new int[numPositions];
+		this.positionIndices = new int[numPositions];
+		for (int i = 0; i < this.patterns.length; ++i) {
+			for (int index = 0; index <= this.patterns[i].length; ++index) {
+				this.positionPatterns[this.patternFirstPositions[i] + index] = i;
+				this.positionIndices[this.patternFirstPositions[i] + index] = index;
+			}
+		}
+
+		final BitSet initial = new BitSet(numPositions);
+		for (int i = 0; i < this.patterns.length; ++i)
+			addWithClosure(initial, i, 0);
+		internState(initial);
+	}
+
+	/**
+	 * Returns the number of patterns in this set.
+	 *
+	 * @return The number of patterns in this set.
+	 */
+	public int getNumPatterns() {
+		return this.patterns.length;
+	}
+
+	/**
+	 * Returns the class id of the provided text: the id of the set of patterns that match it.
+	 *
+	 * @param text
+	 *            The text to match.
+	 * @return The class id of the provided text.
+	 */
+	public int classify(final CharSequence text) {
+		int state = INITIAL_STATE;
+		for (int i = 0; i < text.length(); ++i)
+			state = transition(state, Character.toLowerCase(text.charAt(i)));
+		return this.stateClasses.get(state);
+	}
+
+	/**
+	 * Returns the number of classes assigned so far.
+	 *
+	 * @return The number of classes assigned so far.
+	 */
+	public int getNumClasses() {
+		return this.classes.size();
+	}
+
+	/**
+	 * Returns the set of patterns that match the texts of the provided class, as indices into the list this set was created with.
+	 *
+	 * @param classId
+	 *            The class id.
+	 * @return The set of patterns that match the texts of the provided class. Must not be modified.
+	 */
+	public BitSet getMatchingPatterns(final int classId) {
+		return this.classes.get(classId);
+	}
+
+	private int transition(final int state, final char c) {
+		if (c < ASCII_LIMIT) {
+			final int[] transitions = this.asciiTransitions.get(state);
+			if (transitions[c] == UNKNOWN)
+				transitions[c] = computeTransition(state, c);
+			return transitions[c];
+		}
+
+		final long key = ((long) state << Character.SIZE) | c;
+		Integer next = this.otherTransitions.get(key);
+		if (next == null) {
+			next = computeTransition(state, c);
+			this.otherTransitions.put(key, next);
+		}
+		return next;
+	}
+
+	private int computeTransition(final int state, final char c) {
+		final BitSet positions = this.states.get(state);
+		final BitSet next = new BitSet(this.positionPatterns.length);
+		for (int position = positions.nextSetBit(0); position >= 0; position = positions.nextSetBit(position + 1)) {
+			final char[] pattern = this.patterns[this.positionPatterns[position]];
+			final int index = this.positionIndices[position];
+			if (index == pattern.length)
+				continue;
+			if (pattern[index] == '*')
+				addWithClosure(next, this.positionPatterns[position], index);
+			else if (pattern[index] == '?' || pattern[index] == c)
+				addWithClosure(next, this.positionPatterns[position], index + 1);
+		}
+		return internState(next);
+	}
+
+	/**
+	 * Adds a position to a state, along with the positions after any stars that follow it, since stars may match nothing.
+	 */
+	private void addWithClosure(final BitSet state, final int patternIndex, final int index) {
+		final char[] pattern = this.patterns[patternIndex];
+		int current = index;
+		state.set(this.patternFirstPositions[patternIndex] + current);
+		while (current < pattern.length && pattern[current] == '*')
+			state.set(this.patternFirstPositions[patternIndex] + ++current);
+	}
+
+	private int internState(final BitSet positions) {
+		final Integer existing = this.stateIds.get(positions);
+		if (existing != null)
+			return existing;
+
+		final int id = this.states.size();
+		this.states.add(positions);
+		this.stateIds.put(positions, id);
+		final int[] transitions = new int[ASCII_LIMIT];
+		Arrays.fill(transitions, UNKNOWN);
+		this.asciiTransitions.add(transitions);
+
+		final BitSet matching = new BitSet(this.patterns.length);
+		for (int i = 0; i < this.patterns.length; ++i) {
+			if (positions.get(this.patternFirstPositions[i] + this.patterns[i].length))
+				matching.set(i);
+		}
+		this.stateClasses.add(internClass(matching));
+		return id;
+	}
+
+	private int internClass(final BitSet matching) {
+		return this.classIds.computeIfAbsent(matching, m -> {
+			this.classes.add(m);
+			return this.classes.size() - 1;
+		});
+	}
+}
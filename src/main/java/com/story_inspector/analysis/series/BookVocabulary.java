@@ -0,0 +1,334 @@
+package com.story_inspector.analysis.series;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.Validate;
+
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
+import com.story_inspector.analysis.features.StoryFeatures;
+import com.story_inspector.analysis.features.StoryVocabulary;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.Token;
+
+/**
+ * The vocabulary of one book of a series: each distinct (lower case) word with its frequency, the character offset of its first occurrence and the
+ * number of times it was tagged as a proper noun. Terms are kept sorted, so vocabularies can be compared and merged in linear time.
+ *
+ * Vocabularies are stored in a compact binary format: terms are front coded (each stores only what differs from the previous term) and numbers are
+ * variable length encoded.
+ *
+ * Immutable once created.
+ *
+ * @author mizitch
+ *
+ */
+public class BookVocabulary {
+	private static final int MAGIC = 0x53495656;
+	private static final int FORMAT_VERSION = 1;
+
+	private final String title;
+	private final String[] terms;
+	private final int[] frequencies;
+	private final int[] firstPositions;
+	private final int[] nameCounts;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param title
+	 *            The title of the book.
+	 * @param terms
+	 *            The distinct terms, sorted.
+	 * @param frequencies
+	 *            The number of occurrences of each term.
+	 * @param firstPositions
+	 *            The character offset of the first occurrence of each term.
+	 * @param nameCounts
+	 *            The number of occurrences of each term that were tagged as proper nouns.
+	 */
+	public BookVocabulary(final String title, final String[] terms, final int[] frequencies, final int[] firstPositions, final int[] nameCounts) {
+		Validate.notNull(title);
+		Validate.noNullElements(terms);
+		Validate.isTrue(frequencies.length == terms.length && firstPositions.length == terms.length && nameCounts.length == terms.length,
+				"All arrays must have one entry per term");
+		for (int i = 1; i < terms.length; ++i)
+			Validate.isTrue(terms[i - 1].compareTo(terms[i]) < 0, "Terms must be sorted and distinct");
+		this.title = title;
+		this.terms = terms;
+		this.frequencies = frequencies;
+		this.firstPositions = firstPositions;
+		this.nameCounts = nameCounts;
+	}
+
+	/**
+	 * Creates the vocabulary of the provided story.
+	 *
+	 * @param story
+	 *            The story.
+	 * @return The vocabulary of the provided story.
+	 */
+	public static BookVocabulary fromStory(final Story story) {
+		final StoryFeatureRegistry features = StoryFeatureRegistry.forStory(story);
+		final List<Token> tokens = features.get(StoryFeatures.TOKENS);
+		final StoryVocabulary vocabulary = features.get(StoryFeatures.VOCABULARY);
+
+		final int numWords = vocabulary.getNumWords();
+		final int[] frequencies = new int[numWords];
+		final int[] firstPositions = new int[numWords];
+		final int[] nameCounts = new int[numWords];
+		for (int tokenIndex = 0; tokenIndex < tokens.size(); ++tokenIndex) {
+			final int wordId = vocabulary.getTokenWordId(tokenIndex);
+			if (wordId == StoryVocabulary.NO_ID)
+				continue;
+			final Token token = tokens.get(tokenIndex);
+			if (frequencies[wordId]++ == 0)
+				firstPositions[wordId] = token.getRange().getStartIndex();
+			if (token.getPartOfSpeechTag() != null && token.getPartOfSpeechTag().startsWith("NNP"))
+				nameCounts[wordId]++;
+		}
+
+		final int[] order = IntStream.range(0, numWords).boxed().sorted(Comparator.comparing(vocabulary::getWord)).mapToInt(Integer::intValue)
+				.toArray();
+		final String[] sortedTerms = new String[numWords];
+		final int[] sortedFrequencies = new int[numWords];
+		final int[] sortedFirstPositions = new int[numWords];
+		final int[] sortedNameCounts = new int[numWords];
+		for (int i = 0; i < numWords; ++i) {
+			sortedTerms[i] = vocabulary.getWord(order[i]);
+			sortedFrequencies[i] = frequencies[order[i]];
+			sortedFirstPositions[i] = firstPositions[order[i]];
+			sortedNameCounts[i] = nameCounts[order[i]];
+		}
+		return new BookVocabulary(story.getTitle() == null ? "" : story.getTitle(), sortedTerms, sortedFrequencies, sortedFirstPositions,
+				sortedNameCounts);
+	}
+
+	/**
+	 * Merges the vocabularies of several books into one, summing frequencies and name counts. First positions are those of the first book (in the
+	 * provided order) containing each term.
+	 *
+	 * @param title
+	 *            The title of the merged vocabulary.
+	 * @param books
+	 *            The vocabularies to merge.
+	 * @return The merged vocabulary.
+	 */
+	public static BookVocabulary merge(final String title, final List<BookVocabulary> books) {
+		Validate.noNullElements(books);
+
+		// k-way merge, each cursor being {book, index}, ordered by term and then by book
+		final PriorityQueue<int[]> cursors = new PriorityQueue<>(Math.max(1, books.size()), (a, b) -> {
+			final int byTerm = books.get(a[0]).terms[a[1]].compareTo(books.get(b[0]).terms[b[1]]);
+			return byTerm != 0 ? byTerm : Integer.compare(a[0], b[0]);
+		});
+		int capacity = 0;
+		for (int book = 0; book < books.size(); ++book) {
+			capacity += books.get(book).size();
+			if (books.get(book).size() > 0)
+				cursors.add(new int[] { book, 0 });
+		}
+
+		final String[] terms = new String[capacity];
+		final int[] frequencies = new int[capacity];
+		final int[] firstPositions = new int[capacity];
+		final int[] nameCounts = new int[capacity];
+		int size = 0;
+		while (!cursors.isEmpty()) {
+			final int[] cursor = cursors.poll();
+			final BookVocabulary book = books.get(cursor[0]);
+			final int index = cursor[1];
+			if (size == 0 || !terms[size - 1].equals(book.terms[index])) {
+				terms[size] = book.terms[index];
+				firstPositions[size] = book.firstPositions[index];
+				size++;
+			}
+			frequencies[size - 1] += book.frequencies[index];
+			nameCounts[size - 1] += book.nameCounts[index];
+			if (index + 1 < book.size())
+				cursors.add(new int[] { cursor[0], index + 1 });
+		}
+		return new BookVocabulary(title, Arrays.copyOf(terms, size), Arrays.copyOf(frequencies, size), Arrays.copyOf(firstPositions, size),
+				Arrays.copyOf(nameCounts, size));
+	}
+
+	/**
+	 * Writes this vocabulary to the provided stream. Does not close the stream.
+	 *
+	 * @param out
+	 *            The stream to write to.
+	 * @throws IOException
+	 *             If the stream cannot be written to.
+	 */
+	public void write(final OutputStream out) throws IOException {
+		final DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(FORMAT_VERSION);
+		data.writeUTF(this.title);
+		writeVarInt(data, this.terms.length);
+		String previous = "";
+		for (int i = 0; i < this.terms.length; ++i) {
+			final int shared = sharedPrefixLength(previous, this.terms[i]);
+			final byte[] suffix = this.terms[i].substring(shared).getBytes(StandardCharsets.UTF_8);
+			writeVarInt(data, shared);
+			writeVarInt(data, suffix.length);
+			data.write(suffix);
+			writeVarInt(data, this.frequencies[i]);
+			writeVarInt(data, this.firstPositions[i]);
+			writeVarInt(data, this.nameCounts[i]);
+			previous = this.terms[i];
+		}
+		data.flush();
+	}
+
+	/**
+	 * Reads a vocabulary written by {@link #write(OutputStream)} from the provided stream. Does not close the stream.
+	 *
+	 * @param in
+	 *            The stream to read from.
+	 * @return The vocabulary read.
+	 * @throws IOException
+	 *             If the stream cannot be read or does not contain a vocabulary.
+	 */
+	public static BookVocabulary read(final InputStream in) throws IOException {
+		final DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC)
+			throw new IOException("Not a book vocabulary");
+		final int version = data.readInt();
+		if (version != FORMAT_VERSION)
+			throw new IOException("Unsupported book vocabulary version " + version);
+		final String title = data.readUTF();
+		final int size = readVarInt(data);
+		final String[] terms = new String[size];
+		final int[] frequencies = new int[size];
+		final int[] firstPositions = new int[size];
+		final int[] nameCounts = new int[size];
+		String previous = "";
+		for (int i = 0; i < size; ++i) {
+			final int shared = readVarInt(data);
+			final byte[] suffix = new byte[readVarInt(data)];
+			data.readFully(suffix);
+			if (shared > previous.length())
+				throw new IOException("Corrupt book vocabulary");
+			terms[i] = previous.substring(0, shared) + new String(suffix, StandardCharsets.UTF_8);
+			frequencies[i] = readVarInt(data);
+			firstPositions[i] = readVarInt(data);
+			nameCounts[i] = readVarInt(data);
+			previous = terms[i];
+		}
+		try {
+			return new BookVocabulary(title, terms, frequencies, firstPositions, nameCounts);
+		} catch (final IllegalArgumentException e) {
+			throw new IOException("Corrupt book vocabulary", e);
+		}
+	}
+
+	private static int sharedPrefixLength(final String a, final String b) {
+		final int max = Math.min(a.length(), b.length());
+		int length = 0;
+		while (length < max && a.charAt(length) == b.charAt(length))
+			length++;
+		return length;
+	}
+
+	private static void writeVarInt(final DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(final DataInputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			final int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException("Corrupt book vocabulary");
+	}
+
+	/**
+	 * Returns the title of the book.
+	 *
+	 * @return The title of the book.
+	 */
+	public String getTitle() {
+		return this.title;
+	}
+
+	/**
+	 * Returns the number of distinct terms.
+	 *
+	 * @return The number of distinct terms.
+	 */
+	public int size() {
+		return this.terms.length;
+	}
+
+	/**
+	 * Returns the term at the provided index. Terms are sorted.
+	 *
+	 * @param index
+	 *            The index of the term.
+	 * @return The term at the provided index.
+	 */
+	public String getTerm(final int index) {
+		return this.terms[index];
+	}
+
+	/**
+	 * Returns the index of the provided term, or a negative value if absent (as {@link Arrays#binarySearch(Object[], Object)}).
+	 *
+	 * @param term
+	 *            The term to look up.
+	 * @return The index of the provided term, or a negative value if absent.
+	 */
+	public int indexOf(final String term) {
+		return Arrays.binarySearch(this.terms, term);
+	}
+
+	/**
+	 * Returns the number of occurrences of the term at the provided index.
+	 *
+	 * @param index
+	 *            The index of the term.
+	 * @return The number of occurrences of the term at the provided index.
+	 */
+	public int getFrequency(final int index) {
+		return this.frequencies[index];
+	}
+
+	/**
+	 * Returns the character offset of the first occurrence of the term at the provided index.
+	 *
+	 * @param index
+	 *            The index of the term.
+	 * @return The character offset of the first occurrence of the term at the provided index.
+	 */
+	public int getFirstPosition(final int index) {
+		return this.firstPositions[index];
+	}
+
+	/**
+	 * Returns whether the term at the provided index is mostly used as a proper noun, such as the name of a character or place.
+	 *
+	 * @param index
+	 *            The index of the term.
+	 * @return Whether the term at the provided index is mostly used as a proper noun.
+	 */
+	public boolean isName(final int index) {
+		return 2 * this.nameCounts[index] > this.frequencies[index];
+	}
+}
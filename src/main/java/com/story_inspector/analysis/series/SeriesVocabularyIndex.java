@@ -0,0 +1,152 @@
+package com.story_inspector.analysis.series;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Persistent local index of the vocabularies of the books of a series, so that a book can be compared against the rest of its series without
+ * re-parsing the other books. Each book's {@link BookVocabulary} is stored in its own file within the series directory, keyed by title, so adding or
+ * updating a book only rewrites that book's file. Untitled books have no key that survives editing them, so they cannot be added to the index, or
+ * an earlier version would be compared against the book as though it were another book of the series.
+ *
+ * Thread-safe: reads and writes of all indexes are serialized.
+ *
+ * @author mizitch
+ *
+ */
+public class SeriesVocabularyIndex {
+	private static final String FILE_EXTENSION = ".vocab";
+	private static final Object lock = new Object();
+
+	/**
+	 * The directory under which the indexes of all series are stored by default, one subdirectory per series.
+	 */
+	// TODO: set this based on installer, probably defaulting to something under user's documents folder
+	public static final Path DEFAULT_ROOT = Paths.get("target", "series_vocabulary");
+
+	private final Path directory;
+
+	/**
+	 * Creates a new instance storing its files in the provided directory, which is created when the first book is written.
+	 *
+	 * @param directory
+	 *            The directory of the index.
+	 */
+	public SeriesVocabularyIndex(final Path directory) {
+		Validate.notNull(directory);
+		this.directory = directory;
+	}
+
+	/**
+	 * Returns the index of the series with the provided name, stored in a subdirectory of the provided root directory.
+	 *
+	 * @param root
+	 *            The directory under which the indexes of all series are stored, usually {@link #DEFAULT_ROOT}.
+	 * @param seriesName
+	 *            The name of the series.
+	 * @return The index of the series with the provided name.
+	 */
+	public static SeriesVocabularyIndex forSeries(final Path root, final String seriesName) {
+		Validate.notNull(root);
+		Validate.notBlank(seriesName);
+		return new SeriesVocabularyIndex(root.resolve(toFileName(seriesName)));
+	}
+
+	/**
+	 * Returns the file name of an arbitrary name: the name sanitized for readability, followed by a hash of the name so that names that sanitize the
+	 * same (such as "Part 1" and "Part-1?") don't share a file. Case insensitive, as file systems may be.
+	 */
+	private static String toFileName(final String name) {
+		final String normalized = name.trim().toLowerCase();
+		final String sanitized = normalized.replaceAll("[^\\p{Alnum}._-]+", "_");
+		return String.format("%s-%08x", sanitized, normalized.hashCode());
+	}
+
+	/**
+	 * Returns whether the provided book has a title, so can be added to the index.
+	 *
+	 * @param book
+	 *            The book to check.
+	 * @return Whether the provided book has a title.
+	 */
+	public static boolean canIndex(final BookVocabulary book) {
+		Validate.notNull(book);
+		return !StringUtils.isBlank(book.getTitle());
+	}
+
+	/**
+	 * Reads the vocabularies of all books in the index other than the provided one, in order of file name.
+	 *
+	 * @param excludedBook
+	 *            The book to leave out, usually the book being compared against the rest. Matched by title. Untitled books are never in the index, so
+	 *            leave out nothing.
+	 * @return The vocabularies of all other books in the index.
+	 * @throws IOException
+	 *             If the index cannot be read.
+	 */
+	public List<BookVocabulary> readOtherBooks(final BookVocabulary excludedBook) throws IOException {
+		Validate.notNull(excludedBook);
+		synchronized (lock) {
+			final List<BookVocabulary> books = new ArrayList<>();
+			if (!Files.isDirectory(this.directory))
+				return books;
+
+			final List<Path> files = new ArrayList<>();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + FILE_EXTENSION)) {
+				stream.forEach(files::add);
+			}
+			files.sort(null);
+			final Path excludedFile = canIndex(excludedBook) ? bookFile(excludedBook) : null;
+			for (final Path file : files) {
+				if (file.equals(excludedFile))
+					continue;
+				try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+					books.add(BookVocabulary.read(in));
+				}
+			}
+			return books;
+		}
+	}
+
+	/**
+	 * Adds the provided vocabulary to the index, replacing that of any book with the same title. The file is replaced atomically so readers never
+	 * see a partially written book.
+	 *
+	 * @param book
+	 *            The vocabulary to add. Must have a title, see {@link #canIndex(BookVocabulary)}.
+	 * @throws IOException
+	 *             If the index cannot be written.
+	 */
+	public void writeBook(final BookVocabulary book) throws IOException {
+		Validate.isTrue(canIndex(book), "Untitled books cannot be added to the index");
+		synchronized (lock) {
+			Files.createDirectories(this.directory);
+			final Path temporaryFile = Files.createTempFile(this.directory, "book", ".tmp");
+			try {
+				try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporaryFile))) {
+					book.write(out);
+				}
+				Files.move(temporaryFile, bookFile(book), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temporaryFile);
+			}
+		}
+	}
+
+	private Path bookFile(final BookVocabulary book) {
+		return this.directory.resolve(toFileName(book.getTitle()) + FILE_EXTENSION);
+	}
+}
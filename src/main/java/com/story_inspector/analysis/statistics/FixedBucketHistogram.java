@@ -0,0 +1,91 @@
+package com.story_inspector.analysis.statistics;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Constant memory histogram of a stream of integer values, counting values into buckets with fixed bounds. Bucket i holds the values greater than
+ * the upper bound of bucket i - 1 and no greater than its own upper bound. A final bucket holds all values greater than the last bound.
+ *
+ * Not thread-safe.
+ *
+ * @author mizitch
+ *
+ */
+public class FixedBucketHistogram {
+	private final int[] upperBounds;
+	private final long[] counts;
+	private long total = 0;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param upperBounds
+	 *            The inclusive upper bounds of all but the last bucket, in strictly increasing order.
+	 */
+	public FixedBucketHistogram(final int... upperBounds) {
+		Validate.notNull(upperBounds);
+		for (int i = 1; i < upperBounds.length; ++i)
+			Validate.isTrue(upperBounds[i] > upperBounds[i - 1], "Bucket bounds must be strictly increasing");
+		this.upperBounds = Arrays.copyOf(upperBounds, upperBounds.length);
+		this.counts = new long[upperBounds.length + 1];
+	}
+
+	/**
+	 * Adds a value.
+	 *
+	 * @param value
+	 *            The value to add.
+	 */
+	public void add(final int value) {
+		final int search = Arrays.binarySearch(this.upperBounds, value);
+		this.counts[search >= 0 ? search : -search - 1]++;
+		this.total++;
+	}
+
+	/**
+	 * Returns the number of buckets, including the last unbounded one.
+	 *
+	 * @return The number of buckets.
+	 */
+	public int getNumBuckets() {
+		return this.counts.length;
+	}
+
+	/**
+	 * Returns the number of values in the provided bucket.
+	 *
+	 * @param bucket
+	 *            The index of the bucket.
+	 * @return The number of values in the provided bucket.
+	 */
+	public long getCount(final int bucket) {
+		return this.counts[bucket];
+	}
+
+	/**
+	 * Returns the number of values added.
+	 *
+	 * @return The number of values added.
+	 */
+	public long getTotal() {
+		return this.total;
+	}
+
+	/**
+	 * Returns a description of the range of values in the provided bucket, such as "6-10" or "41+".
+	 *
+	 * @param bucket
+	 *            The index of the bucket.
+	 * @return A description of the range of values in the provided bucket.
+	 */
+	public String describeBucket(final int bucket) {
+		if (bucket == this.upperBounds.length)
+			return this.upperBounds.length == 0 ? "all" : (this.upperBounds[bucket - 1] + 1) + "+";
+		if (bucket == 0)
+			return "up to " + this.upperBounds[0];
+		final int lower = this.upperBounds[bucket - 1] + 1;
+		return lower == this.upperBounds[bucket] ? String.valueOf(lower) : lower + "-" + this.upperBounds[bucket];
+	}
+}
@@ -0,0 +1,134 @@
+package com.story_inspector.analysis.statistics;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Constant memory estimator of a quantile of a stream of values, using the P² algorithm of Jain and Chlamtac. Keeps five markers whose heights
+ * approximate the minimum, the target quantile, the quantiles halfway to either extreme, and the maximum, adjusting them with piecewise parabolic
+ * interpolation as values arrive. Exact until more than five values have been added.
+ *
+ * Not thread-safe.
+ *
+ * @author mizitch
+ *
+ */
+public class P2QuantileEstimator {
+	private static final int NUM_MARKERS = 5;
+
+	private final double quantile;
+	private final double[] heights = new double[NUM_MARKERS];
+	private final int[] positions = new int[NUM_MARKERS];
+	private final double[] desiredPositions = new double[NUM_MARKERS];
+	private final double[] desiredPositionIncrements;
+	private long count = 0;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param quantile
+	 *            The quantile to estimate, between 0 and 1. For example 0.5 for the median.
+	 */
+	public P2QuantileEstimator(final double quantile) {
+		Validate.isTrue(quantile >= 0 && quantile <= 1, "quantile must be between 0 and 1");
+		this.quantile = quantile;
+		this.desiredPositionIncrements = new double[] { 0, quantile / 2, quantile, (1 + quantile) / 2, 1 };
+	}
+
+	/**
+	 * Adds a value.
+	 *
+	 * @param value
+	 *            The value to add.
+	 */
+	public void add(final double value) {
+		if (this.count < NUM_MARKERS) {
+			this.heights[(int) this.count++] = value;
+			if (this.count == NUM_MARKERS) {
+				Arrays.sort(this.heights);
+				for (int i = 0; i < NUM_MARKERS; ++i)
+					this.positions[i] = i + 1;
+				this.desiredPositions[0] = 1;
+				this.desiredPositions[1] = 1 + 2 * this.quantile;
+				this.desiredPositions[2] = 1 + 4 * this.quantile;
+				this.desiredPositions[3] = 3 + 2 * this.quantile;
+				this.desiredPositions[4] = 5;
+			}
+			return;
+		}
+		this.count++;
+
+		// Find the cell containing the value, extending the extremes if needed
+		final int cell;
+		if (value < this.heights[0]) {
+			this.heights[0] = value;
+			cell = 0;
+		} else if (value >= this.heights[NUM_MARKERS - 1]) {
+			this.heights[NUM_MARKERS - 1] = value;
+			cell = NUM_MARKERS - 2;
+		} else {
+			int i = 1;
+			while (value >= this.heights[i])
+				++i;
+			cell = i - 1;
+		}
+
+		for (int i = cell + 1; i < NUM_MARKERS; ++i)
+			this.positions[i]++;
+		for (int i = 0; i < NUM_MARKERS; ++i)
+			this.desiredPositions[i] += this.desiredPositionIncrements[i];
+
+		// Move the middle markers towards their desired positions
+		for (int i = 1; i < NUM_MARKERS - 1; ++i) {
+			final double offset = this.desiredPositions[i] - this.positions[i];
+			if ((offset >= 1 && this.positions[i + 1] - this.positions[i] > 1) || (offset <= -1 && this.positions[i - 1] - this.positions[i] < -1)) {
+				final int direction = offset > 0 ? 1 : -1;
+				final double parabolic = parabolic(i, direction);
+				if (this.heights[i - 1] < parabolic && parabolic < this.heights[i + 1])
+					this.heights[i] = parabolic;
+				else
+					this.heights[i] = linear(i, direction);
+				this.positions[i] += direction;
+			}
+		}
+	}
+
+	private double parabolic(final int i, final int d) {
+		final double q = this.heights[i];
+		final int n = this.positions[i];
+		final int nBelow = this.positions[i - 1];
+		final int nAbove = this.positions[i + 1];
+		return q + (double) d / (nAbove - nBelow) * ((n - nBelow + d) * (this.heights[i + 1] - q) / (nAbove - n)
+				+ (nAbove - n - d) * (q - this.heights[i - 1]) / (n - nBelow));
+	}
+
+	private double linear(final int i, final int d) {
+		return this.heights[i] + d * (this.heights[i + d] - this.heights[i]) / (this.positions[i + d] - this.positions[i]);
+	}
+
+	/**
+	 * Returns the number of values added.
+	 *
+	 * @return The number of values added.
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Returns the estimated quantile of the values added, NaN if none have been.
+	 *
+	 * @return The estimated quantile of the values added.
+	 */
+	public double getEstimate() {
+		if (this.count == 0)
+			return Double.NaN;
+		if (this.count < NUM_MARKERS) {
+			final double[] sorted = Arrays.copyOf(this.heights, (int) this.count);
+			Arrays.sort(sorted);
+			return sorted[(int) Math.round((sorted.length - 1) * this.quantile)];
+		}
+		return this.heights[2];
+	}
+}
@@ -0,0 +1,187 @@
+package com.story_inspector.analysis.statistics;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import com.story_inspector.story.TextRange;
+
+/**
+ * Bins ranges of a story into a histogram over consecutive bins of text, as drawn by heat maps. A range lying within one bin, or covering a whole
+ * bin, counts one in it. A range partially overlapping a bin counts the fraction of its length within that bin.
+ *
+ * Each range costs one binary search for its first and last bin, while the whole bins it covers are added through a difference array, so binning
+ * costs O(ranges log bins + bins) regardless of how long the ranges are.
+ *
+ * Several series of ranges, such as the matches of several search terms, can be binned together in a single pass over all of their ranges merged
+ * in start order, so the first bin of each range is found by advancing through the bins rather than searching them.
+ *
+ * @author mizitch
+ *
+ */
+public class RangeHistogram {
+
+	private RangeHistogram() {
+		throw new UnsupportedOperationException("This is a utility class, don't instantiate");
+	}
+
+	/**
+	 * Bins the provided ranges.
+	 *
+	 * @param boundaries
+	 *            The boundaries of the bins, ascending: bin i covers {@code boundaries[i]} (inclusive) to {@code boundaries[i + 1]} (exclusive). Must
+	 *            contain at least two values. Ranges outside the boundaries are clipped to them.
+	 * @param ranges
+	 *            The ranges to bin.
+	 * @return The count of each bin.
+	 */
+	public static double[] bin(final int[] boundaries, final Collection<TextRange> ranges) {
+		validateBoundaries(boundaries);
+		Validate.noNullElements(ranges);
+
+		final int numBins = boundaries.length - 1;
+		final double[] counts = new double[numBins];
+		// Covered whole bins: +1 at the first, -1 after the last
+		final int[] coveredDeltas = new int[numBins + 1];
+		for (final TextRange range : ranges) {
+			final int start = clip(boundaries, range.getStartIndex());
+			addRange(boundaries, start, clip(boundaries, range.getEndIndex()), range.getLength() == 0, findBin(boundaries, start), counts,
+					coveredDeltas);
+		}
+		addCovered(counts, coveredDeltas);
+		return counts;
+	}
+
+	/**
+	 * Bins several series of ranges over the same bins, in a single pass over their merged ranges.
+	 *
+	 * @param boundaries
+	 *            The boundaries of the bins, as for {@link #bin(int[], Collection)}.
+	 * @param rangeSeries
+	 *            The series of ranges to bin, each in any order.
+	 * @return The count of each bin of each series, indexed by series and then by bin.
+	 */
+	public static double[][] binSeries(final int[] boundaries, final List<? extends Collection<TextRange>> rangeSeries) {
+		validateBoundaries(boundaries);
+		Validate.noNullElements(rangeSeries);
+		for (final Collection<TextRange> ranges : rangeSeries)
+			Validate.noNullElements(ranges);
+
+		// Clip all ranges, and sort them by start. Each sort key holds the clipped start above the range's index, which fits in 32 bits.
+		int numRanges = 0;
+		for (final Collection<TextRange> ranges : rangeSeries)
+			numRanges += ranges.size();
+		final int[] starts = new int[numRanges];
+		final int[] ends = new int[numRanges];
+		final boolean[] empty = new boolean[numRanges];
+		final int[] seriesIndices = new int[numRanges];
+		final long[] sortKeys = new long[numRanges];
+		int r = 0;
+		for (int s = 0; s < rangeSeries.size(); ++s) {
+			for (final TextRange range : rangeSeries.get(s)) {
+				starts[r] = clip(boundaries, range.getStartIndex());
+				ends[r] = clip(boundaries, range.getEndIndex());
+				empty[r] = range.getLength() == 0;
+				seriesIndices[r] = s;
+				sortKeys[r] = ((long) starts[r] << 32) | r;
+				++r;
+			}
+		}
+		Arrays.sort(sortKeys);
+
+		final int numBins = boundaries.length - 1;
+		final double[][] counts = new double[rangeSeries.size()][numBins];
+		final int[][] coveredDeltas = new int[rangeSeries.size()][numBins + 1];
+		int firstBin = 0;
+		for (final long sortKey : sortKeys) {
+			final int i = (int) sortKey;
+			// Starts only increase, so the first bin only moves forward
+			while (firstBin < numBins - 1 && isBinAtOrBefore(boundaries, firstBin + 1, starts[i]))
+				++firstBin;
+			addRange(boundaries, starts[i], ends[i], empty[i], firstBin, counts[seriesIndices[i]], coveredDeltas[seriesIndices[i]]);
+		}
+		for (int s = 0; s < rangeSeries.size(); ++s)
+			addCovered(counts[s], coveredDeltas[s]);
+		return counts;
+	}
+
+	private static void validateBoundaries(final int[] boundaries) {
+		Validate.isTrue(boundaries.length >= 2, "There must be at least one bin");
+		for (int i = 1; i < boundaries.length; ++i)
+			Validate.isTrue(boundaries[i - 1] <= boundaries[i], "Boundaries must be ascending");
+	}
+
+	private static int clip(final int[] boundaries, final int position) {
+		return Math.min(Math.max(position, boundaries[0]), boundaries[boundaries.length - 1]);
+	}
+
+	/**
+	 * Counts a range, clipped to the boundaries, starting in the provided bin. Partially overlapped bins are counted directly, while whole covered
+	 * bins are recorded in the difference array.
+	 */
+	private static void addRange(final int[] boundaries, final int start, final int end, final boolean empty, final int firstBin,
+			final double[] counts, final int[] coveredDeltas) {
+		if (end <= start) {
+			if (empty)
+				counts[firstBin]++;
+			return;
+		}
+		final int lastBin = findBin(boundaries, end - 1);
+		if (firstBin == lastBin) {
+			counts[firstBin]++;
+			return;
+		}
+
+		final double length = end - start;
+		int firstCovered = firstBin + 1;
+		int lastCovered = lastBin - 1;
+		if (start == boundaries[firstBin])
+			firstCovered = firstBin;
+		else
+			counts[firstBin] += (boundaries[firstBin + 1] - start) / length;
+		if (end == boundaries[lastBin + 1])
+			lastCovered = lastBin;
+		else
+			counts[lastBin] += (end - boundaries[lastBin]) / length;
+		if (firstCovered <= lastCovered) {
+			coveredDeltas[firstCovered]++;
+			coveredDeltas[lastCovered + 1]--;
+		}
+	}
+
+	/**
+	 * Adds the whole bins covered, as recorded in the difference array, to the counts.
+	 */
+	private static void addCovered(final double[] counts, final int[] coveredDeltas) {
+		int covered = 0;
+		for (int bin = 0; bin < counts.length; ++bin) {
+			covered += coveredDeltas[bin];
+			counts[bin] += covered;
+		}
+	}
+
+	/**
+	 * Returns the last non-empty bin starting at or before the provided position, which must be within the boundaries.
+	 */
+	private static int findBin(final int[] boundaries, final int position) {
+		int low = 0;
+		int high = boundaries.length - 2;
+		while (low < high) {
+			final int middle = (low + high + 1) >>> 1;
+			if (isBinAtOrBefore(boundaries, middle, position))
+				low = middle;
+			else
+				high = middle - 1;
+		}
+		return low;
+	}
+
+	/**
+	 * Returns whether the provided bin starts at or before the provided position, and before the end of the last bin.
+	 */
+	private static boolean isBinAtOrBefore(final int[] boundaries, final int bin, final int position) {
+		return boundaries[bin] <= position && boundaries[bin] < boundaries[boundaries.length - 1];
+	}
+}
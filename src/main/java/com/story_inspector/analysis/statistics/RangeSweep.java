@@ -0,0 +1,121 @@
+package com.story_inspector.analysis.statistics;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import com.story_inspector.story.TextNode;
+import com.story_inspector.story.TextRange;
+
+/**
+ * Counts how many of a collection of ranges intersect each node of a level of a story (chapters, scenes, etc.), using a sweep over the sorted range
+ * boundaries rather than testing every range against every node. The ranges are sorted once on creation, after which each level costs time linear
+ * in its number of nodes and the number of ranges.
+ *
+ * Intersection follows {@link TextRange#intersects(TextRange)}, so a range spanning several nodes is counted in each.
+ *
+ * Immutable once created.
+ *
+ * @author mizitch
+ *
+ */
+public class RangeSweep {
+	// Start indices of all ranges, and start and end indices of the non-empty ranges, each sorted
+	private final int[] starts;
+	private final int[] nonEmptyStarts;
+	private final int[] nonEmptyEnds;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param ranges
+	 *            The ranges to count, in any order. May overlap.
+	 */
+	public RangeSweep(final Collection<TextRange> ranges) {
+		Validate.noNullElements(ranges);
+		this.starts = new int[ranges.size()];
+		int numNonEmpty = 0;
+		for (final TextRange range : ranges) {
+			if (range.getLength() > 0)
+				numNonEmpty++;
+		}
+		this.nonEmptyStarts = new int[numNonEmpty];
+		this.nonEmptyEnds = new int[numNonEmpty];
+		int i = 0;
+		int j = 0;
+		for (final TextRange range : ranges) {
+			this.starts[i++] = range.getStartIndex();
+			if (range.getLength() > 0) {
+				this.nonEmptyStarts[j] = range.getStartIndex();
+				this.nonEmptyEnds[j++] = range.getEndIndex();
+			}
+		}
+		Arrays.sort(this.starts);
+		Arrays.sort(this.nonEmptyStarts);
+		Arrays.sort(this.nonEmptyEnds);
+	}
+
+	/**
+	 * Counts the ranges intersecting each of the provided nodes.
+	 *
+	 * @param nodes
+	 *            The nodes, in story order and not overlapping.
+	 * @return The number of ranges intersecting each node, indexed the same as the nodes.
+	 */
+	public int[] countPerNode(final List<? extends TextNode> nodes) {
+		Validate.notNull(nodes);
+
+		// A range intersects a node if it starts within the node, or if it is non-empty and starts before the node but ends after its start. The
+		// non-empty ranges starting before the node and not ending after its start are exactly those ending at or before its start.
+		final int[] counts = new int[nodes.size()];
+		int startsBeforeNode = 0;
+		int startsBeforeNodeEnd = 0;
+		int nonEmptyStartsBeforeNode = 0;
+		int nonEmptyEndsAtOrBeforeNode = 0;
+		for (int n = 0; n < nodes.size(); ++n) {
+			final TextRange nodeRange = nodes.get(n).getRange();
+			if (nodeRange.getLength() == 0) {
+				// Only intersected by non-empty ranges containing its position. Rare, so looked up directly rather than swept.
+				counts[n] = countBelow(this.nonEmptyStarts, nodeRange.getStartIndex() + 1) - countBelow(this.nonEmptyEnds, nodeRange.getStartIndex() + 1);
+				continue;
+			}
+			final int nodeStart = nodeRange.getStartIndex();
+			final int nodeEnd = nodeRange.getEndIndex();
+
+			startsBeforeNode = advance(this.starts, startsBeforeNode, nodeStart);
+			startsBeforeNodeEnd = advance(this.starts, Math.max(startsBeforeNode, startsBeforeNodeEnd), nodeEnd);
+			nonEmptyStartsBeforeNode = advance(this.nonEmptyStarts, nonEmptyStartsBeforeNode, nodeStart);
+			nonEmptyEndsAtOrBeforeNode = advance(this.nonEmptyEnds, nonEmptyEndsAtOrBeforeNode, nodeStart + 1);
+
+			counts[n] = (startsBeforeNodeEnd - startsBeforeNode) + (nonEmptyStartsBeforeNode - nonEmptyEndsAtOrBeforeNode);
+		}
+		return counts;
+	}
+
+	/**
+	 * Returns the number of values of the sorted array below the provided limit.
+	 */
+	private static int countBelow(final int[] sorted, final int limit) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (sorted[middle] < limit)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the number of values of the sorted array below the provided limit, searching forward from the provided position.
+	 */
+	private static int advance(final int[] sorted, int position, final int limit) {
+		while (position < sorted.length && sorted[position] < limit)
+			position++;
+		return position;
+	}
+}
@@ -0,0 +1,89 @@
+package com.story_inspector.analysis.statistics;
+
+/**
+ * Constant memory accumulator of the count, mean, variance, minimum and maximum of a stream of values. Uses Welford's algorithm, which avoids the loss
+ * of precision of summing squares.
+ *
+ * Not thread-safe.
+ *
+ * @author mizitch
+ *
+ */
+public class RunningStatistics {
+	private long count = 0;
+	private double mean = 0;
+	private double sumOfSquaredDeviations = 0;
+	private double min = Double.NaN;
+	private double max = Double.NaN;
+
+	/**
+	 * Adds a value.
+	 *
+	 * @param value
+	 *            The value to add.
+	 */
+	public void add(final double value) {
+		this.count++;
+		final double delta = value - this.mean;
+		this.mean += delta / this.count;
+		this.sumOfSquaredDeviations += delta * (value - this.mean);
+		if (this.count == 1 || value < this.min)
+			this.min = value;
+		if (this.count == 1 || value > this.max)
+			this.max = value;
+	}
+
+	/**
+	 * Returns the number of values added.
+	 *
+	 * @return The number of values added.
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Returns the mean of the values added, NaN if none have been.
+	 *
+	 * @return The mean of the values added.
+	 */
+	public double getMean() {
+		return this.count == 0 ? Double.NaN : this.mean;
+	}
+
+	/**
+	 * Returns the (population) variance of the values added, NaN if none have been.
+	 *
+	 * @return The variance of the values added.
+	 */
+	public double getVariance() {
+		return this.count == 0 ? Double.NaN : this.sumOfSquaredDeviations / this.count;
+	}
+
+	/**
+	 * Returns the (population) standard deviation of the values added, NaN if none have been.
+	 *
+	 * @return The standard deviation of the values added.
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	/**
+	 * Returns the smallest value added, NaN if none have been.
+	 *
+	 * @return The smallest value added.
+	 */
+	public double getMin() {
+		return this.min;
+	}
+
+	/**
+	 * Returns the largest value added, NaN if none have been.
+	 *
+	 * @return The largest value added.
+	 */
+	public double getMax() {
+		return this.max;
+	}
+}
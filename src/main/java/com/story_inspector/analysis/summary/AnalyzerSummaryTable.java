@@ -1,61 +1,120 @@
 package com.story_inspector.analysis.summary;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.IntFunction;
 
 import org.apache.commons.lang3.Validate;
 
-//TODO: finish this class
 /**
+ * {@link AnalyzerSummaryComponent} that represents a table. Rows are generated one at a time as the table is written, from whatever compact form the
+ * analyzer holds its data in, and streamed to a {@link SummaryTableWriter}. So tables with tens of thousands of cells are never materialized in
+ * full.
  *
  * @author mizitch
  *
  */
 public class AnalyzerSummaryTable implements AnalyzerSummaryComponent {
 
-	private final List<String> rowHeaders;
 	private final List<String> columnHeaders;
-	private final String[][] data;
+	private final int numRows;
+	private final IntFunction<List<String>> rowGenerator;
 
-	public AnalyzerSummaryTable(final List<String> rowHeaders, final List<String> columnHeaders, final String[][] data) {
-		super();
-		this.rowHeaders = rowHeaders;
-		this.columnHeaders = columnHeaders;
-		this.data = data;
+	/**
+	 * Creates a new instance whose rows are generated when written.
+	 *
+	 * @param columnHeaders
+	 *            The headers of the table's columns, which also determine its number of columns.
+	 * @param numRows
+	 *            The number of rows of the table.
+	 * @param rowGenerator
+	 *            Generates the cells of the row with the provided index, one per column. Called each time the table is written, so should be cheap
+	 *            and must not depend on mutable state.
+	 */
+	public AnalyzerSummaryTable(final List<String> columnHeaders, final int numRows, final IntFunction<List<String>> rowGenerator) {
+		Validate.notEmpty(columnHeaders);
+		Validate.noNullElements(columnHeaders);
+		Validate.isTrue(numRows >= 0, "Number of rows cannot be negative");
+		Validate.notNull(rowGenerator);
+
+		this.columnHeaders = Collections.unmodifiableList(new ArrayList<>(columnHeaders));
+		this.numRows = numRows;
+		this.rowGenerator = rowGenerator;
+	}
 
-		validate();
+	/**
+	 * Creates a new instance from a two dimensional array of data.
+	 *
+	 * @param rowHeaders
+	 *            The headers of the rows, written as the first column. May be null for no row headers.
+	 * @param columnHeaders
+	 *            The headers of the columns of data. May be null for no column headers.
+	 * @param data
+	 *            The data, indexed by row then column. Cannot be jagged.
+	 */
+	public AnalyzerSummaryTable(final List<String> rowHeaders, final List<String> columnHeaders, final String[][] data) {
+		this(tableColumnHeaders(rowHeaders, columnHeaders, data), data.length, rowIndex -> {
+			final List<String> row = new ArrayList<>(data[rowIndex].length + 1);
+			if (rowHeaders != null)
+				row.add(rowHeaders.get(rowIndex));
+			row.addAll(Arrays.asList(data[rowIndex]));
+			return row;
+		});
 	}
 
-	private void validate() {
-		Validate.notEmpty(this.data);
-		Validate.isTrue(Arrays.stream(this.data).map(r -> r.length).distinct().count() == 1, "Data 2D array cannot be jagged");
-		if (this.rowHeaders != null) {
-			Validate.isTrue(this.data.length == this.rowHeaders.size(),
-					String.format("Number of row headers: %d must match number of rows: %d in data", this.rowHeaders.size(), this.data.length));
+	private static List<String> tableColumnHeaders(final List<String> rowHeaders, final List<String> columnHeaders, final String[][] data) {
+		Validate.notEmpty(data);
+		Validate.isTrue(Arrays.stream(data).map(r -> r.length).distinct().count() == 1, "Data 2D array cannot be jagged");
+		if (rowHeaders != null) {
+			Validate.isTrue(data.length == rowHeaders.size(),
+					String.format("Number of row headers: %d must match number of rows: %d in data", rowHeaders.size(), data.length));
 		}
-		if (this.columnHeaders != null) {
-			Validate.isTrue(this.data[0].length == this.columnHeaders.size(), String
-					.format("Number of column headers: %d must match number of columns: %d in data", this.columnHeaders.size(), this.data[0].length));
+		if (columnHeaders != null) {
+			Validate.isTrue(data[0].length == columnHeaders.size(),
+					String.format("Number of column headers: %d must match number of columns: %d in data", columnHeaders.size(), data[0].length));
 		}
-	}
 
-	public List<String> getRowHeaders() {
-		return Collections.unmodifiableList(this.rowHeaders);
+		final List<String> result = new ArrayList<>();
+		if (rowHeaders != null)
+			result.add("");
+		if (columnHeaders != null)
+			result.addAll(columnHeaders);
+		else
+			result.addAll(Collections.nCopies(data[0].length, ""));
+		return result;
 	}
 
 	public List<String> getColumnHeaders() {
-		return Collections.unmodifiableList(this.columnHeaders);
+		return this.columnHeaders;
+	}
+
+	public int getNumRows() {
+		return this.numRows;
 	}
 
-	public String[][] getData() {
-		return Arrays.stream(this.data).map(row -> Arrays.copyOf(row, row.length)).toArray(length -> new String[length][]);
+	/**
+	 * Generates a row of the table.
+	 *
+	 * @param rowIndex
+	 *            The index of the row.
+	 * @return The cells of the row, one per column.
+	 */
+	public List<String> getRow(final int rowIndex) {
+		Validate.isTrue(rowIndex >= 0 && rowIndex < this.numRows, "Row index out of bounds: " + rowIndex);
+		final List<String> row = this.rowGenerator.apply(rowIndex);
+		Validate.isTrue(row.size() == this.columnHeaders.size(),
+				String.format("Number of cells: %d in row %d must match number of columns: %d", row.size(), rowIndex, this.columnHeaders.size()));
+		return row;
 	}
 
 	@Override
 	public void write(final ReportSummaryWriter writer) {
-		// TODO Auto-generated method stub
-		throw new UnsupportedOperationException("not written yet");
+		final SummaryTableWriter tableWriter = writer.startTable(this.columnHeaders);
+		for (int i = 0; i < this.numRows; ++i)
+			tableWriter.writeRow(getRow(i));
+		tableWriter.endTable();
 	}
 
 }
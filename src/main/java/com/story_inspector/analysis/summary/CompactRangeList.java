@@ -0,0 +1,53 @@
+package com.story_inspector.analysis.summary;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+import org.apache.commons.lang3.Validate;
+
+import com.story_inspector.story.TextRange;
+
+/**
+ * Immutable list of {@link TextRange}s stored as two int arrays rather than as objects, for summary components that hold on to the ranges found by
+ * an analyzer until they are written. Ranges are created on access.
+ *
+ * @author mizitch
+ *
+ */
+public class CompactRangeList extends AbstractList<TextRange> implements RandomAccess {
+	private final int[] startIndices;
+	private final int[] endIndices;
+
+	private CompactRangeList(final Collection<TextRange> ranges) {
+		Validate.noNullElements(ranges);
+		this.startIndices = new int[ranges.size()];
+		this.endIndices = new int[ranges.size()];
+		int i = 0;
+		for (final TextRange range : ranges) {
+			this.startIndices[i] = range.getStartIndex();
+			this.endIndices[i++] = range.getEndIndex();
+		}
+	}
+
+	/**
+	 * Returns a compact copy of the provided ranges, or the ranges themselves if already compact.
+	 *
+	 * @param ranges
+	 *            The ranges to copy.
+	 * @return A compact list of the ranges, in the same order.
+	 */
+	public static CompactRangeList copyOf(final Collection<TextRange> ranges) {
+		return ranges instanceof CompactRangeList ? (CompactRangeList) ranges : new CompactRangeList(ranges);
+	}
+
+	@Override
+	public TextRange get(final int index) {
+		return new TextRange(this.startIndices[index], this.endIndices[index]);
+	}
+
+	@Override
+	public int size() {
+		return this.startIndices.length;
+	}
+}
@@ -0,0 +1,68 @@
+package com.story_inspector.analysis.summary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import com.story_inspector.analysis.statistics.RangeHistogram;
+import com.story_inspector.analysis.summary.charts.Chart;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.TextRange;
+
+/**
+ * {@link AnalyzerSummaryComponent} that compares where several entities, such as several search terms or the findings of several analyzers, are
+ * encountered throughout a {@link Story}: a {@link HeatMapSummaryComponent heat map} with one series per entity. All series are binned together in a
+ * single pass over their merged ranges (see {@link RangeHistogram#binSeries(int[], List)}), and drawn as a single chart. The chart is only computed
+ * once the component is first written.
+ *
+ * @author mizitch
+ *
+ */
+public class ComparativeHeatMapSummaryComponent extends LazySummaryComponent<Chart> {
+
+	private final Story story;
+	private final List<String> seriesNames;
+	private final List<CompactRangeList> seriesRanges;
+	private final HeatMapResolution resolution;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param story
+	 *            The analyzed story.
+	 * @param seriesNames
+	 *            The name of each entity compared, shown in the chart's legend.
+	 * @param seriesRanges
+	 *            The ranges of each entity compared, indexed the same as the names.
+	 * @param resolution
+	 *            How to divide the story into bins.
+	 */
+	public ComparativeHeatMapSummaryComponent(final Story story, final List<String> seriesNames,
+			final List<? extends Collection<TextRange>> seriesRanges, final HeatMapResolution resolution) {
+		Validate.notNull(story);
+		Validate.noNullElements(seriesNames);
+		Validate.noNullElements(seriesRanges);
+		Validate.isTrue(seriesNames.size() == seriesRanges.size(), "There must be a name for each series of ranges");
+		Validate.notNull(resolution);
+
+		this.story = story;
+		this.seriesNames = new ArrayList<>(seriesNames);
+		this.seriesRanges = new ArrayList<>();
+		for (final Collection<TextRange> ranges : seriesRanges)
+			this.seriesRanges.add(CompactRangeList.copyOf(ranges));
+		this.resolution = resolution;
+	}
+
+	@Override
+	protected void write(final ReportSummaryWriter writer, final Chart chart) {
+		writer.writeChart(chart);
+	}
+
+	@Override
+	protected Chart computeContent() {
+		final int[] boundaries = this.resolution.computeBoundaries(this.story);
+		return HeatMapSummaryComponent.createChart(boundaries, this.seriesNames, RangeHistogram.binSeries(boundaries, this.seriesRanges));
+	}
+}
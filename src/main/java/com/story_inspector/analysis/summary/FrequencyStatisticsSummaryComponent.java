@@ -4,24 +4,31 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 
 import com.story_inspector.analysis.Analyzer;
-import com.story_inspector.story.Chapter;
-import com.story_inspector.story.Paragraph;
-import com.story_inspector.story.Scene;
-import com.story_inspector.story.Sentence;
+import com.story_inspector.analysis.features.StoryFeature;
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
+import com.story_inspector.analysis.features.StoryFeatures;
+import com.story_inspector.analysis.statistics.RangeSweep;
+import com.story_inspector.analysis.statistics.RunningStatistics;
 import com.story_inspector.story.Story;
 import com.story_inspector.story.TextNode;
 import com.story_inspector.story.TextRange;
 
 /**
- * A basic summary of frequency statistics for an {@link Analyzer} that finds entities within a story.
+ * A basic summary of frequency statistics for an {@link Analyzer} that finds entities within a story. Counts per node are computed with a
+ * {@link RangeSweep}, so the cost is linear in the number of nodes and matches rather than their product. Statistics are only computed once the
+ * component is first written.
  *
  * @author mizitch
  *
  */
-public class FrequencyStatisticsSummaryComponent extends KeyValueListSummaryComponent {
+public class FrequencyStatisticsSummaryComponent extends LazySummaryComponent<List<ImmutablePair<String, String>>> {
+
+	private final Story story;
+	private final CompactRangeList matches;
 
 	/**
 	 * Create a new instance.
@@ -32,30 +39,52 @@ public class FrequencyStatisticsSummaryComponent extends KeyValueListSummaryComp
 	 *            The matches found in the story.
 	 */
 	public FrequencyStatisticsSummaryComponent(final Story story, final Collection<TextRange> matches) {
-		super(generateKeyValuePairs(story, matches));
+		Validate.notNull(story);
+		this.story = story;
+		this.matches = CompactRangeList.copyOf(matches);
+	}
+
+	@Override
+	protected void write(final ReportSummaryWriter writer, final List<ImmutablePair<String, String>> keyValuePairs) {
+		writer.writeKeyValuePairs(new ArrayList<>(keyValuePairs));
 	}
 
-	private static List<ImmutablePair<String, String>> generateKeyValuePairs(final Story story, final Collection<TextRange> matches) {
+	@Override
+	protected List<ImmutablePair<String, String>> computeContent() {
+		final StoryFeatureRegistry features = StoryFeatureRegistry.forStory(this.story);
+		final RangeSweep sweep = new RangeSweep(this.matches);
+		final RunningStatistics perChapter = countPerNode(features, sweep, StoryFeatures.CHAPTERS);
+		final RunningStatistics perScene = countPerNode(features, sweep, StoryFeatures.SCENES);
+		final RunningStatistics perParagraph = countPerNode(features, sweep, StoryFeatures.PARAGRAPHS);
+		final RunningStatistics perSentence = countPerNode(features, sweep, StoryFeatures.SENTENCES);
+
 		final List<ImmutablePair<String, String>> pairs = new ArrayList<>();
-		pairs.add(new ImmutablePair<>("Total #", String.valueOf(matches.size())));
-		pairs.add(new ImmutablePair<>("Max in single chapter", String.valueOf(getMaxPerNodeType(story, matches, Chapter.class))));
-		pairs.add(new ImmutablePair<>("Max in single scene", String.valueOf(getMaxPerNodeType(story, matches, Scene.class))));
-		pairs.add(new ImmutablePair<>("Max in single paragraph", String.valueOf(getMaxPerNodeType(story, matches, Paragraph.class))));
-		pairs.add(new ImmutablePair<>("Max in single sentence", String.valueOf(getMaxPerNodeType(story, matches, Sentence.class))));
+		pairs.add(new ImmutablePair<>("Total #", String.valueOf(this.matches.size())));
+		pairs.add(new ImmutablePair<>("Max in single chapter", formatMax(perChapter)));
+		pairs.add(new ImmutablePair<>("Mean per chapter", formatMean(perChapter)));
+		pairs.add(new ImmutablePair<>("Max in single scene", formatMax(perScene)));
+		pairs.add(new ImmutablePair<>("Mean per scene", formatMean(perScene)));
+		pairs.add(new ImmutablePair<>("Max in single paragraph", formatMax(perParagraph)));
+		pairs.add(new ImmutablePair<>("Max in single sentence", formatMax(perSentence)));
 		return pairs;
 	}
 
-	private static <T extends TextNode> int getMaxPerNodeType(final Story story, final Collection<TextRange> matches, final Class<T> nodeType) {
-		int maxSoFar = 0;
-		for (final T node : story.getChildrenAtLevel(nodeType)) {
-			int count = 0;
-			for (final TextRange range : matches) {
-				if (node.getRange().intersects(range))
-					count++;
-			}
-			if (count > maxSoFar)
-				maxSoFar = count;
-		}
-		return maxSoFar;
+	/**
+	 * Computes the statistics of the number of matches per node of the provided level in a single sweep.
+	 */
+	private static <T extends TextNode> RunningStatistics countPerNode(final StoryFeatureRegistry features, final RangeSweep sweep,
+			final StoryFeature<List<T>> nodeFeature) {
+		final RunningStatistics statistics = new RunningStatistics();
+		for (final int count : sweep.countPerNode(features.get(nodeFeature)))
+			statistics.add(count);
+		return statistics;
+	}
+
+	private static String formatMax(final RunningStatistics statistics) {
+		return statistics.getCount() == 0 ? "0" : String.valueOf((int) statistics.getMax());
+	}
+
+	private static String formatMean(final RunningStatistics statistics) {
+		return statistics.getCount() == 0 ? "0" : String.format("%.1f", statistics.getMean());
 	}
 }
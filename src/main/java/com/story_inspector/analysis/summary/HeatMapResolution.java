@@ -0,0 +1,122 @@
+package com.story_inspector.analysis.summary;
+
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
+import com.story_inspector.analysis.features.StoryFeatures;
+import com.story_inspector.story.Chapter;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.Token;
+
+/**
+ * How a {@link HeatMapSummaryComponent} divides a {@link Story} into bins: a fixed number of equally long bins, one bin per chapter, or one bin per
+ * fixed number of words.
+ *
+ * Immutable.
+ *
+ * @author mizitch
+ *
+ */
+public abstract class HeatMapResolution {
+
+	/**
+	 * Largest number of bins of a fixed resolution.
+	 */
+	public static final int MAX_BINS = 5000;
+
+	/**
+	 * The resolution used when none is specified.
+	 */
+	public static final HeatMapResolution DEFAULT = fixedBins(20);
+
+	private HeatMapResolution() {
+	}
+
+	/**
+	 * Computes the boundaries of the bins of the provided story.
+	 *
+	 * @param story
+	 *            The story to divide into bins.
+	 * @return The ascending character offsets of the bin boundaries, one more than the number of bins. Bin i covers {@code boundaries[i]} up to
+	 *         {@code boundaries[i + 1]}.
+	 */
+	public abstract int[] computeBoundaries(Story story);
+
+	/**
+	 * Returns a resolution with the provided number of bins of (nearly) equal length.
+	 *
+	 * @param numBins
+	 *            The number of bins, from 1 to {@link #MAX_BINS}.
+	 * @return A resolution with the provided number of bins.
+	 */
+	public static HeatMapResolution fixedBins(final int numBins) {
+		Validate.isTrue(numBins >= 1 && numBins <= MAX_BINS, "Number of bins must be between 1 and " + MAX_BINS);
+		return new HeatMapResolution() {
+			@Override
+			public int[] computeBoundaries(final Story story) {
+				final int start = story.getRange().getStartIndex();
+				final double binWidth = story.getRange().getLength() / (double) numBins;
+				final int[] boundaries = new int[numBins + 1];
+				for (int i = 0; i <= numBins; ++i)
+					boundaries[i] = start + (int) Math.round(i * binWidth);
+				return boundaries;
+			}
+		};
+	}
+
+	/**
+	 * Returns a resolution with one bin per chapter. Text before the first chapter belongs to its bin.
+	 *
+	 * @return A resolution with one bin per chapter.
+	 */
+	public static HeatMapResolution perChapter() {
+		return new HeatMapResolution() {
+			@Override
+			public int[] computeBoundaries(final Story story) {
+				final List<Chapter> chapters = StoryFeatureRegistry.forStory(story).get(StoryFeatures.CHAPTERS);
+				if (chapters.isEmpty())
+					return new int[] { story.getRange().getStartIndex(), story.getRange().getEndIndex() };
+				final int[] boundaries = new int[chapters.size() + 1];
+				boundaries[0] = story.getRange().getStartIndex();
+				for (int i = 1; i < chapters.size(); ++i)
+					boundaries[i] = chapters.get(i).getRange().getStartIndex();
+				boundaries[chapters.size()] = story.getRange().getEndIndex();
+				return boundaries;
+			}
+		};
+	}
+
+	/**
+	 * Returns a resolution with one bin per provided number of words. The last bin holds the remaining words.
+	 *
+	 * @param wordsPerBin
+	 *            The number of words per bin, at least one.
+	 * @return A resolution with one bin per provided number of words.
+	 */
+	public static HeatMapResolution perWords(final int wordsPerBin) {
+		Validate.isTrue(wordsPerBin >= 1, "Words per bin must be at least 1");
+		return new HeatMapResolution() {
+			@Override
+			public int[] computeBoundaries(final Story story) {
+				final List<Token> tokens = StoryFeatureRegistry.forStory(story).get(StoryFeatures.TOKENS);
+				final int numWords = (int) tokens.stream().filter(Token::isWord).count();
+				final int numBins = Math.max(1, (numWords + wordsPerBin - 1) / wordsPerBin);
+				final int[] boundaries = new int[numBins + 1];
+				boundaries[0] = story.getRange().getStartIndex();
+				int numWordsSeen = 0;
+				int bin = 1;
+				for (final Token token : tokens) {
+					if (!token.isWord())
+						continue;
+					if (numWordsSeen > 0 && numWordsSeen % wordsPerBin == 0 && bin < numBins)
+						boundaries[bin++] = token.getRange().getStartIndex();
+					numWordsSeen++;
+				}
+				boundaries[numBins] = story.getRange().getEndIndex();
+				return boundaries;
+			}
+		};
+	}
+}
@@ -2,132 +2,109 @@ package com.story_inspector.analysis.summary;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.concurrent.ExecutionException;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.commons.lang.Validate;
 
+import com.story_inspector.analysis.statistics.RangeHistogram;
+import com.story_inspector.analysis.summary.charts.Chart;
+import com.story_inspector.analysis.summary.charts.ChartSeries;
 import com.story_inspector.story.Story;
 import com.story_inspector.story.TextRange;
 
-import javafx.application.Platform;
-import javafx.concurrent.Task;
-import javafx.embed.swing.SwingFXUtils;
-import javafx.scene.Scene;
-import javafx.scene.SnapshotParameters;
-import javafx.scene.chart.AreaChart;
-import javafx.scene.chart.NumberAxis;
-import javafx.scene.chart.XYChart;
-import javafx.scene.chart.XYChart.Data;
-import javafx.scene.image.WritableImage;
-import javafx.util.StringConverter;
-
 /**
  * {@link AnalyzerSummaryComponent} that creates a "heat map" that visually represents where and how often a given entity is encountered throughout a
- * {@link Story}.
+ * {@link Story}. Ranges are binned in a single pass (see {@link RangeHistogram}), so fine resolutions are cheap even for long novels. The heat map is
+ * written as a {@link Chart}, leaving it to the writer how to draw it. The chart is only computed once the component is first written.
  *
  * @author mizitch
  *
  */
-public class HeatMapSummaryComponent implements AnalyzerSummaryComponent {
+public class HeatMapSummaryComponent extends LazySummaryComponent<Chart> {
 
-	private static final int numDivisions = 20;
+	// Approximate number of labeled ticks on the position axis, whatever the number of bins
+	private static final int numTicks = 20;
 
-	private final Collection<TextRange> ranges;
+	private final CompactRangeList ranges;
 	private final Story story;
-	private final XYChart<Number, Number> chart;
-
+	private final HeatMapResolution resolution;
+
+	/**
+	 * Creates a new instance with the {@link HeatMapResolution#DEFAULT default} resolution.
+	 *
+	 * @param story
+	 *            The analyzed story.
+	 * @param ranges
+	 *            The ranges to map.
+	 */
 	public HeatMapSummaryComponent(final Story story, final Collection<TextRange> ranges) {
-		this.ranges = new ArrayList<>(ranges);
-		this.story = story;
+		this(story, ranges, HeatMapResolution.DEFAULT);
+	}
 
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param story
+	 *            The analyzed story.
+	 * @param ranges
+	 *            The ranges to map.
+	 * @param resolution
+	 *            How to divide the story into bins.
+	 */
+	public HeatMapSummaryComponent(final Story story, final Collection<TextRange> ranges, final HeatMapResolution resolution) {
 		Validate.noNullElements(ranges);
 		Validate.notNull(story);
+		Validate.notNull(resolution);
 
-		this.chart = createChart();
+		this.ranges = CompactRangeList.copyOf(ranges);
+		this.story = story;
+		this.resolution = resolution;
 	}
 
-	@Override
-	public void write(final ReportSummaryWriter writer) {
-
-		// Snapshots must be taken on the application thread, so tell the application thread to take care of this when it has a chance...
-		final Task<WritableImage> getImageSnapshotTask = new Task<WritableImage>() {
-
-			@Override
-			protected WritableImage call() throws Exception {
-				new Scene(HeatMapSummaryComponent.this.chart, -1, -1);
-				return HeatMapSummaryComponent.this.chart.snapshot(new SnapshotParameters(), null);
-			}
-		};
-		Platform.runLater(getImageSnapshotTask);
-
-		// Wait for the application thread to do it's stuff, then write the image
-		try {
-			final WritableImage image = getImageSnapshotTask.get();
-			writer.writeImage(SwingFXUtils.fromFXImage(image, null));
-		} catch (InterruptedException | ExecutionException e) {
-			throw new RuntimeException(e);
-		}
+	/**
+	 * Returns the analyzed story.
+	 *
+	 * @return The analyzed story.
+	 */
+	public Story getStory() {
+		return this.story;
 	}
 
-	private XYChart<Number, Number> createChart() {
-		final XYChart.Series<Number, Number> series = new XYChart.Series<>();
-
-		final double divisionWidth = (this.story.getRange().getLength() * 1.0) / (numDivisions * 1.0);
-
-		for (int i = 0; i < numDivisions; ++i) {
-			final TextRange range = new TextRange((int) Math.round(i * divisionWidth), (int) Math.round((i + 1) * divisionWidth));
-			final double count = getNumOverlaps(range, this.ranges);
-			series.getData().add(new Data<Number, Number>(range.getStartIndex(), count));
-		}
-
-		final StringConverter<Number> tickLabelFormatter = new StringConverter<Number>() {
-
-			@Override
-			public String toString(final Number n) {
-				return String.valueOf((int) Math.round(n.doubleValue()));
-			}
-
-			@Override
-			public Number fromString(final String string) {
-				return Double.valueOf(string);
-			}
-		};
-
-		final NumberAxis xAxis = new NumberAxis(0, this.story.getRange().getLength() - divisionWidth, divisionWidth);
-		xAxis.setLabel("Text Position");
-		xAxis.setTickLabelsVisible(true);
-		xAxis.setTickLabelFormatter(tickLabelFormatter);
-		final NumberAxis yAxis = new NumberAxis();
-		yAxis.setTickUnit(1);
-		yAxis.setLabel("# Found");
-		yAxis.setTickLabelsVisible(true);
-		yAxis.setTickLabelFormatter(tickLabelFormatter);
-
-		final AreaChart<Number, Number> chart = new AreaChart<>(xAxis, yAxis);
-		chart.setAnimated(false);
-		chart.getData().add(series);
-		chart.setLegendVisible(false);
-		chart.setPrefWidth(600);
-		chart.setPrefHeight(400);
-		chart.setTitle("Heat Map");
+	/**
+	 * Returns the ranges mapped.
+	 *
+	 * @return The ranges mapped.
+	 */
+	public List<TextRange> getRanges() {
+		return this.ranges;
+	}
 
-		return chart;
+	@Override
+	protected void write(final ReportSummaryWriter writer, final Chart chart) {
+		writer.writeChart(chart);
 	}
 
-	private double getNumOverlaps(final TextRange range, final Collection<TextRange> otherRanges) {
-		double count = 0;
-		for (final TextRange otherRange : otherRanges) {
-			if (range.contains(otherRange) || otherRange.contains(range)) {
-				++count;
-			} else if (range.intersects(otherRange)) {
-				if (range.getStartIndex() < otherRange.getStartIndex()) {
-					count += (range.getEndIndex() - otherRange.getStartIndex()) / (1.0 * otherRange.getLength());
-				} else {
-					count += (otherRange.getEndIndex() - range.getStartIndex()) / (1.0 * otherRange.getLength());
-				}
-			}
-		}
-		return count;
+	@Override
+	protected Chart computeContent() {
+		final int[] boundaries = this.resolution.computeBoundaries(this.story);
+		return createChart(boundaries, Collections.singletonList("Found"), new double[][] { RangeHistogram.bin(boundaries, this.ranges) });
 	}
 
+	/**
+	 * Creates a heat map chart with a series per provided bin counts, each point placed at the start of its bin.
+	 */
+	static Chart createChart(final int[] boundaries, final List<String> seriesNames, final double[][] counts) {
+		final int numBins = boundaries.length - 1;
+		final double[] binStarts = new double[numBins];
+		for (int i = 0; i < numBins; ++i)
+			binStarts[i] = boundaries[i];
+
+		final List<ChartSeries> series = new ArrayList<>();
+		for (int s = 0; s < seriesNames.size(); ++s)
+			series.add(new ChartSeries(seriesNames.get(s), binStarts, counts[s]));
+		final int lastBinStart = boundaries[numBins - 1];
+		return new Chart("Heat Map", "Text Position", "# Found", boundaries[0], lastBinStart,
+				Math.max(1, (lastBinStart - boundaries[0]) / (double) numTicks), series);
+	}
 }
@@ -0,0 +1,71 @@
+package com.story_inspector.analysis.summary;
+
+/**
+ * Base class of {@link AnalyzerSummaryComponent}s whose content is costly to compute. The content is computed from the captured inputs the first
+ * time the component is written, rather than when the analyzer executes, so results that are never written never pay for it. It is then memoized,
+ * so later writers reuse it.
+ *
+ * Thread safe: concurrent first writes compute the content once.
+ *
+ * @param <T>
+ *            The type of the computed content.
+ *
+ * @author mizitch
+ *
+ */
+public abstract class LazySummaryComponent<T> implements AnalyzerSummaryComponent {
+
+	private volatile T content = null;
+
+	/**
+	 * Computes the content of this component. Called at most once.
+	 *
+	 * @return The content of this component. Cannot be null.
+	 */
+	protected abstract T computeContent();
+
+	/**
+	 * Writes the computed content of this component.
+	 *
+	 * @param writer
+	 *            The {@link ReportSummaryWriter} to write to.
+	 * @param content
+	 *            The content, as computed by {@link #computeContent()}.
+	 */
+	protected abstract void write(ReportSummaryWriter writer, T content);
+
+	/**
+	 * Returns whether the content of this component has been computed yet.
+	 *
+	 * @return Whether the content of this component has been computed yet.
+	 */
+	public boolean isComputed() {
+		return this.content != null;
+	}
+
+	/**
+	 * Returns the content of this component, computing it if this is the first request.
+	 *
+	 * @return The content of this component.
+	 */
+	protected T getContent() {
+		T result = this.content;
+		if (result == null) {
+			synchronized (this) {
+				result = this.content;
+				if (result == null) {
+					result = computeContent();
+					if (result == null)
+						throw new IllegalStateException("Computed summary content cannot be null");
+					this.content = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void write(final ReportSummaryWriter writer) {
+		write(writer, getContent());
+	}
+}
@@ -5,6 +5,8 @@ import java.util.List;
 
 import org.apache.commons.lang3.tuple.Pair;
 
+import com.story_inspector.analysis.summary.charts.Chart;
+
 /**
  * Represents an entity that can write report summaries. Different file formats (or other output types) would have different implementations.
  *
@@ -39,6 +41,16 @@ public interface ReportSummaryWriter {
 	 */
 	public void writeKeyValuePairs(List<Pair<String, String>> keyValuePairs);
 
+	/**
+	 * Start writing a table into the report summary. Its rows are then written through the returned {@link SummaryTableWriter}, which must be ended
+	 * before anything else is written.
+	 *
+	 * @param columnHeaders
+	 *            The headers of the table's columns, which also determine its number of columns. If all are empty, no header row is written.
+	 * @return The writer of the table's rows.
+	 */
+	public SummaryTableWriter startTable(List<String> columnHeaders);
+
 	/**
 	 * Write an image into the report summary.
 	 *
@@ -47,6 +59,14 @@ public interface ReportSummaryWriter {
 	 */
 	public void writeImage(BufferedImage image);
 
+	/**
+	 * Write a chart into the report summary. Each writer decides how charts are drawn.
+	 *
+	 * @param chart
+	 *            The chart to write.
+	 */
+	public void writeChart(Chart chart);
+
 	/**
 	 * Add a page break to the report summary.
 	 */
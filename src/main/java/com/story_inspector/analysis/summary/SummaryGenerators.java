@@ -1,14 +1,21 @@
 package com.story_inspector.analysis.summary;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
 import com.story_inspector.story.Story;
 import com.story_inspector.story.TextRange;
 
 /**
- * Collection of utility methods for generating report summaries.
+ * Collection of utility methods for generating report summaries. The generated components are lazy (see {@link LazySummaryComponent}), so they only
+ * compute their content when written. Derived story data is drawn from the story's {@link StoryFeatureRegistry}, so it is shared with the other
+ * summary components of the report being written.
  *
  * @author mizitch
  *
@@ -29,9 +36,71 @@ public class SummaryGenerators {
 	 * @return
 	 */
 	public static List<AnalyzerSummaryComponent> generateBasicFrequencySummary(final Story story, final Collection<TextRange> matches) {
-		final AnalyzerSummaryComponent statistics = new FrequencyStatisticsSummaryComponent(story, matches);
-		final AnalyzerSummaryComponent heatMap = new HeatMapSummaryComponent(story, matches);
+		return generateBasicFrequencySummary(story, matches, HeatMapResolution.DEFAULT);
+	}
+
+	/**
+	 * Generates summary components to cover frequency of some type of entity encountered within a story, with a heat map of the provided resolution.
+	 *
+	 * @param story
+	 *            The {@link Story} searched.
+	 * @param matches
+	 *            The collection of {@link TextRange}s where the entity was found.
+	 * @param heatMapResolution
+	 *            How to divide the story into bins for the heat map.
+	 * @return
+	 */
+	public static List<AnalyzerSummaryComponent> generateBasicFrequencySummary(final Story story, final Collection<TextRange> matches,
+			final HeatMapResolution heatMapResolution) {
+		// Both components only capture the matches, and share a single compact copy of them
+		final CompactRangeList compactMatches = CompactRangeList.copyOf(matches);
+		final AnalyzerSummaryComponent statistics = new FrequencyStatisticsSummaryComponent(story, compactMatches);
+		final AnalyzerSummaryComponent heatMap = new HeatMapSummaryComponent(story, compactMatches, heatMapResolution);
 
 		return Arrays.asList(statistics, heatMap);
 	}
+
+	/**
+	 * Generates summary components comparing the frequency of several types of entity encountered within a story, such as several search terms.
+	 *
+	 * @param story
+	 *            The {@link Story} searched.
+	 * @param matchesByName
+	 *            The collection of {@link TextRange}s where each entity was found, by name of the entity. Entities are compared in the map's
+	 *            iteration order.
+	 * @return
+	 */
+	public static List<AnalyzerSummaryComponent> generateComparativeFrequencySummary(final Story story,
+			final Map<String, ? extends Collection<TextRange>> matchesByName) {
+		return generateComparativeFrequencySummary(story, matchesByName, HeatMapResolution.DEFAULT);
+	}
+
+	/**
+	 * Generates summary components comparing the frequency of several types of entity encountered within a story, such as several search terms,
+	 * with a heat map of the provided resolution.
+	 *
+	 * @param story
+	 *            The {@link Story} searched.
+	 * @param matchesByName
+	 *            The collection of {@link TextRange}s where each entity was found, by name of the entity. Entities are compared in the map's
+	 *            iteration order.
+	 * @param heatMapResolution
+	 *            How to divide the story into bins for the heat map.
+	 * @return
+	 */
+	public static List<AnalyzerSummaryComponent> generateComparativeFrequencySummary(final Story story,
+			final Map<String, ? extends Collection<TextRange>> matchesByName, final HeatMapResolution heatMapResolution) {
+		final List<String> names = new ArrayList<>();
+		final List<Collection<TextRange>> matches = new ArrayList<>();
+		final List<ImmutablePair<String, String>> totals = new ArrayList<>();
+		for (final Map.Entry<String, ? extends Collection<TextRange>> entry : matchesByName.entrySet()) {
+			names.add(entry.getKey());
+			matches.add(entry.getValue());
+			totals.add(ImmutablePair.of(entry.getKey(), String.valueOf(entry.getValue().size())));
+		}
+		final AnalyzerSummaryComponent totalsList = new KeyValueListSummaryComponent(totals);
+		final AnalyzerSummaryComponent heatMap = new ComparativeHeatMapSummaryComponent(story, names, matches, heatMapResolution);
+
+		return Arrays.asList(totalsList, heatMap);
+	}
 }
@@ -0,0 +1,27 @@
+package com.story_inspector.analysis.summary;
+
+import java.util.List;
+
+/**
+ * Writes the rows of a table into a report summary one at a time, so large tables never have to be held in memory in full. Obtained from
+ * {@link ReportSummaryWriter#startTable(List)}.
+ *
+ * @author mizitch
+ *
+ */
+public interface SummaryTableWriter {
+
+	/**
+	 * Write the next row of the table.
+	 *
+	 * @param cells
+	 *            The text of each cell of the row. Must contain one value per column.
+	 */
+	public void writeRow(List<String> cells);
+
+	/**
+	 * End the table. Must be called before anything else is written to the report summary. After this is called, further operations on this
+	 * writer will throw exceptions.
+	 */
+	public void endTable();
+}
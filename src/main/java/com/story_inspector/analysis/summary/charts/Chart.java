@@ -0,0 +1,98 @@
+package com.story_inspector.analysis.summary.charts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Model of an area chart written into a report summary: the data of its series and the layout of its axes, independent of how it is drawn. A
+ * {@link ChartRenderer} turns it into an image.
+ *
+ * Immutable.
+ *
+ * @author mizitch
+ *
+ */
+public class Chart {
+	private final String title;
+	private final String xAxisLabel;
+	private final String yAxisLabel;
+	private final double xLowerBound;
+	private final double xUpperBound;
+	private final double xTickUnit;
+	private final List<ChartSeries> series;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param title
+	 *            The title shown above the chart.
+	 * @param xAxisLabel
+	 *            The label of the x axis.
+	 * @param yAxisLabel
+	 *            The label of the y axis.
+	 * @param xLowerBound
+	 *            The lowest value shown on the x axis.
+	 * @param xUpperBound
+	 *            The highest value shown on the x axis.
+	 * @param xTickUnit
+	 *            The distance between labeled ticks on the x axis. The y axis is scaled to fit the series.
+	 * @param series
+	 *            The series to draw, at least one.
+	 */
+	public Chart(final String title, final String xAxisLabel, final String yAxisLabel, final double xLowerBound, final double xUpperBound,
+			final double xTickUnit, final List<ChartSeries> series) {
+		Validate.notNull(title);
+		Validate.notNull(xAxisLabel);
+		Validate.notNull(yAxisLabel);
+		Validate.isTrue(xLowerBound <= xUpperBound, "X lower bound cannot exceed upper bound");
+		Validate.isTrue(xTickUnit > 0, "X tick unit must be positive");
+		Validate.notEmpty(series);
+		Validate.noNullElements(series);
+
+		this.title = title;
+		this.xAxisLabel = xAxisLabel;
+		this.yAxisLabel = yAxisLabel;
+		this.xLowerBound = xLowerBound;
+		this.xUpperBound = xUpperBound;
+		this.xTickUnit = xTickUnit;
+		this.series = Collections.unmodifiableList(new ArrayList<>(series));
+	}
+
+	public String getTitle() {
+		return this.title;
+	}
+
+	public String getXAxisLabel() {
+		return this.xAxisLabel;
+	}
+
+	public String getYAxisLabel() {
+		return this.yAxisLabel;
+	}
+
+	public double getXLowerBound() {
+		return this.xLowerBound;
+	}
+
+	public double getXUpperBound() {
+		return this.xUpperBound;
+	}
+
+	public double getXTickUnit() {
+		return this.xTickUnit;
+	}
+
+	public List<ChartSeries> getSeries() {
+		return this.series;
+	}
+
+	/**
+	 * @return The largest y value of all series, or zero if they have no points.
+	 */
+	public double getMaxY() {
+		return this.series.stream().mapToDouble(ChartSeries::getMaxY).max().orElse(0);
+	}
+}
@@ -0,0 +1,283 @@
+package com.story_inspector.analysis.summary.charts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of charts rendered and encoded as PNG, so re-running a report on an unchanged story reuses the images of its previous run instead of
+ * drawing and compressing them again. Entries are keyed by a SHA-256 hash of the chart's data and the renderer's settings, so any change to either
+ * is a cache miss.
+ *
+ * Entries are kept in memory up to a total size, evicting the least recently used first, and optionally also in a directory on disk so they
+ * survive restarts. The disk cache is trimmed to its most recently used entries when the cache is created.
+ *
+ * Thread safe.
+ *
+ * @author mizitch
+ *
+ */
+public class ChartImageCache {
+	private static final Logger log = LoggerFactory.getLogger(ChartImageCache.class);
+
+	/**
+	 * Changes whenever the key computation or the rendering of charts changes, so entries cached by older versions are not reused.
+	 */
+	private static final int CACHE_VERSION = 1;
+
+	private static final String FILE_EXTENSION = ".png";
+
+	private static final long DEFAULT_MAX_MEMORY_BYTES = 32L * 1024 * 1024;
+
+	private static final int DEFAULT_MAX_DISK_ENTRIES = 500;
+
+	private final long maxMemoryBytes;
+	private final Path diskDirectory;
+
+	// Access ordered, so iteration starts at the least recently used entry
+	private final LinkedHashMap<String, byte[]> memoryEntries = new LinkedHashMap<>(16, 0.75f, true);
+	private long memoryBytes = 0;
+
+	/**
+	 * Creates a new instance with the default limits, which also stores entries in the default cache directory.
+	 */
+	public ChartImageCache() {
+		// TODO: set this based on installer, probably defaulting to something under user's application data folder
+		this(DEFAULT_MAX_MEMORY_BYTES, new File("target/chart_cache/").toPath(), DEFAULT_MAX_DISK_ENTRIES);
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param maxMemoryBytes
+	 *            The largest total size of the PNG bytes kept in memory.
+	 * @param diskDirectory
+	 *            The directory to also store entries in, created when the first entry is stored. May be null to only cache in memory.
+	 * @param maxDiskEntries
+	 *            The number of most recently used entries to keep on disk. Ignored if there is no disk directory.
+	 */
+	public ChartImageCache(final long maxMemoryBytes, final Path diskDirectory, final int maxDiskEntries) {
+		Validate.isTrue(maxMemoryBytes >= 0, "Memory limit cannot be negative");
+		Validate.isTrue(maxDiskEntries >= 0, "Disk entry limit cannot be negative");
+		this.maxMemoryBytes = maxMemoryBytes;
+		this.diskDirectory = diskDirectory;
+		if (diskDirectory != null)
+			trimDiskEntries(maxDiskEntries);
+	}
+
+	/**
+	 * Returns the PNG encoding of the provided chart as drawn by the provided renderer, from the cache if possible.
+	 *
+	 * @param chart
+	 *            The chart to draw.
+	 * @param renderer
+	 *            The renderer to draw it with.
+	 * @return The PNG bytes of the drawn chart. Shared with the cache, must not be modified.
+	 */
+	public byte[] getPng(final Chart chart, final ChartRenderer renderer) {
+		Validate.notNull(chart);
+		Validate.notNull(renderer);
+
+		final String key = computeKey(chart, renderer);
+		synchronized (this.memoryEntries) {
+			final byte[] cached = this.memoryEntries.get(key);
+			if (cached != null)
+				return cached;
+		}
+
+		byte[] png = readFromDisk(key);
+		if (png == null) {
+			final ByteArrayOutputStream pngBytes = new ByteArrayOutputStream();
+			try {
+				ImageIO.write(renderer.render(chart), "PNG", pngBytes);
+			} catch (final IOException e) {
+				throw new RuntimeException(e);
+			}
+			png = pngBytes.toByteArray();
+			writeToDisk(key, png);
+		}
+		storeInMemory(key, png);
+		return png;
+	}
+
+	private void storeInMemory(final String key, final byte[] png) {
+		if (png.length > this.maxMemoryBytes)
+			return;
+		synchronized (this.memoryEntries) {
+			final byte[] previous = this.memoryEntries.put(key, png);
+			this.memoryBytes += png.length - (previous != null ? previous.length : 0);
+			final Iterator<byte[]> leastRecentlyUsed = this.memoryEntries.values().iterator();
+			while (this.memoryBytes > this.maxMemoryBytes) {
+				this.memoryBytes -= leastRecentlyUsed.next().length;
+				leastRecentlyUsed.remove();
+			}
+		}
+	}
+
+	private byte[] readFromDisk(final String key) {
+		if (this.diskDirectory == null)
+			return null;
+		final Path file = this.diskDirectory.resolve(key + FILE_EXTENSION);
+		try {
+			if (!Files.isRegularFile(file))
+				return null;
+			final byte[] png = Files.readAllBytes(file);
+			// Mark as recently used, so it survives trimming
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+			return png;
+		} catch (final IOException e) {
+			log.warn("Could not read cached chart image: " + file, e);
+			return null;
+		}
+	}
+
+	private void writeToDisk(final String key, final byte[] png) {
+		if (this.diskDirectory == null)
+			return;
+		final Path file = this.diskDirectory.resolve(key + FILE_EXTENSION);
+		try {
+			Files.createDirectories(this.diskDirectory);
+			// Written to a temporary file first, so concurrent readers never see a partial image
+			final Path temporaryFile = Files.createTempFile(this.diskDirectory, key, ".tmp");
+			try {
+				try (OutputStream out = Files.newOutputStream(temporaryFile)) {
+					out.write(png);
+				}
+				Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				// Only still there if it could not be moved, and never trimmed as it is not a cached image
+				Files.deleteIfExists(temporaryFile);
+			}
+		} catch (final IOException e) {
+			log.warn("Could not cache chart image: " + file, e);
+		}
+	}
+
+	/**
+	 * Deletes all but the most recently used entries on disk.
+	 */
+	private void trimDiskEntries(final int maxDiskEntries) {
+		if (!Files.isDirectory(this.diskDirectory))
+			return;
+		final List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.diskDirectory, "*" + FILE_EXTENSION)) {
+			stream.forEach(files::add);
+		} catch (final IOException e) {
+			log.warn("Could not list chart image cache: " + this.diskDirectory, e);
+			return;
+		}
+		if (files.size() <= maxDiskEntries)
+			return;
+
+		files.sort(Comparator.comparing(ChartImageCache::lastModifiedMillis).reversed());
+		for (final Path file : files.subList(maxDiskEntries, files.size())) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (final IOException e) {
+				log.warn("Could not delete cached chart image: " + file, e);
+			}
+		}
+	}
+
+	private static long lastModifiedMillis(final Path file) {
+		try {
+			return Files.getLastModifiedTime(file).toMillis();
+		} catch (final IOException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Computes the hex encoded SHA-256 hash of the chart's data and the renderer's settings.
+	 */
+	static String computeKey(final Chart chart, final ChartRenderer renderer) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+
+		// Only the digest of the written data is needed
+		final OutputStream discard = new OutputStream() {
+			@Override
+			public void write(final int b) {
+			}
+
+			@Override
+			public void write(final byte[] b, final int off, final int len) {
+			}
+		};
+		try (DataOutputStream out = new DataOutputStream(new DigestOutputStream(discard, digest))) {
+			out.writeInt(CACHE_VERSION);
+			out.writeUTF(renderer.getClass().getName());
+			out.writeInt(renderer.getWidth());
+			out.writeInt(renderer.getHeight());
+
+			out.writeUTF(chart.getTitle());
+			out.writeUTF(chart.getXAxisLabel());
+			out.writeUTF(chart.getYAxisLabel());
+			out.writeDouble(chart.getXLowerBound());
+			out.writeDouble(chart.getXUpperBound());
+			out.writeDouble(chart.getXTickUnit());
+			out.writeInt(chart.getSeries().size());
+			for (final ChartSeries series : chart.getSeries()) {
+				out.writeUTF(series.getName());
+				out.writeInt(series.size());
+				for (int i = 0; i < series.size(); ++i) {
+					out.writeDouble(series.getX(i));
+					out.writeDouble(series.getY(i));
+				}
+			}
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+
+		final StringBuilder key = new StringBuilder();
+		for (final byte b : digest.digest())
+			key.append(String.format("%02x", b));
+		return key.toString();
+	}
+
+	/**
+	 * Returns the number of charts whose PNG bytes are currently held in memory. Entries only stored on disk are not counted.
+	 *
+	 * @return The number of entries currently cached in memory.
+	 */
+	public int getNumMemoryEntries() {
+		synchronized (this.memoryEntries) {
+			return this.memoryEntries.size();
+		}
+	}
+
+	/**
+	 * Removes all entries from memory. Entries on disk are kept.
+	 */
+	public void clearMemory() {
+		synchronized (this.memoryEntries) {
+			this.memoryEntries.clear();
+			this.memoryBytes = 0;
+		}
+	}
+}
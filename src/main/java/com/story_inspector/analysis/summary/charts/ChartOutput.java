@@ -0,0 +1,19 @@
+package com.story_inspector.analysis.summary.charts;
+
+/**
+ * How a {@link com.story_inspector.analysis.summary.ReportSummaryWriter} writes {@link Chart}s into its output.
+ *
+ * @author mizitch
+ *
+ */
+public enum ChartOutput {
+	/**
+	 * Charts are drawn by a {@link ChartRenderer} and embedded as images. Looks the same wherever the output is viewed.
+	 */
+	RASTER,
+	/**
+	 * Charts are embedded in the output format's own vector markup (such as SVG or DrawingML) and drawn by the viewer. Smaller and faster to write
+	 * than images, and sharp at any zoom.
+	 */
+	VECTOR
+}
@@ -0,0 +1,31 @@
+package com.story_inspector.analysis.summary.charts;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Draws {@link Chart}s as images. Implementations must be thread safe, so charts can be rendered in parallel.
+ *
+ * @author mizitch
+ *
+ */
+public interface ChartRenderer {
+
+	/**
+	 * Draws the provided chart.
+	 *
+	 * @param chart
+	 *            The chart to draw.
+	 * @return An image of the chart.
+	 */
+	public BufferedImage render(Chart chart);
+
+	/**
+	 * @return The width in pixels of the images drawn.
+	 */
+	public int getWidth();
+
+	/**
+	 * @return The height in pixels of the images drawn.
+	 */
+	public int getHeight();
+}
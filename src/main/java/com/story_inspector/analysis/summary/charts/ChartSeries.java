@@ -0,0 +1,66 @@
+package com.story_inspector.analysis.summary.charts;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A named series of points of a {@link Chart}, in ascending x order.
+ *
+ * Immutable.
+ *
+ * @author mizitch
+ *
+ */
+public class ChartSeries {
+	private final String name;
+	private final double[] xValues;
+	private final double[] yValues;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param name
+	 *            The name of the series, shown in the legend of charts with several series.
+	 * @param xValues
+	 *            The x values of the points, ascending.
+	 * @param yValues
+	 *            The y values of the points, indexed the same as the x values.
+	 */
+	public ChartSeries(final String name, final double[] xValues, final double[] yValues) {
+		Validate.notNull(name);
+		Validate.isTrue(xValues.length == yValues.length, "Number of x values must match number of y values");
+		for (int i = 1; i < xValues.length; ++i)
+			Validate.isTrue(xValues[i - 1] <= xValues[i], "X values must be ascending");
+
+		this.name = name;
+		this.xValues = Arrays.copyOf(xValues, xValues.length);
+		this.yValues = Arrays.copyOf(yValues, yValues.length);
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @return The number of points in this series.
+	 */
+	public int size() {
+		return this.xValues.length;
+	}
+
+	public double getX(final int index) {
+		return this.xValues[index];
+	}
+
+	public double getY(final int index) {
+		return this.yValues[index];
+	}
+
+	/**
+	 * @return The largest y value of this series, or zero if it has no points.
+	 */
+	public double getMaxY() {
+		return Arrays.stream(this.yValues).max().orElse(0);
+	}
+}
@@ -0,0 +1,137 @@
+package com.story_inspector.analysis.summary.charts;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Writes {@link Chart}s as DrawingML chart spaces, the native chart format of Office documents. The chart data is embedded as literal values, so
+ * the chart is drawn by the word processor at any resolution and no image is rendered or encoded. Colored like the charts of
+ * {@link Java2DChartRenderer}.
+ *
+ * Series are written as scatter series joined by straight lines rather than as an area chart, since DrawingML area charts space their points
+ * evenly along a category axis while the points of a {@link ChartSeries} may be spaced unevenly.
+ *
+ * Stateless, so thread safe.
+ *
+ * @author mizitch
+ *
+ */
+public class DrawingMlChartWriter {
+
+	private static final String CHART_NAMESPACE = "http://schemas.openxmlformats.org/drawingml/2006/chart";
+	private static final String DRAWING_NAMESPACE = "http://schemas.openxmlformats.org/drawingml/2006/main";
+	private static final String RELATIONSHIPS_NAMESPACE = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+	private static final int X_AXIS_ID = 1;
+	private static final int Y_AXIS_ID = 2;
+	private static final int MAX_X_LABELS = 10;
+	private static final int MAX_Y_TICKS = 10;
+	// In EMUs, 2 points
+	private static final int LINE_WIDTH = 25400;
+
+	/**
+	 * Writes the provided chart as the chart space element of a chart part.
+	 *
+	 * @param chart
+	 *            The chart to write.
+	 * @param out
+	 *            Where to write the chart space element.
+	 * @throws IOException
+	 *             If the chart space element cannot be written.
+	 */
+	public void write(final Chart chart, final Appendable out) throws IOException {
+		Validate.notNull(chart);
+
+		out.append(format("<c:chartSpace xmlns:c=\"%s\" xmlns:a=\"%s\" xmlns:r=\"%s\">", CHART_NAMESPACE, DRAWING_NAMESPACE,
+				RELATIONSHIPS_NAMESPACE));
+		out.append("<c:roundedCorners val=\"0\"/><c:chart>");
+		out.append("<c:title>");
+		writeRichText(chart.getTitle(), false, out);
+		out.append("<c:overlay val=\"0\"/></c:title><c:autoTitleDeleted val=\"0\"/>");
+
+		out.append("<c:plotArea><c:layout/><c:scatterChart><c:scatterStyle val=\"lineMarker\"/><c:varyColors val=\"0\"/>");
+		final List<ChartSeries> seriesList = chart.getSeries();
+		for (int s = 0; s < seriesList.size(); ++s) {
+			final ChartSeries series = seriesList.get(s);
+			out.append(format("<c:ser><c:idx val=\"%d\"/><c:order val=\"%d\"/>", s, s));
+			out.append(format("<c:tx><c:v>%s</c:v></c:tx>", escape(series.getName())));
+			out.append(format("<c:spPr><a:ln w=\"%d\"><a:solidFill><a:srgbClr val=\"%s\"/></a:solidFill></a:ln></c:spPr>", LINE_WIDTH, color(s)));
+			out.append("<c:marker><c:symbol val=\"none\"/></c:marker>");
+			out.append("<c:xVal><c:numLit>");
+			writePoints(series, true, out);
+			out.append("</c:numLit></c:xVal><c:yVal><c:numLit>");
+			writePoints(series, false, out);
+			out.append("</c:numLit></c:yVal><c:smooth val=\"0\"/></c:ser>");
+		}
+		out.append(format("<c:axId val=\"%d\"/><c:axId val=\"%d\"/></c:scatterChart>", X_AXIS_ID, Y_AXIS_ID));
+
+		// Label the x axis at a multiple of its tick unit, so labels don't overlap
+		final double xSpan = chart.getXUpperBound() - chart.getXLowerBound();
+		final int numXTicks = (int) Math.floor(xSpan / chart.getXTickUnit()) + 1;
+		final double xLabelUnit = chart.getXTickUnit() * Math.max(1, (int) Math.ceil(numXTicks / (double) MAX_X_LABELS));
+		final double yTickUnit = Java2DChartRenderer.niceTickUnit(chart.getMaxY(), MAX_Y_TICKS);
+		final double yUpperBound = Math.max(yTickUnit, Math.ceil(chart.getMaxY() / yTickUnit) * yTickUnit);
+		writeAxis(X_AXIS_ID, Y_AXIS_ID, "b", chart.getXAxisLabel(), chart.getXLowerBound(), chart.getXUpperBound(), xLabelUnit, false, out);
+		writeAxis(Y_AXIS_ID, X_AXIS_ID, "l", chart.getYAxisLabel(), 0, yUpperBound, yTickUnit, true, out);
+		out.append("</c:plotArea>");
+
+		// Legend, only needed to tell several series apart
+		if (seriesList.size() > 1)
+			out.append("<c:legend><c:legendPos val=\"r\"/><c:overlay val=\"0\"/></c:legend>");
+		out.append("<c:plotVisOnly val=\"1\"/><c:dispBlanksAs val=\"gap\"/></c:chart></c:chartSpace>");
+	}
+
+	private static void writeRichText(final String text, final boolean vertical, final Appendable out) throws IOException {
+		out.append("<c:tx><c:rich>");
+		out.append(vertical ? "<a:bodyPr rot=\"-5400000\" vert=\"horz\"/>" : "<a:bodyPr/>");
+		out.append(format("<a:p><a:r><a:t>%s</a:t></a:r></a:p></c:rich></c:tx>", escape(text)));
+	}
+
+	private static void writePoints(final ChartSeries series, final boolean x, final Appendable out) throws IOException {
+		out.append(format("<c:formatCode>General</c:formatCode><c:ptCount val=\"%d\"/>", series.size()));
+		for (int i = 0; i < series.size(); ++i)
+			out.append(format("<c:pt idx=\"%d\"><c:v>%s</c:v></c:pt>", i, formatValue(x ? series.getX(i) : series.getY(i))));
+	}
+
+	/**
+	 * Writes a value axis. The vertical axis has grid lines and a rotated title.
+	 */
+	private static void writeAxis(final int id, final int crossingId, final String position, final String label, final double min, final double max,
+			final double majorUnit, final boolean vertical, final Appendable out) throws IOException {
+		out.append(format("<c:valAx><c:axId val=\"%d\"/>", id));
+		out.append(format("<c:scaling><c:orientation val=\"minMax\"/><c:max val=\"%s\"/><c:min val=\"%s\"/></c:scaling>", formatValue(max),
+				formatValue(min)));
+		out.append(format("<c:delete val=\"0\"/><c:axPos val=\"%s\"/>", position));
+		if (vertical)
+			out.append("<c:majorGridlines/>");
+		out.append("<c:title>");
+		writeRichText(label, vertical, out);
+		out.append("<c:overlay val=\"0\"/></c:title>");
+		out.append("<c:numFmt formatCode=\"0\" sourceLinked=\"0\"/><c:majorTickMark val=\"out\"/><c:minorTickMark val=\"none\"/>");
+		out.append(format("<c:tickLblPos val=\"nextTo\"/><c:crossAx val=\"%d\"/><c:crosses val=\"autoZero\"/>", crossingId));
+		out.append(format("<c:crossBetween val=\"midCat\"/><c:majorUnit val=\"%s\"/></c:valAx>", formatValue(majorUnit)));
+	}
+
+	private static String color(final int seriesIndex) {
+		return format("%06X", Java2DChartRenderer.seriesColor(seriesIndex).getRGB() & 0xffffff);
+	}
+
+	private static String formatValue(final double value) {
+		return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+	}
+
+	/**
+	 * Formats chart markup, independent of the default locale so numbers always use "." as decimal separator.
+	 */
+	private static String format(final String format, final Object... args) {
+		return String.format(Locale.ROOT, format, args);
+	}
+
+	private static String escape(final String text) {
+		return StringEscapeUtils.escapeXml10(text);
+	}
+}
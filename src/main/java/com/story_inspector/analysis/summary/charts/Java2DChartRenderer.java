@@ -0,0 +1,243 @@
+package com.story_inspector.analysis.summary.charts;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * {@link ChartRenderer} that draws charts onto a {@link BufferedImage} with Java2D. Needs no UI toolkit, so works headless and on any thread, and
+ * charts can be rendered in parallel. Styled after the JavaFX charts of {@link JavaFxChartRenderer}.
+ *
+ * Stateless, so thread safe.
+ *
+ * @author mizitch
+ *
+ */
+public class Java2DChartRenderer implements ChartRenderer {
+
+	/**
+	 * Default width in pixels of rendered charts.
+	 */
+	public static final int DEFAULT_WIDTH = 600;
+
+	/**
+	 * Default height in pixels of rendered charts.
+	 */
+	public static final int DEFAULT_HEIGHT = 400;
+
+	// Default series colors of JavaFX charts
+	private static final Color[] SERIES_COLORS = { new Color(0xf3622d), new Color(0xfba71b), new Color(0x57b757), new Color(0x41a9c9),
+			new Color(0x4258c9), new Color(0x9a42c8), new Color(0xc84164), new Color(0x888888) };
+	private static final Color GRID_COLOR = new Color(0xe6e6e6);
+	private static final Color AXIS_COLOR = new Color(0x404040);
+
+	private static final Font TITLE_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 16);
+	private static final Font LABEL_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+	private static final Font TICK_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 10);
+
+	private static final int PADDING = 10;
+	private static final int TICK_LENGTH = 5;
+	private static final int MAX_Y_TICKS = 10;
+	private static final int LEGEND_SWATCH_SIZE = 10;
+
+	private final int width;
+	private final int height;
+
+	/**
+	 * Creates a new instance that draws charts of the {@link #DEFAULT_WIDTH default width} and {@link #DEFAULT_HEIGHT default height}.
+	 */
+	public Java2DChartRenderer() {
+		this(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param width
+	 *            The width in pixels of the charts drawn.
+	 * @param height
+	 *            The height in pixels of the charts drawn.
+	 */
+	public Java2DChartRenderer(final int width, final int height) {
+		Validate.isTrue(width >= 100 && height >= 100, "Charts must be at least 100 pixels wide and high");
+		this.width = width;
+		this.height = height;
+	}
+
+	@Override
+	public int getWidth() {
+		return this.width;
+	}
+
+	@Override
+	public int getHeight() {
+		return this.height;
+	}
+
+	@Override
+	public BufferedImage render(final Chart chart) {
+		Validate.notNull(chart);
+
+		final BufferedImage image = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_RGB);
+		final Graphics2D g = image.createGraphics();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+			g.setColor(Color.WHITE);
+			g.fillRect(0, 0, this.width, this.height);
+			draw(g, chart);
+		} finally {
+			g.dispose();
+		}
+		return image;
+	}
+
+	private void draw(final Graphics2D g, final Chart chart) {
+		final FontMetrics titleMetrics = g.getFontMetrics(TITLE_FONT);
+		final FontMetrics labelMetrics = g.getFontMetrics(LABEL_FONT);
+		final FontMetrics tickMetrics = g.getFontMetrics(TICK_FONT);
+
+		// Y axis scale: a "nice" whole tick unit fitting the largest value
+		final double yTickUnit = niceTickUnit(chart.getMaxY(), MAX_Y_TICKS);
+		final double yUpperBound = Math.max(yTickUnit, Math.ceil(chart.getMaxY() / yTickUnit) * yTickUnit);
+		final int yTickLabelWidth = tickMetrics.stringWidth(formatTick(yUpperBound));
+
+		// Plot area
+		final int plotLeft = PADDING + labelMetrics.getHeight() + PADDING + yTickLabelWidth + TICK_LENGTH;
+		final int plotRight = this.width - PADDING * 2;
+		final int plotTop = PADDING + titleMetrics.getHeight() + PADDING;
+		final int plotBottom = this.height - PADDING - labelMetrics.getHeight() - PADDING - tickMetrics.getHeight() - TICK_LENGTH;
+		final double xSpan = Math.max(chart.getXUpperBound() - chart.getXLowerBound(), Double.MIN_NORMAL);
+		final double xScale = (plotRight - plotLeft) / xSpan;
+		final double yScale = (plotBottom - plotTop) / yUpperBound;
+
+		// Title
+		g.setFont(TITLE_FONT);
+		g.setColor(Color.BLACK);
+		g.drawString(chart.getTitle(), (this.width - titleMetrics.stringWidth(chart.getTitle())) / 2, PADDING + titleMetrics.getAscent());
+
+		// Horizontal grid lines and y ticks
+		g.setFont(TICK_FONT);
+		for (int i = 0; i * yTickUnit <= yUpperBound; ++i) {
+			final double value = i * yTickUnit;
+			final int y = (int) Math.round(plotBottom - value * yScale);
+			g.setColor(GRID_COLOR);
+			g.drawLine(plotLeft, y, plotRight, y);
+			g.setColor(AXIS_COLOR);
+			g.drawLine(plotLeft - TICK_LENGTH, y, plotLeft, y);
+			final String label = formatTick(value);
+			g.drawString(label, plotLeft - TICK_LENGTH - 2 - tickMetrics.stringWidth(label), y + tickMetrics.getAscent() / 2);
+		}
+
+		// X ticks, skipping labels that would overlap their neighbours
+		final int numXTicks = (int) Math.floor(xSpan / chart.getXTickUnit()) + 1;
+		final int xTickLabelWidth = tickMetrics.stringWidth(formatTick(chart.getXUpperBound())) + PADDING;
+		final int labelEvery = Math.max(1, (int) Math.ceil(xTickLabelWidth / (chart.getXTickUnit() * xScale)));
+		for (int i = 0; i < numXTicks; ++i) {
+			final double value = chart.getXLowerBound() + i * chart.getXTickUnit();
+			final int x = (int) Math.round(plotLeft + (value - chart.getXLowerBound()) * xScale);
+			g.drawLine(x, plotBottom, x, plotBottom + TICK_LENGTH);
+			if (i % labelEvery == 0) {
+				final String label = formatTick(value);
+				g.drawString(label, x - tickMetrics.stringWidth(label) / 2, plotBottom + TICK_LENGTH + tickMetrics.getAscent());
+			}
+		}
+
+		// Series, each as a translucent filled area with a solid outline
+		final List<ChartSeries> seriesList = chart.getSeries();
+		final Color[] colors = new Color[seriesList.size()];
+		for (int s = 0; s < seriesList.size(); ++s) {
+			final ChartSeries series = seriesList.get(s);
+			colors[s] = seriesColor(s);
+			if (series.size() == 0)
+				continue;
+			final Path2D.Double line = new Path2D.Double();
+			for (int i = 0; i < series.size(); ++i) {
+				final double x = plotLeft + (series.getX(i) - chart.getXLowerBound()) * xScale;
+				final double y = plotBottom - series.getY(i) * yScale;
+				if (i == 0)
+					line.moveTo(x, y);
+				else
+					line.lineTo(x, y);
+			}
+			final Path2D.Double area = new Path2D.Double(line);
+			area.lineTo(plotLeft + (series.getX(series.size() - 1) - chart.getXLowerBound()) * xScale, plotBottom);
+			area.lineTo(plotLeft + (series.getX(0) - chart.getXLowerBound()) * xScale, plotBottom);
+			area.closePath();
+
+			g.setColor(new Color(colors[s].getRed(), colors[s].getGreen(), colors[s].getBlue(), 0x55));
+			g.fill(area);
+			g.setColor(colors[s]);
+			g.setStroke(new BasicStroke(2));
+			g.draw(line);
+		}
+
+		// Axes
+		g.setStroke(new BasicStroke(1));
+		g.setColor(AXIS_COLOR);
+		g.drawLine(plotLeft, plotTop, plotLeft, plotBottom);
+		g.drawLine(plotLeft, plotBottom, plotRight, plotBottom);
+
+		// Axis labels
+		g.setFont(LABEL_FONT);
+		g.setColor(Color.BLACK);
+		g.drawString(chart.getXAxisLabel(), plotLeft + (plotRight - plotLeft - labelMetrics.stringWidth(chart.getXAxisLabel())) / 2,
+				this.height - PADDING - labelMetrics.getDescent());
+		final AffineTransform transform = g.getTransform();
+		g.translate(PADDING + labelMetrics.getAscent(), plotTop + (plotBottom - plotTop + labelMetrics.stringWidth(chart.getYAxisLabel())) / 2);
+		g.rotate(-Math.PI / 2);
+		g.drawString(chart.getYAxisLabel(), 0, 0);
+		g.setTransform(transform);
+
+		// Legend, only needed to tell several series apart
+		if (seriesList.size() > 1) {
+			final int nameWidth = seriesList.stream().mapToInt(series -> labelMetrics.stringWidth(series.getName())).max().getAsInt();
+			final int x = plotRight - PADDING - nameWidth - LEGEND_SWATCH_SIZE - 4;
+			int y = plotTop + PADDING;
+			for (int s = 0; s < seriesList.size(); ++s) {
+				final String name = seriesList.get(s).getName();
+				g.setColor(colors[s]);
+				g.fillRect(x, y, LEGEND_SWATCH_SIZE, LEGEND_SWATCH_SIZE);
+				g.setColor(Color.BLACK);
+				g.drawString(name, x + LEGEND_SWATCH_SIZE + 4, y + LEGEND_SWATCH_SIZE);
+				y += labelMetrics.getHeight();
+			}
+		}
+	}
+
+	/**
+	 * Returns a whole tick unit of the form 1, 2 or 5 times a power of ten, such that there are at most the provided number of ticks up to the
+	 * provided maximum.
+	 */
+	static double niceTickUnit(final double max, final int maxTicks) {
+		if (max <= maxTicks)
+			return 1;
+		final double roughUnit = max / maxTicks;
+		final double magnitude = Math.pow(10, Math.floor(Math.log10(roughUnit)));
+		for (final int multiple : new int[] { 1, 2, 5 }) {
+			if (multiple * magnitude >= roughUnit)
+				return multiple * magnitude;
+		}
+		return 10 * magnitude;
+	}
+
+	/**
+	 * Returns the color of the series with the provided index.
+	 */
+	static Color seriesColor(final int seriesIndex) {
+		return SERIES_COLORS[seriesIndex % SERIES_COLORS.length];
+	}
+
+	static String formatTick(final double value) {
+		return String.valueOf(Math.round(value));
+	}
+}
@@ -0,0 +1,134 @@
+package com.story_inspector.analysis.summary.charts;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.commons.lang3.Validate;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.chart.AreaChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.chart.XYChart.Data;
+import javafx.scene.image.WritableImage;
+import javafx.util.StringConverter;
+
+/**
+ * {@link ChartRenderer} that builds a JavaFX {@link AreaChart} and snapshots it, so rendered charts look exactly like charts shown in the UI. Needs a
+ * running JavaFX toolkit, and snapshots are taken on the JavaFX application thread, so charts are rendered one at a time. Prefer
+ * {@link Java2DChartRenderer} outside of UI previews.
+ *
+ * Stateless, so thread safe.
+ *
+ * @author mizitch
+ *
+ */
+public class JavaFxChartRenderer implements ChartRenderer {
+
+	private final int width;
+	private final int height;
+
+	/**
+	 * Creates a new instance that draws charts of the {@link Java2DChartRenderer#DEFAULT_WIDTH default width} and
+	 * {@link Java2DChartRenderer#DEFAULT_HEIGHT default height}.
+	 */
+	public JavaFxChartRenderer() {
+		this(Java2DChartRenderer.DEFAULT_WIDTH, Java2DChartRenderer.DEFAULT_HEIGHT);
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param width
+	 *            The width in pixels of the charts drawn.
+	 * @param height
+	 *            The height in pixels of the charts drawn.
+	 */
+	public JavaFxChartRenderer(final int width, final int height) {
+		Validate.isTrue(width >= 100 && height >= 100, "Charts must be at least 100 pixels wide and high");
+		this.width = width;
+		this.height = height;
+	}
+
+	@Override
+	public int getWidth() {
+		return this.width;
+	}
+
+	@Override
+	public int getHeight() {
+		return this.height;
+	}
+
+	@Override
+	public BufferedImage render(final Chart chart) {
+		Validate.notNull(chart);
+
+		// Snapshots must be taken on the application thread, so tell the application thread to take care of this when it has a chance...
+		final Task<WritableImage> getImageSnapshotTask = new Task<WritableImage>() {
+
+			@Override
+			protected WritableImage call() throws Exception {
+				final XYChart<Number, Number> fxChart = createFxChart(chart);
+				new Scene(fxChart, -1, -1);
+				return fxChart.snapshot(new SnapshotParameters(), null);
+			}
+		};
+		if (Platform.isFxApplicationThread())
+			getImageSnapshotTask.run();
+		else
+			Platform.runLater(getImageSnapshotTask);
+
+		// Wait for the application thread to do it's stuff, then convert the image
+		try {
+			return SwingFXUtils.fromFXImage(getImageSnapshotTask.get(), null);
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private XYChart<Number, Number> createFxChart(final Chart chart) {
+		final StringConverter<Number> tickLabelFormatter = new StringConverter<Number>() {
+
+			@Override
+			public String toString(final Number n) {
+				return String.valueOf((int) Math.round(n.doubleValue()));
+			}
+
+			@Override
+			public Number fromString(final String string) {
+				return Double.valueOf(string);
+			}
+		};
+
+		final NumberAxis xAxis = new NumberAxis(chart.getXLowerBound(), chart.getXUpperBound(), chart.getXTickUnit());
+		xAxis.setLabel(chart.getXAxisLabel());
+		xAxis.setTickLabelsVisible(true);
+		xAxis.setTickLabelFormatter(tickLabelFormatter);
+		final NumberAxis yAxis = new NumberAxis();
+		yAxis.setTickUnit(1);
+		yAxis.setLabel(chart.getYAxisLabel());
+		yAxis.setTickLabelsVisible(true);
+		yAxis.setTickLabelFormatter(tickLabelFormatter);
+
+		final AreaChart<Number, Number> fxChart = new AreaChart<>(xAxis, yAxis);
+		fxChart.setAnimated(false);
+		for (final ChartSeries series : chart.getSeries()) {
+			final XYChart.Series<Number, Number> fxSeries = new XYChart.Series<>();
+			fxSeries.setName(series.getName());
+			for (int i = 0; i < series.size(); ++i)
+				fxSeries.getData().add(new Data<Number, Number>(series.getX(i), series.getY(i)));
+			fxChart.getData().add(fxSeries);
+		}
+		fxChart.setLegendVisible(chart.getSeries().size() > 1);
+		fxChart.setPrefWidth(this.width);
+		fxChart.setPrefHeight(this.height);
+		fxChart.setTitle(chart.getTitle());
+
+		return fxChart;
+	}
+}
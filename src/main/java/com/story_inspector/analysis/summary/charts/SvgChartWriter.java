@@ -0,0 +1,163 @@
+package com.story_inspector.analysis.summary.charts;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Writes {@link Chart}s as inline SVG elements, for writers of text based formats such as HTML. Vector output is resolution independent and much
+ * smaller than a rendered image, and needs no rasterization or image encoding. Laid out and colored like the charts of {@link Java2DChartRenderer}.
+ *
+ * Stateless, so thread safe.
+ *
+ * @author mizitch
+ *
+ */
+public class SvgChartWriter {
+
+	private static final int MARGIN_LEFT = 70;
+	private static final int MARGIN_RIGHT = 20;
+	private static final int MARGIN_TOP = 40;
+	private static final int MARGIN_BOTTOM = 55;
+	private static final int TICK_LENGTH = 5;
+	private static final int MAX_Y_TICKS = 10;
+	// Approximate width of a tick label character, used to space out x tick labels
+	private static final int TICK_CHARACTER_WIDTH = 6;
+
+	private final int width;
+	private final int height;
+
+	/**
+	 * Creates a new instance that writes charts of the {@link Java2DChartRenderer#DEFAULT_WIDTH default width} and
+	 * {@link Java2DChartRenderer#DEFAULT_HEIGHT default height}.
+	 */
+	public SvgChartWriter() {
+		this(Java2DChartRenderer.DEFAULT_WIDTH, Java2DChartRenderer.DEFAULT_HEIGHT);
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param width
+	 *            The width of the charts written.
+	 * @param height
+	 *            The height of the charts written.
+	 */
+	public SvgChartWriter(final int width, final int height) {
+		Validate.isTrue(width >= 100 && height >= 100, "Charts must be at least 100 pixels wide and high");
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Writes the provided chart as an SVG element.
+	 *
+	 * @param chart
+	 *            The chart to write.
+	 * @param out
+	 *            Where to write the SVG element.
+	 * @throws IOException
+	 *             If the SVG element cannot be written.
+	 */
+	public void write(final Chart chart, final Appendable out) throws IOException {
+		Validate.notNull(chart);
+
+		final double yTickUnit = Java2DChartRenderer.niceTickUnit(chart.getMaxY(), MAX_Y_TICKS);
+		final double yUpperBound = Math.max(yTickUnit, Math.ceil(chart.getMaxY() / yTickUnit) * yTickUnit);
+		final int plotLeft = MARGIN_LEFT;
+		final int plotRight = this.width - MARGIN_RIGHT;
+		final int plotTop = MARGIN_TOP;
+		final int plotBottom = this.height - MARGIN_BOTTOM;
+		final double xSpan = Math.max(chart.getXUpperBound() - chart.getXLowerBound(), Double.MIN_NORMAL);
+		final double xScale = (plotRight - plotLeft) / xSpan;
+		final double yScale = (plotBottom - plotTop) / yUpperBound;
+
+		out.append(format("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" viewBox=\"0 0 %d %d\" "
+				+ "font-family=\"sans-serif\">\n", this.width, this.height, this.width, this.height));
+		out.append(format("<rect width=\"%d\" height=\"%d\" fill=\"white\"/>\n", this.width, this.height));
+		out.append(format("<text x=\"%d\" y=\"24\" font-size=\"16\" text-anchor=\"middle\">%s</text>\n", this.width / 2,
+				escape(chart.getTitle())));
+
+		// Horizontal grid lines and y ticks
+		for (int i = 0; i * yTickUnit <= yUpperBound; ++i) {
+			final double value = i * yTickUnit;
+			final double y = plotBottom - value * yScale;
+			out.append(format("<line x1=\"%d\" y1=\"%.1f\" x2=\"%d\" y2=\"%.1f\" stroke=\"#e6e6e6\"/>", plotLeft, y, plotRight, y));
+			out.append(format("<line x1=\"%d\" y1=\"%.1f\" x2=\"%d\" y2=\"%.1f\" stroke=\"#404040\"/>", plotLeft - TICK_LENGTH, y, plotLeft, y));
+			out.append(format("<text x=\"%d\" y=\"%.1f\" font-size=\"10\" text-anchor=\"end\">%s</text>\n", plotLeft - TICK_LENGTH - 2, y + 3,
+					Java2DChartRenderer.formatTick(value)));
+		}
+
+		// X ticks, skipping labels that would overlap their neighbours
+		final int numXTicks = (int) Math.floor(xSpan / chart.getXTickUnit()) + 1;
+		final int xTickLabelWidth = (Java2DChartRenderer.formatTick(chart.getXUpperBound()).length() + 2) * TICK_CHARACTER_WIDTH;
+		final int labelEvery = Math.max(1, (int) Math.ceil(xTickLabelWidth / (chart.getXTickUnit() * xScale)));
+		for (int i = 0; i < numXTicks; ++i) {
+			final double value = chart.getXLowerBound() + i * chart.getXTickUnit();
+			final double x = plotLeft + (value - chart.getXLowerBound()) * xScale;
+			out.append(format("<line x1=\"%.1f\" y1=\"%d\" x2=\"%.1f\" y2=\"%d\" stroke=\"#404040\"/>", x, plotBottom, x,
+					plotBottom + TICK_LENGTH));
+			if (i % labelEvery == 0) {
+				out.append(format("<text x=\"%.1f\" y=\"%d\" font-size=\"10\" text-anchor=\"middle\">%s</text>", x,
+						plotBottom + TICK_LENGTH + 11, Java2DChartRenderer.formatTick(value)));
+			}
+			out.append('\n');
+		}
+
+		// Series, each as a translucent filled area with a solid outline
+		final List<ChartSeries> seriesList = chart.getSeries();
+		for (int s = 0; s < seriesList.size(); ++s) {
+			final ChartSeries series = seriesList.get(s);
+			if (series.size() == 0)
+				continue;
+			final String color = color(s);
+			final StringBuilder points = new StringBuilder();
+			for (int i = 0; i < series.size(); ++i) {
+				points.append(format("%.1f,%.1f ", plotLeft + (series.getX(i) - chart.getXLowerBound()) * xScale,
+						plotBottom - series.getY(i) * yScale));
+			}
+			final double firstX = plotLeft + (series.getX(0) - chart.getXLowerBound()) * xScale;
+			final double lastX = plotLeft + (series.getX(series.size() - 1) - chart.getXLowerBound()) * xScale;
+			out.append(format("<polygon points=\"%.1f,%d %s%.1f,%d\" fill=\"%s\" fill-opacity=\"0.33\"/>\n", firstX, plotBottom, points, lastX,
+					plotBottom, color));
+			out.append(format("<polyline points=\"%s\" fill=\"none\" stroke=\"%s\" stroke-width=\"2\"/>\n", points.toString().trim(), color));
+		}
+
+		// Axes and their labels
+		out.append(format("<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"#404040\"/>", plotLeft, plotTop, plotLeft, plotBottom));
+		out.append(format("<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"#404040\"/>\n", plotLeft, plotBottom, plotRight, plotBottom));
+		out.append(format("<text x=\"%d\" y=\"%d\" font-size=\"12\" text-anchor=\"middle\">%s</text>\n", (plotLeft + plotRight) / 2,
+				this.height - 12, escape(chart.getXAxisLabel())));
+		out.append(format("<text transform=\"translate(20,%d) rotate(-90)\" font-size=\"12\" text-anchor=\"middle\">%s</text>\n",
+				(plotTop + plotBottom) / 2, escape(chart.getYAxisLabel())));
+
+		// Legend, only needed to tell several series apart
+		if (seriesList.size() > 1) {
+			for (int s = 0; s < seriesList.size(); ++s) {
+				final int y = plotTop + 10 + s * 16;
+				out.append(format("<rect x=\"%d\" y=\"%d\" width=\"10\" height=\"10\" fill=\"%s\"/>", plotRight - 150, y, color(s)));
+				out.append(format("<text x=\"%d\" y=\"%d\" font-size=\"12\">%s</text>\n", plotRight - 136, y + 10,
+						escape(seriesList.get(s).getName())));
+			}
+		}
+		out.append("</svg>\n");
+	}
+
+	private static String color(final int seriesIndex) {
+		return format("#%06x", Java2DChartRenderer.seriesColor(seriesIndex).getRGB() & 0xffffff);
+	}
+
+	/**
+	 * Formats SVG markup, independent of the default locale so numbers always use "." as decimal separator.
+	 */
+	private static String format(final String format, final Object... args) {
+		return String.format(Locale.ROOT, format, args);
+	}
+
+	private static String escape(final String text) {
+		return StringEscapeUtils.escapeXml10(text);
+	}
+}
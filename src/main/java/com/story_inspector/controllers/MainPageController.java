@@ -15,6 +15,7 @@ import org.springframework.stereotype.Component;
 
 import com.story_inspector.analysis.reports.ReportExecutor;
 import com.story_inspector.analysis.reports.ReportSpec;
+import com.story_inspector.analysis.summary.charts.ChartOutput;
 import com.story_inspector.controllers.misc.ControllerUtils;
 import com.story_inspector.controllers.misc.ReportExecutionTask;
 import com.story_inspector.fxmlUtil.FxmlLoaderHelper;
@@ -28,6 +29,7 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -69,6 +71,9 @@ public class MainPageController {
 	@FXML
 	private Button inspectButton;
 
+	@FXML
+	private CheckBox chartImagesCheckBox;
+
 	@Autowired
 	private ReportSpecPageController reportSpecPageController;
 
@@ -286,6 +291,8 @@ public class MainPageController {
 	 */
 	private void executeReport(final File reportOutputFile) throws FileNotFoundException {
 
+		// Native charts are smaller and stay sharp when zoomed, but images show in word processors that can't draw charts
+		this.reportTranscriber.setChartOutput(this.chartImagesCheckBox.isSelected() ? ChartOutput.RASTER : ChartOutput.VECTOR);
 		final ReportExecutionTask task = new ReportExecutionTask(this.selectedReportSpec, this.extractor, this.storyParser, this.reportExecutor,
 				this.reportTranscriber, this.selectedStoryFile.getName(), new FileInputStream(this.selectedStoryFile),
 				new FileOutputStream(reportOutputFile));
@@ -1,5 +1,7 @@
 package com.story_inspector.controllers;
 
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.stereotype.Component;
 
 import com.story_inspector.controllers.misc.ControllerUtils;
@@ -23,6 +25,9 @@ import javafx.scene.control.Tooltip;
 @Component
 public class ReportExecutionProgressPageController {
 
+	private static final double MIN_PROGRESS_FOR_ESTIMATE = 0.05;
+	private static final long MIN_ELAPSED_NANOS_FOR_ESTIMATE = TimeUnit.SECONDS.toNanos(2);
+
 	@FXML
 	private Label reportNameLabel;
 
@@ -38,6 +43,9 @@ public class ReportExecutionProgressPageController {
 	@FXML
 	private Label progressPercentageLabel;
 
+	@FXML
+	private Label timeRemainingLabel;
+
 	@FXML
 	private Label progressDescriptionLabel;
 
@@ -55,6 +63,10 @@ public class ReportExecutionProgressPageController {
 				() -> ((int) Math.round(reportExecutionTask.getProgress() * 100)) + "%", reportExecutionTask.progressProperty()));
 		this.progressBar.progressProperty().bind(reportExecutionTask.progressProperty());
 
+		final long startTime = System.nanoTime();
+		this.timeRemainingLabel.textProperty().bind(Bindings.createStringBinding(
+				() -> describeTimeRemaining(System.nanoTime() - startTime, reportExecutionTask.getProgress()), reportExecutionTask.progressProperty()));
+
 		this.reportNameLabel.setText(reportExecutionTask.getReportSpec().getName());
 		this.reportDescriptionTooltip.setText(reportExecutionTask.getReportSpec().getDescription());
 		this.storyNameLabel.setText(reportExecutionTask.getStoryName());
@@ -62,6 +74,23 @@ public class ReportExecutionProgressPageController {
 		ControllerUtils.performWithStage(this.progressBar, s -> s.setOnCloseRequest(e -> this.reportExecutionTask.cancel()));
 	}
 
+	/**
+	 * Estimates the remaining execution time by extrapolating from the elapsed time and current progress. Report execution weights its progress by
+	 * the expected cost of each analyzer, so progress is roughly proportional to elapsed time.
+	 */
+	private static String describeTimeRemaining(final long elapsedNanos, final double progress) {
+		if (progress < MIN_PROGRESS_FOR_ESTIMATE || elapsedNanos < MIN_ELAPSED_NANOS_FOR_ESTIMATE)
+			return "Estimating time remaining...";
+		if (progress >= 1.0)
+			return "";
+
+		final long remainingSeconds = Math.round(TimeUnit.NANOSECONDS.toSeconds(elapsedNanos) * (1.0 - progress) / progress);
+		if (remainingSeconds < 60)
+			return "Less than a minute remaining";
+		final long remainingMinutes = Math.round(remainingSeconds / 60.0);
+		return "About " + remainingMinutes + (remainingMinutes == 1 ? " minute" : " minutes") + " remaining";
+	}
+
 	/**
 	 * Triggered by cancel button and closing the window. Sends a cancellation request to the task and in the meantime changes the progress
 	 * description to inform the user the task is being canceled (in case it takes a while).
@@ -71,5 +100,7 @@ public class ReportExecutionProgressPageController {
 		this.reportExecutionTask.cancel();
 		this.progressDescriptionLabel.textProperty().unbind();
 		this.progressDescriptionLabel.setText("Cancelling...");
+		this.timeRemainingLabel.textProperty().unbind();
+		this.timeRemainingLabel.setText("");
 	}
 }
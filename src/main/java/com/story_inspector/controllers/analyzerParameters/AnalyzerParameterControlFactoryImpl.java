@@ -7,6 +7,7 @@ import org.springframework.stereotype.Component;
 
 import com.story_inspector.analysis.ParameterSpec;
 import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.analysis.parameterTypes.HeatMapGranularity;
 import com.story_inspector.analysis.parameterTypes.StringSet;
 
 import javafx.scene.Node;
@@ -45,7 +46,10 @@ public class AnalyzerParameterControlFactoryImpl implements AnalyzerParameterCon
 		// is up to date...
 		registerGenerator(StringSet.class, spec -> new StringSetControl(spec));
 		registerGenerator(Boolean.class, spec -> new BooleanControl(spec));
+		registerGenerator(Integer.class, spec -> new IntegerControl(spec));
+		registerGenerator(String.class, spec -> new StringControl(spec));
 		registerGenerator(DialogueSearchPattern.class, spec -> new DescribableEnumControl<DialogueSearchPattern>(spec));
+		registerGenerator(HeatMapGranularity.class, spec -> new DescribableEnumControl<HeatMapGranularity>(spec));
 	}
 
 	@SuppressWarnings("unchecked")
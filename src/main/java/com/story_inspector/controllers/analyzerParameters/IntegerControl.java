@@ -0,0 +1,118 @@
+package com.story_inspector.controllers.analyzerParameters;
+
+import java.io.IOException;
+
+import com.story_inspector.analysis.ParameterSpec;
+
+import javafx.beans.value.ObservableValue;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.SpinnerValueFactory.IntegerSpinnerValueFactory;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.VBox;
+
+/**
+ * {@link AnalyzerParameterControl} for {@link Integer} parameters. Implemented as an editable {@link Spinner}. Does not restrict the range of values
+ * itself, that is left to the parameter's validator.
+ *
+ * @author mizitch
+ *
+ */
+public class IntegerControl extends VBox implements AnalyzerParameterControl<Integer> {
+
+	private final ParameterSpec<Integer> spec;
+
+	@FXML
+	private Label nameLabel;
+
+	@FXML
+	private Tooltip nameLabelTooltip;
+
+	@FXML
+	private Spinner<Integer> spinner;
+
+	@FXML
+	private Tooltip spinnerTooltip;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param spec
+	 *            The {@link ParameterSpec} for the parameter the new control should represent.
+	 */
+	public IntegerControl(final ParameterSpec<Integer> spec) {
+		this.spec = spec;
+
+		final FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/fxml/parameterControls/IntegerControl.fxml"));
+		fxmlLoader.setRoot(this);
+		fxmlLoader.setController(this);
+
+		try {
+			fxmlLoader.load();
+		} catch (final IOException exception) {
+			throw new RuntimeException(exception);
+		}
+
+		this.nameLabel.setText(spec.getName() + ":");
+		this.nameLabelTooltip.setText(spec.getDescription());
+		this.spinnerTooltip.setText(spec.getDescription());
+		this.spinner.setValueFactory(new IntegerSpinnerValueFactory(Integer.MIN_VALUE, Integer.MAX_VALUE, 0));
+
+		// Commit typed values as soon as focus is lost, rather than only when enter is pressed
+		this.spinner.focusedProperty().addListener((observable, wasFocused, isFocused) -> {
+			if (!isFocused)
+				commitEditorText();
+		});
+
+		if (spec.hasDefaultValue())
+			this.setValue(spec.getDefaultValue());
+	}
+
+	private void commitEditorText() {
+		final Integer value = parseValue(this.spinner.getEditor().getText());
+		if (value != null)
+			this.spinner.getValueFactory().setValue(value);
+		else
+			this.spinner.getEditor().setText(String.valueOf(this.spinner.getValue()));
+	}
+
+	/**
+	 * Parses text typed into the spinner, ignoring surrounding whitespace.
+	 *
+	 * @param text
+	 *            The typed text.
+	 * @return The typed value, or null if the text is not an integer.
+	 */
+	static Integer parseValue(final String text) {
+		try {
+			return Integer.valueOf(text.trim());
+		} catch (final NumberFormatException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public ObservableValue<Integer> getObservableParameterValue() {
+		return this.spinner.valueProperty();
+	}
+
+	@Override
+	public void setValue(final Integer value) {
+		this.spinner.getValueFactory().setValue(value);
+	}
+
+	@Override
+	public void setValidated(final boolean validated) {
+		if (validated)
+			this.getStyleClass().removeAll("invalidated-control");
+		else
+			this.getStyleClass().add("invalidated-control");
+	}
+
+	@Override
+	public ParameterSpec<Integer> getSpec() {
+		return this.spec;
+	}
+}
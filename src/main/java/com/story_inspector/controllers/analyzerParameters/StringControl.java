@@ -0,0 +1,86 @@
+package com.story_inspector.controllers.analyzerParameters;
+
+import java.io.IOException;
+
+import com.story_inspector.analysis.ParameterSpec;
+
+import javafx.beans.value.ObservableValue;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.VBox;
+
+/**
+ * {@link AnalyzerParameterControl} for {@link String} parameters. Implemented as a {@link TextField}.
+ *
+ * @author mizitch
+ *
+ */
+public class StringControl extends VBox implements AnalyzerParameterControl<String> {
+
+	private final ParameterSpec<String> spec;
+
+	@FXML
+	private Label nameLabel;
+
+	@FXML
+	private Tooltip nameLabelTooltip;
+
+	@FXML
+	private TextField textField;
+
+	@FXML
+	private Tooltip textFieldTooltip;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param spec
+	 *            The {@link ParameterSpec} for the parameter the new control should represent.
+	 */
+	public StringControl(final ParameterSpec<String> spec) {
+		this.spec = spec;
+
+		final FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/fxml/parameterControls/StringControl.fxml"));
+		fxmlLoader.setRoot(this);
+		fxmlLoader.setController(this);
+
+		try {
+			fxmlLoader.load();
+		} catch (final IOException exception) {
+			throw new RuntimeException(exception);
+		}
+
+		this.nameLabel.setText(spec.getName() + ":");
+		this.nameLabelTooltip.setText(spec.getDescription());
+		this.textFieldTooltip.setText(spec.getDescription());
+
+		if (spec.hasDefaultValue())
+			this.setValue(spec.getDefaultValue());
+	}
+
+	@Override
+	public ObservableValue<String> getObservableParameterValue() {
+		return this.textField.textProperty();
+	}
+
+	@Override
+	public void setValue(final String value) {
+		this.textField.setText(value);
+	}
+
+	@Override
+	public void setValidated(final boolean validated) {
+		if (validated)
+			this.getStyleClass().removeAll("invalidated-control");
+		else
+			this.getStyleClass().add("invalidated-control");
+	}
+
+	@Override
+	public ParameterSpec<String> getSpec() {
+		return this.spec;
+	}
+}
@@ -114,8 +114,13 @@ public class ReportExecutionTask extends Task<Report> {
 			final Report report = this.reportExecutor.execute(this.reportSpec, story, this.monitor.subMonitor(0.2f, 0.9f, "Report Execution"));
 
 			log.info("Transcribing report");
-			this.transcriber.transcribeReport(report, extractedDoc, this.reportOutputStream,
-					this.monitor.subMonitor(0.9f, 1.0f, "Report Transcription"));
+			try {
+				this.transcriber.transcribeReport(report, extractedDoc, this.reportOutputStream,
+						this.monitor.subMonitor(0.9f, 1.0f, "Report Transcription"));
+			} finally {
+				// Comments may be spilled to disk, release them now that they've been written
+				report.releaseComments();
+			}
 
 			log.info("Report execution complete");
 			return report;
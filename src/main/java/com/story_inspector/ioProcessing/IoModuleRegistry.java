@@ -41,4 +41,13 @@ public interface IoModuleRegistry {
 	 * @return All {@link ReportTranscriber}s that can handle the provided file type.
 	 */
 	public Set<ReportTranscriber> getReportTranscribersForFileType(String fileType);
+
+	/**
+	 * Get all {@link ReportSummaryWriterFactory}s that can write the provided file type.
+	 *
+	 * @param fileType
+	 *            File type, specified as the extension without a leading "." Not case-sensitive.
+	 * @return All {@link ReportSummaryWriterFactory}s that can write the provided file type.
+	 */
+	public Set<ReportSummaryWriterFactory> getReportSummaryWriterFactoriesForFileType(String fileType);
 }
@@ -0,0 +1,32 @@
+package com.story_inspector.ioProcessing;
+
+import java.io.OutputStream;
+import java.util.Set;
+
+import com.story_inspector.analysis.summary.ReportSummaryWriter;
+
+/**
+ * Creates {@link ReportSummaryWriter}s that write a report summary on its own, without the commented story, straight to an {@link OutputStream}.
+ * Used for previews and machine-readable exports, which don't need a full {@link ReportTranscriber} round trip.
+ *
+ * @author mizitch
+ *
+ */
+public interface ReportSummaryWriterFactory {
+
+	/**
+	 * Creates a writer of a report summary.
+	 *
+	 * @param destination
+	 *            The {@link OutputStream} to write to. Written to as the summary is written, and flushed but not closed when the summary is ended.
+	 * @return A new writer.
+	 */
+	public ReportSummaryWriter createWriter(OutputStream destination);
+
+	/**
+	 * Get the file types written.
+	 *
+	 * @return The file types written, specified as the extension without a leading "."
+	 */
+	public Set<String> getSupportedFileTypes();
+}
@@ -4,6 +4,7 @@ import java.io.OutputStream;
 import java.util.Set;
 
 import com.story_inspector.analysis.reports.Report;
+import com.story_inspector.analysis.summary.charts.ChartOutput;
 import com.story_inspector.progress.ProgressMonitor;
 import com.story_inspector.progress.TaskCanceledException;
 
@@ -35,4 +36,13 @@ public interface ReportTranscriber {
 			ProgressMonitor progressMonitor) throws StoryIOException, TaskCanceledException;
 
 	public Set<String> getSupportedFileTypes();
+
+	/**
+	 * Sets how charts in report summaries are written by later calls to {@link #transcribeReport(Report, ExtractedDocument, OutputStream,
+	 * ProgressMonitor) transcribeReport}.
+	 *
+	 * @param chartOutput
+	 *            How charts in report summaries are written.
+	 */
+	public void setChartOutput(ChartOutput chartOutput);
 }
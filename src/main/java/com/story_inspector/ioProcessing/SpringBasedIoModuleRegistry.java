@@ -24,6 +24,7 @@ class SpringBasedIoModuleRegistry implements IoModuleRegistry, ApplicationContex
 
 	private Map<String, Set<DocumentExtractor>> extractorRegistry = null;
 	private Map<String, Set<ReportTranscriber>> transcriberRegistry = null;
+	private Map<String, Set<ReportSummaryWriterFactory>> summaryWriterRegistry = null;
 	private Set<StoryParser> parserRegistry = null;
 
 	@Override
@@ -57,6 +58,18 @@ class SpringBasedIoModuleRegistry implements IoModuleRegistry, ApplicationContex
 			}
 		}
 
+		this.summaryWriterRegistry = new HashMap<>();
+
+		final Map<String, ReportSummaryWriterFactory> summaryWriterBeans = applicationContext.getBeansOfType(ReportSummaryWriterFactory.class);
+
+		for (final ReportSummaryWriterFactory summaryWriterFactory : summaryWriterBeans.values()) {
+			for (final String fileType : summaryWriterFactory.getSupportedFileTypes()) {
+				if (!this.summaryWriterRegistry.containsKey(fileType.toUpperCase()))
+					this.summaryWriterRegistry.put(fileType.toUpperCase(), new HashSet<>());
+				this.summaryWriterRegistry.get(fileType.toUpperCase()).add(summaryWriterFactory);
+			}
+		}
+
 		this.parserRegistry = new HashSet<>(applicationContext.getBeansOfType(StoryParser.class).values());
 	}
 
@@ -74,6 +87,13 @@ class SpringBasedIoModuleRegistry implements IoModuleRegistry, ApplicationContex
 		return result != null ? result : Collections.emptySet();
 	}
 
+	@Override
+	public Set<ReportSummaryWriterFactory> getReportSummaryWriterFactoriesForFileType(final String fileType) {
+		Validate.notNull(this.summaryWriterRegistry, "Cannot call this method before application context is initialized");
+		final Set<ReportSummaryWriterFactory> result = this.summaryWriterRegistry.get(fileType.toUpperCase());
+		return result != null ? Collections.unmodifiableSet(result) : Collections.emptySet();
+	}
+
 	@Override
 	public Set<StoryParser> getStoryParsers() {
 		return Collections.unmodifiableSet(this.parserRegistry);
@@ -1,19 +1,35 @@
 package com.story_inspector.ioProcessing.docx;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.imageio.ImageIO;
 import javax.xml.bind.JAXBElement;
 
 import org.apache.commons.lang.Validate;
 import org.apache.commons.lang3.tuple.Pair;
+import org.docx4j.XmlUtils;
 import org.docx4j.dml.wordprocessingDrawing.Inline;
+import org.docx4j.openpackaging.exceptions.InvalidFormatException;
+import org.docx4j.openpackaging.parts.PartName;
 import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.docx4j.relationships.Relationship;
 import org.docx4j.wml.BooleanDefaultTrue;
 import org.docx4j.wml.CTBorder;
 import org.docx4j.wml.Drawing;
@@ -33,13 +49,33 @@ import org.docx4j.wml.RStyle;
 import org.docx4j.wml.STBorder;
 import org.docx4j.wml.STLineSpacingRule;
 import org.docx4j.wml.Style;
+import org.docx4j.wml.Tbl;
+import org.docx4j.wml.TblBorders;
+import org.docx4j.wml.TblGrid;
+import org.docx4j.wml.TblPr;
+import org.docx4j.wml.TblWidth;
+import org.docx4j.wml.Tc;
 import org.docx4j.wml.Text;
+import org.docx4j.wml.Tr;
+import org.docx4j.wml.TrPr;
 
 import com.story_inspector.analysis.summary.ReportSummaryWriter;
+import com.story_inspector.analysis.summary.SummaryTableWriter;
+import com.story_inspector.analysis.summary.charts.Chart;
+import com.story_inspector.analysis.summary.charts.ChartImageCache;
+import com.story_inspector.analysis.summary.charts.ChartOutput;
+import com.story_inspector.analysis.summary.charts.ChartRenderer;
+import com.story_inspector.analysis.summary.charts.DrawingMlChartWriter;
+import com.story_inspector.analysis.summary.charts.Java2DChartRenderer;
 
 /**
  * Implementation of {@link ReportSummaryWriter} for DOCX files.
  *
+ * Images are rendered and encoded to PNG on a pool of worker threads while the rest of the summary is written. Each image's paragraph is added in
+ * document order when it is written, and its drawing is filled in once its encoding completes.
+ *
+ * Charts are either written as native Word charts, drawn by the word processor from their data, or rendered and added as images.
+ *
  * @author mizitch
  *
  */
@@ -53,6 +89,10 @@ public class DocXReportSummaryWriter implements ReportSummaryWriter {
 
 	private static final String KEY_VALUE_STYLE = "StoryInspectorKeyValue";
 
+	private static final String TABLE_HEADER_CHARACTER_STYLE = "StoryInspectorTableHeader";
+
+	private static final String TABLE_CELL_STYLE = "StoryInspectorTableCell";
+
 	private static final String TEXT_STYLE = "StoryInspectorText";
 
 	private static final String HEADING2_STYLE = "StoryInspectorHeading2";
@@ -61,40 +101,105 @@ public class DocXReportSummaryWriter implements ReportSummaryWriter {
 
 	private static final String TITLE_STYLE = "StoryInspectorTitle";
 
+	private static final String CHART_PART_NAME_FORMAT = "/word/charts/storyInspectorChart%d.xml";
+
+	private static final int EMUS_PER_PIXEL = 9525;
+
+	static final String IMAGE_THREAD_NAME = "summary-image-encoding";
+
+	private static final long IMAGE_THREAD_KEEP_ALIVE_SECONDS = 10;
+
+	// @formatter:off
+	private static final String CHART_INLINE_FORMAT =
+			"<wp:inline distT=\"0\" distB=\"0\" distL=\"0\" distR=\"0\""
+			+ " xmlns:wp=\"http://schemas.openxmlformats.org/drawingml/2006/wordprocessingDrawing\""
+			+ " xmlns:a=\"http://schemas.openxmlformats.org/drawingml/2006/main\""
+			+ " xmlns:c=\"http://schemas.openxmlformats.org/drawingml/2006/chart\""
+			+ " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+			+ "<wp:extent cx=\"%d\" cy=\"%d\"/><wp:effectExtent l=\"0\" t=\"0\" r=\"0\" b=\"0\"/>"
+			+ "<wp:docPr id=\"%d\" name=\"Chart %d\"/><wp:cNvGraphicFramePr/>"
+			+ "<a:graphic><a:graphicData uri=\"http://schemas.openxmlformats.org/drawingml/2006/chart\">"
+			+ "<c:chart r:id=\"%s\"/></a:graphicData></a:graphic></wp:inline>";
+	// @formatter:on
+
 	private final DocXExtractedDocument extractedDocument;
 
-	private final List<P> summaryParagraphs = new ArrayList<>();
+	private final ChartOutput chartOutput;
+
+	private final ChartRenderer chartRenderer;
+
+	private final ChartImageCache chartImageCache;
+
+	// Drawings whose images are still being encoded, in document order
+	private final Deque<PendingImage> pendingImages = new ArrayDeque<>();
+
+	private ExecutorService imageExecutor;
+
+	// Paragraphs and tables of the summary
+	private final List<Object> summaryContent = new ArrayList<>();
+
+	private SummaryTableWriter openTable = null;
 
 	private boolean pageBreakNext = false;
 
 	private int nextUniqueImageId = 1;
 
+	private int nextChartPartNumber = 1;
+
 	private final ObjectFactory wmlObjectFactory = new ObjectFactory();
 
 	private boolean summaryEnded = false;
 
 	/**
-	 * Creates a new instance
+	 * Creates a new instance that writes charts as native Word charts.
 	 *
 	 * @param extractedDocument
 	 *            The original story document.
 	 */
 	DocXReportSummaryWriter(final DocXExtractedDocument extractedDocument) {
+		this(extractedDocument, ChartOutput.VECTOR, new Java2DChartRenderer(), null);
+	}
+
+	/**
+	 * Creates a new instance
+	 *
+	 * @param extractedDocument
+	 *            The original story document.
+	 * @param chartOutput
+	 *            Whether charts are written as native Word charts ({@link ChartOutput#VECTOR}) or as images ({@link ChartOutput#RASTER}).
+	 * @param chartRenderer
+	 *            Draws the charts written to this summary as images.
+	 * @param chartImageCache
+	 *            Cache of drawn charts to reuse. May be null to draw every chart.
+	 */
+	DocXReportSummaryWriter(final DocXExtractedDocument extractedDocument, final ChartOutput chartOutput, final ChartRenderer chartRenderer,
+			final ChartImageCache chartImageCache) {
+		Validate.notNull(chartOutput);
+		Validate.notNull(chartRenderer);
 		this.extractedDocument = extractedDocument;
+		this.chartOutput = chartOutput;
+		this.chartRenderer = chartRenderer;
+		this.chartImageCache = chartImageCache;
 	}
 
 	/**
 	 * Add the paragraph to the report summary.
 	 */
 	private void addParagraph(final P paragraph) {
-		if (this.summaryEnded)
-			throw new RuntimeException("Summary is ended, cannot add to summary");
+		checkWritable();
 
 		if (this.pageBreakNext) {
 			setPageBreakBefore(paragraph);
 			this.pageBreakNext = false;
 		}
-		this.summaryParagraphs.add(paragraph);
+		this.summaryContent.add(paragraph);
+	}
+
+	private void checkWritable() {
+		if (this.summaryEnded)
+			throw new RuntimeException("Summary is ended, cannot add to summary");
+		if (this.openTable != null)
+			throw new RuntimeException("Table is not ended, cannot add to summary");
 	}
 
 	@Override
@@ -128,15 +233,113 @@ public class DocXReportSummaryWriter implements ReportSummaryWriter {
 		}
 	}
 
+	@Override
+	public SummaryTableWriter startTable(final List<String> columnHeaders) {
+		Validate.notEmpty(columnHeaders);
+		checkWritable();
+
+		// A table can't break the page before itself, so an empty paragraph does instead
+		if (this.pageBreakNext)
+			addParagraph(createParagraph(TEXT_STYLE, ""));
+
+		final Tbl table = createTable(columnHeaders.size());
+		if (columnHeaders.stream().anyMatch(h -> !h.isEmpty()))
+			table.getContent().add(createTableRow(columnHeaders, true));
+		this.summaryContent.add(table);
+
+		final int numColumns = columnHeaders.size();
+		this.openTable = new SummaryTableWriter() {
+			private boolean tableEnded = false;
+
+			@Override
+			public void writeRow(final List<String> cells) {
+				if (this.tableEnded)
+					throw new RuntimeException("Table is ended, cannot add to table");
+				Validate.isTrue(cells.size() == numColumns,
+						String.format("Number of cells: %d must match number of columns: %d", cells.size(), numColumns));
+				table.getContent().add(createTableRow(cells, false));
+			}
+
+			@Override
+			public void endTable() {
+				if (this.tableEnded)
+					throw new RuntimeException("Table is already ended");
+				this.tableEnded = true;
+				DocXReportSummaryWriter.this.openTable = null;
+			}
+		};
+		return this.openTable;
+	}
+
 	@Override
 	public void addPageBreak() {
-		if (this.summaryEnded)
-			throw new RuntimeException("Summary is ended, cannot add to summary");
+		checkWritable();
 		this.pageBreakNext = true;
 	}
 
 	@Override
 	public void writeImage(final BufferedImage image) {
+		Validate.notNull(image);
+		addImage(() -> encodePng(image));
+	}
+
+	@Override
+	public void writeChart(final Chart chart) {
+		Validate.notNull(chart);
+		if (this.chartOutput == ChartOutput.VECTOR)
+			addNativeChart(chart);
+		else if (this.chartImageCache != null)
+			addImage(() -> this.chartImageCache.getPng(chart, this.chartRenderer));
+		else
+			addImage(() -> encodePng(this.chartRenderer.render(chart)));
+	}
+
+	/**
+	 * Adds a paragraph holding a native chart to the summary. The chart is written to its own chart part, with its data embedded as literal values.
+	 */
+	private void addNativeChart(final Chart chart) {
+		final Inline chartInline;
+		try {
+			final StringBuilder chartSpace = new StringBuilder();
+			new DrawingMlChartWriter().write(chart, chartSpace);
+
+			final org.docx4j.openpackaging.parts.DrawingML.Chart chartPart = new org.docx4j.openpackaging.parts.DrawingML.Chart(nextChartPartName());
+			chartPart.unmarshal(new ByteArrayInputStream(chartSpace.toString().getBytes(StandardCharsets.UTF_8)));
+			final Relationship relationship = this.extractedDocument.getDocumentPackage().getMainDocumentPart().addTargetPart(chartPart);
+
+			final int id = nextUniqueImageId();
+			final String inlineXml = String.format(CHART_INLINE_FORMAT, Java2DChartRenderer.DEFAULT_WIDTH * EMUS_PER_PIXEL,
+					Java2DChartRenderer.DEFAULT_HEIGHT * EMUS_PER_PIXEL, id, id, relationship.getId());
+			chartInline = (Inline) XmlUtils.unwrap(XmlUtils.unmarshalString(inlineXml));
+		} catch (final Exception e) {
+			throw new RuntimeException("Could not write chart " + chart.getTitle(), e);
+		}
+
+		final P chartParagraph = this.wmlObjectFactory.createP();
+		final R chartRun = this.wmlObjectFactory.createR();
+		chartParagraph.getContent().add(chartRun);
+		final Drawing drawing = this.wmlObjectFactory.createDrawing();
+		drawing.getAnchorOrInline().add(chartInline);
+		chartRun.getContent().add(drawing);
+
+		addParagraph(chartParagraph);
+	}
+
+	/**
+	 * Returns the name of a chart part not yet in the document. The original document may already have charts of its own.
+	 */
+	private PartName nextChartPartName() throws InvalidFormatException {
+		while (true) {
+			final PartName partName = new PartName(String.format(CHART_PART_NAME_FORMAT, this.nextChartPartNumber++));
+			if (this.extractedDocument.getDocumentPackage().getParts().get(partName) == null)
+				return partName;
+		}
+	}
+
+	/**
+	 * Adds a paragraph for an image to the summary, and starts producing its PNG bytes on a worker thread.
+	 */
+	private void addImage(final Callable<byte[]> pngBytes) {
 		final P imageParagraph = this.wmlObjectFactory.createP();
 
 		final R imageRun = this.wmlObjectFactory.createR();
@@ -145,25 +348,83 @@ public class DocXReportSummaryWriter implements ReportSummaryWriter {
 		final Drawing drawing = this.wmlObjectFactory.createDrawing();
 		imageRun.getContent().add(drawing);
 
-		try {
-			final ByteArrayOutputStream byteOutputStream = new ByteArrayOutputStream();
-			ImageIO.write(image, "PNG", byteOutputStream);
-			final BinaryPartAbstractImage imagePart = BinaryPartAbstractImage.createImagePart(this.extractedDocument.getDocumentPackage(),
-					byteOutputStream.toByteArray());
-			final Inline imageInline = imagePart.createImageInline("Filename", "An image", nextUniqueImageId(), nextUniqueImageId(), false);
+		addParagraph(imageParagraph);
 
-			drawing.getAnchorOrInline().add(imageInline);
-		} catch (final Exception e) {
-			throw new RuntimeException(e);
+		if (this.imageExecutor == null) {
+			// Idle threads time out, so a writer that is never ended doesn't hold on to them
+			final int numThreads = Runtime.getRuntime().availableProcessors();
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(numThreads, numThreads, IMAGE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), r -> {
+						final Thread thread = new Thread(r, IMAGE_THREAD_NAME);
+						thread.setDaemon(true);
+						return thread;
+					});
+			executor.allowCoreThreadTimeOut(true);
+			this.imageExecutor = executor;
 		}
+		this.pendingImages.add(new PendingImage(drawing, this.imageExecutor.submit(pngBytes)));
+		insertPendingImages(false);
+	}
 
-		addParagraph(imageParagraph);
+	/**
+	 * Inserts encoded images into their drawings, in document order. Stops at the first image still being encoded, unless told to wait for all. If
+	 * an image fails, the remaining images are cancelled and the worker threads released before the failure is rethrown.
+	 */
+	private void insertPendingImages(final boolean waitForAll) {
+		while (!this.pendingImages.isEmpty() && (waitForAll || this.pendingImages.peek().pngBytes.isDone())) {
+			final PendingImage pendingImage = this.pendingImages.poll();
+			try {
+				final BinaryPartAbstractImage imagePart = BinaryPartAbstractImage.createImagePart(this.extractedDocument.getDocumentPackage(),
+						pendingImage.pngBytes.get());
+				final Inline imageInline = imagePart.createImageInline("Filename", "An image", nextUniqueImageId(), nextUniqueImageId(), false);
+
+				pendingImage.drawing.getAnchorOrInline().add(imageInline);
+			} catch (final InterruptedException e) {
+				releaseImageExecutor();
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Interrupted while encoding summary images", e);
+			} catch (final ExecutionException e) {
+				releaseImageExecutor();
+				throw new RuntimeException(e.getCause());
+			} catch (final Exception e) {
+				releaseImageExecutor();
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	/**
+	 * Cancels any images still being encoded and shuts down the worker threads. A new pool is started if more images are written.
+	 */
+	private void releaseImageExecutor() {
+		for (final PendingImage pendingImage : this.pendingImages)
+			pendingImage.pngBytes.cancel(true);
+		this.pendingImages.clear();
+		if (this.imageExecutor != null) {
+			this.imageExecutor.shutdownNow();
+			this.imageExecutor = null;
+		}
+	}
+
+	private static byte[] encodePng(final BufferedImage image) throws IOException {
+		final ByteArrayOutputStream byteOutputStream = new ByteArrayOutputStream();
+		ImageIO.write(image, "PNG", byteOutputStream);
+		return byteOutputStream.toByteArray();
 	}
 
 	@Override
 	public void endReportSummary() {
 		if (this.summaryEnded)
 			throw new RuntimeException("Summary is already ended");
+		if (this.openTable != null)
+			throw new RuntimeException("Table is not ended, cannot end summary");
+
+		// Wait for the remaining images
+		try {
+			insertPendingImages(true);
+		} finally {
+			releaseImageExecutor();
+		}
 
 		// Add styles to document
 		this.extractedDocument.getDocumentPackage().getMainDocumentPart().getStyleDefinitionsPart().getJaxbElement().getStyle()
@@ -175,7 +436,7 @@ public class DocXReportSummaryWriter implements ReportSummaryWriter {
 			// page break between report summary and main document
 			setPageBreakBefore((P) paragraphList.get(0));
 		}
-		paragraphList.addAll(0, this.summaryParagraphs);
+		paragraphList.addAll(0, this.summaryContent);
 
 		// Mark summary as ended
 		this.summaryEnded = true;
@@ -188,6 +449,9 @@ public class DocXReportSummaryWriter implements ReportSummaryWriter {
 	private void setPageBreakBefore(final P paragraph) {
 		final BooleanDefaultTrue pageBreakBefore = this.wmlObjectFactory.createBooleanDefaultTrue();
 		pageBreakBefore.setVal(true);
+		// Image and chart paragraphs, and those of the original document, may have no properties yet
+		if (paragraph.getPPr() == null)
+			paragraph.setPPr(this.wmlObjectFactory.createPPr());
 		paragraph.getPPr().setPageBreakBefore(pageBreakBefore);
 	}
 
@@ -210,6 +474,54 @@ public class DocXReportSummaryWriter implements ReportSummaryWriter {
 		return createParagraph(styleId, createRun(null, text));
 	}
 
+	/**
+	 * Creates a table spanning the page width, with single borders between all cells.
+	 */
+	private Tbl createTable(final int numColumns) {
+		final Tbl table = this.wmlObjectFactory.createTbl();
+
+		final TblPr tblPr = this.wmlObjectFactory.createTblPr();
+		final TblWidth width = this.wmlObjectFactory.createTblWidth();
+		width.setType("pct");
+		width.setW(BigInteger.valueOf(5000));
+		tblPr.setTblW(width);
+		final TblBorders borders = this.wmlObjectFactory.createTblBorders();
+		borders.setTop(singleBorder());
+		borders.setLeft(singleBorder());
+		borders.setBottom(singleBorder());
+		borders.setRight(singleBorder());
+		borders.setInsideH(singleBorder());
+		borders.setInsideV(singleBorder());
+		tblPr.setTblBorders(borders);
+		table.setTblPr(tblPr);
+
+		final TblGrid grid = this.wmlObjectFactory.createTblGrid();
+		for (int i = 0; i < numColumns; ++i)
+			grid.getGridCol().add(this.wmlObjectFactory.createTblGridCol());
+		table.setTblGrid(grid);
+
+		return table;
+	}
+
+	/**
+	 * Creates a table row. Header rows are bold, and repeated at the top of each page the table spans.
+	 */
+	private Tr createTableRow(final List<String> cells, final boolean header) {
+		final Tr row = this.wmlObjectFactory.createTr();
+		if (header) {
+			final TrPr trPr = this.wmlObjectFactory.createTrPr();
+			final BooleanDefaultTrue isHeader = this.wmlObjectFactory.createBooleanDefaultTrue();
+			trPr.getCnfStyleOrDivIdOrGridBefore().add(this.wmlObjectFactory.createCTTrPrBaseTblHeader(isHeader));
+			row.setTrPr(trPr);
+		}
+		for (final String cell : cells) {
+			final Tc tc = this.wmlObjectFactory.createTc();
+			tc.getContent().add(createParagraph(TABLE_CELL_STYLE, createRun(header ? TABLE_HEADER_CHARACTER_STYLE : null, cell)));
+			row.getContent().add(tc);
+		}
+		return row;
+	}
+
 	private R createRun(final String styleId, final String text) {
 		final R r = this.wmlObjectFactory.createR();
 
@@ -244,7 +556,11 @@ public class DocXReportSummaryWriter implements ReportSummaryWriter {
 		styles.add(createParagraphStyle(KEY_VALUE_STYLE, paragraphProperties(noSpacing(), noBorder(), leftAligned(), noJoinNext()),
 				runProperties(SANS_SERIF_FONT_NAME, 12, notBold())));
 
+		styles.add(createParagraphStyle(TABLE_CELL_STYLE, paragraphProperties(noSpacing(), noBorder(), leftAligned(), noJoinNext()),
+				runProperties(SANS_SERIF_FONT_NAME, 11, notBold())));
+
 		styles.add(createCharacterStyle(KEY_CHARACTER_STYLE, runProperties(SANS_SERIF_FONT_NAME, 12, bold())));
+		styles.add(createCharacterStyle(TABLE_HEADER_CHARACTER_STYLE, runProperties(SANS_SERIF_FONT_NAME, 11, bold())));
 
 		return styles;
 	}
@@ -357,6 +673,15 @@ public class DocXReportSummaryWriter implements ReportSummaryWriter {
 		return pbdr;
 	}
 
+	private CTBorder singleBorder() {
+		final CTBorder border = this.wmlObjectFactory.createCTBorder();
+		border.setColor("000000");
+		border.setSz(BigInteger.valueOf(4));
+		border.setSpace(BigInteger.valueOf(0));
+		border.setVal(STBorder.SINGLE);
+		return border;
+	}
+
 	private PBdr noBorder() {
 		return null;
 	}
@@ -380,4 +705,17 @@ public class DocXReportSummaryWriter implements ReportSummaryWriter {
 	private boolean notBold() {
 		return false;
 	}
+
+	/**
+	 * A drawing of the summary, and the PNG bytes of its image being encoded.
+	 */
+	private static class PendingImage {
+		private final Drawing drawing;
+		private final Future<byte[]> pngBytes;
+
+		private PendingImage(final Drawing drawing, final Future<byte[]> pngBytes) {
+			this.drawing = drawing;
+			this.pngBytes = pngBytes;
+		}
+	}
 }
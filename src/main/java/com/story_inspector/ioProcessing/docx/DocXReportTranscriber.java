@@ -9,14 +9,13 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Map;
 import java.util.NavigableMap;
 import java.util.NavigableSet;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
@@ -28,6 +27,7 @@ import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
 
+import org.apache.commons.lang.Validate;
 import org.docx4j.openpackaging.exceptions.Docx4JException;
 import org.docx4j.openpackaging.io.SaveToZipFile;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
@@ -45,9 +45,14 @@ import org.docx4j.wml.RPr;
 import org.docx4j.wml.Text;
 import org.springframework.stereotype.Component;
 
+import com.story_inspector.analysis.AnalyzerResult;
 import com.story_inspector.analysis.Comment;
+import com.story_inspector.analysis.comments.CommentIterators;
 import com.story_inspector.analysis.reports.Report;
 import com.story_inspector.analysis.summary.ReportSummaryWriter;
+import com.story_inspector.analysis.summary.charts.ChartImageCache;
+import com.story_inspector.analysis.summary.charts.ChartOutput;
+import com.story_inspector.analysis.summary.charts.Java2DChartRenderer;
 import com.story_inspector.ioProcessing.ExtractedDocument;
 import com.story_inspector.ioProcessing.ExtractedDocument.ExtractedParagraph;
 import com.story_inspector.ioProcessing.ExtractedDocument.ExtractedParagraph.ParagraphType;
@@ -69,6 +74,29 @@ public class DocXReportTranscriber implements ReportTranscriber {
 
 	private final ObjectFactory wmlObjectFactory = new ObjectFactory();
 
+	// Native charts are smaller and faster to write than images, and stay sharp when zoomed
+	private volatile ChartOutput chartOutput = ChartOutput.VECTOR;
+
+	// Only created once a report is written with image charts, as creating it trims the cache directory
+	private ChartImageCache chartImageCache;
+
+	/**
+	 * Creates a new instance that caches chart images in the default cache directory.
+	 */
+	public DocXReportTranscriber() {
+		this(null);
+	}
+
+	/**
+	 * Creates a new instance that caches chart images in the provided cache.
+	 *
+	 * @param chartImageCache
+	 *            The cache of chart images. May be null to create the default cache when first needed.
+	 */
+	DocXReportTranscriber(final ChartImageCache chartImageCache) {
+		this.chartImageCache = chartImageCache;
+	}
+
 	@Override
 	public void transcribeReport(final Report report, final ExtractedDocument extractedDocument, final OutputStream destination,
 			final ProgressMonitor progressMonitor) throws StoryIOException, TaskCanceledException {
@@ -94,33 +122,102 @@ public class DocXReportTranscriber implements ReportTranscriber {
 		}
 	}
 
+	/**
+	 * Returns how charts in report summaries are written. Defaults to {@link ChartOutput#VECTOR}.
+	 *
+	 * @return How charts in report summaries are written.
+	 */
+	public ChartOutput getChartOutput() {
+		return this.chartOutput;
+	}
+
+	/**
+	 * Sets how charts in report summaries are written: as native Word charts ({@link ChartOutput#VECTOR}), or as images
+	 * ({@link ChartOutput#RASTER}) that look the same in viewers without chart support. Images are cached, so re-running a report on an unchanged
+	 * story reuses them.
+	 *
+	 * @param chartOutput
+	 *            How charts in report summaries are written.
+	 */
+	@Override
+	public void setChartOutput(final ChartOutput chartOutput) {
+		Validate.notNull(chartOutput);
+		this.chartOutput = chartOutput;
+	}
+
 	private void addSummaryToSourceDocument(final Report report, final DocXExtractedDocument docXExtractedDocument) {
-		final ReportSummaryWriter summaryWriter = new DocXReportSummaryWriter(docXExtractedDocument);
+		final ChartOutput chartOutput = this.chartOutput;
+		final ReportSummaryWriter summaryWriter = new DocXReportSummaryWriter(docXExtractedDocument, chartOutput, new Java2DChartRenderer(),
+				chartOutput == ChartOutput.RASTER ? getChartImageCache() : null);
 		report.writeSummary(summaryWriter);
 	}
 
+	private synchronized ChartImageCache getChartImageCache() {
+		if (this.chartImageCache == null)
+			this.chartImageCache = new ChartImageCache();
+		return this.chartImageCache;
+	}
+
 	/**
-	 * Add report comments to document.
+	 * Add report comments to document. Comments are streamed in offset order from all analyzer results, so they are never all held in memory at
+	 * once. Each comment is assigned the next id as it is reached, and comments whose ranges have started but not ended are tracked by end index.
 	 */
 	private void addCommentsToSourceDocument(final Report report, final MainDocumentPart sourceDocument,
 			final List<ExtractedParagraph> sourceParagraphs, final ProgressMonitor progressMonitor) throws Docx4JException, TaskCanceledException {
 
-		final Map<Comment, Integer> commentsToIds = extractComments(report);
-		final NavigableMap<Integer, Set<Comment>> commentsByStartIndex = generateCommentsByStartIndex(commentsToIds.keySet());
-		final NavigableMap<Integer, Set<Comment>> commentsByEndIndex = generateCommentsByEndIndex(commentsToIds.keySet());
+		final List<Iterator<Comment>> sortedCommentSources = report.getReportSections().stream() // get all the report tabs
+				.flatMap(rt -> rt.getAnalyzerResults().stream()) // for each tab, get all analyzer results
+				.map(AnalyzerResult::getSortedComments) // for each analyzer result, get its comments in order
+				.collect(Collectors.toList());
+		final Iterator<Comment> comments = CommentIterators.distinct(CommentIterators.mergeSorted(sortedCommentSources));
 
+		final XMLGregorianCalendar commentDate = generateCommentDate();
+		final List<Comments.Comment> docComments = new ArrayList<>();
+		final PriorityQueue<OpenComment> openComments = new PriorityQueue<>();
+		final List<Paragraph> parsedParagraphs = report.getStory().getChildrenAtLevel(Paragraph.class);
+
+		Comment nextComment = comments.hasNext() ? comments.next() : null;
 		int parsedStoryParagraphIndex = 0;
 		for (int i = 0; i < sourceParagraphs.size(); ++i) {
 			progressMonitor.reportProgress(i * 1.0f / sourceParagraphs.size(), i + " / " + sourceParagraphs.size() + " paragraphs");
 			if (sourceParagraphs.get(i).getType() == ParagraphType.TEXT) {
 				final P paragraphNode = (P) sourceDocument.getContent().get(i);
-				final Paragraph parsedParagraph = report.getStory().getChildrenAtLevel(Paragraph.class).get(parsedStoryParagraphIndex);
-				insertCommentsIntoParagraph(paragraphNode, parsedParagraph, commentsByStartIndex, commentsByEndIndex, commentsToIds);
+				final Paragraph parsedParagraph = parsedParagraphs.get(parsedStoryParagraphIndex);
+				final int paragraphStart = parsedParagraph.getRange().getStartIndex();
+				final int paragraphEnd = parsedParagraph.getRange().getEndIndex();
+
+				// Assign ids to all comments starting before the end of this paragraph. Comments starting before this paragraph lie outside of any
+				// text paragraph, so they get no start marker.
+				final NavigableMap<Integer, List<Integer>> commentStartIds = new TreeMap<>();
+				while (nextComment != null && nextComment.getSelection().getStartIndex() < paragraphEnd) {
+					final int id = docComments.size();
+					docComments.add(generateDocComment(nextComment, id, commentDate));
+					if (nextComment.getSelection().getStartIndex() >= paragraphStart)
+						commentStartIds.computeIfAbsent(nextComment.getSelection().getStartIndex(), k -> new ArrayList<>()).add(id);
+					openComments.add(new OpenComment(nextComment.getSelection().getEndIndex(), id));
+					nextComment = comments.hasNext() ? comments.next() : null;
+				}
+
+				// Close all comments ending before the end of this paragraph. As with starts, ends outside of any text paragraph get no marker.
+				final NavigableMap<Integer, List<Integer>> commentEndIds = new TreeMap<>();
+				while (!openComments.isEmpty() && openComments.peek().endIndex < paragraphEnd) {
+					final OpenComment openComment = openComments.poll();
+					if (openComment.endIndex >= paragraphStart)
+						commentEndIds.computeIfAbsent(openComment.endIndex, k -> new ArrayList<>()).add(openComment.id);
+				}
+
+				insertCommentsIntoParagraph(paragraphNode, parsedParagraph, commentStartIds, commentEndIds);
 				++parsedStoryParagraphIndex;
 			}
 		}
 
-		addCommentContents(sourceDocument, commentsToIds);
+		// Comments past the last paragraph still get their contents added
+		while (nextComment != null) {
+			docComments.add(generateDocComment(nextComment, docComments.size(), commentDate));
+			nextComment = comments.hasNext() ? comments.next() : null;
+		}
+
+		addCommentContents(sourceDocument, docComments);
 	}
 
 	private void writeResult(final WordprocessingMLPackage documentPackage, final OutputStream destination) throws Docx4JException {
@@ -129,34 +226,36 @@ public class DocXReportTranscriber implements ReportTranscriber {
 	}
 
 	/**
-	 * Adds text contents of comments to comment section of document.
+	 * Generate the date we will use for all comments (current date)
 	 */
-	private void addCommentContents(final MainDocumentPart sourceDocument, final Map<Comment, Integer> commentsToIds) throws Docx4JException {
-		// Generate the date we will use for all comments (current date)
+	private XMLGregorianCalendar generateCommentDate() {
 		final GregorianCalendar calendar = new GregorianCalendar();
 		calendar.setTime(new Date());
-		XMLGregorianCalendar commentDate;
 		try {
-			commentDate = DatatypeFactory.newInstance().newXMLGregorianCalendar(calendar);
+			return DatatypeFactory.newInstance().newXMLGregorianCalendar(calendar);
 		} catch (final DatatypeConfigurationException e) {
 			throw new RuntimeException(e);
 		}
+	}
 
-		// Generate the docx comment elements for all comments
-		final List<Comments.Comment> docComments = new ArrayList<>();
-		for (final Comment comment : commentsToIds.keySet()) {
-			final Comments.Comment docComment = this.wmlObjectFactory.createCommentsComment();
-			docComment.setAuthor("StoryInspector-Analyzer-" + comment.getAnalyzer().getName());
-			docComment.setDate(commentDate);
-			// Analyzer with a name of "Example" gets the initials SIAE for Story Inspector Analyzer Example
-			docComment.setInitials("SIA" + comment.getAnalyzer().getName().substring(0, 1).toUpperCase());
-			docComment.setId(BigInteger.valueOf(commentsToIds.get(comment)));
-			docComment.getEGBlockLevelElts().add(generateCommentContent(comment.getContent()));
-			docComments.add(docComment);
-		}
-		// Sort the comment elements. Should probably work without this, but not taking any chances
-		docComments.sort((c, o) -> c.getId().intValue() - o.getId().intValue());
+	/**
+	 * Generates the docx comment element for a comment.
+	 */
+	private Comments.Comment generateDocComment(final Comment comment, final int id, final XMLGregorianCalendar commentDate) {
+		final Comments.Comment docComment = this.wmlObjectFactory.createCommentsComment();
+		docComment.setAuthor("StoryInspector-Analyzer-" + comment.getAnalyzer().getName());
+		docComment.setDate(commentDate);
+		// Analyzer with a name of "Example" gets the initials SIAE for Story Inspector Analyzer Example
+		docComment.setInitials("SIA" + comment.getAnalyzer().getName().substring(0, 1).toUpperCase());
+		docComment.setId(BigInteger.valueOf(id));
+		docComment.getEGBlockLevelElts().add(generateCommentContent(comment.getContent()));
+		return docComment;
+	}
 
+	/**
+	 * Adds comment elements to comment section of document. Comment elements must be in id order.
+	 */
+	private void addCommentContents(final MainDocumentPart sourceDocument, final List<Comments.Comment> docComments) throws Docx4JException {
 		// Create comments "part" of docx if it doesn't exist
 		if (sourceDocument.getCommentsPart() == null) {
 			final CommentsPart commentsPart = new CommentsPart();
@@ -165,9 +264,7 @@ public class DocXReportTranscriber implements ReportTranscriber {
 
 		// And stick it all together
 		final Comments docCommentsElement = this.wmlObjectFactory.createComments();
-		for (final Comments.Comment docComment : docComments) {
-			docCommentsElement.getComment().add(docComment);
-		}
+		docCommentsElement.getComment().addAll(docComments);
 		sourceDocument.getCommentsPart().setJaxbElement(docCommentsElement);
 	}
 
@@ -182,29 +279,19 @@ public class DocXReportTranscriber implements ReportTranscriber {
 	}
 
 	/**
-	 * Adds comment start and end objects in paragraph node. Removes comments from input comment maps and adds to result comment map as comments are
-	 * processed.
+	 * Adds comment start and end objects in paragraph node.
 	 *
 	 * @param paragraphNode
 	 *            Paragraph to insert comment start and end objects into
 	 * @param parsedParagraph
 	 *            The parsed paragraph
-	 * @param commentsByStartIndex
-	 *            A map of story character start index to comments.
-	 * @param commentsByEndIndex
-	 *            A map of story character end index to comments.
-	 * @param commentsToIds
-	 *            A map from comment to id for all comments whose start and end ranges have been added
+	 * @param paragraphCommentStarts
+	 *            A map of story character start index to ids of comments starting there. Must only contain locations within this paragraph.
+	 * @param paragraphCommentEnds
+	 *            A map of story character end index to ids of comments ending there. Must only contain locations within this paragraph.
 	 */
 	private void insertCommentsIntoParagraph(final P paragraphNode, final Paragraph parsedParagraph,
-			final NavigableMap<Integer, Set<Comment>> commentsByStartIndex, final NavigableMap<Integer, Set<Comment>> commentsByEndIndex,
-			final Map<Comment, Integer> commentsToIds) {
-		// Filter comment starts and comment ends to only those contained within this paragraph, we don't care about the others at the moment
-		final NavigableMap<Integer, Set<Comment>> paragraphCommentStarts = commentsByStartIndex.subMap(parsedParagraph.getRange().getStartIndex(),
-				true, parsedParagraph.getRange().getEndIndex(), false);
-		final NavigableMap<Integer, Set<Comment>> paragraphCommentEnds = commentsByEndIndex.subMap(parsedParagraph.getRange().getStartIndex(), true,
-				parsedParagraph.getRange().getEndIndex(), false);
-
+			final NavigableMap<Integer, List<Integer>> paragraphCommentStarts, final NavigableMap<Integer, List<Integer>> paragraphCommentEnds) {
 		// No comment range markers to insert in this paragraph, so we're done!
 		if (paragraphCommentStarts.isEmpty() && paragraphCommentEnds.isEmpty())
 			return;
@@ -222,17 +309,17 @@ public class DocXReportTranscriber implements ReportTranscriber {
 
 		while (itr.hasNext()) {
 			if (paragraphCommentStarts.containsKey(currentLocation)) {
-				for (final Comment comment : paragraphCommentStarts.get(currentLocation)) {
-					itr.add(generateCommentStart(comment, commentsToIds.get(comment), paragraphNode));
+				for (final int id : paragraphCommentStarts.get(currentLocation)) {
+					itr.add(generateCommentStart(id, paragraphNode));
 				}
 				// Noting that we have finished with this location
 				// Otherwise may insert duplicates if the doc has elements with no text at this location
 				paragraphCommentStarts.remove(currentLocation);
 			}
 			if (paragraphCommentEnds.containsKey(currentLocation)) {
-				for (final Comment comment : paragraphCommentEnds.get(currentLocation)) {
-					itr.add(generateCommentEnd(comment, commentsToIds.get(comment), paragraphNode));
-					itr.add(generateCommentReference(comment, commentsToIds.get(comment), paragraphNode));
+				for (final int id : paragraphCommentEnds.get(currentLocation)) {
+					itr.add(generateCommentEnd(id, paragraphNode));
+					itr.add(generateCommentReference(id, paragraphNode));
 				}
 				// Noting that we have finished with this location
 				// Otherwise may insert duplicates if the doc has elements with no text at this location
@@ -390,21 +477,21 @@ public class DocXReportTranscriber implements ReportTranscriber {
 		return wrappedText;
 	}
 
-	private CommentRangeStart generateCommentStart(final Comment comment, final int id, final Object parent) {
+	private CommentRangeStart generateCommentStart(final int id, final Object parent) {
 		final CommentRangeStart start = this.wmlObjectFactory.createCommentRangeStart();
 		start.setId(BigInteger.valueOf(id));
 		start.setParent(parent);
 		return start;
 	}
 
-	private CommentRangeEnd generateCommentEnd(final Comment comment, final int id, final Object parent) {
+	private CommentRangeEnd generateCommentEnd(final int id, final Object parent) {
 		final CommentRangeEnd end = new CommentRangeEnd();
 		end.setId(BigInteger.valueOf(id));
 		end.setParent(parent);
 		return end;
 	}
 
-	private R generateCommentReference(final Comment comment, final int id, final Object parent) {
+	private R generateCommentReference(final int id, final Object parent) {
 		final CommentReference commentRef = this.wmlObjectFactory.createRCommentReference();
 		commentRef.setId(BigInteger.valueOf(id));
 		final JAXBElement<CommentReference> wrappedCommentRef = this.wmlObjectFactory.createRCommentReference(commentRef);
@@ -416,34 +503,23 @@ public class DocXReportTranscriber implements ReportTranscriber {
 		return range;
 	}
 
-	private NavigableMap<Integer, Set<Comment>> generateCommentsByEndIndex(final Set<Comment> comments) {
-		return comments.stream().collect(TreeMap::new, (m, c) -> {
-			if (!m.containsKey(c.getSelection().getEndIndex()))
-				m.put(c.getSelection().getEndIndex(), new HashSet<>());
-			m.get(c.getSelection().getEndIndex()).add(c);
-		}, TreeMap::putAll);
-	}
-
-	private NavigableMap<Integer, Set<Comment>> generateCommentsByStartIndex(final Set<Comment> comments) {
-		return comments.stream().collect(TreeMap::new, (m, c) -> {
-			if (!m.containsKey(c.getSelection().getStartIndex()))
-				m.put(c.getSelection().getStartIndex(), new HashSet<>());
-			m.get(c.getSelection().getStartIndex()).add(c);
-		}, TreeMap::putAll);
-	}
+	/**
+	 * A comment whose range has been started but not yet ended.
+	 */
+	private static class OpenComment implements Comparable<OpenComment> {
+		private final int endIndex;
+		private final int id;
 
-	private Map<Comment, Integer> extractComments(final Report report) {
-		final List<Comment> commentList = report.getReportSections().stream() // get all the report tabs
-				.flatMap(rt -> rt.getAnalyzerResults().stream()) // for each tab, get all analyzer results
-				.flatMap(ar -> ar.getComments().stream()) // for each analyzer result, get all comments
-				.sorted().collect(Collectors.toList()); // sort all of the comments and dump them in a list
+		private OpenComment(final int endIndex, final int id) {
+			this.endIndex = endIndex;
+			this.id = id;
+		}
 
-		// Map each comment to its position in the list, which will be its "id" for the purposes of the docx file
-		final Map<Comment, Integer> result = new HashMap<>();
-		for (int i = 0; i < commentList.size(); ++i) {
-			result.put(commentList.get(i), i);
+		@Override
+		public int compareTo(final OpenComment other) {
+			final int comparison = Integer.compare(this.endIndex, other.endIndex);
+			return comparison != 0 ? comparison : Integer.compare(this.id, other.id);
 		}
-		return result;
 	}
 
 	@Override
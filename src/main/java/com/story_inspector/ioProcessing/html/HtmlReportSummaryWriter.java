@@ -0,0 +1,237 @@
+package com.story_inspector.ioProcessing.html;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.story_inspector.analysis.summary.ReportSummaryWriter;
+import com.story_inspector.analysis.summary.SummaryTableWriter;
+import com.story_inspector.analysis.summary.charts.Chart;
+import com.story_inspector.analysis.summary.charts.ChartOutput;
+import com.story_inspector.analysis.summary.charts.ChartRenderer;
+import com.story_inspector.analysis.summary.charts.Java2DChartRenderer;
+import com.story_inspector.analysis.summary.charts.SvgChartWriter;
+
+/**
+ * Implementation of {@link ReportSummaryWriter} that writes a standalone HTML page. Each component is written to the output stream as it arrives,
+ * so memory use doesn't grow with the size of the summary. Images are embedded as PNGs. Charts are written as inline SVG, or optionally rendered
+ * and embedded like images.
+ *
+ * @author mizitch
+ *
+ */
+public class HtmlReportSummaryWriter implements ReportSummaryWriter {
+
+	// @formatter:off
+	private static final String STYLE =
+			"body { font-family: Calibri, sans-serif; font-size: 12pt; max-width: 50em; margin: 2em auto; }\n"
+			+ "h1 { font-family: 'Times New Roman', serif; font-weight: normal; text-align: center; border-bottom: 1px solid black; }\n"
+			+ "h2 { font-family: 'Times New Roman', serif; font-weight: normal; border-bottom: 1px solid black; }\n"
+			+ "h3 { font-size: 15pt; }\n"
+			+ ".key { font-weight: bold; }\n"
+			+ "table { border-collapse: collapse; width: 100%; }\n"
+			+ "th, td { border: 1px solid black; padding: 0 0.3em; text-align: left; font-size: 11pt; }\n"
+			+ ".page-break { page-break-before: always; }\n";
+	// @formatter:on
+
+	private final Writer out;
+	private final SvgChartWriter chartWriter = new SvgChartWriter();
+	private final ChartOutput chartOutput;
+	private final ChartRenderer chartRenderer;
+
+	private boolean pageBreakNext = false;
+	private boolean tableOpen = false;
+	private boolean summaryEnded = false;
+
+	/**
+	 * Creates a new instance that writes charts as inline SVG, and writes the start of the page.
+	 *
+	 * @param destination
+	 *            The {@link OutputStream} to write to. Flushed but not closed when the summary is ended.
+	 */
+	public HtmlReportSummaryWriter(final OutputStream destination) {
+		this(destination, ChartOutput.VECTOR, new Java2DChartRenderer());
+	}
+
+	/**
+	 * Creates a new instance, and writes the start of the page.
+	 *
+	 * @param destination
+	 *            The {@link OutputStream} to write to. Flushed but not closed when the summary is ended.
+	 * @param chartOutput
+	 *            Whether charts are written as inline SVG ({@link ChartOutput#VECTOR}) or as embedded images ({@link ChartOutput#RASTER}).
+	 * @param chartRenderer
+	 *            Draws the charts written to this summary as images.
+	 */
+	public HtmlReportSummaryWriter(final OutputStream destination, final ChartOutput chartOutput, final ChartRenderer chartRenderer) {
+		Validate.notNull(destination);
+		Validate.notNull(chartOutput);
+		Validate.notNull(chartRenderer);
+		this.chartOutput = chartOutput;
+		this.chartRenderer = chartRenderer;
+		this.out = new BufferedWriter(new OutputStreamWriter(destination, StandardCharsets.UTF_8));
+		write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>Report Summary</title>\n<style>\n" + STYLE
+				+ "</style>\n</head>\n<body>\n");
+	}
+
+	/**
+	 * Write the start tag of an element of the summary, including the pending page break, if any.
+	 */
+	private void startElement(final String tag) {
+		if (this.summaryEnded)
+			throw new RuntimeException("Summary is ended, cannot add to summary");
+		if (this.tableOpen)
+			throw new RuntimeException("Table is not ended, cannot add to summary");
+
+		if (this.pageBreakNext) {
+			write("<" + tag + " class=\"page-break\">");
+			this.pageBreakNext = false;
+		} else {
+			write("<" + tag + ">");
+		}
+	}
+
+	@Override
+	public void writeHeading(final String heading, final int headingLevel) {
+		Validate.isTrue(headingLevel >= 0, "heading level cannot be negative");
+
+		final String tag = "h" + Math.min(headingLevel + 1, 3);
+		startElement(tag);
+		write(escape(heading) + "</" + tag + ">\n");
+	}
+
+	@Override
+	public void writeText(final String text) {
+		startElement("p");
+		write(escape(text) + "</p>\n");
+	}
+
+	@Override
+	public void writeKeyValuePairs(final List<Pair<String, String>> keyValuePairs) {
+		startElement("div");
+		write("\n");
+		for (final Pair<String, String> pair : keyValuePairs)
+			write("<div><span class=\"key\">" + escape(pair.getKey()) + ":</span> " + escape(pair.getValue()) + "</div>\n");
+		write("</div>\n");
+	}
+
+	@Override
+	public SummaryTableWriter startTable(final List<String> columnHeaders) {
+		Validate.notEmpty(columnHeaders);
+		startElement("table");
+		write("\n");
+		if (columnHeaders.stream().anyMatch(h -> !h.isEmpty()))
+			writeTableRow(columnHeaders, "th");
+		this.tableOpen = true;
+
+		final int numColumns = columnHeaders.size();
+		return new SummaryTableWriter() {
+			private boolean tableEnded = false;
+
+			@Override
+			public void writeRow(final List<String> cells) {
+				if (this.tableEnded)
+					throw new RuntimeException("Table is ended, cannot add to table");
+				Validate.isTrue(cells.size() == numColumns,
+						String.format("Number of cells: %d must match number of columns: %d", cells.size(), numColumns));
+				writeTableRow(cells, "td");
+			}
+
+			@Override
+			public void endTable() {
+				if (this.tableEnded)
+					throw new RuntimeException("Table is already ended");
+				this.tableEnded = true;
+				HtmlReportSummaryWriter.this.tableOpen = false;
+				write("</table>\n");
+			}
+		};
+	}
+
+	private void writeTableRow(final List<String> cells, final String cellTag) {
+		write("<tr>");
+		for (final String cell : cells)
+			write("<" + cellTag + ">" + escape(cell) + "</" + cellTag + ">");
+		write("</tr>\n");
+	}
+
+	@Override
+	public void writeImage(final BufferedImage image) {
+		Validate.notNull(image);
+		final ByteArrayOutputStream pngBytes = new ByteArrayOutputStream();
+		try {
+			ImageIO.write(image, "PNG", pngBytes);
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+		startElement("p");
+		write("<img alt=\"An image\" src=\"data:image/png;base64,");
+		write(Base64.getEncoder().encodeToString(pngBytes.toByteArray()));
+		write("\"></p>\n");
+	}
+
+	@Override
+	public void writeChart(final Chart chart) {
+		Validate.notNull(chart);
+		if (this.chartOutput == ChartOutput.RASTER) {
+			writeImage(this.chartRenderer.render(chart));
+			return;
+		}
+		startElement("p");
+		write("\n");
+		try {
+			this.chartWriter.write(chart, this.out);
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+		write("</p>\n");
+	}
+
+	@Override
+	public void addPageBreak() {
+		if (this.summaryEnded)
+			throw new RuntimeException("Summary is ended, cannot add to summary");
+		this.pageBreakNext = true;
+	}
+
+	@Override
+	public void endReportSummary() {
+		if (this.summaryEnded)
+			throw new RuntimeException("Summary is already ended");
+		if (this.tableOpen)
+			throw new RuntimeException("Table is not ended, cannot end summary");
+
+		write("</body>\n</html>\n");
+		try {
+			this.out.flush();
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+		this.summaryEnded = true;
+	}
+
+	private void write(final String html) {
+		try {
+			this.out.write(html);
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String escape(final String text) {
+		return StringEscapeUtils.escapeHtml4(text);
+	}
+}
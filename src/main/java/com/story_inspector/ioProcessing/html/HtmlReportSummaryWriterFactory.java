@@ -0,0 +1,30 @@
+package com.story_inspector.ioProcessing.html;
+
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.story_inspector.analysis.summary.ReportSummaryWriter;
+import com.story_inspector.ioProcessing.ReportSummaryWriterFactory;
+
+/**
+ * Implementation of {@link ReportSummaryWriterFactory} for HTML pages.
+ *
+ * @author mizitch
+ *
+ */
+@Component
+public class HtmlReportSummaryWriterFactory implements ReportSummaryWriterFactory {
+
+	@Override
+	public ReportSummaryWriter createWriter(final OutputStream destination) {
+		return new HtmlReportSummaryWriter(destination);
+	}
+
+	@Override
+	public Set<String> getSupportedFileTypes() {
+		return Collections.singleton("HTML");
+	}
+}
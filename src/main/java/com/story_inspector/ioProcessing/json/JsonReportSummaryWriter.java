@@ -0,0 +1,245 @@
+package com.story_inspector.ioProcessing.json;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.story_inspector.analysis.summary.ReportSummaryWriter;
+import com.story_inspector.analysis.summary.SummaryTableWriter;
+import com.story_inspector.analysis.summary.charts.Chart;
+import com.story_inspector.analysis.summary.charts.ChartSeries;
+
+/**
+ * Implementation of {@link ReportSummaryWriter} that writes machine-readable JSON, for dashboards and other tools. Each component is written to the
+ * output stream as it arrives with a streaming {@link JsonGenerator}, so memory use doesn't grow with the size of the summary.
+ *
+ * The summary is an object with a "components" array. Each component is an object with a "type" (heading, text, keyValuePairs, table, image, chart
+ * or pageBreak) and the fields of that type. Charts are written as their data rather than drawn.
+ *
+ * @author mizitch
+ *
+ */
+public class JsonReportSummaryWriter implements ReportSummaryWriter {
+
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
+	private final JsonGenerator generator;
+
+	private boolean tableOpen = false;
+	private boolean summaryEnded = false;
+
+	/**
+	 * Creates a new instance, and writes the start of the summary.
+	 *
+	 * @param destination
+	 *            The {@link OutputStream} to write to. Flushed but not closed when the summary is ended.
+	 */
+	public JsonReportSummaryWriter(final OutputStream destination) {
+		Validate.notNull(destination);
+		try {
+			this.generator = jsonFactory.createGenerator(destination, JsonEncoding.UTF8);
+			this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			this.generator.writeStartObject();
+			this.generator.writeArrayFieldStart("components");
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Write the start of a component of the summary.
+	 */
+	private void startComponent(final String type) throws IOException {
+		if (this.summaryEnded)
+			throw new RuntimeException("Summary is ended, cannot add to summary");
+		if (this.tableOpen)
+			throw new RuntimeException("Table is not ended, cannot add to summary");
+
+		this.generator.writeStartObject();
+		this.generator.writeStringField("type", type);
+	}
+
+	@Override
+	public void writeHeading(final String heading, final int headingLevel) {
+		Validate.isTrue(headingLevel >= 0, "heading level cannot be negative");
+		try {
+			startComponent("heading");
+			this.generator.writeNumberField("level", headingLevel);
+			this.generator.writeStringField("text", heading);
+			this.generator.writeEndObject();
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void writeText(final String text) {
+		try {
+			startComponent("text");
+			this.generator.writeStringField("text", text);
+			this.generator.writeEndObject();
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void writeKeyValuePairs(final List<Pair<String, String>> keyValuePairs) {
+		try {
+			startComponent("keyValuePairs");
+			this.generator.writeArrayFieldStart("pairs");
+			for (final Pair<String, String> pair : keyValuePairs) {
+				this.generator.writeStartObject();
+				this.generator.writeStringField("key", pair.getKey());
+				this.generator.writeStringField("value", pair.getValue());
+				this.generator.writeEndObject();
+			}
+			this.generator.writeEndArray();
+			this.generator.writeEndObject();
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public SummaryTableWriter startTable(final List<String> columnHeaders) {
+		Validate.notEmpty(columnHeaders);
+		try {
+			startComponent("table");
+			writeStringArray("columns", columnHeaders);
+			this.generator.writeArrayFieldStart("rows");
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+		this.tableOpen = true;
+
+		final int numColumns = columnHeaders.size();
+		return new SummaryTableWriter() {
+			private boolean tableEnded = false;
+
+			@Override
+			public void writeRow(final List<String> cells) {
+				if (this.tableEnded)
+					throw new RuntimeException("Table is ended, cannot add to table");
+				Validate.isTrue(cells.size() == numColumns,
+						String.format("Number of cells: %d must match number of columns: %d", cells.size(), numColumns));
+				try {
+					writeStringArray(null, cells);
+				} catch (final IOException e) {
+					throw new RuntimeException(e);
+				}
+			}
+
+			@Override
+			public void endTable() {
+				if (this.tableEnded)
+					throw new RuntimeException("Table is already ended");
+				this.tableEnded = true;
+				JsonReportSummaryWriter.this.tableOpen = false;
+				try {
+					JsonReportSummaryWriter.this.generator.writeEndArray();
+					JsonReportSummaryWriter.this.generator.writeEndObject();
+				} catch (final IOException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Writes an array of strings, as a field if a field name is provided.
+	 */
+	private void writeStringArray(final String fieldName, final List<String> values) throws IOException {
+		if (fieldName != null)
+			this.generator.writeArrayFieldStart(fieldName);
+		else
+			this.generator.writeStartArray();
+		for (final String value : values)
+			this.generator.writeString(value);
+		this.generator.writeEndArray();
+	}
+
+	@Override
+	public void writeImage(final BufferedImage image) {
+		Validate.notNull(image);
+		try {
+			final ByteArrayOutputStream pngBytes = new ByteArrayOutputStream();
+			ImageIO.write(image, "PNG", pngBytes);
+			startComponent("image");
+			this.generator.writeStringField("format", "png");
+			this.generator.writeFieldName("data");
+			this.generator.writeBinary(pngBytes.toByteArray());
+			this.generator.writeEndObject();
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void writeChart(final Chart chart) {
+		Validate.notNull(chart);
+		try {
+			startComponent("chart");
+			this.generator.writeStringField("title", chart.getTitle());
+			this.generator.writeStringField("xAxisLabel", chart.getXAxisLabel());
+			this.generator.writeStringField("yAxisLabel", chart.getYAxisLabel());
+			this.generator.writeNumberField("xLowerBound", chart.getXLowerBound());
+			this.generator.writeNumberField("xUpperBound", chart.getXUpperBound());
+			this.generator.writeArrayFieldStart("series");
+			for (final ChartSeries series : chart.getSeries()) {
+				this.generator.writeStartObject();
+				this.generator.writeStringField("name", series.getName());
+				this.generator.writeArrayFieldStart("x");
+				for (int i = 0; i < series.size(); ++i)
+					this.generator.writeNumber(series.getX(i));
+				this.generator.writeEndArray();
+				this.generator.writeArrayFieldStart("y");
+				for (int i = 0; i < series.size(); ++i)
+					this.generator.writeNumber(series.getY(i));
+				this.generator.writeEndArray();
+				this.generator.writeEndObject();
+			}
+			this.generator.writeEndArray();
+			this.generator.writeEndObject();
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void addPageBreak() {
+		try {
+			startComponent("pageBreak");
+			this.generator.writeEndObject();
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void endReportSummary() {
+		if (this.summaryEnded)
+			throw new RuntimeException("Summary is already ended");
+		if (this.tableOpen)
+			throw new RuntimeException("Table is not ended, cannot end summary");
+
+		try {
+			this.generator.writeEndArray();
+			this.generator.writeEndObject();
+			this.generator.close();
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+		this.summaryEnded = true;
+	}
+}
@@ -0,0 +1,93 @@
+package com.story_inspector.analysis;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils.TestAnalyzerType;
+import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.analysis.parameterTypes.StringSet;
+
+import junit.framework.Assert;
+
+public class AnalyzerFingerprintTest {
+
+	private TestAnalyzerType analyzerType;
+	private TestAnalyzerType otherAnalyzerType;
+
+	@Before
+	public void initialize() {
+		this.analyzerType = EasyMock.mock(TestAnalyzerType.class);
+		this.otherAnalyzerType = EasyMock.mock(TestAnalyzerType.class);
+		EasyMock.replay(this.analyzerType, this.otherAnalyzerType);
+	}
+
+	@Test
+	public void testEqualSpecs() {
+		final Map<String, Object> parameters = new LinkedHashMap<>();
+		parameters.put("words", new StringSet(Arrays.asList("apple", "banana", "cherry")));
+		parameters.put("pattern", DialogueSearchPattern.ALL_TEXT);
+		parameters.put("flag", true);
+
+		// Same contents, different iteration orders
+		final Map<String, Object> reorderedParameters = new LinkedHashMap<>();
+		reorderedParameters.put("flag", true);
+		reorderedParameters.put("pattern", DialogueSearchPattern.ALL_TEXT);
+		reorderedParameters.put("words", new StringSet(Arrays.asList("cherry", "banana", "apple")));
+
+		final AnalyzerFingerprint fingerprint = createSpec(this.analyzerType, "Name", parameters).getFingerprint();
+		final AnalyzerFingerprint equalFingerprint = createSpec(this.analyzerType, "Name", reorderedParameters).getFingerprint();
+
+		Assert.assertEquals(fingerprint, equalFingerprint);
+		Assert.assertEquals(fingerprint.hashCode(), equalFingerprint.hashCode());
+		Assert.assertEquals(fingerprint.getHash(), equalFingerprint.getHash());
+		Assert.assertEquals(0, fingerprint.compareTo(equalFingerprint));
+	}
+
+	@Test
+	public void testDifferentSpecs() {
+		final Map<String, Object> parameters = new HashMap<>();
+		parameters.put("words", new StringSet(Arrays.asList("apple", "banana")));
+		final Map<String, Object> differentParameters = new HashMap<>();
+		differentParameters.put("words", new StringSet(Arrays.asList("apple", "cherry")));
+
+		final AnalyzerFingerprint fingerprint = createSpec(this.analyzerType, "Name", parameters).getFingerprint();
+
+		assertDifferent(fingerprint, createSpec(this.analyzerType, "Other name", parameters).getFingerprint());
+		assertDifferent(fingerprint, createSpec(this.analyzerType, "Name", differentParameters).getFingerprint());
+		assertDifferent(fingerprint, new AnalyzerSpec<>("Name", "Description", this.analyzerType, true, parameters).getFingerprint());
+
+		// Same contents, but different (singleton) analyzer types
+		final AnalyzerFingerprint otherTypeFingerprint = createSpec(this.otherAnalyzerType, "Name", parameters).getFingerprint();
+		Assert.assertFalse(fingerprint.equals(otherTypeFingerprint));
+		Assert.assertTrue(fingerprint.compareTo(otherTypeFingerprint) != 0);
+		Assert.assertEquals(-Integer.signum(fingerprint.compareTo(otherTypeFingerprint)), Integer.signum(otherTypeFingerprint.compareTo(fingerprint)));
+	}
+
+	@Test
+	public void testValueTypesAreDistinguished() {
+		final Map<String, Object> intParameters = new HashMap<>();
+		intParameters.put("value", 1);
+		final Map<String, Object> stringParameters = new HashMap<>();
+		stringParameters.put("value", "1");
+
+		assertDifferent(createSpec(this.analyzerType, "Name", intParameters).getFingerprint(),
+				createSpec(this.analyzerType, "Name", stringParameters).getFingerprint());
+	}
+
+	private void assertDifferent(final AnalyzerFingerprint first, final AnalyzerFingerprint second) {
+		Assert.assertFalse(first.equals(second));
+		Assert.assertFalse(first.getHash() == second.getHash());
+		Assert.assertTrue(first.compareTo(second) != 0);
+		Assert.assertEquals(-Integer.signum(first.compareTo(second)), Integer.signum(second.compareTo(first)));
+	}
+
+	private AnalyzerSpec<TestAnalyzerType> createSpec(final TestAnalyzerType type, final String name, final Map<String, Object> parameters) {
+		return new AnalyzerSpec<>(name, "Description", type, false, parameters);
+	}
+}
@@ -1,5 +1,7 @@
 package com.story_inspector.analysis;
 
+import java.util.Collections;
+
 import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
@@ -19,9 +21,11 @@ public class CommentTest {
 	@Before
 	public void initialize() {
 		this.mockAnalyzer = EasyMock.mock(Analyzer.class);
-		final AnalyzerSpec<TestAnalyzerType> mockSpec = EasyMock.mock(AnalyzerSpec.class);
-		EasyMock.expect(this.mockAnalyzer.extractAnalyzerSpec()).andReturn(mockSpec).anyTimes();
-		EasyMock.replay(this.mockAnalyzer, mockSpec);
+		final TestAnalyzerType mockType = EasyMock.mock(TestAnalyzerType.class);
+		final AnalyzerSpec<TestAnalyzerType> spec = new AnalyzerSpec<>("Name", "Description", mockType, false, Collections.emptyMap());
+		EasyMock.expect(this.mockAnalyzer.extractAnalyzerSpec()).andReturn(spec).anyTimes();
+		EasyMock.expect(this.mockAnalyzer.getFingerprint()).andReturn(spec.getFingerprint()).anyTimes();
+		EasyMock.replay(this.mockAnalyzer, mockType);
 	}
 
 	@Test
@@ -0,0 +1,206 @@
+package com.story_inspector.analysis.analyzers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.easymock.EasyMock;
+
+import com.story_inspector.analysis.AnalyzerCreationResult;
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.AnalyzerSpec;
+import com.story_inspector.analysis.AnalyzerType;
+import com.story_inspector.analysis.Comment;
+import com.story_inspector.analysis.ParameterSpec;
+import com.story_inspector.analysis.summary.AnalyzerSummaryComponent;
+import com.story_inspector.analysis.summary.ReportSummaryWriter;
+import com.story_inspector.analysis.summary.SummaryTableWriter;
+import com.story_inspector.story.ChapterImpl;
+import com.story_inspector.story.ParagraphImpl;
+import com.story_inspector.story.SceneImpl;
+import com.story_inspector.story.SentenceImpl;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.StoryImpl;
+import com.story_inspector.story.TextRange;
+import com.story_inspector.story.TokenImpl;
+
+import junit.framework.Assert;
+import opennlp.tools.stemmer.PorterStemmer;
+import opennlp.tools.stemmer.Stemmer;
+
+/**
+ * Helpers for testing {@link AnalyzerType}s against small stories, without the story parser.
+ *
+ * @author mizitch
+ *
+ */
+public class AnalyzerTypeTestUtils {
+	private AnalyzerTypeTestUtils() {
+		throw new UnsupportedOperationException("Collection of static methods, can't be instantiated");
+	}
+
+	/**
+	 * Tries to create an analyzer of the provided type, using the default value of every parameter not provided.
+	 *
+	 * @param analyzerType
+	 *            The type of analyzer to create.
+	 * @param parameters
+	 *            Alternating parameter ids and values.
+	 * @return The creation result.
+	 */
+	public static <T extends AnalyzerType<T>> AnalyzerCreationResult<T> tryCreateAnalyzer(final T analyzerType, final Object... parameters) {
+		final Map<String, Object> parameterValues = new HashMap<>();
+		for (final ParameterSpec<?> spec : analyzerType.getParameterSpecs())
+			parameterValues.put(spec.getId(), spec.getDefaultValue());
+		for (int i = 0; i < parameters.length; i += 2) {
+			Assert.assertTrue("Unknown parameter " + parameters[i], parameterValues.containsKey(parameters[i]));
+			parameterValues.put((String) parameters[i], parameters[i + 1]);
+		}
+		return analyzerType.tryCreateAnalyzer(new AnalyzerSpec<>("Test", "Test", analyzerType, false, parameterValues));
+	}
+
+	/**
+	 * Creates an analyzer of the provided type, which must succeed, and executes it against the provided story.
+	 *
+	 * @param analyzerType
+	 *            The type of analyzer to create.
+	 * @param story
+	 *            The story to analyze.
+	 * @param parameters
+	 *            Alternating parameter ids and values. Parameters not provided take their default value.
+	 * @return The result of the analysis.
+	 */
+	public static <T extends AnalyzerType<T>> AnalyzerResult<T> execute(final T analyzerType, final Story story, final Object... parameters) {
+		final AnalyzerCreationResult<T> creationResult = tryCreateAnalyzer(analyzerType, parameters);
+		Assert.assertTrue(creationResult.toString(), creationResult.wasSuccessful());
+		return creationResult.getAnalyzer().execute(story);
+	}
+
+	/**
+	 * Returns the text selected by each comment of the provided result, in story order, with surrounding whitespace removed.
+	 */
+	public static List<String> getCommentedText(final AnalyzerResult<?> result, final Story story) {
+		final List<String> commentedText = new ArrayList<>();
+		for (final Iterator<Comment> comments = result.getSortedComments(); comments.hasNext();)
+			commentedText.add(story.getSelection(comments.next().getSelection()).trim());
+		return commentedText;
+	}
+
+	/**
+	 * Returns the content of each comment of the provided result, in story order.
+	 */
+	public static List<String> getCommentContents(final AnalyzerResult<?> result) {
+		final List<String> contents = new ArrayList<>();
+		for (final Iterator<Comment> comments = result.getSortedComments(); comments.hasNext();)
+			contents.add(comments.next().getContent());
+		return contents;
+	}
+
+	/**
+	 * Returns all key value pairs the summary of the provided result writes, in order.
+	 */
+	public static Map<String, String> getSummaryKeyValues(final AnalyzerResult<?> result) {
+		final Map<String, String> keyValues = new LinkedHashMap<>();
+		final ReportSummaryWriter writer = EasyMock.createNiceMock(ReportSummaryWriter.class);
+		writer.writeKeyValuePairs(EasyMock.anyObject());
+		EasyMock.expectLastCall().andAnswer(() -> {
+			@SuppressWarnings("unchecked")
+			final List<Pair<String, String>> pairs = (List<Pair<String, String>>) EasyMock.getCurrentArguments()[0];
+			for (final Pair<String, String> pair : pairs)
+				keyValues.put(pair.getKey(), pair.getValue());
+			return null;
+		}).anyTimes();
+		EasyMock.expect(writer.startTable(EasyMock.anyObject())).andReturn(EasyMock.createNiceMock(SummaryTableWriter.class)).anyTimes();
+		EasyMock.replay(writer);
+		for (final AnalyzerSummaryComponent component : result.getSummaryComponents())
+			component.write(writer);
+		return keyValues;
+	}
+
+	/**
+	 * Builds a story of one scene per chapter. Words are separated by single spaces, each token covering its word and the following space. A word
+	 * may be followed by "/" and its part of speech tag, otherwise it is tagged as a noun. Punctuation stays attached to its word.
+	 */
+	public static class StoryBuilder {
+		private final String title;
+		private final Stemmer stemmer = new PorterStemmer();
+		private final StringBuilder text = new StringBuilder();
+		private final List<ChapterImpl> chapters = new ArrayList<>();
+		private final List<ParagraphImpl> paragraphs = new ArrayList<>();
+		private final List<SentenceImpl> sentences = new ArrayList<>();
+		private int chapterStart = 0;
+		private int paragraphStart = 0;
+
+		public StoryBuilder(final String title) {
+			this.title = title;
+		}
+
+		/**
+		 * Adds a sentence of narration to the current paragraph.
+		 */
+		public StoryBuilder sentence(final String... words) {
+			return addSentence(false, words);
+		}
+
+		/**
+		 * Adds a quoted sentence to the current paragraph.
+		 */
+		public StoryBuilder dialogue(final String... words) {
+			return addSentence(true, words);
+		}
+
+		/**
+		 * Ends the current paragraph, so following sentences start a new one.
+		 */
+		public StoryBuilder paragraph() {
+			if (!this.sentences.isEmpty()) {
+				this.paragraphs.add(new ParagraphImpl(new TextRange(this.paragraphStart, this.text.length()), new ArrayList<>(this.sentences)));
+				this.sentences.clear();
+				this.paragraphStart = this.text.length();
+			}
+			return this;
+		}
+
+		/**
+		 * Ends the current chapter, so following paragraphs start a new one.
+		 */
+		public StoryBuilder chapter() {
+			paragraph();
+			if (!this.paragraphs.isEmpty()) {
+				final TextRange range = new TextRange(this.chapterStart, this.text.length());
+				final SceneImpl scene = new SceneImpl(range, new ArrayList<>(this.paragraphs));
+				this.chapters.add(new ChapterImpl(range, Arrays.asList(scene), "Chapter " + (this.chapters.size() + 1)));
+				this.paragraphs.clear();
+				this.chapterStart = this.text.length();
+			}
+			return this;
+		}
+
+		public Story build() {
+			chapter();
+			return new StoryImpl(this.text.toString(), this.title, new ArrayList<>(this.chapters));
+		}
+
+		private StoryBuilder addSentence(final boolean quoted, final String... words) {
+			final int sentenceStart = this.text.length();
+			final List<TokenImpl> tokens = new ArrayList<>();
+			for (final String word : words) {
+				final int tagIndex = word.lastIndexOf('/');
+				final String tokenText = (tagIndex > 0 ? word.substring(0, tagIndex) : word) + " ";
+				final String tag = tagIndex > 0 ? word.substring(tagIndex + 1) : "NN";
+				final TextRange range = new TextRange(this.text.length(), this.text.length() + tokenText.length());
+				this.text.append(tokenText);
+				// The story parser splits off punctuation, so stems the bare word
+				final String stem = this.stemmer.stem(tokenText.replaceAll("^[^\\p{L}\\p{N}]+|[^\\p{L}\\p{N}]+$", "")).toString();
+				tokens.add(new TokenImpl(range, tokenText, tag, stem, false, false, false, quoted));
+			}
+			this.sentences.add(new SentenceImpl(new TextRange(sentenceStart, this.text.length()), tokens));
+			return this;
+		}
+	}
+}
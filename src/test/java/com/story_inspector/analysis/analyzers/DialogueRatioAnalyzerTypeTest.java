@@ -0,0 +1,80 @@
+package com.story_inspector.analysis.analyzers;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.analyzers.AnalyzerTypeTestUtils.StoryBuilder;
+import com.story_inspector.story.Story;
+
+import junit.framework.Assert;
+
+public class DialogueRatioAnalyzerTypeTest {
+
+	private final DialogueRatioAnalyzerType analyzerType = new DialogueRatioAnalyzerType();
+
+	// 12 words of narration, 4 of dialogue and 3 of narration, then a chapter of 5 words of dialogue and 5 of narration
+	// @formatter:off
+	private final Story story = new StoryBuilder("Story")
+			.sentence(words("n", 12))
+			.paragraph()
+			.dialogue(words("d", 4))
+			.sentence(words("m", 3))
+			.chapter()
+			.dialogue(words("e", 5))
+			.sentence(words("o", 5))
+			.build();
+	// @formatter:on
+
+	private static String[] words(final String word, final int numWords) {
+		return Collections.nCopies(numWords, word).toArray(new String[numWords]);
+	}
+
+	private static String join(final String[]... sentences) {
+		final StringBuilder result = new StringBuilder();
+		for (final String[] sentence : sentences)
+			result.append(String.join(" ", sentence)).append(' ');
+		return result.toString().trim();
+	}
+
+	@Test
+	public void testNarrationStretches() {
+		// Only the windows within the opening narration have no dialogue at all
+		final AnalyzerResult<DialogueRatioAnalyzerType> result = AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "windowSize", 10);
+		Assert.assertEquals(Collections.singletonList(join(words("n", 12))), AnalyzerTypeTestUtils.getCommentedText(result, this.story));
+		Assert.assertEquals(Collections.singletonList("Long narration: 0.0% dialogue (0 of 12 words)"),
+				AnalyzerTypeTestUtils.getCommentContents(result));
+
+		// Windows may include up to two words of dialogue
+		final AnalyzerResult<DialogueRatioAnalyzerType> tolerantResult = AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "windowSize",
+				10, "maxDialoguePercent", 20);
+		Assert.assertEquals(Collections.singletonList(join(words("n", 12), words("d", 2))),
+				AnalyzerTypeTestUtils.getCommentedText(tolerantResult, this.story));
+		Assert.assertEquals(Collections.singletonList("Long narration: 14.3% dialogue (2 of 14 words)"),
+				AnalyzerTypeTestUtils.getCommentContents(tolerantResult));
+
+		Assert.assertTrue(AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "windowSize", 13).getComments().isEmpty());
+	}
+
+	@Test
+	public void testSummary() {
+		final Map<String, String> summary = AnalyzerTypeTestUtils
+				.getSummaryKeyValues(AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "windowSize", 10));
+		Assert.assertEquals("31.0% dialogue (9 of 29 words)", summary.get("Whole story"));
+		Assert.assertEquals("1", summary.get("Long narration stretches"));
+		Assert.assertEquals("21.1% dialogue (4 of 19 words)", summary.get("Chapter 1"));
+		Assert.assertEquals("50.0% dialogue (5 of 10 words)", summary.get("Chapter 2"));
+		Assert.assertEquals("50.0% dialogue (5 of 10 words)", summary.get("Scene 2"));
+	}
+
+	@Test
+	public void testParameterValidation() {
+		Assert.assertTrue(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "windowSize", 10, "maxDialoguePercent", 0).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "windowSize", 9).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "maxDialoguePercent", 100).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "maxDialoguePercent", -1).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "windowSize", null).wasSuccessful());
+	}
+}
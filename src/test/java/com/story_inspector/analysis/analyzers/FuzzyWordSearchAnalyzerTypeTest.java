@@ -0,0 +1,91 @@
+package com.story_inspector.analysis.analyzers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.analyzers.AnalyzerTypeTestUtils.StoryBuilder;
+import com.story_inspector.analysis.features.StoryFeatures;
+import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.analysis.parameterTypes.StringSet;
+import com.story_inspector.story.Story;
+
+import junit.framework.Assert;
+
+public class FuzzyWordSearchAnalyzerTypeTest {
+
+	private final FuzzyWordSearchAnalyzerType analyzerType = new FuzzyWordSearchAnalyzerType();
+
+	// @formatter:off
+	private final Story story = new StoryBuilder("Story")
+			.sentence("She", "whispred", "softly.")
+			.sentence("Whispered", "voices", "and", "whispers", "followed.")
+			.paragraph()
+			.dialogue("\"Whispered,\"")
+			.sentence("said", "the", "grey", "cat", "to", "the", "gray", "cot.")
+			.build();
+	// @formatter:on
+
+	private AnalyzerResult<FuzzyWordSearchAnalyzerType> search(final int maxEditDistance, final DialogueSearchPattern dialogueSearchPattern,
+			final String... searchWords) {
+		return AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "searchWords", new StringSet(Arrays.asList(searchWords)),
+				"maxEditDistance", maxEditDistance, "dialogueSearchPattern", dialogueSearchPattern);
+	}
+
+	private List<String> searchText(final int maxEditDistance, final DialogueSearchPattern dialogueSearchPattern, final String... searchWords) {
+		return AnalyzerTypeTestUtils.getCommentedText(search(maxEditDistance, dialogueSearchPattern, searchWords), this.story);
+	}
+
+	@Test
+	public void testVariants() {
+		final AnalyzerResult<FuzzyWordSearchAnalyzerType> result = search(1, DialogueSearchPattern.ALL_TEXT, "Whispered");
+		Assert.assertEquals(Arrays.asList("whispred", "Whispered", "\"Whispered,\""), AnalyzerTypeTestUtils.getCommentedText(result, this.story));
+		Assert.assertEquals(Arrays.asList("Similar to Whispered", "Similar to Whispered", "Similar to Whispered"),
+				AnalyzerTypeTestUtils.getCommentContents(result));
+
+		// "whispers" is two differences away
+		Assert.assertEquals(Arrays.asList("whispred", "Whispered", "whispers", "\"Whispered,\""),
+				searchText(2, DialogueSearchPattern.ALL_TEXT, "whispered"));
+	}
+
+	@Test
+	public void testShortWords() {
+		// Words of up to 3 letters must match exactly, and up to 7 letters allow one difference whatever the maximum. A swap is one difference
+		Assert.assertEquals(Arrays.asList("cat"), searchText(2, DialogueSearchPattern.ALL_TEXT, "cat"));
+		Assert.assertEquals(Arrays.asList("grey", "gray"), searchText(2, DialogueSearchPattern.ALL_TEXT, "grey"));
+		Assert.assertEquals(Arrays.asList("voices"), searchText(2, DialogueSearchPattern.ALL_TEXT, "vioces"));
+		Assert.assertTrue(searchText(2, DialogueSearchPattern.ALL_TEXT, "dog", "vocals", "wandered").isEmpty());
+	}
+
+	@Test
+	public void testDialogueSearchPattern() {
+		Assert.assertEquals(Arrays.asList("\"Whispered,\""), searchText(1, DialogueSearchPattern.DIALOGUE_ONLY, "whispered"));
+		Assert.assertEquals(Arrays.asList("whispred", "Whispered"), searchText(1, DialogueSearchPattern.ALL_BUT_DIALOGUE, "whispered"));
+	}
+
+	@Test
+	public void testSummary() {
+		final Map<String, String> summary = AnalyzerTypeTestUtils
+				.getSummaryKeyValues(search(1, DialogueSearchPattern.ALL_TEXT, "whispered", "grey", "dog"));
+		Assert.assertEquals("whispred (1), whispered (2)", summary.get("whispered"));
+		Assert.assertEquals("grey (1), gray (1)", summary.get("grey"));
+		Assert.assertEquals("No matches", summary.get("dog"));
+	}
+
+	@Test
+	public void testParameterValidation() {
+		final StringSet searchWords = new StringSet(Arrays.asList("grey"));
+		Assert.assertTrue(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "searchWords", searchWords, "maxEditDistance",
+				StoryFeatures.MAX_FUZZY_EDIT_DISTANCE).wasSuccessful());
+		Assert.assertFalse(
+				AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "searchWords", searchWords, "maxEditDistance", 0).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "searchWords", searchWords, "maxEditDistance",
+				StoryFeatures.MAX_FUZZY_EDIT_DISTANCE + 1).wasSuccessful());
+		Assert.assertFalse(
+				AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "searchWords", new StringSet(Arrays.asList("grey cat"))).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "searchWords", new StringSet()).wasSuccessful());
+	}
+}
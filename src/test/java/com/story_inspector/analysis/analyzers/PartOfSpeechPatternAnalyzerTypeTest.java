@@ -0,0 +1,82 @@
+package com.story_inspector.analysis.analyzers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.analyzers.AnalyzerTypeTestUtils.StoryBuilder;
+import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.analysis.parameterTypes.StringSet;
+import com.story_inspector.story.Story;
+
+import junit.framework.Assert;
+
+public class PartOfSpeechPatternAnalyzerTypeTest {
+
+	private final PartOfSpeechPatternAnalyzerType analyzerType = new PartOfSpeechPatternAnalyzerType();
+
+	// @formatter:off
+	private final Story story = new StoryBuilder("Story")
+			.sentence("The/DT", "door/NN", "was/VBD", "opened/VBN", "slowly./RB")
+			.dialogue("\"It/PRP", "is/VBZ", "broken,\"/VBN")
+			.sentence("she/PRP", "said./VBD")
+			.chapter()
+			.sentence("He/PRP", "quickly/RB", "left./VBD")
+			.build();
+	// @formatter:on
+
+	private AnalyzerResult<PartOfSpeechPatternAnalyzerType> search(final DialogueSearchPattern dialogueSearchPattern,
+			final String... tagPatterns) {
+		return AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "tagPatterns", new StringSet(Arrays.asList(tagPatterns)),
+				"dialogueSearchPattern", dialogueSearchPattern);
+	}
+
+	private List<String> searchText(final DialogueSearchPattern dialogueSearchPattern, final String... tagPatterns) {
+		return AnalyzerTypeTestUtils.getCommentedText(search(dialogueSearchPattern, tagPatterns), this.story);
+	}
+
+	@Test
+	public void testMatches() {
+		final AnalyzerResult<PartOfSpeechPatternAnalyzerType> result = search(DialogueSearchPattern.ALL_TEXT, "VBD/VBZ VBN");
+		Assert.assertEquals(Arrays.asList("was opened", "is broken,\""), AnalyzerTypeTestUtils.getCommentedText(result, this.story));
+		Assert.assertEquals(Arrays.asList("Matches VBD/VBZ VBN", "Matches VBD/VBZ VBN"), AnalyzerTypeTestUtils.getCommentContents(result));
+
+		Assert.assertEquals(Arrays.asList("slowly.", "quickly"), searchText(DialogueSearchPattern.ALL_TEXT, "RB*"));
+		Assert.assertEquals(Arrays.asList("was opened"), searchText(DialogueSearchPattern.ALL_TEXT, "vbd+vbn"));
+		Assert.assertEquals(Arrays.asList("The door", "He quickly left."), searchText(DialogueSearchPattern.ALL_TEXT, "DT NN", "PRP RB VBD"));
+	}
+
+	@Test
+	public void testNotMatchedAcrossSentences() {
+		// "broken," ends one sentence and "she" starts the next, as do "said." and "He"
+		Assert.assertTrue(searchText(DialogueSearchPattern.ALL_TEXT, "VBN PRP", "VBD PRP", "NN NN").isEmpty());
+	}
+
+	@Test
+	public void testDialogueSearchPattern() {
+		Assert.assertEquals(Arrays.asList("is broken,\""), searchText(DialogueSearchPattern.DIALOGUE_ONLY, "VBD/VBZ VBN"));
+		Assert.assertEquals(Arrays.asList("was opened"), searchText(DialogueSearchPattern.ALL_BUT_DIALOGUE, "VBD/VBZ VBN"));
+	}
+
+	@Test
+	public void testSummary() {
+		final Map<String, String> summary = AnalyzerTypeTestUtils.getSummaryKeyValues(search(DialogueSearchPattern.ALL_TEXT, "RB*", "VBD/VBZ VBN"));
+		Assert.assertEquals("2 matches", summary.get("RB*"));
+		Assert.assertEquals("2 matches", summary.get("VBD/VBZ VBN"));
+		Assert.assertEquals("300.0 per 1000 words (3 matches)", summary.get("Chapter 1"));
+		Assert.assertEquals("333.3 per 1000 words (1 matches)", summary.get("Chapter 2"));
+	}
+
+	@Test
+	public void testParameterValidation() {
+		Assert.assertTrue(
+				AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "tagPatterns", new StringSet(Arrays.asList("NN*"))).wasSuccessful());
+		for (final String invalidPattern : Arrays.asList(" ", "+", "VBD/ VBN", "NN *", "NN//VB"))
+			Assert.assertFalse(invalidPattern, AnalyzerTypeTestUtils
+					.tryCreateAnalyzer(this.analyzerType, "tagPatterns", new StringSet(Arrays.asList(invalidPattern))).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "tagPatterns", new StringSet()).wasSuccessful());
+	}
+}
@@ -0,0 +1,73 @@
+package com.story_inspector.analysis.analyzers;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.analyzers.AnalyzerTypeTestUtils.StoryBuilder;
+import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.analysis.parameterTypes.StringSet;
+import com.story_inspector.story.Story;
+
+import junit.framework.Assert;
+
+public class PatternSearchAnalyzerTypeTest {
+
+	private final PatternSearchAnalyzerType analyzerType = new PatternSearchAnalyzerType();
+
+	// @formatter:off
+	private final Story story = new StoryBuilder("Story")
+			.sentence("She", "was", "running", "quickly.")
+			.dialogue("\"Slowly,\"")
+			.sentence("he", "said.")
+			.paragraph()
+			.sentence("He", "was", "singing", "badly.")
+			.build();
+	// @formatter:on
+
+	private List<String> search(final DialogueSearchPattern dialogueSearchPattern, final String... searchPatterns) {
+		final AnalyzerResult<PatternSearchAnalyzerType> result = AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "searchPatterns",
+				new StringSet(Arrays.asList(searchPatterns)), "dialogueSearchPattern", dialogueSearchPattern);
+		return AnalyzerTypeTestUtils.getCommentedText(result, this.story);
+	}
+
+	@Test
+	public void testMatches() {
+		Assert.assertEquals(Arrays.asList("quickly.", "\"Slowly,\"", "badly."), search(DialogueSearchPattern.ALL_TEXT, "*ly"));
+		Assert.assertEquals(Arrays.asList("was running", "was singing"), search(DialogueSearchPattern.ALL_TEXT, "WAS *ing"));
+		Assert.assertEquals(Arrays.asList("running", "said."), search(DialogueSearchPattern.ALL_TEXT, "r?nning", "s??d"));
+
+		final AnalyzerResult<PatternSearchAnalyzerType> result = AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "searchPatterns",
+				new StringSet(Arrays.asList("*ing *ly")));
+		Assert.assertEquals(Arrays.asList("running quickly.", "singing badly."), AnalyzerTypeTestUtils.getCommentedText(result, this.story));
+		Assert.assertEquals(Arrays.asList("Matches *ing *ly", "Matches *ing *ly"), AnalyzerTypeTestUtils.getCommentContents(result));
+	}
+
+	@Test
+	public void testNoMatches() {
+		Assert.assertTrue(search(DialogueSearchPattern.ALL_TEXT, "*xyz", "was *ed", "running?").isEmpty());
+
+		// "quickly. Slowly," ends one sentence and starts the next
+		Assert.assertTrue(search(DialogueSearchPattern.ALL_TEXT, "quick* slow*").isEmpty());
+	}
+
+	@Test
+	public void testDialogueSearchPattern() {
+		Assert.assertEquals(Arrays.asList("\"Slowly,\""), search(DialogueSearchPattern.DIALOGUE_ONLY, "*ly", "was *ing"));
+		Assert.assertEquals(Arrays.asList("was running", "quickly.", "was singing", "badly."),
+				search(DialogueSearchPattern.ALL_BUT_DIALOGUE, "*ly", "was *ing"));
+	}
+
+	@Test
+	public void testParameterValidation() {
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "searchPatterns", new StringSet()).wasSuccessful());
+		Assert.assertFalse(
+				AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "searchPatterns", new StringSet(Arrays.asList(" "))).wasSuccessful());
+		Assert.assertFalse(
+				AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "searchPatterns", new StringSet(Arrays.asList("was ,"))).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "searchPatterns", new StringSet(Arrays.asList("*ly")),
+				"dialogueSearchPattern", null).wasSuccessful());
+	}
+}
@@ -0,0 +1,75 @@
+package com.story_inspector.analysis.analyzers;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.analyzers.AnalyzerTypeTestUtils.StoryBuilder;
+import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.story.Story;
+
+import junit.framework.Assert;
+
+public class RepeatedPhraseAnalyzerTypeTest {
+
+	private final RepeatedPhraseAnalyzerType analyzerType = new RepeatedPhraseAnalyzerType();
+
+	// @formatter:off
+	private final Story story = new StoryBuilder("Story")
+			.sentence("She", "walked", "down", "the", "road.")
+			.dialogue("\"We", "walk", "down", "the", "hill,\"")
+			.sentence("they", "said.")
+			.chapter()
+			.sentence("He", "walks", "down", "the", "stairs.")
+			.sentence("We", "ran.")
+			.sentence("Home", "fast", "we", "went.")
+			.sentence("We", "ran", "home", "fast.")
+			.build();
+	// @formatter:on
+
+	@Test
+	public void testRepeatedAcrossChapters() {
+		final AnalyzerResult<RepeatedPhraseAnalyzerType> result = AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "phraseLength", 3);
+		Assert.assertEquals(Arrays.asList("walked down the", "walk down the", "walks down the"),
+				AnalyzerTypeTestUtils.getCommentedText(result, this.story));
+		Assert.assertEquals(Collections.nCopies(3, "Repeated phrase: \"walked down the\" (3 times)"),
+				AnalyzerTypeTestUtils.getCommentContents(result));
+		Assert.assertEquals("3 times", AnalyzerTypeTestUtils.getSummaryKeyValues(result).get("walked down the"));
+	}
+
+	@Test
+	public void testNotRepeatedAcrossSentences() {
+		// "we ran home" and "ran home fast" only occur twice if read across the end of a sentence
+		final AnalyzerResult<RepeatedPhraseAnalyzerType> result = AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "phraseLength", 3);
+		Assert.assertEquals(Arrays.asList("walked down the", "walk down the", "walks down the"),
+				AnalyzerTypeTestUtils.getCommentedText(result, this.story));
+	}
+
+	@Test
+	public void testOccurrencesAndLength() {
+		Assert.assertTrue(
+				AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "phraseLength", 3, "minOccurrences", 4).getComments().isEmpty());
+		Assert.assertTrue(AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "phraseLength", 4).getComments().isEmpty());
+	}
+
+	@Test
+	public void testDialogueSearchPattern() {
+		final AnalyzerResult<RepeatedPhraseAnalyzerType> result = AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "phraseLength", 3,
+				"dialogueSearchPattern", DialogueSearchPattern.ALL_BUT_DIALOGUE);
+		Assert.assertEquals(Arrays.asList("walked down the", "walks down the"), AnalyzerTypeTestUtils.getCommentedText(result, this.story));
+
+		Assert.assertTrue(AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "phraseLength", 3, "dialogueSearchPattern",
+				DialogueSearchPattern.DIALOGUE_ONLY).getComments().isEmpty());
+	}
+
+	@Test
+	public void testParameterValidation() {
+		Assert.assertTrue(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "phraseLength", 8).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "phraseLength", 2).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "phraseLength", 9).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "minOccurrences", 1).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "minOccurrences", null).wasSuccessful());
+	}
+}
@@ -0,0 +1,88 @@
+package com.story_inspector.analysis.analyzers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.analyzers.AnalyzerTypeTestUtils.StoryBuilder;
+import com.story_inspector.story.Story;
+
+import junit.framework.Assert;
+
+public class SentenceRhythmAnalyzerTypeTest {
+
+	private final SentenceRhythmAnalyzerType analyzerType = new SentenceRhythmAnalyzerType();
+
+	// Sentences of 3, 3, 4, 3 and 10 words, then a chapter of 2 and 8 words. The lone ellipsis has no words, so is ignored.
+	// @formatter:off
+	private final Story story = new StoryBuilder("Story")
+			.sentence(repeat("a", 3))
+			.sentence(repeat("b", 3))
+			.sentence("...")
+			.sentence(repeat("c", 4))
+			.sentence(repeat("d", 3))
+			.paragraph()
+			.sentence(repeat("e", 10))
+			.chapter()
+			.sentence(repeat("f", 2))
+			.sentence(repeat("g", 8))
+			.build();
+	// @formatter:on
+
+	/**
+	 * Returns a sentence of the provided word repeated, ending with a full stop.
+	 */
+	private static String[] repeat(final String word, final int numWords) {
+		final String[] words = new String[numWords];
+		Arrays.fill(words, word);
+		words[numWords - 1] = word + ".";
+		return words;
+	}
+
+	@Test
+	public void testMonotonousRun() {
+		final AnalyzerResult<SentenceRhythmAnalyzerType> result = AnalyzerTypeTestUtils.execute(this.analyzerType, this.story);
+		Assert.assertEquals(Collections.singletonList("a a a. b b b. ... c c c c. d d d."),
+				AnalyzerTypeTestUtils.getCommentedText(result, this.story));
+		Assert.assertEquals(Collections.singletonList("Monotonous rhythm: 4 consecutive sentences of 3-4 words"),
+				AnalyzerTypeTestUtils.getCommentContents(result));
+	}
+
+	@Test
+	public void testRunParameters() {
+		final AnalyzerResult<SentenceRhythmAnalyzerType> exactResult = AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "minRunLength",
+				2, "lengthTolerance", 0);
+		Assert.assertEquals(Collections.singletonList("a a a. b b b."), AnalyzerTypeTestUtils.getCommentedText(exactResult, this.story));
+		Assert.assertEquals(Collections.singletonList("Monotonous rhythm: 2 consecutive sentences of 3 words"),
+				AnalyzerTypeTestUtils.getCommentContents(exactResult));
+
+		Assert.assertTrue(AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "minRunLength", 5).getComments().isEmpty());
+		Assert.assertTrue(AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "lengthTolerance", 0).getComments().isEmpty());
+	}
+
+	@Test
+	public void testSummary() {
+		final Map<String, String> summary = AnalyzerTypeTestUtils.getSummaryKeyValues(AnalyzerTypeTestUtils.execute(this.analyzerType, this.story));
+		Assert.assertEquals("7", summary.get("Sentences"));
+		Assert.assertEquals("4.7 words", summary.get("Mean length"));
+		Assert.assertEquals("2 words", summary.get("Shortest"));
+		Assert.assertEquals("10 words", summary.get("Longest"));
+		Assert.assertEquals("1", summary.get("Monotonous runs"));
+
+		Assert.assertTrue(summary.get("Chapter 1"), summary.get("Chapter 1").startsWith("4.6 words on average"));
+		Assert.assertTrue(summary.get("Chapter 1"), summary.get("Chapter 1").endsWith("(5 sentences)"));
+		Assert.assertTrue(summary.get("Chapter 2"), summary.get("Chapter 2").startsWith("5.0 words on average, standard deviation 3.0"));
+		Assert.assertTrue(summary.get("Chapter 2"), summary.get("Chapter 2").endsWith("(2 sentences)"));
+	}
+
+	@Test
+	public void testParameterValidation() {
+		Assert.assertTrue(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "minRunLength", 2, "lengthTolerance", 0).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "minRunLength", 1).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "lengthTolerance", -1).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "lengthTolerance", null).wasSuccessful());
+	}
+}
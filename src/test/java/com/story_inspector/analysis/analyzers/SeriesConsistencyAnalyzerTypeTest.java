@@ -0,0 +1,130 @@
+package com.story_inspector.analysis.analyzers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.AnalyzerSpec;
+import com.story_inspector.analysis.Comment;
+import com.story_inspector.analysis.ParameterSpec;
+import com.story_inspector.story.ChapterImpl;
+import com.story_inspector.story.ParagraphImpl;
+import com.story_inspector.story.SceneImpl;
+import com.story_inspector.story.SentenceImpl;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.StoryImpl;
+import com.story_inspector.story.TextRange;
+import com.story_inspector.story.TokenImpl;
+
+import junit.framework.Assert;
+
+public class SeriesConsistencyAnalyzerTypeTest {
+
+	private Path indexRoot;
+	private SeriesConsistencyAnalyzerType analyzerType;
+
+	@Before
+	public void initialize() throws IOException {
+		this.indexRoot = Files.createTempDirectory("series-index");
+		this.analyzerType = new SeriesConsistencyAnalyzerType(this.indexRoot);
+	}
+
+	@After
+	public void deleteIndex() throws IOException {
+		try (Stream<Path> paths = Files.walk(this.indexRoot)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	/**
+	 * Creates a single sentence story of the provided words, capitalized words being tagged as proper nouns. Each token covers its word and the
+	 * following space.
+	 */
+	private static Story createStory(final String title, final String... words) {
+		final String text = String.join(" ", words);
+		final List<TokenImpl> tokens = new ArrayList<>();
+		int start = 0;
+		for (final String word : words) {
+			final String tag = Character.isUpperCase(word.charAt(0)) ? "NNP" : "VBD";
+			final TextRange range = new TextRange(start, Math.min(text.length(), start + word.length() + 1));
+			tokens.add(new TokenImpl(range, range.getCoveredText(text), tag, word, false, false, false, false));
+			start = range.getEndIndex();
+		}
+		final TextRange range = new TextRange(0, text.length());
+		final SentenceImpl sentence = new SentenceImpl(range, tokens);
+		final ParagraphImpl paragraph = new ParagraphImpl(range, Arrays.asList(sentence));
+		final SceneImpl scene = new SceneImpl(range, Arrays.asList(paragraph));
+		return new StoryImpl(text, title, Arrays.asList(new ChapterImpl(range, Arrays.asList(scene), "Chapter 1")));
+	}
+
+	private AnalyzerResult<SeriesConsistencyAnalyzerType> analyze(final Story story, final boolean updateIndex) {
+		final Map<String, Object> parameterValues = new HashMap<>();
+		for (final ParameterSpec<?> spec : this.analyzerType.getParameterSpecs())
+			parameterValues.put(spec.getId(), spec.getDefaultValue());
+		parameterValues.put("seriesName", "The Series");
+		parameterValues.put("updateIndex", updateIndex);
+		final AnalyzerSpec<SeriesConsistencyAnalyzerType> spec = new AnalyzerSpec<>("Series", "Series", this.analyzerType, false, parameterValues);
+		return this.analyzerType.tryCreateAnalyzer(spec).getAnalyzer().execute(story);
+	}
+
+	private static List<String> getSortedCommentContents(final AnalyzerResult<?> result) {
+		final List<String> contents = result.getComments().stream().map(Comment::getContent).collect(Collectors.toList());
+		Collections.sort(contents);
+		return contents;
+	}
+
+	@Test
+	public void testAgainstSeries() throws IOException {
+		// First book of the series has nothing to be compared against
+		final AnalyzerResult<SeriesConsistencyAnalyzerType> first = analyze(createStory("Book One", "Grayson", "Grayson", "Anna", "Anna", "walked"),
+				true);
+		Assert.assertTrue(first.getComments().isEmpty());
+
+		final AnalyzerResult<SeriesConsistencyAnalyzerType> second = analyze(
+				createStory("Book Two", "Greyson", "Anna", "Greyson", "Anna", "Bran", "Bran", "walked"), false);
+		Assert.assertEquals(Arrays.asList("New to the series: Bran", "Possible variant of \"grayson\"", "Possible variant of \"grayson\""),
+				getSortedCommentContents(second));
+	}
+
+	@Test
+	public void testIndexOnlyUpdatedWhenAsked() throws IOException {
+		final Story story = createStory("Book One", "Grayson", "Grayson");
+		Assert.assertFalse((Boolean) this.analyzerType.getParameterSpecs().stream().filter(s -> s.getId().equals("updateIndex")).findFirst().get()
+				.getDefaultValue());
+
+		analyze(story, false);
+		try (Stream<Path> files = Files.list(this.indexRoot)) {
+			Assert.assertEquals(0, files.count());
+		}
+		analyze(createStory("Book Two", "Greyson", "Greyson"), false);
+		Assert.assertTrue(analyze(createStory("Book Three", "Greyson", "Greyson"), false).getComments().isEmpty());
+
+		// Once added, the book is compared against, but not against itself
+		analyze(story, true);
+		Assert.assertTrue(analyze(story, true).getComments().isEmpty());
+		Assert.assertEquals(2, analyze(createStory("Book Two", "Greyson", "Greyson"), false).getComments().size());
+	}
+
+	@Test
+	public void testUntitledStoryNotAdded() throws IOException {
+		analyze(createStory("", "Grayson", "Grayson"), true);
+		try (Stream<Path> files = Files.list(this.indexRoot)) {
+			Assert.assertEquals(0, files.count());
+		}
+		Assert.assertTrue(analyze(createStory("", "Greyson", "Greyson"), true).getComments().isEmpty());
+	}
+}
@@ -0,0 +1,83 @@
+package com.story_inspector.analysis.analyzers;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.analyzers.AnalyzerTypeTestUtils.StoryBuilder;
+import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.analysis.parameterTypes.StringSet;
+import com.story_inspector.story.Story;
+
+import junit.framework.Assert;
+
+public class WordEchoAnalyzerTypeTest {
+
+	private final WordEchoAnalyzerType analyzerType = new WordEchoAnalyzerType();
+
+	@Test
+	public void testWindow() {
+		// "walked" is used again three words later
+		final Story story = new StoryBuilder("Story").sentence("Anna", "walked", "home.").sentence("Bran", "walked", "away.").build();
+
+		final AnalyzerResult<WordEchoAnalyzerType> result = AnalyzerTypeTestUtils.execute(this.analyzerType, story, "windowSize", 3);
+		Assert.assertEquals(Arrays.asList("walked", "walked"), AnalyzerTypeTestUtils.getCommentedText(result, story));
+		Assert.assertEquals(Arrays.asList("Echoed by \"walked\"", "Echo of \"walked\""), AnalyzerTypeTestUtils.getCommentContents(result));
+
+		Assert.assertTrue(AnalyzerTypeTestUtils.execute(this.analyzerType, story, "windowSize", 2).getComments().isEmpty());
+	}
+
+	@Test
+	public void testEchoChain() {
+		final Story story = new StoryBuilder("Story").sentence("Walking,", "she", "walked.").sentence("Walks", "help,", "walkers", "say.").build();
+
+		// Each use is commented on once, the first use only as echoed
+		final AnalyzerResult<WordEchoAnalyzerType> result = AnalyzerTypeTestUtils.execute(this.analyzerType, story, "windowSize", 2);
+		Assert.assertEquals(Arrays.asList("Walking,", "walked.", "Walks"), AnalyzerTypeTestUtils.getCommentedText(result, story));
+		Assert.assertEquals(Arrays.asList("Echoed by \"walked\"", "Echo of \"Walking\"", "Echo of \"walked\""),
+				AnalyzerTypeTestUtils.getCommentContents(result));
+
+		// A gap wider than the window starts a new echo
+		final AnalyzerResult<WordEchoAnalyzerType> narrowResult = AnalyzerTypeTestUtils.execute(this.analyzerType, story, "windowSize", 1);
+		Assert.assertEquals(Arrays.asList("walked.", "Walks"), AnalyzerTypeTestUtils.getCommentedText(narrowResult, story));
+	}
+
+	@Test
+	public void testStopWords() {
+		final Story story = new StoryBuilder("Story").sentence("The", "cat", "saw", "the", "dog.").build();
+		Assert.assertTrue(AnalyzerTypeTestUtils.execute(this.analyzerType, story).getComments().isEmpty());
+
+		final AnalyzerResult<WordEchoAnalyzerType> result = AnalyzerTypeTestUtils.execute(this.analyzerType, story, "stopWords", new StringSet());
+		Assert.assertEquals(Arrays.asList("The", "the"), AnalyzerTypeTestUtils.getCommentedText(result, story));
+
+		final StringSet stopWords = new StringSet(Collections.singletonList("The"));
+		Assert.assertTrue(AnalyzerTypeTestUtils.execute(this.analyzerType, story, "stopWords", stopWords).getComments().isEmpty());
+	}
+
+	@Test
+	public void testDialogueSearchPattern() {
+		final Story story = new StoryBuilder("Story").dialogue("\"Rain", "again,\"").sentence("Anna", "sighed.").dialogue("\"Rain", "forever.\"")
+				.sentence("Anna", "left.").build();
+
+		Assert.assertEquals(Arrays.asList("\"Rain", "Anna", "\"Rain", "Anna"),
+				AnalyzerTypeTestUtils.getCommentedText(AnalyzerTypeTestUtils.execute(this.analyzerType, story), story));
+		Assert.assertEquals(Arrays.asList("\"Rain", "\"Rain"), AnalyzerTypeTestUtils.getCommentedText(
+				AnalyzerTypeTestUtils.execute(this.analyzerType, story, "dialogueSearchPattern", DialogueSearchPattern.DIALOGUE_ONLY), story));
+
+		// Skipped words still count towards the distance
+		Assert.assertTrue(AnalyzerTypeTestUtils.execute(this.analyzerType, story, "dialogueSearchPattern", DialogueSearchPattern.ALL_BUT_DIALOGUE,
+				"windowSize", 3).getComments().isEmpty());
+	}
+
+	@Test
+	public void testParameterValidation() {
+		Assert.assertTrue(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "windowSize", 1).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "windowSize", 0).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "windowSize", -5).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "windowSize", null).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "stopWords", null).wasSuccessful());
+		Assert.assertFalse(AnalyzerTypeTestUtils.tryCreateAnalyzer(this.analyzerType, "dialogueSearchPattern", null).wasSuccessful());
+	}
+}
@@ -0,0 +1,112 @@
+package com.story_inspector.analysis.analyzers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.analyzers.AnalyzerTypeTestUtils.StoryBuilder;
+import com.story_inspector.analysis.parameterTypes.DialogueSearchPattern;
+import com.story_inspector.analysis.parameterTypes.StringSet;
+import com.story_inspector.story.Story;
+
+import junit.framework.Assert;
+
+public class WordSearchAnalyzerTypeTest {
+
+	private final WordSearchAnalyzerType analyzerType = new WordSearchAnalyzerType();
+
+	// @formatter:off
+	private final Story story = new StoryBuilder("Story")
+			.sentence("The", "old", "man", "walked", "home.")
+			.sentence("Old", "man", "Grayson", "laughed.")
+			.paragraph()
+			.sentence("He", "was", "old.")
+			.sentence("Man", "overboard,", "he", "said.")
+			.build();
+
+	private final Story dialogueStory = new StoryBuilder("Dialogue")
+			.sentence("She", "whispered", "softly.")
+			.dialogue("\"I", "whisper", "too,\"")
+			.sentence("he", "said,", "whispering.")
+			.paragraph()
+			.sentence("Whispers", "filled", "the", "room.")
+			.build();
+	// @formatter:on
+
+	private AnalyzerResult<WordSearchAnalyzerType> search(final String... searchWords) {
+		return AnalyzerTypeTestUtils.execute(this.analyzerType, this.story, "searchWords", new StringSet(Arrays.asList(searchWords)));
+	}
+
+	@Test
+	public void testPhrase() {
+		final AnalyzerResult<WordSearchAnalyzerType> result = search("old man");
+		Assert.assertEquals(Arrays.asList("old man", "Old man"), AnalyzerTypeTestUtils.getCommentedText(result, this.story));
+		Assert.assertEquals(Arrays.asList("Matches old man", "Matches old man"), AnalyzerTypeTestUtils.getCommentContents(result));
+	}
+
+	@Test
+	public void testPhraseNotMatchedAcrossSentences() {
+		// "old. Man" ends one sentence and starts the next
+		Assert.assertTrue(search("was old man overboard").getComments().isEmpty());
+		Assert.assertEquals(Arrays.asList("old man", "Old man"), AnalyzerTypeTestUtils.getCommentedText(search("old man"), this.story));
+	}
+
+	@Test
+	public void testPhrasePunctuationIgnored() {
+		Assert.assertEquals(Arrays.asList("man walked home.", "Man overboard, he"),
+				AnalyzerTypeTestUtils.getCommentedText(search("man walked, home", "\"man overboard he\""), this.story));
+	}
+
+	@Test
+	public void testOverlappingPhrases() {
+		final AnalyzerResult<WordSearchAnalyzerType> result = search("old man", "man walked", "old man walked home", "Grayson");
+		Assert.assertEquals(Arrays.asList("old man", "old man walked home.", "man walked", "Old man", "Grayson"),
+				AnalyzerTypeTestUtils.getCommentedText(result, this.story));
+	}
+
+	@Test
+	public void testPhraseNotInStory() {
+		Assert.assertTrue(search("young man", "man walked away").getComments().isEmpty());
+		Assert.assertEquals(Collections.singletonList("The old man"),
+				AnalyzerTypeTestUtils.getCommentedText(search("the old man", "man the"), this.story));
+	}
+
+	private List<String> searchDialogueStory(final boolean searchByStem, final DialogueSearchPattern dialogueSearchPattern,
+			final String... searchWords) {
+		final AnalyzerResult<WordSearchAnalyzerType> result = AnalyzerTypeTestUtils.execute(this.analyzerType, this.dialogueStory, "searchWords",
+				new StringSet(Arrays.asList(searchWords)), "searchByStem", searchByStem, "dialogueSearchPattern", dialogueSearchPattern);
+		return AnalyzerTypeTestUtils.getCommentedText(result, this.dialogueStory);
+	}
+
+	@Test
+	public void testSearchByStem() {
+		Assert.assertEquals(Arrays.asList("whispered", "whisper", "whispering.", "Whispers"),
+				searchDialogueStory(true, DialogueSearchPattern.ALL_TEXT, "whisper"));
+		Assert.assertEquals(Arrays.asList("whispered", "whisper", "whispering.", "Whispers"),
+				searchDialogueStory(true, DialogueSearchPattern.ALL_TEXT, "whispers"));
+		Assert.assertEquals(Arrays.asList("whispered softly.", "Whispers filled"),
+				searchDialogueStory(true, DialogueSearchPattern.ALL_TEXT, "whisper softly", "whispering fills"));
+	}
+
+	@Test
+	public void testSearchByWord() {
+		Assert.assertEquals(Arrays.asList("whisper"), searchDialogueStory(false, DialogueSearchPattern.ALL_TEXT, "whisper"));
+		Assert.assertEquals(Arrays.asList("whispered", "Whispers"),
+				searchDialogueStory(false, DialogueSearchPattern.ALL_TEXT, "Whispered", "whispers"));
+		Assert.assertEquals(Arrays.asList("whispered softly."),
+				searchDialogueStory(false, DialogueSearchPattern.ALL_TEXT, "whispered softly", "whispering fills"));
+	}
+
+	@Test
+	public void testDialogueSearchPatterns() {
+		Assert.assertEquals(Arrays.asList("whispered", "\"I whisper", "whisper", "he said,", "whispering.", "Whispers"),
+				searchDialogueStory(true, DialogueSearchPattern.ALL_TEXT, "whisper", "I whisper", "he said"));
+		Assert.assertEquals(Arrays.asList("\"I whisper", "whisper"),
+				searchDialogueStory(true, DialogueSearchPattern.DIALOGUE_ONLY, "whisper", "I whisper", "he said"));
+		Assert.assertEquals(Arrays.asList("whispered", "he said,", "whispering.", "Whispers"),
+				searchDialogueStory(true, DialogueSearchPattern.ALL_BUT_DIALOGUE, "whisper", "I whisper", "he said"));
+	}
+}
@@ -0,0 +1,79 @@
+package com.story_inspector.analysis.comments;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils.TestAnalyzerType;
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.AnalyzerSpec;
+import com.story_inspector.analysis.Comment;
+import com.story_inspector.story.TextRange;
+
+import junit.framework.Assert;
+
+public class CommentBatchTest {
+
+	private Analyzer<TestAnalyzerType> analyzer;
+	private CommentStringTable strings;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void initialize() {
+		this.analyzer = EasyMock.mock(Analyzer.class);
+		final TestAnalyzerType mockType = EasyMock.mock(TestAnalyzerType.class);
+		final AnalyzerSpec<TestAnalyzerType> spec = new AnalyzerSpec<>("Analyzer", "Description", mockType, false, Collections.emptyMap());
+		EasyMock.expect(this.analyzer.getFingerprint()).andReturn(spec.getFingerprint()).anyTimes();
+		EasyMock.replay(this.analyzer, mockType);
+		this.strings = new CommentStringTable();
+	}
+
+	@Test
+	public void testContent() {
+		final CommentBatch batch = new CommentBatch(this.analyzer, this.strings);
+		batch.add(new TextRange(0, 5), "Matches %s", "apple");
+		batch.add(new TextRange(6, 9), "Matches %s", "pear");
+		batch.add(new TextRange(10, 12), "No argument", null);
+
+		Assert.assertEquals(3, batch.size());
+		Assert.assertEquals("Matches apple", batch.getContent(0));
+		Assert.assertEquals("Matches pear", batch.getContent(1));
+		Assert.assertEquals("No argument", batch.getContent(2));
+		Assert.assertEquals(new Comment(this.analyzer, "Matches pear", new TextRange(6, 9)), batch.get(1));
+
+		// Templates are shared rather than stored per comment, arguments are held by the batch alone
+		Assert.assertEquals(2, this.strings.size());
+		Assert.assertEquals(batch.getTemplateId(0), batch.getTemplateId(1));
+		Assert.assertNull(batch.getArgument(2));
+
+		batch.clear();
+		Assert.assertNull(batch.getArgument(0));
+	}
+
+	@Test
+	public void testSortMatchesComments() {
+		final CommentBatch batch = new CommentBatch(this.analyzer, this.strings);
+		final List<Comment> expected = new ArrayList<>();
+		final Random random = new Random(1);
+		for (int i = 0; i < 1000; ++i) {
+			final int start = random.nextInt(100);
+			final TextRange selection = new TextRange(start, start + random.nextInt(5));
+			final String argument = "word" + random.nextInt(10);
+			batch.add(selection, "Matches %s", argument);
+			expected.add(new Comment(this.analyzer, "Matches " + argument, selection));
+		}
+
+		batch.sort();
+		Collections.sort(expected);
+		Assert.assertEquals(expected, batch.asList());
+
+		batch.clear();
+		Assert.assertEquals(0, batch.size());
+		Assert.assertTrue(batch.asList().isEmpty());
+	}
+}
@@ -0,0 +1,55 @@
+package com.story_inspector.analysis.comments;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils;
+import com.story_inspector.analysis.AnalysisTestUtils.TestAnalyzerType;
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.AnalyzerSpec;
+import com.story_inspector.analysis.Comment;
+import com.story_inspector.story.TextRange;
+
+import junit.framework.Assert;
+
+public class InMemoryCommentStoreTest {
+
+	private Analyzer<TestAnalyzerType> analyzer;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void initialize() {
+		this.analyzer = EasyMock.mock(Analyzer.class);
+		final TestAnalyzerType mockType = EasyMock.mock(TestAnalyzerType.class);
+		final AnalyzerSpec<TestAnalyzerType> spec = new AnalyzerSpec<>("Analyzer", "Description", mockType, false, Collections.emptyMap());
+		EasyMock.expect(this.analyzer.getFingerprint()).andReturn(spec.getFingerprint()).anyTimes();
+		EasyMock.replay(this.analyzer, mockType);
+	}
+
+	@Test
+	public void testTemplatedAddToExistingComments() {
+		final Comment existing = new Comment(this.analyzer, "Existing", new TextRange(5, 6));
+		try (final InMemoryCommentStore store = new InMemoryCommentStore(this.analyzer, Arrays.asList(existing))) {
+			store.add(new TextRange(0, 3), "Matches %s", "cat");
+			store.add(new TextRange(7, 8), "No argument", null);
+			Assert.assertEquals(3, store.size());
+
+			final List<Comment> sorted = new ArrayList<>();
+			store.sortedIterator().forEachRemaining(sorted::add);
+			Assert.assertEquals(Arrays.asList(new Comment(this.analyzer, "Matches cat", new TextRange(0, 3)), existing,
+					new Comment(this.analyzer, "No argument", new TextRange(7, 8))), sorted);
+		}
+	}
+
+	@Test
+	public void testFailedConstructions() {
+		AnalysisTestUtils.testFailedConstruction(() -> new InMemoryCommentStore(null, Collections.emptyList()));
+		AnalysisTestUtils.testFailedConstruction(() -> new InMemoryCommentStore(this.analyzer, Arrays.asList((Comment) null)));
+	}
+}
@@ -0,0 +1,208 @@
+package com.story_inspector.analysis.comments;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.AnalysisTestUtils.TestAnalyzerType;
+import com.story_inspector.analysis.AnalyzerSpec;
+import com.story_inspector.analysis.Comment;
+import com.story_inspector.story.TextRange;
+
+import junit.framework.Assert;
+
+public class SpillingCommentStoreTest {
+
+	private Analyzer<TestAnalyzerType> analyzer;
+	private Analyzer<TestAnalyzerType> otherAnalyzer;
+
+	@Before
+	public void initialize() {
+		this.analyzer = createMockAnalyzer("Analyzer");
+		this.otherAnalyzer = createMockAnalyzer("Other analyzer");
+	}
+
+	@Test
+	public void testInMemory() {
+		final List<Comment> comments = createComments(this.analyzer, 50, 1);
+		try (final SpillingCommentStore store = new SpillingCommentStore(this.analyzer, 100)) {
+			comments.forEach(store::add);
+			Assert.assertEquals(0, store.getNumSpilledRuns());
+			Assert.assertEquals(comments.size(), store.size());
+			assertSorted(comments, store.sortedIterator());
+		}
+	}
+
+	@Test
+	public void testSpilling() {
+		final List<Comment> comments = createComments(this.analyzer, 1000, 2);
+		try (final SpillingCommentStore store = new SpillingCommentStore(this.analyzer, 64)) {
+			comments.forEach(store::add);
+			Assert.assertEquals(1000 / 64, store.getNumSpilledRuns());
+			Assert.assertEquals(comments.size(), store.size());
+
+			// Can be read multiple times
+			assertSorted(comments, store.sortedIterator());
+			assertSorted(comments, store.iterator());
+		}
+	}
+
+	@Test
+	public void testMergeDistinct() {
+		final List<Comment> comments = createComments(this.analyzer, 300, 3);
+		final List<Comment> otherComments = createComments(this.otherAnalyzer, 300, 4);
+		try (final SpillingCommentStore store = new SpillingCommentStore(this.analyzer, 50);
+				final SpillingCommentStore otherStore = new SpillingCommentStore(this.otherAnalyzer, 70)) {
+			comments.forEach(store::add);
+			// Every comment added twice, duplicates should be removed
+			comments.forEach(store::add);
+			otherComments.forEach(otherStore::add);
+
+			final List<Comment> allComments = new ArrayList<>(comments);
+			allComments.addAll(otherComments);
+			assertSorted(allComments,
+					CommentIterators.distinct(CommentIterators.mergeSorted(Arrays.asList(store.sortedIterator(), otherStore.sortedIterator()))));
+		}
+	}
+
+	@Test
+	public void testTemplatedSpilling() {
+		final List<Comment> comments = createComments(this.analyzer, 500, 6);
+		try (final SpillingCommentStore store = new SpillingCommentStore(this.analyzer, 32)) {
+			for (final Comment comment : comments)
+				store.add(comment.getSelection(), "Matches %s", comment.getContent());
+			Assert.assertEquals(comments.size(), store.size());
+
+			final List<Comment> expected = new ArrayList<>();
+			for (final Comment comment : comments)
+				expected.add(new Comment(this.analyzer, "Matches " + comment.getContent(), comment.getSelection()));
+			assertSorted(expected, store.sortedIterator());
+		}
+	}
+
+	@Test
+	public void testDistinctContentsSpilled() {
+		final List<Comment> expected = new ArrayList<>();
+		try (final SpillingCommentStore store = new SpillingCommentStore(this.analyzer, 16)) {
+			for (int i = 0; i < 200; ++i) {
+				final TextRange selection = new TextRange(i, i + 1);
+				final Comment comment = new Comment(this.analyzer, "Comment " + i + " keeps its %s and é", selection);
+				store.add(comment);
+				expected.add(comment);
+				store.add(selection, "Matches %s", "word " + i);
+				expected.add(new Comment(this.analyzer, "Matches word " + i, selection));
+				store.add(selection, "No argument", null);
+				expected.add(new Comment(this.analyzer, "No argument", selection));
+			}
+
+			// Only the templates are kept in memory, contents and arguments are spilled with their comments
+			Assert.assertEquals(3, store.getNumTemplates());
+			assertSorted(expected, store.sortedIterator());
+		}
+	}
+
+	@Test
+	public void testSealedOnRead() {
+		final List<Comment> comments = createComments(this.analyzer, 100, 7);
+		try (final SpillingCommentStore store = new SpillingCommentStore(this.analyzer, 64)) {
+			comments.forEach(store::add);
+			final Iterator<Comment> firstReader = store.sortedIterator();
+			firstReader.next();
+
+			// Opening another reader leaves the first undisturbed
+			assertSorted(comments, store.iterator());
+			final List<Comment> rest = new ArrayList<>();
+			firstReader.forEachRemaining(rest::add);
+			Assert.assertEquals(comments.size() - 1, rest.size());
+
+			try {
+				store.add(new Comment(this.analyzer, "Too late", new TextRange(0, 1)));
+				Assert.fail("Expected IllegalStateException");
+			} catch (final IllegalStateException e) {
+				// Expected
+			}
+			Assert.assertEquals(comments.size(), store.size());
+		}
+	}
+
+	@Test
+	public void testConcurrentReaders() throws Exception {
+		final List<Comment> comments = createComments(this.analyzer, 1000, 8);
+		final List<Comment> sortedComments = new ArrayList<>(comments);
+		Collections.sort(sortedComments);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try (final SpillingCommentStore store = new SpillingCommentStore(this.analyzer, 100)) {
+			comments.forEach(store::add);
+			final List<Future<List<Comment>>> results = new ArrayList<>();
+			for (int i = 0; i < 8; ++i) {
+				results.add(executor.submit(() -> {
+					final List<Comment> read = new ArrayList<>();
+					store.sortedIterator().forEachRemaining(read::add);
+					return read;
+				}));
+			}
+			for (final Future<List<Comment>> result : results)
+				Assert.assertEquals(sortedComments, result.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWrongAnalyzer() {
+		try (final SpillingCommentStore store = new SpillingCommentStore(this.analyzer, 10)) {
+			store.add(new Comment(this.otherAnalyzer, "content", new TextRange(0, 1)));
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testClosed() {
+		final SpillingCommentStore store = new SpillingCommentStore(this.analyzer, 10);
+		createComments(this.analyzer, 20, 5).forEach(store::add);
+		store.close();
+		store.sortedIterator();
+	}
+
+	private void assertSorted(final List<Comment> expected, final Iterator<Comment> actual) {
+		final List<Comment> sortedExpected = new ArrayList<>(expected);
+		Collections.sort(sortedExpected);
+		final List<Comment> actualList = new ArrayList<>();
+		actual.forEachRemaining(actualList::add);
+		Assert.assertEquals(sortedExpected, actualList);
+	}
+
+	/**
+	 * Creates distinct comments in random order.
+	 */
+	private List<Comment> createComments(final Analyzer<?> commentAnalyzer, final int numComments, final long seed) {
+		final List<Comment> result = new ArrayList<>();
+		for (int i = 0; i < numComments; ++i) {
+			final int start = (i / 3) * 7;
+			result.add(new Comment(commentAnalyzer, "Comment " + i % 3 + " é", new TextRange(start, start + i % 5)));
+		}
+		Collections.shuffle(result, new Random(seed));
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Analyzer<TestAnalyzerType> createMockAnalyzer(final String name) {
+		final Analyzer<TestAnalyzerType> mockAnalyzer = EasyMock.mock(Analyzer.class);
+		final TestAnalyzerType mockType = EasyMock.mock(TestAnalyzerType.class);
+		final AnalyzerSpec<TestAnalyzerType> spec = new AnalyzerSpec<>(name, "Description", mockType, false, Collections.emptyMap());
+		EasyMock.expect(mockAnalyzer.getFingerprint()).andReturn(spec.getFingerprint()).anyTimes();
+		EasyMock.expect(mockAnalyzer.getName()).andReturn(name).anyTimes();
+		EasyMock.replay(mockAnalyzer, mockType);
+		return mockAnalyzer;
+	}
+}
@@ -0,0 +1,54 @@
+package com.story_inspector.analysis.features;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils;
+import com.story_inspector.story.Token;
+
+import junit.framework.Assert;
+
+public class DialoguePrefixSumsTest {
+
+	@Test
+	public void testCounts() {
+		// "Run," she said. "Now!"
+		final List<Token> tokens = createTokens("Wq", "Pq", "W", "W", "P", "Wq", "Pq");
+		final DialoguePrefixSums sums = new DialoguePrefixSums(tokens);
+
+		Assert.assertEquals(4, sums.getNumWords());
+		Assert.assertEquals(0, sums.getWordTokenIndex(0));
+		Assert.assertEquals(2, sums.getWordTokenIndex(1));
+		Assert.assertEquals(5, sums.getWordTokenIndex(3));
+
+		Assert.assertEquals(4, sums.getWordCount(0, tokens.size()));
+		Assert.assertEquals(2, sums.getQuotedWordCount(0, tokens.size()));
+		Assert.assertEquals(0.5, sums.getDialogueRatio(0, tokens.size()), 1e-9);
+		Assert.assertEquals(0.0, sums.getDialogueRatio(2, 5), 1e-9);
+		Assert.assertEquals(1.0, sums.getDialogueRatio(5, 7), 1e-9);
+		Assert.assertEquals(0.0, sums.getDialogueRatio(1, 2), 1e-9);
+	}
+
+	@Test
+	public void testFailedConstructions() {
+		AnalysisTestUtils.testFailedConstruction(() -> new DialoguePrefixSums(null));
+	}
+
+	/**
+	 * Creates tokens from codes: 'W' for a word, 'P' for punctuation, followed by 'q' if quoted.
+	 */
+	private static List<Token> createTokens(final String... codes) {
+		final List<Token> tokens = new ArrayList<>();
+		for (final String code : codes) {
+			final Token token = EasyMock.mock(Token.class);
+			EasyMock.expect(token.isWord()).andReturn(code.charAt(0) == 'W').anyTimes();
+			EasyMock.expect(token.isQuoted()).andReturn(code.endsWith("q")).anyTimes();
+			EasyMock.replay(token);
+			tokens.add(token);
+		}
+		return tokens;
+	}
+}
@@ -0,0 +1,140 @@
+package com.story_inspector.analysis.features;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.story_inspector.story.Story;
+
+import junit.framework.Assert;
+
+public class StoryFeatureRegistryTest {
+
+	private Story story;
+	private AtomicInteger computationCount;
+	private StoryFeature<String> countingFeature;
+
+	@Before
+	public void initialize() {
+		this.story = EasyMock.mock(Story.class);
+		EasyMock.replay(this.story);
+		this.computationCount = new AtomicInteger();
+		this.countingFeature = new StoryFeature<>("counting", r -> "value" + this.computationCount.incrementAndGet());
+	}
+
+	@Test
+	public void testMemoization() {
+		try (StoryFeatureRegistry registry = StoryFeatureRegistry.open(this.story)) {
+			Assert.assertSame(this.story, registry.getStory());
+			Assert.assertEquals("value1", registry.get(this.countingFeature));
+			Assert.assertEquals("value1", registry.get(this.countingFeature));
+			Assert.assertEquals(1, this.computationCount.get());
+		}
+	}
+
+	@Test
+	public void testDependentFeatures() {
+		final StoryFeature<Integer> dependentFeature = new StoryFeature<>("dependent", r -> r.get(this.countingFeature).length());
+		try (StoryFeatureRegistry registry = StoryFeatureRegistry.open(this.story)) {
+			Assert.assertEquals(Integer.valueOf(6), registry.get(dependentFeature));
+			Assert.assertEquals("value1", registry.get(this.countingFeature));
+			Assert.assertEquals(1, this.computationCount.get());
+		}
+	}
+
+	@Test
+	public void testOpenRegistryIsShared() {
+		try (StoryFeatureRegistry registry = StoryFeatureRegistry.open(this.story)) {
+			Assert.assertSame(registry, StoryFeatureRegistry.forStory(this.story));
+			StoryFeatureRegistry.forStory(this.story).get(this.countingFeature);
+			registry.get(this.countingFeature);
+			Assert.assertEquals(1, this.computationCount.get());
+		}
+	}
+
+	@Test
+	public void testNestedOpen() {
+		final StoryFeatureRegistry outer = StoryFeatureRegistry.open(this.story);
+		final StoryFeatureRegistry inner = StoryFeatureRegistry.open(this.story);
+		Assert.assertSame(outer, inner);
+
+		inner.close();
+		Assert.assertFalse(outer.isReleased());
+		Assert.assertSame(outer, StoryFeatureRegistry.forStory(this.story));
+
+		outer.close();
+		Assert.assertTrue(outer.isReleased());
+		Assert.assertNotSame(outer, StoryFeatureRegistry.forStory(this.story));
+	}
+
+	@Test
+	public void testUnsharedRegistryWhenNoneOpen() {
+		final StoryFeatureRegistry first = StoryFeatureRegistry.forStory(this.story);
+		final StoryFeatureRegistry second = StoryFeatureRegistry.forStory(this.story);
+		Assert.assertNotSame(first, second);
+		first.get(this.countingFeature);
+		second.get(this.countingFeature);
+		Assert.assertEquals(2, this.computationCount.get());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testReleasedRegistry() {
+		final StoryFeatureRegistry registry = StoryFeatureRegistry.open(this.story);
+		registry.close();
+		registry.get(this.countingFeature);
+	}
+
+	@Test
+	public void testFailedComputation() {
+		final StoryFeature<String> failingFeature = new StoryFeature<>("failing", r -> {
+			throw new IllegalArgumentException("Bad story");
+		});
+		try (StoryFeatureRegistry registry = StoryFeatureRegistry.open(this.story)) {
+			registry.get(failingFeature);
+			Assert.fail("Expected computation failure to propagate");
+		} catch (final IllegalArgumentException e) {
+			Assert.assertEquals("Bad story", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testConcurrentRequestsComputeOnce() throws Exception {
+		final int numThreads = 8;
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final StoryFeature<String> slowFeature = new StoryFeature<>("slow", r -> {
+			try {
+				Thread.sleep(50);
+			} catch (final InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			return "slow" + this.computationCount.incrementAndGet();
+		});
+
+		final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try (StoryFeatureRegistry registry = StoryFeatureRegistry.open(this.story)) {
+			final List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < numThreads; ++i) {
+				results.add(executor.submit((Callable<String>) () -> {
+					startLatch.await();
+					return registry.get(slowFeature);
+				}));
+			}
+			startLatch.countDown();
+			for (final Future<String> result : results) {
+				Assert.assertEquals("slow1", result.get());
+			}
+			Assert.assertEquals(1, this.computationCount.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
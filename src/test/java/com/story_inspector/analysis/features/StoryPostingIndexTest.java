@@ -0,0 +1,53 @@
+package com.story_inspector.analysis.features;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import com.story_inspector.story.Token;
+
+import junit.framework.Assert;
+
+public class StoryPostingIndexTest {
+
+	@Test
+	public void testPostings() {
+		// "Whispered," she whispers. The whisper...
+		final List<Token> tokens = createTokens("Whispered", "whisper", ",", null, "she", "she", "whispers", "whisper", ".", null, "The", "the",
+				"whisper", "whisper");
+		final StoryVocabulary vocabulary = new StoryVocabulary(tokens);
+		final StoryPostingIndex postingIndex = new StoryPostingIndex(vocabulary, tokens.size());
+
+		Assert.assertEquals(5, vocabulary.getNumWords());
+		Assert.assertEquals(3, vocabulary.getNumStems());
+		Assert.assertEquals(StoryVocabulary.NO_ID, vocabulary.getTokenWordId(1));
+		Assert.assertEquals(StoryVocabulary.NO_ID, vocabulary.getWordId("missing"));
+		Assert.assertEquals(vocabulary.getWordId("the"), vocabulary.getTokenWordId(5));
+
+		Assert.assertTrue(Arrays.equals(new int[] { 0 }, postingIndex.getWordPostings(vocabulary.getWordId("WHISPERED"))));
+		Assert.assertTrue(Arrays.equals(new int[] { 6 }, postingIndex.getWordPostings(vocabulary.getWordId("whisper"))));
+		Assert.assertTrue(Arrays.equals(new int[] { 0, 3, 6 }, postingIndex.getStemPostings(vocabulary.getStemId("whisper"))));
+		Assert.assertTrue(Arrays.equals(new int[] { 5 }, postingIndex.getWordPostings(vocabulary.getWordId("the"))));
+		Assert.assertEquals(0, postingIndex.getWordPostings(StoryVocabulary.NO_ID).length);
+	}
+
+	/**
+	 * Creates tokens from pairs of word (null for non-words) and stem.
+	 */
+	private static List<Token> createTokens(final String... wordsAndStems) {
+		final List<Token> tokens = new ArrayList<>();
+		for (int i = 0; i < wordsAndStems.length; i += 2) {
+			final Token token = EasyMock.mock(Token.class);
+			final boolean isWord = wordsAndStems[i + 1] != null;
+			EasyMock.expect(token.isWord()).andReturn(isWord).anyTimes();
+			EasyMock.expect(token.getWord()).andReturn(isWord ? wordsAndStems[i] : null).anyTimes();
+			EasyMock.expect(token.getWordStem()).andReturn(wordsAndStems[i + 1]).anyTimes();
+			EasyMock.replay(token);
+			tokens.add(token);
+		}
+		return tokens;
+	}
+}
@@ -0,0 +1,75 @@
+package com.story_inspector.analysis.reports;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils.TestAnalyzerType;
+
+import junit.framework.Assert;
+
+public class FileBasedAnalyzerRuntimeStatisticsTest {
+
+	private File statisticsFile;
+	private TestAnalyzerType analyzerType;
+	private TestAnalyzerType otherAnalyzerType;
+
+	@Before
+	public void initialize() throws IOException {
+		this.statisticsFile = File.createTempFile(UUID.randomUUID().toString(), ".properties");
+		this.statisticsFile.delete();
+
+		this.analyzerType = EasyMock.mock(TestAnalyzerType.class);
+		EasyMock.expect(this.analyzerType.getId()).andReturn("type").anyTimes();
+		EasyMock.expect(this.analyzerType.getVersion()).andReturn(1).anyTimes();
+		this.otherAnalyzerType = EasyMock.mock(TestAnalyzerType.class);
+		EasyMock.expect(this.otherAnalyzerType.getId()).andReturn("type").anyTimes();
+		EasyMock.expect(this.otherAnalyzerType.getVersion()).andReturn(2).anyTimes();
+		EasyMock.replay(this.analyzerType, this.otherAnalyzerType);
+	}
+
+	@After
+	public void cleanUp() {
+		this.statisticsFile.delete();
+	}
+
+	@Test
+	public void testRecordAndEstimate() {
+		final FileBasedAnalyzerRuntimeStatistics statistics = new FileBasedAnalyzerRuntimeStatistics(this.statisticsFile);
+		statistics.load();
+		Assert.assertFalse(statistics.getNanosPerToken(this.analyzerType).isPresent());
+
+		statistics.recordExecution(this.analyzerType, 100, 5000);
+		Assert.assertEquals(50.0, statistics.getNanosPerToken(this.analyzerType).getAsDouble(), 1e-9);
+		Assert.assertFalse(statistics.getNanosPerToken(this.otherAnalyzerType).isPresent());
+
+		// Later executions are averaged in, weighted towards the newest
+		statistics.recordExecution(this.analyzerType, 100, 15000);
+		final double estimate = statistics.getNanosPerToken(this.analyzerType).getAsDouble();
+		Assert.assertTrue(estimate > 50.0 && estimate < 150.0);
+
+		// Empty stories are ignored
+		statistics.recordExecution(this.otherAnalyzerType, 0, 15000);
+		Assert.assertFalse(statistics.getNanosPerToken(this.otherAnalyzerType).isPresent());
+	}
+
+	@Test
+	public void testSaveAndLoad() {
+		final FileBasedAnalyzerRuntimeStatistics statistics = new FileBasedAnalyzerRuntimeStatistics(this.statisticsFile);
+		statistics.load();
+		statistics.recordExecution(this.analyzerType, 100, 5000);
+		statistics.recordExecution(this.otherAnalyzerType, 200, 5000);
+		statistics.save();
+		Assert.assertTrue(this.statisticsFile.exists());
+
+		final FileBasedAnalyzerRuntimeStatistics loadedStatistics = new FileBasedAnalyzerRuntimeStatistics(this.statisticsFile);
+		loadedStatistics.load();
+		Assert.assertEquals(50.0, loadedStatistics.getNanosPerToken(this.analyzerType).getAsDouble(), 1e-9);
+		Assert.assertEquals(25.0, loadedStatistics.getNanosPerToken(this.otherAnalyzerType).getAsDouble(), 1e-9);
+	}
+}
@@ -0,0 +1,249 @@
+package com.story_inspector.analysis.reports;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils.TestAnalyzerType;
+import com.story_inspector.analysis.Analyzer;
+import com.story_inspector.analysis.AnalyzerFingerprint;
+import com.story_inspector.analysis.AnalyzerResult;
+import com.story_inspector.analysis.AnalyzerSpec;
+import com.story_inspector.analysis.AnalyzerType;
+import com.story_inspector.analysis.comments.InMemoryCommentStore;
+import com.story_inspector.progress.ProgressMonitor;
+import com.story_inspector.progress.TaskCanceledException;
+import com.story_inspector.story.ChapterImpl;
+import com.story_inspector.story.ParagraphImpl;
+import com.story_inspector.story.SceneImpl;
+import com.story_inspector.story.SentenceImpl;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.StoryImpl;
+import com.story_inspector.story.TextRange;
+import com.story_inspector.story.TokenImpl;
+
+import junit.framework.Assert;
+
+public class ReportExecutorImplTest {
+
+	/**
+	 * Statistics without any recorded executions, so all analyzers are estimated to cost the same.
+	 */
+	private static final AnalyzerRuntimeStatistics NO_STATISTICS = new AnalyzerRuntimeStatistics() {
+		@Override
+		public OptionalDouble getNanosPerToken(final AnalyzerType<?> analyzerType) {
+			return OptionalDouble.empty();
+		}
+
+		@Override
+		public void recordExecution(final AnalyzerType<?> analyzerType, final int numTokens, final long elapsedNanos) {
+		}
+
+		@Override
+		public void save() {
+		}
+	};
+
+	private TestAnalyzerType analyzerType;
+	private Story story;
+	private ReportExecutorImpl executor;
+
+	/**
+	 * Analyzer whose comment store counts how often it is closed.
+	 */
+	private class TestAnalyzer implements Analyzer<TestAnalyzerType> {
+		private final String name;
+		private final Runnable execution;
+		private final AtomicInteger numReleased = new AtomicInteger();
+
+		private TestAnalyzer(final String name, final Runnable execution) {
+			this.name = name;
+			this.execution = execution;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public String getDescription() {
+			return this.name;
+		}
+
+		@Override
+		public TestAnalyzerType getAnalyzerType() {
+			return ReportExecutorImplTest.this.analyzerType;
+		}
+
+		@Override
+		public AnalyzerResult<TestAnalyzerType> execute(final Story executedStory) {
+			this.execution.run();
+			final InMemoryCommentStore store = new InMemoryCommentStore(this, Collections.emptyList()) {
+				@Override
+				public void close() {
+					TestAnalyzer.this.numReleased.incrementAndGet();
+					super.close();
+				}
+			};
+			return AnalyzerResult.fromCommentStore(this, store, Collections.emptyList());
+		}
+
+		@Override
+		public boolean isCommentRecordingSuppressed() {
+			return false;
+		}
+
+		@Override
+		public AnalyzerSpec<TestAnalyzerType> extractAnalyzerSpec() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public AnalyzerFingerprint getFingerprint() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	@Before
+	public void initialize() {
+		this.analyzerType = EasyMock.createNiceMock(TestAnalyzerType.class);
+		EasyMock.replay(this.analyzerType);
+
+		final String text = "one two";
+		final List<TokenImpl> tokens = Arrays.asList(new TokenImpl(new TextRange(0, 4), "one ", "NN", "one", false, false, false, false),
+				new TokenImpl(new TextRange(4, 7), "two", "NN", "two", false, false, false, false));
+		final TextRange range = new TextRange(0, text.length());
+		final ParagraphImpl paragraph = new ParagraphImpl(range, Arrays.asList(new SentenceImpl(range, tokens)));
+		this.story = new StoryImpl(text, "Story",
+				Arrays.asList(new ChapterImpl(range, Arrays.asList(new SceneImpl(range, Arrays.asList(paragraph))), "Chapter")));
+		this.executor = new ReportExecutorImpl(NO_STATISTICS);
+	}
+
+	private static ReportSpec createSpec(final List<Analyzer<?>> first, final List<Analyzer<?>> second) {
+		return new ReportSpec("Report", "Report", Arrays.asList(new ReportSectionSpec("First", "First", first),
+				new ReportSectionSpec("Second", "Second", second)));
+	}
+
+	/**
+	 * Waits for the provided condition, which other threads are expected to make true shortly.
+	 */
+	private static void awaitCondition(final Supplier<Boolean> condition) throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.get()) {
+			Assert.assertTrue("Timed out waiting for condition", System.nanoTime() < deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	public void testResultsInSpecOrder() throws Exception {
+		final List<Analyzer<?>> first = new ArrayList<>();
+		for (int i = 0; i < 5; ++i) {
+			final int delay = 5 - i;
+			first.add(new TestAnalyzer("First " + i, () -> sleep(delay * 10)));
+		}
+		// Runs until it is reported as running
+		final CountDownLatch reported = new CountDownLatch(1);
+		final TestAnalyzer waiting = new TestAnalyzer("Waiting", () -> awaitUninterruptibly(reported));
+
+		final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+		final Report report = this.executor.execute(createSpec(first, Arrays.asList(waiting)), this.story, (percentage, message) -> {
+			messages.add(message);
+			if (message.startsWith("Executing Analyzer: Waiting ("))
+				reported.countDown();
+		});
+
+		Assert.assertEquals(2, report.getReportSections().size());
+		for (int i = 0; i < 5; ++i)
+			Assert.assertSame(first.get(i), report.getReportSections().get(0).getAnalyzerResults().get(i).getAnalyzer());
+		Assert.assertSame(waiting, report.getReportSections().get(1).getAnalyzerResults().get(0).getAnalyzer());
+		Assert.assertEquals("Executing Analyzers: 6 of 6 complete", messages.get(messages.size() - 1));
+		for (final Analyzer<?> analyzer : first)
+			Assert.assertEquals(0, ((TestAnalyzer) analyzer).numReleased.get());
+	}
+
+	@Test
+	public void testFailureReleasesCompletedResults() throws Exception {
+		// Scheduled before the failing analyzer, which waits for both to complete
+		final CountDownLatch completed = new CountDownLatch(2);
+		final TestAnalyzer first = new TestAnalyzer("First", completed::countDown);
+		final TestAnalyzer second = new TestAnalyzer("Second", completed::countDown);
+		final TestAnalyzer failing = new TestAnalyzer("Failing", () -> {
+			awaitUninterruptibly(completed);
+			throw new IllegalStateException("Broken analyzer");
+		});
+
+		try {
+			this.executor.execute(createSpec(Arrays.asList(first, second), Arrays.asList(failing)), this.story, (percentage, message) -> {
+			});
+			Assert.fail("Expected IllegalStateException");
+		} catch (final IllegalStateException e) {
+			Assert.assertEquals("Broken analyzer", e.getMessage());
+		}
+		// Results may only be added after the failure is seen, but are released either way
+		awaitCondition(() -> first.numReleased.get() == 1 && second.numReleased.get() == 1);
+	}
+
+	@Test
+	public void testCancelReleasesCompletedResults() throws Exception {
+		final CountDownLatch canceled = new CountDownLatch(1);
+		final TestAnalyzer completing = new TestAnalyzer("Completing", () -> {
+		});
+		// Ignores interruption, so completes after the report is canceled
+		final TestAnalyzer slow = new TestAnalyzer("Slow", () -> awaitUninterruptibly(canceled));
+
+		// Canceled once the slow analyzer has started and the other has completed
+		final ProgressMonitor cancelOnceCompleted = (percentage, message) -> {
+			if (message.equals("Executing Analyzer: Slow (1 of 2 complete)"))
+				throw new TaskCanceledException("Canceled");
+		};
+		try {
+			this.executor.execute(createSpec(Arrays.asList(completing), Arrays.asList(slow)), this.story, cancelOnceCompleted);
+			Assert.fail("Expected TaskCanceledException");
+		} catch (final TaskCanceledException e) {
+			// Expected
+		}
+		Assert.assertEquals(1, completing.numReleased.get());
+
+		// Results completing after cancellation are released as well
+		canceled.countDown();
+		awaitCondition(() -> slow.numReleased.get() == 1);
+	}
+
+	@Test
+	public void testScheduleLongestFirst() {
+		Assert.assertTrue(Arrays.equals(new int[] { 2, 0, 3, 1 }, ReportExecutorImpl.scheduleLongestFirst(new double[] { 5, 1, 10, 5 })));
+		Assert.assertTrue(Arrays.equals(new int[] { 0, 1, 2 }, ReportExecutorImpl.scheduleLongestFirst(new double[] { 3, 3, 3 })));
+		Assert.assertEquals(0, ReportExecutorImpl.scheduleLongestFirst(new double[0]).length);
+	}
+
+	private static void sleep(final long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (final InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static void awaitUninterruptibly(final CountDownLatch latch) {
+		while (true) {
+			try {
+				latch.await();
+				return;
+			} catch (final InterruptedException e) {
+				// Keep waiting
+			}
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package com.story_inspector.analysis.search;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils;
+
+import junit.framework.Assert;
+
+public class DeletionIndexTest {
+
+	@Test
+	public void testFind() {
+		final DeletionIndex index = new DeletionIndex(Arrays.asList("whispered", "grey", "gray", "great", "whisper", "the"), 2);
+		Assert.assertTrue(Arrays.equals(new int[] { 0 }, index.find("whispred", 1)));
+		Assert.assertTrue(Arrays.equals(new int[] { 0, 4 }, index.find("whispred", 2)));
+		Assert.assertTrue(Arrays.equals(new int[] { 1, 2 }, index.find("grey", 1)));
+		Assert.assertTrue(Arrays.equals(new int[] { 1, 2, 3 }, index.find("grey", 2)));
+		Assert.assertTrue(Arrays.equals(new int[] { 0 }, index.find("whsipered", 1)));
+		Assert.assertTrue(Arrays.equals(new int[] { 5 }, index.find("the", 0)));
+		Assert.assertEquals(0, index.find("cat", 1).length);
+	}
+
+	@Test
+	public void testEditDistance() {
+		Assert.assertEquals(0, DeletionIndex.editDistance("grey", "grey", 2));
+		Assert.assertEquals(1, DeletionIndex.editDistance("grey", "gray", 2));
+		Assert.assertEquals(1, DeletionIndex.editDistance("hte", "the", 2));
+		Assert.assertEquals(2, DeletionIndex.editDistance("whisper", "whispered", 2));
+		Assert.assertEquals(3, DeletionIndex.editDistance("a", "abcdef", 2));
+	}
+
+	@Test
+	public void testFailedConstructions() {
+		AnalysisTestUtils.testFailedConstruction(() -> new DeletionIndex(null, 1));
+		AnalysisTestUtils.testFailedConstruction(() -> new DeletionIndex(Collections.emptyList(), -1));
+	}
+}
@@ -0,0 +1,47 @@
+package com.story_inspector.analysis.search;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+public class LongIntHashMapTest {
+
+	@Test
+	public void testMatchesHashMap() {
+		final LongIntHashMap map = new LongIntHashMap(4);
+		final Map<Long, Integer> expected = new HashMap<>();
+		final Random random = new Random(1);
+		for (int i = 0; i < 20000; ++i) {
+			// Few distinct keys so most are incremented several times, including zero and keys differing only in their high bits
+			final long key = random.nextInt(3) == 0 ? (long) random.nextInt(50) << 40 : random.nextInt(5000) - 100;
+			final int delta = random.nextInt(10) - 3;
+			Assert.assertEquals(expected.merge(key, delta, Integer::sum).intValue(), map.addTo(key, delta));
+		}
+
+		Assert.assertEquals(expected.size(), map.size());
+		for (final Map.Entry<Long, Integer> entry : expected.entrySet())
+			Assert.assertEquals(entry.getValue().intValue(), map.get(entry.getKey()));
+		Assert.assertEquals(0, map.get(123456789L));
+
+		final Map<Long, Integer> iterated = new HashMap<>();
+		map.forEach((key, value) -> Assert.assertNull(iterated.put(key, value)));
+		Assert.assertEquals(expected, iterated);
+	}
+
+	@Test
+	public void testCapacityFor() {
+		Assert.assertEquals(16, LongIntHashMap.capacityFor(0));
+		Assert.assertEquals(16, LongIntHashMap.capacityFor(9));
+		Assert.assertEquals(32, LongIntHashMap.capacityFor(10));
+		Assert.assertEquals(1 << 20, LongIntHashMap.capacityFor(600_000));
+
+		// Clamped rather than overflowing past the largest array size
+		Assert.assertEquals(1 << 30, LongIntHashMap.capacityFor(1 << 29));
+		Assert.assertEquals(1 << 30, LongIntHashMap.capacityFor(1 << 30));
+		Assert.assertEquals(1 << 30, LongIntHashMap.capacityFor(Integer.MAX_VALUE));
+	}
+}
@@ -0,0 +1,88 @@
+package com.story_inspector.analysis.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils;
+
+import junit.framework.Assert;
+
+public class PhraseAutomatonTest {
+
+	@Test
+	public void testOverlappingMatches() {
+		// "a beat", "a beat later", "beat" and "later on"
+		final PhraseAutomaton automaton = new PhraseAutomaton(Arrays.asList(new int[] { 1, 2 }, new int[] { 1, 2, 3 }, new int[] { 2 },
+				new int[] { 3, 4 }));
+		final List<String> matches = scan(automaton, new int[] { 0, 1, 2, 3, 4, 1, 1, 2 });
+		Assert.assertEquals(Arrays.asList("0@2", "2@2", "1@3", "3@4", "0@7", "2@7"), matches);
+	}
+
+	@Test
+	public void testBreaks() {
+		final PhraseAutomaton automaton = new PhraseAutomaton(Arrays.asList(new int[] { 1, 2 }, new int[] { 2 }));
+		final List<String> matches = scan(automaton, new int[] { 1, PhraseAutomaton.BREAK, 2, 1, 2 });
+		Assert.assertEquals(Arrays.asList("1@2", "0@4", "1@4"), matches);
+	}
+
+	@Test
+	public void testDuplicatePhrases() {
+		final PhraseAutomaton automaton = new PhraseAutomaton(Arrays.asList(new int[] { 5, 6 }, new int[] { 5, 6 }));
+		Assert.assertEquals(Collections.singletonList("0@1"), scan(automaton, new int[] { 5, 6 }));
+	}
+
+	@Test
+	public void testMatchesNaiveSearch() {
+		final Random random = new Random(1);
+		final List<int[]> phrases = new ArrayList<>();
+		for (int i = 0; i < 200; ++i) {
+			final int[] phrase = new int[1 + random.nextInt(4)];
+			for (int j = 0; j < phrase.length; ++j)
+				phrase[j] = random.nextInt(6);
+			phrases.add(phrase);
+		}
+		final int[] symbols = new int[2000];
+		for (int i = 0; i < symbols.length; ++i)
+			symbols[i] = random.nextInt(7) - 1;
+
+		final List<String> expected = new ArrayList<>();
+		for (int end = 0; end < symbols.length; ++end) {
+			for (int phraseIndex = 0; phraseIndex < phrases.size(); ++phraseIndex) {
+				final int[] phrase = phrases.get(phraseIndex);
+				final int start = end - phrase.length + 1;
+				if (start >= 0 && Arrays.equals(phrase, Arrays.copyOfRange(symbols, start, end + 1)) && isFirstOccurrence(phrases, phraseIndex))
+					expected.add(phraseIndex + "@" + end);
+			}
+		}
+		final List<String> actual = scan(new PhraseAutomaton(phrases), symbols);
+		Collections.sort(expected);
+		Collections.sort(actual);
+		Assert.assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testFailedConstructions() {
+		AnalysisTestUtils.testFailedConstruction(() -> new PhraseAutomaton(null));
+		AnalysisTestUtils.testFailedConstruction(() -> new PhraseAutomaton(Collections.singletonList(new int[0])));
+		AnalysisTestUtils.testFailedConstruction(() -> new PhraseAutomaton(Collections.singletonList(new int[] { 1, -1 })));
+	}
+
+	private static boolean isFirstOccurrence(final List<int[]> phrases, final int phraseIndex) {
+		for (int i = 0; i < phraseIndex; ++i) {
+			if (Arrays.equals(phrases.get(i), phrases.get(phraseIndex)))
+				return false;
+		}
+		return true;
+	}
+
+	private static List<String> scan(final PhraseAutomaton automaton, final int[] symbols) {
+		final List<String> matches = new ArrayList<>();
+		automaton.scan(symbols, symbols.length, (phraseIndex, endPosition) -> matches.add(phraseIndex + "@" + endPosition));
+		return matches;
+	}
+}
@@ -0,0 +1,54 @@
+package com.story_inspector.analysis.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils;
+
+import junit.framework.Assert;
+
+public class SequencePatternAutomatonTest {
+
+	// Symbols 0-3 stand for tags VBD, VBZ, VBN, RB. Element 0 matches VBD or VBZ, element 1 matches VBN, element 2 matches RB.
+	private static final BitSet[] SYMBOL_ELEMENTS = { bits(0), bits(0), bits(1), bits(2) };
+
+	@Test
+	public void testScan() {
+		final SequencePatternAutomaton automaton = new SequencePatternAutomaton(new int[][] { { 0, 1 }, { 2 }, { 0, 2, 1 } }, s -> SYMBOL_ELEMENTS[s]);
+		final List<String> matches = new ArrayList<>();
+		final int[] symbols = { 0, 2, 3, 1, 3, 2, 1, PhraseAutomaton.BREAK, 2 };
+		automaton.scan(symbols, symbols.length, (patternIndex, endPosition) -> matches.add(patternIndex + "@" + endPosition));
+		Assert.assertEquals(Arrays.asList("0@1", "1@2", "1@4", "2@5"), matches);
+	}
+
+	@Test
+	public void testStep() {
+		final SequencePatternAutomaton automaton = new SequencePatternAutomaton(new int[][] { { 0, 1 } }, s -> SYMBOL_ELEMENTS[s]);
+		final List<Integer> ends = new ArrayList<>();
+		int state = SequencePatternAutomaton.INITIAL_STATE;
+		for (final int symbol : new int[] { 1, 2, 2, 0 })
+			state = automaton.step(state, symbol, ends.size(), (patternIndex, endPosition) -> ends.add(endPosition));
+		Assert.assertEquals(Collections.singletonList(0), ends);
+		Assert.assertEquals(2, automaton.getPatternLength(0));
+		Assert.assertEquals(1, automaton.getNumPatterns());
+	}
+
+	@Test
+	public void testFailedConstructions() {
+		AnalysisTestUtils.testFailedConstruction(() -> new SequencePatternAutomaton(null, s -> new BitSet()));
+		AnalysisTestUtils.testFailedConstruction(() -> new SequencePatternAutomaton(new int[][] { {} }, s -> new BitSet()));
+		AnalysisTestUtils.testFailedConstruction(() -> new SequencePatternAutomaton(new int[][] { { 0 } }, null));
+	}
+
+	private static BitSet bits(final int... indices) {
+		final BitSet result = new BitSet();
+		for (final int index : indices)
+			result.set(index);
+		return result;
+	}
+}
@@ -0,0 +1,71 @@
+package com.story_inspector.analysis.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils;
+
+import junit.framework.Assert;
+
+public class TokenPatternAutomatonTest {
+
+	@Test
+	public void testWildcards() {
+		final WildcardSet wildcards = new WildcardSet(Arrays.asList("*ly", "wh?", "*", "a*b*c", "éclair"));
+		Assert.assertEquals(bits(0, 2), wildcards.getMatchingPatterns(wildcards.classify("Quickly")));
+		Assert.assertEquals(bits(1, 2), wildcards.getMatchingPatterns(wildcards.classify("who")));
+		Assert.assertEquals(bits(2), wildcards.getMatchingPatterns(wildcards.classify("whom")));
+		Assert.assertEquals(bits(2, 3), wildcards.getMatchingPatterns(wildcards.classify("abc")));
+		Assert.assertEquals(bits(2, 3), wildcards.getMatchingPatterns(wildcards.classify("AxxBxxbC")));
+		Assert.assertEquals(bits(2), wildcards.getMatchingPatterns(wildcards.classify("acb")));
+		Assert.assertEquals(bits(2, 4), wildcards.getMatchingPatterns(wildcards.classify("Éclair")));
+		Assert.assertEquals(wildcards.classify("happily"), wildcards.classify("ly"));
+	}
+
+	@Test
+	public void testPatterns() {
+		final TokenPatternAutomaton automaton = new TokenPatternAutomaton(Arrays.asList("*ly", "was *ing", "began to *", "to"));
+		final List<String> matches = scan(automaton, "she was slowly walking but was running and began to to run");
+		// slowly(2), was running(5-6), to(9), began to to(8-10), to(10)
+		Assert.assertEquals(Arrays.asList("0@2", "1@6", "3@9", "2@10", "3@10"), matches);
+	}
+
+	@Test
+	public void testBreaks() {
+		final TokenPatternAutomaton automaton = new TokenPatternAutomaton(Collections.singletonList("was *ing"));
+		final int[] symbols = new int[] { automaton.classify("was"), PhraseAutomaton.BREAK, automaton.classify("walking"), automaton.classify("was"),
+				automaton.classify("walking") };
+		final List<String> matches = new ArrayList<>();
+		automaton.scan(symbols, symbols.length, (patternIndex, endPosition) -> matches.add(patternIndex + "@" + endPosition));
+		Assert.assertEquals(Collections.singletonList("0@4"), matches);
+	}
+
+	@Test
+	public void testFailedConstructions() {
+		AnalysisTestUtils.testFailedConstruction(() -> new TokenPatternAutomaton(null));
+		AnalysisTestUtils.testFailedConstruction(() -> new TokenPatternAutomaton(Collections.singletonList(" ")));
+		AnalysisTestUtils.testFailedConstruction(() -> new WildcardSet(Collections.singletonList("")));
+	}
+
+	private static BitSet bits(final int... indices) {
+		final BitSet result = new BitSet();
+		for (final int index : indices)
+			result.set(index);
+		return result;
+	}
+
+	private static List<String> scan(final TokenPatternAutomaton automaton, final String text) {
+		final String[] words = text.split(" ");
+		final int[] symbols = new int[words.length];
+		for (int i = 0; i < words.length; ++i)
+			symbols[i] = automaton.classify(words[i]);
+		final List<String> matches = new ArrayList<>();
+		automaton.scan(symbols, symbols.length, (patternIndex, endPosition) -> matches.add(patternIndex + "@" + endPosition));
+		return matches;
+	}
+}
@@ -0,0 +1,68 @@
+package com.story_inspector.analysis.series;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils;
+
+import junit.framework.Assert;
+
+public class BookVocabularyTest {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		final BookVocabulary book = new BookVocabulary("Book One", new String[] { "gray", "grayson", "zebra", "éowyn" }, new int[] { 3, 200, 2, 1 },
+				new int[] { 0, 15, 7, 100000 }, new int[] { 0, 200, 0, 1 });
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		book.write(out);
+		final BookVocabulary read = BookVocabulary.read(new ByteArrayInputStream(out.toByteArray()));
+
+		Assert.assertEquals("Book One", read.getTitle());
+		Assert.assertEquals(4, read.size());
+		Assert.assertEquals("grayson", read.getTerm(1));
+		Assert.assertEquals("éowyn", read.getTerm(3));
+		Assert.assertEquals(200, read.getFrequency(1));
+		Assert.assertEquals(100000, read.getFirstPosition(3));
+		Assert.assertTrue(read.isName(1));
+		Assert.assertFalse(read.isName(0));
+		Assert.assertEquals(2, read.indexOf("zebra"));
+		Assert.assertTrue(read.indexOf("grey") < 0);
+	}
+
+	@Test
+	public void testMerge() {
+		final BookVocabulary first = new BookVocabulary("One", new String[] { "anna", "gray" }, new int[] { 5, 1 }, new int[] { 10, 20 },
+				new int[] { 5, 0 });
+		final BookVocabulary second = new BookVocabulary("Two", new String[] { "bran", "gray" }, new int[] { 2, 4 }, new int[] { 30, 40 },
+				new int[] { 2, 0 });
+		final BookVocabulary merged = BookVocabulary.merge("Series", Arrays.asList(first, second));
+
+		Assert.assertEquals(3, merged.size());
+		Assert.assertEquals("bran", merged.getTerm(1));
+		Assert.assertEquals(5, merged.getFrequency(merged.indexOf("gray")));
+		Assert.assertEquals(20, merged.getFirstPosition(merged.indexOf("gray")));
+		Assert.assertTrue(merged.isName(merged.indexOf("anna")));
+		Assert.assertEquals(0, BookVocabulary.merge("Empty", Arrays.asList()).size());
+	}
+
+	@Test
+	public void testCorruptInput() {
+		try {
+			BookVocabulary.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5 }));
+			Assert.fail("Expected IOException");
+		} catch (final IOException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void testFailedConstructions() {
+		AnalysisTestUtils.testFailedConstruction(() -> new BookVocabulary("Unsorted", new String[] { "b", "a" }, new int[2], new int[2], new int[2]));
+		AnalysisTestUtils.testFailedConstruction(() -> new BookVocabulary("Mismatched", new String[] { "a" }, new int[2], new int[1], new int[1]));
+		AnalysisTestUtils.testFailedConstruction(() -> new BookVocabulary(null, new String[0], new int[0], new int[0], new int[0]));
+	}
+}
@@ -0,0 +1,96 @@
+package com.story_inspector.analysis.series;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+public class SeriesVocabularyIndexTest {
+
+	private Path root;
+
+	@Before
+	public void createRoot() throws IOException {
+		this.root = Files.createTempDirectory("series-index");
+	}
+
+	@After
+	public void deleteRoot() throws IOException {
+		try (Stream<Path> paths = Files.walk(this.root)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	private static BookVocabulary createBook(final String title, final String term, final int frequency) {
+		return new BookVocabulary(title, new String[] { term }, new int[] { frequency }, new int[] { 0 }, new int[] { frequency });
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		final SeriesVocabularyIndex index = SeriesVocabularyIndex.forSeries(this.root, "The Series");
+		final BookVocabulary first = createBook("Book One", "anna", 3);
+		final BookVocabulary second = createBook("Book Two", "bran", 2);
+		Assert.assertTrue(index.readOtherBooks(first).isEmpty());
+
+		index.writeBook(first);
+		index.writeBook(second);
+
+		// Read back through a new instance, leaving out the book being compared
+		final List<BookVocabulary> others = SeriesVocabularyIndex.forSeries(this.root, "The Series").readOtherBooks(first);
+		Assert.assertEquals(1, others.size());
+		Assert.assertEquals("Book Two", others.get(0).getTitle());
+		Assert.assertEquals("bran", others.get(0).getTerm(0));
+		Assert.assertEquals(2, others.get(0).getFrequency(0));
+		Assert.assertEquals(2, index.readOtherBooks(createBook("Book Three", "cat", 1)).size());
+
+		// Other series are kept apart
+		Assert.assertTrue(SeriesVocabularyIndex.forSeries(this.root, "Another Series").readOtherBooks(first).isEmpty());
+	}
+
+	@Test
+	public void testReplaceBook() throws IOException {
+		final SeriesVocabularyIndex index = SeriesVocabularyIndex.forSeries(this.root, "The Series");
+		index.writeBook(createBook("Book One", "anna", 3));
+		index.writeBook(createBook("book one ", "anna", 5));
+
+		final List<BookVocabulary> books = index.readOtherBooks(createBook("Book Two", "bran", 2));
+		Assert.assertEquals(1, books.size());
+		Assert.assertEquals(5, books.get(0).getFrequency(0));
+	}
+
+	@Test
+	public void testTitlesThatSanitizeTheSame() throws IOException {
+		final SeriesVocabularyIndex index = SeriesVocabularyIndex.forSeries(this.root, "The Series");
+		index.writeBook(createBook("Part 1", "anna", 3));
+		index.writeBook(createBook("Part-1?", "bran", 2));
+
+		Assert.assertEquals(2, index.readOtherBooks(createBook("Book Two", "cat", 1)).size());
+	}
+
+	@Test
+	public void testUntitledBooks() throws IOException {
+		final SeriesVocabularyIndex index = SeriesVocabularyIndex.forSeries(this.root, "The Series");
+		Assert.assertFalse(SeriesVocabularyIndex.canIndex(createBook("", "anna", 3)));
+		Assert.assertFalse(SeriesVocabularyIndex.canIndex(createBook(" ", "anna", 3)));
+		Assert.assertTrue(SeriesVocabularyIndex.canIndex(createBook("Book One", "anna", 3)));
+		try {
+			index.writeBook(createBook("", "anna", 3));
+			Assert.fail("Expected IllegalArgumentException");
+		} catch (final IllegalArgumentException e) {
+			// Expected
+		}
+
+		// Untitled books are compared against every book of the series
+		index.writeBook(createBook("Book One", "anna", 3));
+		index.writeBook(createBook("Book Two", "bran", 2));
+		Assert.assertEquals(2, index.readOtherBooks(createBook("", "anna", 3)).size());
+	}
+}
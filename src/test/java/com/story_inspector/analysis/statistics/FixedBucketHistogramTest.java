@@ -0,0 +1,34 @@
+package com.story_inspector.analysis.statistics;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils;
+
+import junit.framework.Assert;
+
+public class FixedBucketHistogramTest {
+
+	@Test
+	public void testBuckets() {
+		final FixedBucketHistogram histogram = new FixedBucketHistogram(5, 6, 10);
+		for (final int value : new int[] { 0, 5, 6, 7, 10, 11, 100 })
+			histogram.add(value);
+
+		Assert.assertEquals(4, histogram.getNumBuckets());
+		Assert.assertEquals(2, histogram.getCount(0));
+		Assert.assertEquals(1, histogram.getCount(1));
+		Assert.assertEquals(2, histogram.getCount(2));
+		Assert.assertEquals(2, histogram.getCount(3));
+		Assert.assertEquals(7, histogram.getTotal());
+
+		Assert.assertEquals("up to 5", histogram.describeBucket(0));
+		Assert.assertEquals("6", histogram.describeBucket(1));
+		Assert.assertEquals("7-10", histogram.describeBucket(2));
+		Assert.assertEquals("11+", histogram.describeBucket(3));
+	}
+
+	@Test
+	public void testFailedConstructions() {
+		AnalysisTestUtils.testFailedConstruction(() -> new FixedBucketHistogram(5, 5));
+	}
+}
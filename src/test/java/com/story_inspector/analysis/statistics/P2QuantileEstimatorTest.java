@@ -0,0 +1,47 @@
+package com.story_inspector.analysis.statistics;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils;
+
+import junit.framework.Assert;
+
+public class P2QuantileEstimatorTest {
+
+	@Test
+	public void testFewValuesAreExact() {
+		final P2QuantileEstimator median = new P2QuantileEstimator(0.5);
+		Assert.assertTrue(Double.isNaN(median.getEstimate()));
+		median.add(7);
+		median.add(1);
+		median.add(3);
+		Assert.assertEquals(3.0, median.getEstimate());
+	}
+
+	@Test
+	public void testEstimatesCloseToExact() {
+		final Random random = new Random(1);
+		final double[] values = new double[100000];
+		final P2QuantileEstimator median = new P2QuantileEstimator(0.5);
+		final P2QuantileEstimator ninetieth = new P2QuantileEstimator(0.9);
+		for (int i = 0; i < values.length; ++i) {
+			// Skewed, like sentence lengths
+			values[i] = Math.exp(random.nextGaussian() * 0.5 + 2.5);
+			median.add(values[i]);
+			ninetieth.add(values[i]);
+		}
+		Arrays.sort(values);
+		Assert.assertEquals(values.length, median.getCount());
+		Assert.assertEquals(values[values.length / 2], median.getEstimate(), 0.01 * values[values.length / 2]);
+		Assert.assertEquals(values[(int) (values.length * 0.9)], ninetieth.getEstimate(), 0.01 * values[(int) (values.length * 0.9)]);
+	}
+
+	@Test
+	public void testFailedConstructions() {
+		AnalysisTestUtils.testFailedConstruction(() -> new P2QuantileEstimator(-0.1));
+		AnalysisTestUtils.testFailedConstruction(() -> new P2QuantileEstimator(1.1));
+	}
+}
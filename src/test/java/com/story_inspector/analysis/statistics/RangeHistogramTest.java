@@ -0,0 +1,65 @@
+package com.story_inspector.analysis.statistics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.story_inspector.story.TextRange;
+
+import junit.framework.Assert;
+
+public class RangeHistogramTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void testBinning() {
+		final int[] boundaries = { 0, 10, 20, 30, 40 };
+		// Within one bin, spanning two bins, covering whole bins, empty, and partly outside the boundaries
+		final double[] counts = RangeHistogram.bin(boundaries, Arrays.asList(new TextRange(2, 4), new TextRange(15, 25), new TextRange(5, 35),
+				new TextRange(20, 20), new TextRange(38, 48)));
+		Assert.assertEquals(1 + 5 / 30.0, counts[0], DELTA);
+		Assert.assertEquals(0.5 + 1, counts[1], DELTA);
+		Assert.assertEquals(0.5 + 1 + 1, counts[2], DELTA);
+		Assert.assertEquals(5 / 30.0 + 1, counts[3], DELTA);
+	}
+
+	@Test
+	public void testBinAlignedRanges() {
+		final double[] counts = RangeHistogram.bin(new int[] { 0, 10, 10, 20, 30 }, Collections.singletonList(new TextRange(0, 20)));
+		Assert.assertTrue(Arrays.equals(new double[] { 1, 1, 1, 0 }, counts));
+	}
+
+	@Test
+	public void testBinSeries() {
+		final int[] boundaries = { 0, 10, 10, 20, 30, 40 };
+		final List<List<TextRange>> series = Arrays.asList(
+				Arrays.asList(new TextRange(38, 48), new TextRange(2, 4), new TextRange(15, 25), new TextRange(20, 20)),
+				Arrays.asList(new TextRange(5, 35), new TextRange(0, 20)), Collections.emptyList());
+		final double[][] counts = RangeHistogram.binSeries(boundaries, series);
+		Assert.assertEquals(3, counts.length);
+		// Each series is binned as if on its own
+		for (int s = 0; s < series.size(); ++s)
+			Assert.assertTrue(Arrays.equals(RangeHistogram.bin(boundaries, series.get(s)), counts[s]));
+		Assert.assertTrue(Arrays.equals(new double[] { 1, 0, 0.5, 1.5, 1 }, counts[0]));
+		Assert.assertTrue(Arrays.equals(new double[] { 0, 0, 0, 0, 0 }, counts[2]));
+	}
+
+	@Test
+	public void testInvalidBoundaries() {
+		try {
+			RangeHistogram.bin(new int[] { 0 }, Collections.emptyList());
+			Assert.fail("Expected IllegalArgumentException");
+		} catch (final IllegalArgumentException e) {
+			// Expected
+		}
+		try {
+			RangeHistogram.bin(new int[] { 10, 0 }, Collections.emptyList());
+			Assert.fail("Expected IllegalArgumentException");
+		} catch (final IllegalArgumentException e) {
+			// Expected
+		}
+	}
+}
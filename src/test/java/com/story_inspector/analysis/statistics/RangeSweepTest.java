@@ -0,0 +1,64 @@
+package com.story_inspector.analysis.statistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import com.story_inspector.story.TextNode;
+import com.story_inspector.story.TextRange;
+
+import junit.framework.Assert;
+
+public class RangeSweepTest {
+
+	@Test
+	public void testCounts() {
+		final List<TextNode> nodes = createNodes(new TextRange(0, 10), new TextRange(10, 20), new TextRange(25, 25), new TextRange(25, 30));
+		final List<TextRange> ranges = Arrays.asList(new TextRange(2, 4), new TextRange(8, 12), new TextRange(10, 10), new TextRange(21, 26),
+				new TextRange(5, 28));
+		Assert.assertTrue(Arrays.equals(new int[] { 3, 3, 2, 2 }, new RangeSweep(ranges).countPerNode(nodes)));
+		Assert.assertTrue(Arrays.equals(new int[] { 0, 0, 0, 0 }, new RangeSweep(Collections.emptyList()).countPerNode(nodes)));
+	}
+
+	@Test
+	public void testMatchesIntersects() {
+		final Random random = new Random(42);
+		final List<TextNode> nodes = new ArrayList<>();
+		int position = 0;
+		for (int i = 0; i < 200; ++i) {
+			final int length = random.nextInt(20);
+			nodes.add(createNode(new TextRange(position, position + length)));
+			position += length + random.nextInt(3);
+		}
+		final List<TextRange> ranges = new ArrayList<>();
+		for (int i = 0; i < 500; ++i) {
+			final int start = random.nextInt(position);
+			ranges.add(new TextRange(start, start + random.nextInt(random.nextBoolean() ? 5 : 60)));
+		}
+
+		final int[] counts = new RangeSweep(ranges).countPerNode(nodes);
+		for (int n = 0; n < nodes.size(); ++n) {
+			final TextRange nodeRange = nodes.get(n).getRange();
+			Assert.assertEquals(ranges.stream().filter(nodeRange::intersects).count(), counts[n]);
+		}
+	}
+
+	private static List<TextNode> createNodes(final TextRange... ranges) {
+		final List<TextNode> nodes = new ArrayList<>();
+		for (final TextRange range : ranges)
+			nodes.add(createNode(range));
+		return nodes;
+	}
+
+	private static TextNode createNode(final TextRange range) {
+		final TextNode node = EasyMock.mock(TextNode.class);
+		EasyMock.expect(node.getRange()).andReturn(range).anyTimes();
+		EasyMock.replay(node);
+		return node;
+	}
+}
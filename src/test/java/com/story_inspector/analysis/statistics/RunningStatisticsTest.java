@@ -0,0 +1,34 @@
+package com.story_inspector.analysis.statistics;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+public class RunningStatisticsTest {
+
+	@Test
+	public void testStatistics() {
+		final RunningStatistics statistics = new RunningStatistics();
+		Assert.assertTrue(Double.isNaN(statistics.getMean()));
+		Assert.assertTrue(Double.isNaN(statistics.getVariance()));
+
+		for (final double value : new double[] { 2, 4, 4, 4, 5, 5, 7, 9 })
+			statistics.add(value);
+		Assert.assertEquals(8, statistics.getCount());
+		Assert.assertEquals(5.0, statistics.getMean(), 1e-12);
+		Assert.assertEquals(4.0, statistics.getVariance(), 1e-12);
+		Assert.assertEquals(2.0, statistics.getStandardDeviation(), 1e-12);
+		Assert.assertEquals(2.0, statistics.getMin());
+		Assert.assertEquals(9.0, statistics.getMax());
+	}
+
+	@Test
+	public void testPrecisionWithLargeOffset() {
+		// Summing squares would lose all precision here
+		final RunningStatistics statistics = new RunningStatistics();
+		for (int i = 0; i < 1000; ++i)
+			statistics.add(1e9 + (i % 2 == 0 ? 1 : -1));
+		Assert.assertEquals(1e9, statistics.getMean(), 1e-6);
+		Assert.assertEquals(1.0, statistics.getVariance(), 1e-6);
+	}
+}
@@ -0,0 +1,80 @@
+package com.story_inspector.analysis.summary;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils;
+
+import junit.framework.Assert;
+
+public class AnalyzerSummaryTableTest {
+
+	/**
+	 * Writes the table to a mock writer expecting the provided column headers and rows, in order.
+	 */
+	private static void assertWrites(final AnalyzerSummaryTable table, final List<String> columnHeaders, final List<List<String>> rows) {
+		final SummaryTableWriter tableWriter = EasyMock.createStrictMock(SummaryTableWriter.class);
+		for (final List<String> row : rows)
+			tableWriter.writeRow(row);
+		tableWriter.endTable();
+		final ReportSummaryWriter writer = EasyMock.createStrictMock(ReportSummaryWriter.class);
+		EasyMock.expect(writer.startTable(columnHeaders)).andReturn(tableWriter);
+		EasyMock.replay(tableWriter, writer);
+
+		table.write(writer);
+		EasyMock.verify(tableWriter, writer);
+	}
+
+	@Test
+	public void testGeneratedRows() {
+		final int[] counts = { 3, 1, 4 };
+		final AtomicInteger numGenerated = new AtomicInteger();
+		final AnalyzerSummaryTable table = new AnalyzerSummaryTable(Arrays.asList("Row", "Count"), counts.length, row -> {
+			numGenerated.incrementAndGet();
+			return Arrays.asList(String.valueOf(row + 1), String.valueOf(counts[row]));
+		});
+
+		// Rows are only generated as the table is written
+		Assert.assertEquals(0, numGenerated.get());
+		Assert.assertEquals(3, table.getNumRows());
+		assertWrites(table, Arrays.asList("Row", "Count"),
+				Arrays.asList(Arrays.asList("1", "3"), Arrays.asList("2", "1"), Arrays.asList("3", "4")));
+		Assert.assertEquals(3, numGenerated.get());
+		Assert.assertEquals(Arrays.asList("2", "1"), table.getRow(1));
+	}
+
+	@Test
+	public void testArrayData() {
+		final String[][] data = { { "a", "b" }, { "c", "d" } };
+		assertWrites(new AnalyzerSummaryTable(Arrays.asList("First", "Second"), Arrays.asList("X", "Y"), data), Arrays.asList("", "X", "Y"),
+				Arrays.asList(Arrays.asList("First", "a", "b"), Arrays.asList("Second", "c", "d")));
+		assertWrites(new AnalyzerSummaryTable(null, null, data), Arrays.asList("", ""),
+				Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d")));
+	}
+
+	@Test
+	public void testRowWidthValidation() {
+		final AnalyzerSummaryTable table = new AnalyzerSummaryTable(Arrays.asList("One", "Two"), 2,
+				row -> row == 0 ? Arrays.asList("a", "b") : Arrays.asList("c"));
+		Assert.assertEquals(Arrays.asList("a", "b"), table.getRow(0));
+		AnalysisTestUtils.testFailedConstruction(() -> table.getRow(1));
+		AnalysisTestUtils.testFailedConstruction(() -> table.getRow(2));
+		AnalysisTestUtils.testFailedConstruction(() -> table.getRow(-1));
+	}
+
+	@Test
+	public void testFailedConstructions() {
+		final String[][] data = { { "a", "b" }, { "c", "d" } };
+		AnalysisTestUtils.testFailedConstruction(() -> new AnalyzerSummaryTable(Arrays.asList(), 1, row -> Arrays.asList()));
+		AnalysisTestUtils.testFailedConstruction(() -> new AnalyzerSummaryTable(Arrays.asList("One"), -1, row -> Arrays.asList("a")));
+		AnalysisTestUtils.testFailedConstruction(() -> new AnalyzerSummaryTable(Arrays.asList("One"), 1, null));
+		AnalysisTestUtils.testFailedConstruction(() -> new AnalyzerSummaryTable(Arrays.asList("First"), null, data));
+		AnalysisTestUtils.testFailedConstruction(() -> new AnalyzerSummaryTable(null, Arrays.asList("X", "Y", "Z"), data));
+		AnalysisTestUtils.testFailedConstruction(() -> new AnalyzerSummaryTable(null, null, new String[][] { { "a", "b" }, { "c" } }));
+		AnalysisTestUtils.testFailedConstruction(() -> new AnalyzerSummaryTable(null, null, new String[0][]));
+	}
+}
@@ -0,0 +1,68 @@
+package com.story_inspector.analysis.summary;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import com.story_inspector.analysis.summary.charts.Chart;
+import com.story_inspector.analysis.summary.charts.ChartSeries;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.TextRange;
+
+import junit.framework.Assert;
+
+public class ComparativeHeatMapSummaryComponentTest {
+
+	@Test
+	public void testSeriesPerEntity() {
+		final Story story = EasyMock.mock(Story.class);
+		EasyMock.expect(story.getRange()).andReturn(new TextRange(0, 100)).anyTimes();
+		EasyMock.replay(story);
+
+		final Map<String, List<TextRange>> matchesByTerm = new LinkedHashMap<>();
+		matchesByTerm.put("just", Arrays.asList(new TextRange(91, 95), new TextRange(10, 12), new TextRange(12, 14)));
+		matchesByTerm.put("very", Arrays.asList(new TextRange(55, 65)));
+		matchesByTerm.put("really", Collections.emptyList());
+		final List<AnalyzerSummaryComponent> summary = SummaryGenerators.generateComparativeFrequencySummary(story, matchesByTerm,
+				HeatMapResolution.fixedBins(10));
+		Assert.assertEquals(2, summary.size());
+
+		final Capture<Chart> chart = Capture.newInstance();
+		final ReportSummaryWriter writer = EasyMock.mock(ReportSummaryWriter.class);
+		writer.writeChart(EasyMock.capture(chart));
+		EasyMock.replay(writer);
+		summary.get(1).write(writer);
+		EasyMock.verify(writer);
+
+		// One series per term, in order, over the same bins
+		final List<ChartSeries> series = chart.getValue().getSeries();
+		Assert.assertEquals(3, series.size());
+		Assert.assertEquals("just", series.get(0).getName());
+		Assert.assertEquals("very", series.get(1).getName());
+		Assert.assertEquals("really", series.get(2).getName());
+		Assert.assertEquals(10, series.get(1).size());
+		Assert.assertEquals(2.0, series.get(0).getY(1), 1e-9);
+		Assert.assertEquals(1.0, series.get(0).getY(9), 1e-9);
+		Assert.assertEquals(0.5, series.get(1).getY(5), 1e-9);
+		Assert.assertEquals(0.5, series.get(1).getY(6), 1e-9);
+		Assert.assertEquals(0.0, series.get(2).getMaxY(), 1e-9);
+	}
+
+	@Test
+	public void testMismatchedNames() {
+		final Story story = EasyMock.mock(Story.class);
+		try {
+			new ComparativeHeatMapSummaryComponent(story, Arrays.asList("just", "very"), Collections.singletonList(Collections.emptyList()),
+					HeatMapResolution.DEFAULT);
+			Assert.fail("Expected IllegalArgumentException");
+		} catch (final IllegalArgumentException e) {
+			// Expected
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.story_inspector.analysis.summary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils;
+import com.story_inspector.story.ChapterImpl;
+import com.story_inspector.story.ParagraphImpl;
+import com.story_inspector.story.SceneImpl;
+import com.story_inspector.story.SentenceImpl;
+import com.story_inspector.story.StoryImpl;
+import com.story_inspector.story.TextRange;
+import com.story_inspector.story.TokenImpl;
+
+import junit.framework.Assert;
+
+public class HeatMapResolutionTest {
+
+	private StoryImpl story;
+
+	/**
+	 * Two chapters, "one two three " and "four five", each token covering its word and the following space.
+	 */
+	@Before
+	public void initializeStory() {
+		final String text = "one two three four five";
+		final List<TokenImpl> tokens = new ArrayList<>();
+		for (final TextRange range : Arrays.asList(new TextRange(0, 4), new TextRange(4, 8), new TextRange(8, 14), new TextRange(14, 19),
+				new TextRange(19, 23))) {
+			final String word = range.getCoveredText(text).trim();
+			tokens.add(new TokenImpl(range, range.getCoveredText(text), "NN", word, false, false, false, false));
+		}
+		this.story = new StoryImpl(text, "Story",
+				Arrays.asList(createChapter(new TextRange(0, 14), tokens.subList(0, 3)), createChapter(new TextRange(14, 23), tokens.subList(3, 5))));
+	}
+
+	private static ChapterImpl createChapter(final TextRange range, final List<TokenImpl> tokens) {
+		final SentenceImpl sentence = new SentenceImpl(range, tokens);
+		final ParagraphImpl paragraph = new ParagraphImpl(range, Arrays.asList(sentence));
+		return new ChapterImpl(range, Arrays.asList(new SceneImpl(range, Arrays.asList(paragraph))), "Chapter");
+	}
+
+	@Test
+	public void testFixedBins() {
+		Assert.assertTrue(Arrays.equals(new int[] { 0, 12, 23 }, HeatMapResolution.fixedBins(2).computeBoundaries(this.story)));
+		Assert.assertEquals(21, HeatMapResolution.DEFAULT.computeBoundaries(this.story).length);
+	}
+
+	@Test
+	public void testPerChapter() {
+		Assert.assertTrue(Arrays.equals(new int[] { 0, 14, 23 }, HeatMapResolution.perChapter().computeBoundaries(this.story)));
+	}
+
+	@Test
+	public void testPerWords() {
+		// The last bin holds the remaining word
+		Assert.assertTrue(Arrays.equals(new int[] { 0, 8, 19, 23 }, HeatMapResolution.perWords(2).computeBoundaries(this.story)));
+		Assert.assertTrue(Arrays.equals(new int[] { 0, 23 }, HeatMapResolution.perWords(10).computeBoundaries(this.story)));
+	}
+
+	@Test
+	public void testFailedConstructions() {
+		AnalysisTestUtils.testFailedConstruction(() -> HeatMapResolution.fixedBins(0));
+		AnalysisTestUtils.testFailedConstruction(() -> HeatMapResolution.fixedBins(HeatMapResolution.MAX_BINS + 1));
+		AnalysisTestUtils.testFailedConstruction(() -> HeatMapResolution.perWords(0));
+	}
+}
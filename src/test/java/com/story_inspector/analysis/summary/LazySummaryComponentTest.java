@@ -0,0 +1,75 @@
+package com.story_inspector.analysis.summary;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import com.story_inspector.analysis.summary.charts.Chart;
+import com.story_inspector.analysis.summary.charts.ChartSeries;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.TextRange;
+
+import junit.framework.Assert;
+
+public class LazySummaryComponentTest {
+
+	@Test
+	public void testComputedOnceOnFirstWrite() {
+		final AtomicInteger numComputations = new AtomicInteger();
+		final LazySummaryComponent<String> component = new LazySummaryComponent<String>() {
+			@Override
+			protected String computeContent() {
+				return "Computation " + numComputations.incrementAndGet();
+			}
+
+			@Override
+			protected void write(final ReportSummaryWriter writer, final String content) {
+				writer.writeText(content);
+			}
+		};
+		Assert.assertFalse(component.isComputed());
+		Assert.assertEquals(0, numComputations.get());
+
+		final ReportSummaryWriter writer = EasyMock.mock(ReportSummaryWriter.class);
+		writer.writeText("Computation 1");
+		EasyMock.expectLastCall().times(2);
+		EasyMock.replay(writer);
+
+		component.write(writer);
+		component.write(writer);
+		Assert.assertTrue(component.isComputed());
+		Assert.assertEquals(1, numComputations.get());
+		EasyMock.verify(writer);
+	}
+
+	@Test
+	public void testHeatMapReusesChart() {
+		final Story story = EasyMock.mock(Story.class);
+		EasyMock.expect(story.getRange()).andReturn(new TextRange(0, 100)).anyTimes();
+		EasyMock.replay(story);
+
+		final HeatMapSummaryComponent heatMap = new HeatMapSummaryComponent(story, Arrays.asList(new TextRange(10, 12), new TextRange(55, 90)),
+				HeatMapResolution.fixedBins(10));
+		Assert.assertFalse(heatMap.isComputed());
+
+		final Capture<Chart> charts = Capture.newInstance(CaptureType.ALL);
+		final ReportSummaryWriter writer = EasyMock.niceMock(ReportSummaryWriter.class);
+		writer.writeChart(EasyMock.capture(charts));
+		EasyMock.expectLastCall().times(2);
+		EasyMock.replay(writer);
+
+		heatMap.write(writer);
+		heatMap.write(writer);
+		Assert.assertEquals(2, charts.getValues().size());
+		Assert.assertSame(charts.getValues().get(0), charts.getValues().get(1));
+		final ChartSeries series = charts.getValues().get(0).getSeries().get(0);
+		Assert.assertEquals(10, series.size());
+		Assert.assertEquals(1.0, series.getY(1), 1e-9);
+		Assert.assertEquals(5 / 35.0, series.getY(5), 1e-9);
+		Assert.assertEquals(1.0, series.getY(6), 1e-9);
+	}
+}
@@ -0,0 +1,117 @@
+package com.story_inspector.analysis.summary.charts;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+public class ChartImageCacheTest {
+
+	/**
+	 * Renderer that counts the charts it draws.
+	 */
+	private static class CountingRenderer implements ChartRenderer {
+		private final AtomicInteger numRendered = new AtomicInteger();
+
+		@Override
+		public BufferedImage render(final Chart chart) {
+			this.numRendered.incrementAndGet();
+			return new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_RGB);
+		}
+
+		@Override
+		public int getWidth() {
+			return 10;
+		}
+
+		@Override
+		public int getHeight() {
+			return 10;
+		}
+	}
+
+	private static Chart createChart(final double... yValues) {
+		final double[] xValues = new double[yValues.length];
+		for (int i = 0; i < xValues.length; ++i)
+			xValues[i] = i;
+		return new Chart("Heat Map", "X", "Y", 0, Math.max(0, xValues.length - 1), 1,
+				Collections.singletonList(new ChartSeries("Found", xValues, yValues)));
+	}
+
+	@Test
+	public void testMemoryCache() {
+		final CountingRenderer renderer = new CountingRenderer();
+		final ChartImageCache cache = new ChartImageCache(1024 * 1024, null, 0);
+
+		final byte[] png = cache.getPng(createChart(1, 2, 3), renderer);
+		Assert.assertSame(png, cache.getPng(createChart(1, 2, 3), renderer));
+		Assert.assertEquals(1, renderer.numRendered.get());
+
+		cache.getPng(createChart(1, 2, 4), renderer);
+		Assert.assertEquals(2, renderer.numRendered.get());
+		Assert.assertEquals(2, cache.getNumMemoryEntries());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEviction() {
+		final CountingRenderer renderer = new CountingRenderer();
+		final int pngSize = new ChartImageCache(1024, null, 0).getPng(createChart(1), renderer).length;
+		final ChartImageCache cache = new ChartImageCache(2 * pngSize, null, 0);
+
+		cache.getPng(createChart(1), renderer);
+		cache.getPng(createChart(2), renderer);
+		cache.getPng(createChart(1), renderer);
+		cache.getPng(createChart(3), renderer);
+		Assert.assertEquals(2, cache.getNumMemoryEntries());
+		renderer.numRendered.set(0);
+
+		// 2 was least recently used, so evicted
+		cache.getPng(createChart(1), renderer);
+		Assert.assertEquals(0, renderer.numRendered.get());
+		cache.getPng(createChart(2), renderer);
+		Assert.assertEquals(1, renderer.numRendered.get());
+	}
+
+	@Test
+	public void testDiskCache() throws Exception {
+		final Path directory = Files.createTempDirectory("chart-cache");
+		try {
+			final CountingRenderer renderer = new CountingRenderer();
+			final byte[] png = new ChartImageCache(0, directory, 10).getPng(createChart(1, 2), renderer);
+
+			final ChartImageCache reopened = new ChartImageCache(0, directory, 10);
+			Assert.assertTrue(Arrays.equals(png, reopened.getPng(createChart(1, 2), renderer)));
+			Assert.assertEquals(1, renderer.numRendered.get());
+
+			// Trimmed to the most recently used entries when created, and no temporary files are left behind
+			reopened.getPng(createChart(3), renderer);
+			new ChartImageCache(0, directory, 1);
+			try (Stream<Path> files = Files.list(directory)) {
+				Assert.assertEquals(1, files.count());
+			}
+		} finally {
+			try (Stream<Path> paths = Files.walk(directory)) {
+				paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+			}
+		}
+	}
+
+	@Test
+	public void testKeyCoversRenderSettings() {
+		final Chart chart = createChart(1, 2);
+		Assert.assertEquals(ChartImageCache.computeKey(chart, new Java2DChartRenderer()),
+				ChartImageCache.computeKey(createChart(1, 2), new Java2DChartRenderer()));
+		Assert.assertFalse(ChartImageCache.computeKey(chart, new Java2DChartRenderer())
+				.equals(ChartImageCache.computeKey(chart, new Java2DChartRenderer(800, 400))));
+		Assert.assertFalse(
+				ChartImageCache.computeKey(chart, new Java2DChartRenderer()).equals(ChartImageCache.computeKey(chart, new CountingRenderer())));
+	}
+}
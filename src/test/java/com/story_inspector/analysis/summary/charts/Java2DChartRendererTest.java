@@ -0,0 +1,43 @@
+package com.story_inspector.analysis.summary.charts;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+public class Java2DChartRendererTest {
+
+	@Test
+	public void testRender() {
+		final Chart chart = new Chart("Title", "X", "Y", 0, 90, 10,
+				Arrays.asList(new ChartSeries("A", new double[] { 0, 30, 60, 90 }, new double[] { 5, 5, 5, 5 }),
+						new ChartSeries("B", new double[] { 0, 90 }, new double[] { 0, 1 })));
+		final BufferedImage image = new Java2DChartRenderer(300, 200).render(chart);
+		Assert.assertEquals(300, image.getWidth());
+		Assert.assertEquals(200, image.getHeight());
+
+		// Corner is background, middle of the chart is under the area of series A
+		Assert.assertEquals(Color.WHITE.getRGB(), image.getRGB(0, 0));
+		Assert.assertFalse(Color.WHITE.getRGB() == image.getRGB(150, 150));
+	}
+
+	@Test
+	public void testRenderEmptySeries() {
+		final Chart chart = new Chart("Title", "X", "Y", 0, 0, 1, Collections.singletonList(new ChartSeries("A", new double[0], new double[0])));
+		Assert.assertNotNull(new Java2DChartRenderer().render(chart));
+	}
+
+	@Test
+	public void testNiceTickUnit() {
+		Assert.assertEquals(1.0, Java2DChartRenderer.niceTickUnit(0, 10));
+		Assert.assertEquals(1.0, Java2DChartRenderer.niceTickUnit(7.5, 10));
+		Assert.assertEquals(2.0, Java2DChartRenderer.niceTickUnit(15, 10));
+		Assert.assertEquals(5.0, Java2DChartRenderer.niceTickUnit(42, 10));
+		Assert.assertEquals(10.0, Java2DChartRenderer.niceTickUnit(100, 10));
+		Assert.assertEquals(200.0, Java2DChartRenderer.niceTickUnit(1234, 10));
+	}
+}
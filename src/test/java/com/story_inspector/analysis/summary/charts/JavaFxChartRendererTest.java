@@ -0,0 +1,30 @@
+package com.story_inspector.analysis.summary.charts;
+
+import org.junit.Test;
+
+import com.story_inspector.analysis.AnalysisTestUtils;
+
+import junit.framework.Assert;
+
+/**
+ * Rendering needs a running JavaFX toolkit, so only the settings are tested here.
+ */
+public class JavaFxChartRendererTest {
+
+	@Test
+	public void testSize() {
+		final JavaFxChartRenderer renderer = new JavaFxChartRenderer();
+		Assert.assertEquals(Java2DChartRenderer.DEFAULT_WIDTH, renderer.getWidth());
+		Assert.assertEquals(Java2DChartRenderer.DEFAULT_HEIGHT, renderer.getHeight());
+
+		final JavaFxChartRenderer sizedRenderer = new JavaFxChartRenderer(300, 200);
+		Assert.assertEquals(300, sizedRenderer.getWidth());
+		Assert.assertEquals(200, sizedRenderer.getHeight());
+	}
+
+	@Test
+	public void testFailedConstruction() {
+		AnalysisTestUtils.testFailedConstruction(() -> new JavaFxChartRenderer(99, 200));
+		AnalysisTestUtils.testFailedConstruction(() -> new JavaFxChartRenderer(300, 99));
+	}
+}
@@ -0,0 +1,24 @@
+package com.story_inspector.controllers.analyzerParameters;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+public class IntegerControlTest {
+
+	@Test
+	public void testParseValue() {
+		Assert.assertEquals(Integer.valueOf(12), IntegerControl.parseValue("12"));
+		Assert.assertEquals(Integer.valueOf(-3), IntegerControl.parseValue(" -3\t"));
+		Assert.assertEquals(Integer.valueOf(Integer.MAX_VALUE), IntegerControl.parseValue(String.valueOf(Integer.MAX_VALUE)));
+	}
+
+	@Test
+	public void testParseInvalidValue() {
+		Assert.assertNull(IntegerControl.parseValue(""));
+		Assert.assertNull(IntegerControl.parseValue("twelve"));
+		Assert.assertNull(IntegerControl.parseValue("1.5"));
+		Assert.assertNull(IntegerControl.parseValue("1 2"));
+		Assert.assertNull(IntegerControl.parseValue(String.valueOf(Integer.MAX_VALUE + 1L)));
+	}
+}
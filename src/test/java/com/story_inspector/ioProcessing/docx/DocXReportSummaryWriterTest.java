@@ -0,0 +1,275 @@
+package com.story_inspector.ioProcessing.docx;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.docx4j.XmlUtils;
+import org.docx4j.dml.chart.CTChartSpace;
+import org.docx4j.dml.chart.CTScatterChart;
+import org.docx4j.dml.chart.CTScatterSer;
+import org.docx4j.dml.wordprocessingDrawing.Inline;
+import org.docx4j.openpackaging.io.SaveToZipFile;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.PartName;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPart;
+import org.docx4j.wml.Drawing;
+import org.docx4j.wml.P;
+import org.docx4j.wml.R;
+import org.docx4j.wml.Tbl;
+import org.docx4j.wml.Tc;
+import org.docx4j.wml.Text;
+import org.docx4j.wml.Tr;
+import org.junit.Test;
+
+import com.story_inspector.analysis.summary.AnalyzerSummaryTable;
+import com.story_inspector.analysis.summary.SummaryTableWriter;
+import com.story_inspector.analysis.summary.charts.Chart;
+import com.story_inspector.analysis.summary.charts.ChartImageCache;
+import com.story_inspector.analysis.summary.charts.ChartOutput;
+import com.story_inspector.analysis.summary.charts.ChartRenderer;
+import com.story_inspector.analysis.summary.charts.ChartSeries;
+import com.story_inspector.analysis.summary.charts.Java2DChartRenderer;
+
+import junit.framework.Assert;
+
+public class DocXReportSummaryWriterTest {
+
+	private static final Chart CHART = new Chart("Heat Map", "Text Position", "# Found", 0, 100, 50,
+			Arrays.asList(new ChartSeries("Found", new double[] { 0, 50 }, new double[] { 2, 0.5 })));
+
+	@Test
+	public void testWriteNativeChart() throws Exception {
+		final WordprocessingMLPackage documentPackage = WordprocessingMLPackage.createPackage();
+		final DocXReportSummaryWriter writer = new DocXReportSummaryWriter(new DocXExtractedDocument(documentPackage, Collections.emptyList()));
+		writer.writeHeading("Summary", 0);
+		writer.writeChart(CHART);
+		writer.writeChart(CHART);
+		writer.endReportSummary();
+
+		// Survives a save and reload, with each chart in its own part holding the chart's data
+		final ByteArrayOutputStream saved = new ByteArrayOutputStream();
+		new SaveToZipFile(documentPackage).save(saved);
+		final WordprocessingMLPackage reloaded = WordprocessingMLPackage.load(new ByteArrayInputStream(saved.toByteArray()));
+
+		final Part chartPart = reloaded.getParts().get(new PartName("/word/charts/storyInspectorChart1.xml"));
+		Assert.assertTrue(chartPart instanceof org.docx4j.openpackaging.parts.DrawingML.Chart);
+		Assert.assertNotNull(reloaded.getParts().get(new PartName("/word/charts/storyInspectorChart2.xml")));
+		final CTChartSpace chartSpace = ((org.docx4j.openpackaging.parts.DrawingML.Chart) chartPart).getJaxbElement();
+		final CTScatterSer series = chartSpace.getChart().getPlotArea().getAreaChartOrArea3DChartOrLineChart().stream()
+				.filter(c -> c instanceof CTScatterChart).map(c -> ((CTScatterChart) c).getSer().get(0)).findFirst().get();
+		Assert.assertEquals("Found", series.getTx().getV());
+		Assert.assertEquals(2, series.getYVal().getNumLit().getPt().size());
+		Assert.assertEquals("0.5", series.getYVal().getNumLit().getPt().get(1).getV());
+
+		// The chart paragraph refers to its part
+		final P chartParagraph = (P) reloaded.getMainDocumentPart().getContent().get(1);
+		final Drawing drawing = (Drawing) XmlUtils.unwrap(((R) chartParagraph.getContent().get(0)).getContent().get(0));
+		final Inline inline = (Inline) drawing.getAnchorOrInline().get(0);
+		Assert.assertEquals("http://schemas.openxmlformats.org/drawingml/2006/chart", inline.getGraphic().getGraphicData().getUri());
+	}
+
+	/**
+	 * Renderer drawing each chart as an image as wide as its title says. The first chart is slow to draw, and charts titled "Broken" fail.
+	 */
+	private static class TitleWidthRenderer implements ChartRenderer {
+		@Override
+		public BufferedImage render(final Chart chart) {
+			if (chart.getTitle().equals("Broken"))
+				throw new IllegalStateException("Broken chart");
+			final int width = Integer.parseInt(chart.getTitle());
+			if (width == 30) {
+				try {
+					Thread.sleep(200);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return new BufferedImage(width, getHeight(), BufferedImage.TYPE_INT_RGB);
+		}
+
+		@Override
+		public int getWidth() {
+			return 10;
+		}
+
+		@Override
+		public int getHeight() {
+			return 10;
+		}
+	}
+
+	private static Chart createTitledChart(final String title) {
+		return new Chart(title, "X", "Y", 0, 1, 1, Arrays.asList(new ChartSeries("Found", new double[] { 0, 1 }, new double[] { 0, 1 })));
+	}
+
+	private static DocXReportSummaryWriter createRasterWriter(final WordprocessingMLPackage documentPackage) {
+		return new DocXReportSummaryWriter(new DocXExtractedDocument(documentPackage, Collections.emptyList()), ChartOutput.RASTER,
+				new TitleWidthRenderer(), null);
+	}
+
+	/**
+	 * Waits for the image encoding threads of all writers to finish, failing if they don't.
+	 */
+	private static void assertImageThreadsReleased() throws InterruptedException {
+		for (int i = 0; i < 100; ++i) {
+			if (Thread.getAllStackTraces().keySet().stream()
+					.noneMatch(t -> t.isAlive() && t.getName().equals(DocXReportSummaryWriter.IMAGE_THREAD_NAME)))
+				return;
+			Thread.sleep(50);
+		}
+		Assert.fail("Image encoding threads were not released");
+	}
+
+	@Test
+	public void testImagesInDocumentOrder() throws Exception {
+		final WordprocessingMLPackage documentPackage = WordprocessingMLPackage.createPackage();
+		final DocXReportSummaryWriter writer = createRasterWriter(documentPackage);
+		writer.writeChart(createTitledChart("30"));
+		writer.writeText("Between");
+		writer.writeChart(createTitledChart("10"));
+		writer.writeImage(new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB));
+		writer.endReportSummary();
+		assertImageThreadsReleased();
+
+		// The slow first image is still first
+		final List<Integer> imageWidths = new ArrayList<>();
+		final List<Object> content = documentPackage.getMainDocumentPart().getContent();
+		for (final Object paragraph : content) {
+			for (final Object run : ((P) paragraph).getContent()) {
+				for (final Object runContent : ((R) run).getContent()) {
+					if (XmlUtils.unwrap(runContent) instanceof Drawing) {
+						final Inline inline = (Inline) ((Drawing) XmlUtils.unwrap(runContent)).getAnchorOrInline().get(0);
+						final String relationshipId = inline.getGraphic().getGraphicData().getPic().getBlipFill().getBlip().getEmbed();
+						final BinaryPart imagePart = (BinaryPart) documentPackage.getMainDocumentPart().getRelationshipsPart()
+								.getPart(relationshipId);
+						final ByteArrayOutputStream imageBytes = new ByteArrayOutputStream();
+						imagePart.writeDataToOutputStream(imageBytes);
+						imageWidths.add(ImageIO.read(new ByteArrayInputStream(imageBytes.toByteArray())).getWidth());
+					}
+				}
+			}
+		}
+		Assert.assertEquals(Arrays.asList(30, 10, 20), imageWidths);
+		Assert.assertEquals(4, content.size());
+	}
+
+	@Test
+	public void testFailedImageEndingSummary() throws Exception {
+		// The slow first image holds back the failure until the summary is ended
+		final DocXReportSummaryWriter writer = createRasterWriter(WordprocessingMLPackage.createPackage());
+		writer.writeChart(createTitledChart("30"));
+		writer.writeChart(createTitledChart("Broken"));
+		try {
+			writer.endReportSummary();
+			Assert.fail("Expected RuntimeException");
+		} catch (final RuntimeException e) {
+			Assert.assertEquals("Broken chart", e.getCause().getMessage());
+		}
+		assertImageThreadsReleased();
+	}
+
+	@Test
+	public void testFailedImageWhileWriting() throws Exception {
+		// The failure surfaces when a later image is written, and the summary is never ended
+		final DocXReportSummaryWriter writer = createRasterWriter(WordprocessingMLPackage.createPackage());
+		try {
+			writer.writeChart(createTitledChart("Broken"));
+			for (int i = 0; i < 100; ++i) {
+				Thread.sleep(10);
+				writer.writeChart(createTitledChart("10"));
+			}
+			Assert.fail("Expected RuntimeException");
+		} catch (final RuntimeException e) {
+			Assert.assertEquals("Broken chart", e.getCause().getMessage());
+		}
+		assertImageThreadsReleased();
+	}
+
+	/**
+	 * Returns the text of each cell of the row.
+	 */
+	private static List<String> getCellTexts(final Tr row) {
+		final List<String> texts = new ArrayList<>();
+		for (final Object cell : row.getContent()) {
+			final P paragraph = (P) ((Tc) XmlUtils.unwrap(cell)).getContent().get(0);
+			final R run = (R) paragraph.getContent().get(0);
+			texts.add(((Text) XmlUtils.unwrap(run.getContent().get(0))).getValue());
+		}
+		return texts;
+	}
+
+	@Test
+	public void testWriteTable() throws Exception {
+		final WordprocessingMLPackage documentPackage = WordprocessingMLPackage.createPackage();
+		final DocXReportSummaryWriter writer = new DocXReportSummaryWriter(new DocXExtractedDocument(documentPackage, Collections.emptyList()));
+		new AnalyzerSummaryTable(Arrays.asList("Row", "Count"), 2, row -> Arrays.asList(String.valueOf(row + 1), String.valueOf(row * 10)))
+				.write(writer);
+		new AnalyzerSummaryTable(null, null, new String[][] { { "a", "b", "c" } }).write(writer);
+		writer.endReportSummary();
+
+		// Header row repeats on each page, and is followed by a row per generated row
+		final List<Object> content = documentPackage.getMainDocumentPart().getContent();
+		final Tbl table = (Tbl) XmlUtils.unwrap(content.get(0));
+		Assert.assertEquals(2, table.getTblGrid().getGridCol().size());
+		Assert.assertEquals(3, table.getContent().size());
+		final Tr header = (Tr) XmlUtils.unwrap(table.getContent().get(0));
+		Assert.assertNotNull(header.getTrPr());
+		Assert.assertEquals(Arrays.asList("Row", "Count"), getCellTexts(header));
+		final Tr secondRow = (Tr) XmlUtils.unwrap(table.getContent().get(2));
+		Assert.assertNull(secondRow.getTrPr());
+		Assert.assertEquals(Arrays.asList("2", "10"), getCellTexts(secondRow));
+
+		// Without column headers, there is no header row
+		final Tbl headerlessTable = (Tbl) XmlUtils.unwrap(content.get(1));
+		Assert.assertEquals(3, headerlessTable.getTblGrid().getGridCol().size());
+		Assert.assertEquals(1, headerlessTable.getContent().size());
+		Assert.assertEquals(Arrays.asList("a", "b", "c"), getCellTexts((Tr) XmlUtils.unwrap(headerlessTable.getContent().get(0))));
+	}
+
+	@Test
+	public void testTableValidation() throws Exception {
+		final DocXReportSummaryWriter writer = new DocXReportSummaryWriter(
+				new DocXExtractedDocument(WordprocessingMLPackage.createPackage(), Collections.emptyList()));
+		final SummaryTableWriter tableWriter = writer.startTable(Arrays.asList("One", "Two"));
+		try {
+			tableWriter.writeRow(Arrays.asList("a"));
+			Assert.fail("Expected IllegalArgumentException");
+		} catch (final IllegalArgumentException e) {
+			// Expected
+		}
+		try {
+			writer.writeText("Inside table");
+			Assert.fail("Expected RuntimeException");
+		} catch (final RuntimeException e) {
+			// Expected
+		}
+		tableWriter.endTable();
+		try {
+			tableWriter.writeRow(Arrays.asList("a", "b"));
+			Assert.fail("Expected RuntimeException");
+		} catch (final RuntimeException e) {
+			// Expected
+		}
+		writer.endReportSummary();
+	}
+
+	@Test
+	public void testWriteRasterChart() throws Exception {
+		final WordprocessingMLPackage documentPackage = WordprocessingMLPackage.createPackage();
+		final DocXReportSummaryWriter writer = new DocXReportSummaryWriter(new DocXExtractedDocument(documentPackage, Collections.emptyList()),
+				ChartOutput.RASTER, new Java2DChartRenderer(), new ChartImageCache(1 << 20, null, 0));
+		writer.writeChart(CHART);
+		writer.endReportSummary();
+
+		Assert.assertNull(documentPackage.getParts().get(new PartName("/word/charts/storyInspectorChart1.xml")));
+		Assert.assertTrue(documentPackage.getParts().getParts().keySet().stream().anyMatch(n -> n.getName().startsWith("/word/media/")));
+	}
+}
@@ -0,0 +1,119 @@
+package com.story_inspector.ioProcessing.docx;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.PartName;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import com.story_inspector.analysis.reports.Report;
+import com.story_inspector.analysis.summary.ReportSummaryWriter;
+import com.story_inspector.analysis.summary.charts.Chart;
+import com.story_inspector.analysis.summary.charts.ChartImageCache;
+import com.story_inspector.analysis.summary.charts.ChartOutput;
+import com.story_inspector.analysis.summary.charts.ChartSeries;
+import com.story_inspector.progress.ProgressMonitor;
+import com.story_inspector.story.Paragraph;
+import com.story_inspector.story.Story;
+
+import junit.framework.Assert;
+
+public class DocXReportTranscriberTest {
+
+	private static final Chart CHART = new Chart("Heat Map", "Text Position", "# Found", 0, 100, 50,
+			Arrays.asList(new ChartSeries("Found", new double[] { 0, 50 }, new double[] { 2, 0.5 })));
+
+	private static final ProgressMonitor NO_OP_MONITOR = (percentage, message) -> {
+	};
+
+	/**
+	 * Transcribes a report without comments whose summary is a single chart, returning the reloaded document.
+	 */
+	static WordprocessingMLPackage transcribeChartReport(final DocXReportTranscriber transcriber) throws Exception {
+		final Story story = EasyMock.createMock(Story.class);
+		EasyMock.expect(story.getChildrenAtLevel(Paragraph.class)).andReturn(Collections.emptyList()).anyTimes();
+		final Report report = EasyMock.createMock(Report.class);
+		EasyMock.expect(report.getReportSections()).andReturn(Collections.emptyList()).anyTimes();
+		EasyMock.expect(report.getStory()).andReturn(story).anyTimes();
+		report.writeSummary(EasyMock.anyObject(ReportSummaryWriter.class));
+		EasyMock.expectLastCall().andAnswer(() -> {
+			final ReportSummaryWriter writer = (ReportSummaryWriter) EasyMock.getCurrentArguments()[0];
+			writer.writeChart(CHART);
+			writer.endReportSummary();
+			return null;
+		});
+		EasyMock.replay(story, report);
+
+		final WordprocessingMLPackage documentPackage = WordprocessingMLPackage.createPackage();
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		transcriber.transcribeReport(report, new DocXExtractedDocument(documentPackage, Collections.emptyList()), output, NO_OP_MONITOR);
+		EasyMock.verify(report);
+		return WordprocessingMLPackage.load(new ByteArrayInputStream(output.toByteArray()));
+	}
+
+	private static boolean hasImage(final WordprocessingMLPackage documentPackage) {
+		return documentPackage.getParts().getParts().keySet().stream().anyMatch(n -> n.getName().startsWith("/word/media/"));
+	}
+
+	@Test
+	public void testNativeCharts() throws Exception {
+		final DocXReportTranscriber transcriber = new DocXReportTranscriber();
+		Assert.assertEquals(ChartOutput.VECTOR, transcriber.getChartOutput());
+
+		final WordprocessingMLPackage result = transcribeChartReport(transcriber);
+		Assert.assertNotNull(result.getParts().get(new PartName("/word/charts/storyInspectorChart1.xml")));
+		Assert.assertFalse(hasImage(result));
+	}
+
+	@Test
+	public void testImageCharts() throws Exception {
+		final DocXReportTranscriber transcriber = new DocXReportTranscriber();
+		transcriber.setChartOutput(ChartOutput.RASTER);
+
+		final WordprocessingMLPackage result = transcribeChartReport(transcriber);
+		Assert.assertNull(result.getParts().get(new PartName("/word/charts/storyInspectorChart1.xml")));
+		Assert.assertTrue(hasImage(result));
+	}
+
+	@Test
+	public void testImageChartsCached() throws Exception {
+		final Path directory = Files.createTempDirectory("chart-cache");
+		try {
+			final ChartImageCache cache = new ChartImageCache(1 << 20, directory, 10);
+			final DocXReportTranscriber transcriber = new DocXReportTranscriber(cache);
+			transcriber.setChartOutput(ChartOutput.VECTOR);
+			transcribeChartReport(transcriber);
+			Assert.assertEquals(0, cache.getNumMemoryEntries());
+
+			// Drawn once, then reused from memory, leaving only the image itself on disk
+			transcriber.setChartOutput(ChartOutput.RASTER);
+			transcribeChartReport(transcriber);
+			transcribeChartReport(transcriber);
+			Assert.assertEquals(1, cache.getNumMemoryEntries());
+			try (Stream<Path> files = Files.list(directory)) {
+				final List<String> fileNames = files.map(f -> f.getFileName().toString()).collect(Collectors.toList());
+				Assert.assertEquals(1, fileNames.size());
+				Assert.assertTrue(fileNames.get(0).endsWith(".png"));
+			}
+		} finally {
+			try (Stream<Path> paths = Files.walk(directory)) {
+				paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullChartOutput() {
+		new DocXReportTranscriber().setChartOutput(null);
+	}
+}
@@ -0,0 +1,93 @@
+package com.story_inspector.ioProcessing.docx;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.docx4j.openpackaging.io.SaveToZipFile;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.wml.Tbl;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.story_inspector.analysis.summary.AnalyzerSummaryTable;
+
+import junit.framework.Assert;
+
+/**
+ * Writes a large {@link AnalyzerSummaryTable}, such as a per sentence table of a novel, into a DOCX report summary: once from rows generated as
+ * they are streamed, and once from a fully materialized {@code String[][]}. Not run as part of the regular test suite, run with
+ * {@code mvn test -Dtest=DocXSummaryTableBenchmark}.
+ *
+ * @author mizitch
+ *
+ */
+public class DocXSummaryTableBenchmark {
+	private static final Logger log = LoggerFactory.getLogger(DocXSummaryTableBenchmark.class);
+
+	private static final int ITERATIONS = 3;
+	private static final int NUM_ROWS = 20000;
+	private static final List<String> COLUMN_HEADERS = Arrays.asList("Sentence", "Words", "Characters", "Dialogue", "Mean word length");
+
+	@Test
+	public void benchmarkLargeTable() throws Exception {
+		// Compact per row data, as an analyzer would hold it
+		final int[] wordCounts = new int[NUM_ROWS];
+		final int[] characterCounts = new int[NUM_ROWS];
+		for (int i = 0; i < NUM_ROWS; ++i) {
+			wordCounts[i] = 3 + i * 7 % 40;
+			characterCounts[i] = wordCounts[i] * (4 + i % 3);
+		}
+
+		long streamedNanos = Long.MAX_VALUE;
+		long materializedNanos = Long.MAX_VALUE;
+		for (int i = 0; i < ITERATIONS; ++i) {
+			long start = System.nanoTime();
+			final AnalyzerSummaryTable streamed = new AnalyzerSummaryTable(COLUMN_HEADERS, NUM_ROWS,
+					row -> Arrays.asList(String.valueOf(row + 1), String.valueOf(wordCounts[row]), String.valueOf(characterCounts[row]),
+							row % 4 == 0 ? "Yes" : "No", String.format("%.1f", characterCounts[row] / (double) wordCounts[row])));
+			Assert.assertEquals(NUM_ROWS + 1, writeTable(streamed));
+			streamedNanos = Math.min(streamedNanos, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			final String[][] data = new String[NUM_ROWS][];
+			final List<String> rowHeaders = new ArrayList<>();
+			for (int row = 0; row < NUM_ROWS; ++row) {
+				rowHeaders.add(String.valueOf(row + 1));
+				data[row] = new String[] { String.valueOf(wordCounts[row]), String.valueOf(characterCounts[row]), row % 4 == 0 ? "Yes" : "No",
+						String.format("%.1f", characterCounts[row] / (double) wordCounts[row]) };
+			}
+			final AnalyzerSummaryTable materialized = new AnalyzerSummaryTable(rowHeaders, COLUMN_HEADERS.subList(1, COLUMN_HEADERS.size()), data);
+			Assert.assertEquals(NUM_ROWS + 1, writeTable(materialized));
+			materializedNanos = Math.min(materializedNanos, System.nanoTime() - start);
+		}
+
+		log.info(String.format("%d rows, %d cells: streamed %.1f ms, materialized %.1f ms", NUM_ROWS, NUM_ROWS * COLUMN_HEADERS.size(),
+				streamedNanos / 1e6, materializedNanos / 1e6));
+	}
+
+	/**
+	 * Writes the table into the summary of an empty document, saves the document and returns the number of rows written.
+	 */
+	private static int writeTable(final AnalyzerSummaryTable table) throws Exception {
+		final WordprocessingMLPackage documentPackage = WordprocessingMLPackage.createPackage();
+		final DocXReportSummaryWriter writer = new DocXReportSummaryWriter(new DocXExtractedDocument(documentPackage, Collections.emptyList()));
+		table.write(writer);
+		writer.endReportSummary();
+
+		// Discards the saved document, only the time to save it matters
+		new SaveToZipFile(documentPackage).save(new OutputStream() {
+			@Override
+			public void write(final int b) {
+			}
+
+			@Override
+			public void write(final byte[] b, final int off, final int len) {
+			}
+		});
+		return ((Tbl) documentPackage.getMainDocumentPart().getContent().get(0)).getContent().size();
+	}
+}
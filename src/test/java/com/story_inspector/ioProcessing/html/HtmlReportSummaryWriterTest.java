@@ -0,0 +1,62 @@
+package com.story_inspector.ioProcessing.html;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+
+import com.story_inspector.analysis.summary.ReportSummaryWriter;
+import com.story_inspector.analysis.summary.SummaryTableWriter;
+import com.story_inspector.analysis.summary.charts.Chart;
+import com.story_inspector.analysis.summary.charts.ChartOutput;
+import com.story_inspector.analysis.summary.charts.ChartSeries;
+import com.story_inspector.analysis.summary.charts.Java2DChartRenderer;
+
+import junit.framework.Assert;
+
+public class HtmlReportSummaryWriterTest {
+
+	@Test
+	public void testWriteSummary() {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ReportSummaryWriter writer = new HtmlReportSummaryWriter(out);
+		writer.writeHeading("Tom & Jerry", 0);
+		writer.addPageBreak();
+		writer.writeHeading("Section", 1);
+		writer.writeKeyValuePairs(Arrays.<Pair<String, String>> asList(ImmutablePair.of("Total #", "<3")));
+		final SummaryTableWriter table = writer.startTable(Arrays.asList("", ""));
+		table.writeRow(Arrays.asList("1", "2"));
+		table.endTable();
+		writer.writeChart(new Chart("Heat Map", "X", "Y", 0, 10, 5,
+				Collections.singletonList(new ChartSeries("Found", new double[] { 0, 5 }, new double[] { 2, 0.5 }))));
+		writer.endReportSummary();
+
+		final String html = new String(out.toByteArray(), StandardCharsets.UTF_8);
+		Assert.assertTrue(html.startsWith("<!DOCTYPE html>"));
+		Assert.assertTrue(html.contains("<h1>Tom &amp; Jerry</h1>"));
+		Assert.assertTrue(html.contains("<h2 class=\"page-break\">Section</h2>"));
+		Assert.assertTrue(html.contains("<span class=\"key\">Total #:</span> &lt;3"));
+		// Empty headers aren't written
+		Assert.assertFalse(html.contains("<th>"));
+		Assert.assertTrue(html.contains("<tr><td>1</td><td>2</td></tr>"));
+		Assert.assertTrue(html.contains("<svg"));
+		Assert.assertTrue(html.trim().endsWith("</html>"));
+	}
+
+	@Test
+	public void testWriteRasterChart() {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ReportSummaryWriter writer = new HtmlReportSummaryWriter(out, ChartOutput.RASTER, new Java2DChartRenderer());
+		writer.writeChart(new Chart("Heat Map", "X", "Y", 0, 10, 5,
+				Collections.singletonList(new ChartSeries("Found", new double[] { 0, 5 }, new double[] { 2, 0.5 }))));
+		writer.endReportSummary();
+
+		final String html = new String(out.toByteArray(), StandardCharsets.UTF_8);
+		Assert.assertFalse(html.contains("<svg"));
+		Assert.assertTrue(html.contains("<img alt=\"An image\" src=\"data:image/png;base64,"));
+	}
+}
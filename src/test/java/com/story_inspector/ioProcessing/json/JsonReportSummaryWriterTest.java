@@ -0,0 +1,62 @@
+package com.story_inspector.ioProcessing.json;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.story_inspector.analysis.summary.ReportSummaryWriter;
+import com.story_inspector.analysis.summary.SummaryTableWriter;
+import com.story_inspector.analysis.summary.charts.Chart;
+import com.story_inspector.analysis.summary.charts.ChartSeries;
+
+import junit.framework.Assert;
+
+public class JsonReportSummaryWriterTest {
+
+	@Test
+	public void testWriteSummary() throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ReportSummaryWriter writer = new JsonReportSummaryWriter(out);
+		writer.writeHeading("\"Title\"", 0);
+		writer.writeText("Some text");
+		writer.addPageBreak();
+		writer.writeKeyValuePairs(Arrays.<Pair<String, String>> asList(ImmutablePair.of("Key", "Value")));
+		final SummaryTableWriter table = writer.startTable(Arrays.asList("A", "B"));
+		table.writeRow(Arrays.asList("1", "2"));
+		table.writeRow(Arrays.asList("3", "4"));
+		table.endTable();
+		writer.writeChart(new Chart("Heat Map", "X", "Y", 0, 10, 5,
+				Collections.singletonList(new ChartSeries("Found", new double[] { 0, 5 }, new double[] { 2, 0.5 }))));
+		writer.endReportSummary();
+
+		final JsonNode components = new ObjectMapper().readTree(out.toByteArray()).get("components");
+		Assert.assertEquals(6, components.size());
+		Assert.assertEquals("heading", components.get(0).get("type").asText());
+		Assert.assertEquals("\"Title\"", components.get(0).get("text").asText());
+		Assert.assertEquals(0, components.get(0).get("level").asInt());
+		Assert.assertEquals("Some text", components.get(1).get("text").asText());
+		Assert.assertEquals("pageBreak", components.get(2).get("type").asText());
+		Assert.assertEquals("Value", components.get(3).get("pairs").get(0).get("value").asText());
+		Assert.assertEquals("B", components.get(4).get("columns").get(1).asText());
+		Assert.assertEquals("3", components.get(4).get("rows").get(1).get(0).asText());
+		Assert.assertEquals(0.5, components.get(5).get("series").get(0).get("y").get(1).asDouble());
+	}
+
+	@Test
+	public void testTableMustBeEnded() {
+		final ReportSummaryWriter writer = new JsonReportSummaryWriter(new ByteArrayOutputStream());
+		writer.startTable(Arrays.asList("A"));
+		try {
+			writer.writeText("Text");
+			Assert.fail("Expected RuntimeException");
+		} catch (final RuntimeException e) {
+			// Expected
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.story_inspector.test.limitedIntegration.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.story_inspector.analysis.features.StoryFeature;
+import com.story_inspector.analysis.features.StoryFeatureRegistry;
+import com.story_inspector.analysis.features.StoryFeatures;
+import com.story_inspector.analysis.statistics.RangeSweep;
+import com.story_inspector.analysis.summary.FrequencyStatisticsSummaryComponent;
+import com.story_inspector.ioProcessing.ExtractedDocument;
+import com.story_inspector.ioProcessing.IoModuleRegistry;
+import com.story_inspector.story.Story;
+import com.story_inspector.story.TextNode;
+import com.story_inspector.story.TextRange;
+import com.story_inspector.story.Token;
+import com.story_inspector.test.SpringBasedTest;
+
+import junit.framework.Assert;
+
+/**
+ * Compares the per node match counts of {@link FrequencyStatisticsSummaryComponent}, computed with a {@link RangeSweep}, against the previous nested
+ * loop over nodes and matches on a full novel. Not run as part of the regular test suite, run with {@code mvn test -Dtest=FrequencyStatisticsBenchmark}.
+ *
+ * @author mizitch
+ *
+ */
+public class FrequencyStatisticsBenchmark extends SpringBasedTest {
+	private static final Logger log = LoggerFactory.getLogger(FrequencyStatisticsBenchmark.class);
+
+	private static final int ITERATIONS = 5;
+
+	@Autowired
+	private IoModuleRegistry ioModuleRegistry;
+
+	@Test
+	public void benchmarkMonteCristo() throws Exception {
+		final ExtractedDocument document = this.ioModuleRegistry.getDocumentExtractorsForFileType("docx").iterator().next()
+				.extractDocument(getClass().getResourceAsStream("/story_files/count_of_monte_cristo.docx"), (percentage, message) -> {
+				});
+		final Story story = this.ioModuleRegistry.getStoryParsers().iterator().next().parseStory(document, (percentage, message) -> {
+		});
+		final StoryFeatureRegistry features = StoryFeatureRegistry.forStory(story);
+
+		// Common words give thousands of matches, as a frequent word search would
+		final List<TextRange> matches = new ArrayList<>();
+		for (final Token token : features.get(StoryFeatures.TOKENS)) {
+			if (token.isWord() && Arrays.asList("said", "count", "eyes", "hand").contains(token.getWord().toLowerCase()))
+				matches.add(token.getRange());
+		}
+
+		final List<StoryFeature<? extends List<? extends TextNode>>> levels = Arrays.asList(StoryFeatures.CHAPTERS, StoryFeatures.SCENES,
+				StoryFeatures.PARAGRAPHS, StoryFeatures.SENTENCES);
+		for (final StoryFeature<? extends List<? extends TextNode>> level : levels)
+			Assert.assertTrue(Arrays.equals(countByNestedLoop(features.get(level), matches), new RangeSweep(matches).countPerNode(features.get(level))));
+
+		long nestedLoopNanos = Long.MAX_VALUE;
+		long sweepNanos = Long.MAX_VALUE;
+		for (int i = 0; i < ITERATIONS; ++i) {
+			long start = System.nanoTime();
+			for (final StoryFeature<? extends List<? extends TextNode>> level : levels)
+				countByNestedLoop(features.get(level), matches);
+			nestedLoopNanos = Math.min(nestedLoopNanos, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			final RangeSweep sweep = new RangeSweep(matches);
+			for (final StoryFeature<? extends List<? extends TextNode>> level : levels)
+				sweep.countPerNode(features.get(level));
+			sweepNanos = Math.min(sweepNanos, System.nanoTime() - start);
+		}
+
+		// Timings are only reported, asserting on them would make the benchmark depend on the machine's load
+		log.info(String.format("%d matches, %d sentences: nested loop %.1f ms, sweep %.1f ms", matches.size(),
+				features.get(StoryFeatures.SENTENCES).size(), nestedLoopNanos / 1e6, sweepNanos / 1e6));
+	}
+
+	/**
+	 * The previous implementation, testing every match against every node.
+	 */
+	private static int[] countByNestedLoop(final List<? extends TextNode> nodes, final Collection<TextRange> matches) {
+		final int[] counts = new int[nodes.size()];
+		for (int n = 0; n < nodes.size(); ++n) {
+			for (final TextRange range : matches) {
+				if (nodes.get(n).getRange().intersects(range))
+					counts[n]++;
+			}
+		}
+		return counts;
+	}
+}